@@ -0,0 +1,187 @@
+package control.db;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import model.description.DPrimitive;
+import model.description.DTheorem;
+import model.logic.Implication;
+import model.logic.Implication.ImplicationType;
+
+/**
+ * Measures how long reads from a {@link DeductionBase} take while a theorem is saved over and over, for each
+ * {@link ConnectionProfile}. Kept in the bench directory apart from the shipped sources, compiled against them. Run
+ * headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:bench/bin:lib/* control.db.ReadLatencyBenchmark [seconds] [base file]</code><br><br>
+ *
+ * Each profile runs on a fresh copy of the base file, by default 'data/sqlite/variables.sqlite', which is left
+ * untouched. Reads are first timed alone and then with a second thread saving a theorem of a couple of hundred
+ * statements, one statement altered between saves. Three reads are timed in turn, loading a theorem as the theorem
+ * loader does, fetching a table of primitives as the picker and trainer do, and checking a name as the dialogs do.
+ */
+public class ReadLatencyBenchmark {
+
+	private static final int STATEMENTS = 200;
+
+	private static final String WRITTEN = "benchmark-written", READ = "benchmark-read";
+
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args 				Optionally the number of seconds to time each phase, and the base file to copy.
+	 * @throws Exception 		If the base file can't be copied.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+
+		Path original = Paths.get(args.length > 1 ? args[1] : "data/sqlite/variables.sqlite");
+
+		System.out.println("Read latency in microseconds, " + seconds + " s per phase.");
+		System.out.println(String.format("%-8s %-10s %-10s %8s %8s %8s %8s %8s %8s", "profile", "writes", "read", "count", "mean", "p50", "p95", "p99", "max"));
+
+		for (ConnectionProfile profile : ConnectionProfile.values()) {
+
+			Path copy = Files.createTempFile("deductionbase", ".sqlite");
+
+			Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+
+			try { run(profile, copy.toString(), seconds); }
+
+			finally { delete(copy); }
+		}
+	}
+
+
+	private static void run(ConnectionProfile profile, String path, int seconds) throws InterruptedException {
+
+		DeductionBase base = new DeductionBase(path, false, profile);
+
+		base.insert(theorem(READ, 50), true);
+
+		DTheorem written = theorem(WRITTEN, STATEMENTS);
+
+		base.insert(written, true);
+
+		ArrayList<String> tables = base.fetchNames("Primitivetables");
+
+		String primitives = tables.isEmpty() ? "Standard" : tables.get(0);
+
+		report(profile, "idle", time(base, primitives, seconds));
+
+		final boolean[] running = { true };
+		final int[] saves = { 0 };
+
+		Thread saver = new Thread(() -> {
+
+			int i = 0;
+
+			while (running[0]) {
+
+				written.appendPrimitive(new DPrimitive((char) ('a' + i++ % 26)));
+
+				if (i % 10 == 0) written.finalisePreliminary(new DPrimitive(Implication.makeValue(ImplicationType.RIGHT)));
+
+				if (base.update(written) >= 0) saves[0]++;
+			}
+		}, "benchmark saver");
+
+		saver.start();
+
+		long[][] latencies = time(base, primitives, seconds);
+
+		running[0] = false;
+
+		saver.join();
+
+		report(profile, "saving", latencies);
+
+		System.out.println(String.format("%-8s %d saves, %s, %s", "", saves[0], base.getWriter(), base.getReadPool()));
+
+		base.closeDB();
+	}
+
+	private static long[][] time(DeductionBase base, String primitives, int seconds) {
+
+		long[][] latencies = { new long[1024], new long[1024], new long[1024] };
+		int[] counts = new int[3];
+
+		long end = System.nanoTime() + seconds * 1_000_000_000L;
+
+		for (int round = 0; System.nanoTime() < end; round++) {
+
+			int kind = round % 3;
+
+			long start = System.nanoTime();
+
+			switch (kind) {
+				case 0: base.fetchTheorem(READ); break;
+				case 1: base.fetchPrimitives(primitives); break;
+				case 2: base.contains(READ, "Theorems", "name"); break;
+			}
+
+			long elapsed = System.nanoTime() - start;
+
+			if (counts[kind] == latencies[kind].length) latencies[kind] = Arrays.copyOf(latencies[kind], 2*counts[kind]);
+
+			latencies[kind][counts[kind]++] = elapsed;
+		}
+
+		for (int kind = 0; kind < 3; kind++) latencies[kind] = Arrays.copyOf(latencies[kind], counts[kind]);
+
+		return latencies;
+	}
+
+	private static void report(ConnectionProfile profile, String writes, long[][] latencies) {
+
+		String[] reads = { "theorem", "primitives", "contains" };
+
+		for (int kind = 0; kind < 3; kind++) {
+
+			long[] sorted = latencies[kind].clone();
+
+			Arrays.sort(sorted);
+
+			int n = sorted.length;
+
+			if (n == 0) continue;
+
+			long sum = 0;
+
+			for (long l : sorted) sum += l;
+
+			System.out.println(String.format("%-8s %-10s %-10s %8d %8d %8d %8d %8d %8d", profile, writes, reads[kind], n,
+					sum / n / 1000, sorted[n / 2] / 1000, sorted[(int) (n * 0.95)] / 1000, sorted[(int) (n * 0.99)] / 1000, sorted[n - 1] / 1000));
+		}
+	}
+
+	private static DTheorem theorem(String name, int statements) {
+
+		DTheorem theorem = new DTheorem(name);
+
+		theorem.setName(name);
+
+		for (int i = 0; i < statements; i++) {
+
+			for (char c : "x+y=z".toCharArray()) theorem.appendPrimitive(new DPrimitive(c));
+
+			theorem.finalisePreliminary(new DPrimitive(Implication.makeValue(ImplicationType.EQUIV)));
+		}
+
+		return theorem;
+	}
+
+	private static void delete(Path base) throws IOException {
+
+		for (String suffix : new String[] { "", "-wal", "-shm", "-journal" })
+			new File(base.toString() + suffix).delete();
+	}
+}
@@ -0,0 +1,191 @@
+package model.independent;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares the time to step through and edit a {@link CyclicList} with the linked list it extended before. Kept in the
+ * bench directory apart from the shipped sources, compiled against them. Run from the project directory:<br><br>
+ *
+ * <code>java -cp bin:bench/bin model.independent.CyclicListBenchmark [operations] [rounds] [sizes...]</code><br><br>
+ *
+ * For each size, a list of that many elements is made, and each round steps forward and backward through it with
+ * the iteration position, reads elements by position in order as an edited statement does, and inserts and removes
+ * elements at random positions, at a cursor that moves on slowly, as when typing, and at the ends. Both lists are first run at all sizes, and the first rounds
+ * of each run warm up. Reported are nanoseconds per operation.
+ */
+public class CyclicListBenchmark {
+
+	private static final int WARMUP = 10;
+
+	private static long sink = 0;
+
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args 	Optionally the number of operations of each kind per round, the number of timed rounds and sizes.
+	 */
+	public static void main(String[] args) {
+
+		int operations 	= args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int rounds 		= args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		int[] sizes = { 10, 100, 1000, 10000 };
+
+		if (args.length > 2) {
+
+			sizes = new int[args.length - 2];
+
+			for (int i = 2; i < args.length; i++) sizes[i - 2] = Integer.parseInt(args[i]);
+		}
+
+		System.out.println(operations + " operations of each kind, " + rounds + " rounds.");
+		System.out.println(String.format("%-8s %-8s %12s %12s %12s %12s %12s", "size", "list", "step ns", "get ns", "insert ns", "cursor ns", "ends ns"));
+
+		for (int size : sizes) {													// warms up both lists at all sizes first
+
+			run(new LinkedCyclicList<Integer>(), size, operations, 1);
+			run(new Ring<Integer>(), size, operations, 1);
+		}
+
+		for (int size : sizes) {
+
+			report(size, "linked", 	run(new LinkedCyclicList<Integer>(), size, operations, rounds), operations * (long) rounds);
+			report(size, "ring", 	run(new Ring<Integer>(), size, operations, rounds), operations * (long) rounds);
+		}
+
+		if (sink == 42) System.out.println();							// keeps the elements read alive
+	}
+
+
+	private static void report(int size, String name, long[] time, long operations) {
+		System.out.println(String.format("%-8d %-8s %12.1f %12.1f %12.1f %12.1f %12.1f", size, name, time[0] / (double) operations,
+				time[1] / (double) operations, time[2] / (double) operations, time[3] / (double) operations, time[4] / (double) operations));
+	}
+
+	/** Times the operations on a list, filled first. */
+	private static long[] run(Cyclic<Integer> list, int size, int operations, int rounds) {
+
+		for (int i = 0; i < size; i++) list.add(i);
+
+		Random random = new Random(42);
+
+		long[] time = new long[5];
+
+		for (int round = 0; round < WARMUP + rounds; round++) {
+
+			long t0 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) sink += (i & 1) == 0 ? list.next() : list.next() + list.previous() + list.next();
+
+			long t1 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) sink += list.get(i % size);
+
+			long t2 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) {
+
+				int at = random.nextInt(size);
+
+				list.insertElement(at, i);
+				sink += list.remove(at);
+			}
+
+			long t3 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) {
+
+				int at = size / 3 + (i / 16) % (size / 3 + 1);
+
+				list.insertElement(at, i);
+				sink += list.remove(at);
+			}
+
+			long t4 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) {
+
+				list.addLast(i);
+				sink += list.removeLast();
+				list.addFirst(i);
+				sink += list.removeFirst();
+			}
+
+			long t5 = System.nanoTime();
+
+			if (round < WARMUP) continue;
+
+			time[0] += t1 - t0;
+			time[1] += t2 - t1;
+			time[2] += t3 - t2;
+			time[3] += t4 - t3;
+			time[4] += t5 - t4;
+		}
+
+		return time;
+	}
+
+
+	/**
+	 * The operations compared.
+	 */
+	private interface Cyclic<T> extends List<T> {
+
+		T next();
+
+		T previous();
+
+		boolean insertElement(int index, T element);
+
+		void addFirst(T element);
+
+		void addLast(T element);
+
+		T removeFirst();
+
+		T removeLast();
+	}
+
+	/**
+	 * The list as it is.
+	 */
+	private static final class Ring<T> extends CyclicList<T> implements Cyclic<T> {
+	}
+
+	/**
+	 * The list as it was, a linked list reached by position.
+	 */
+	@SuppressWarnings("serial")
+	private static final class LinkedCyclicList<T> extends LinkedList<T> implements Cyclic<T> {
+
+		private int index = 0;
+
+		public T next() {
+
+			index = (index + 1) % this.size();
+
+			return this.get(index);
+		}
+
+		public T previous() {
+
+			index = (index - 1 + this.size()) % this.size();
+
+			return this.get(index);
+		}
+
+		public boolean insertElement(int index, T element) {
+
+			if (index < 0 || index >= this.size()) return false;
+
+			super.add(index, element);
+
+			if (this.index >= index) this.index++;
+
+			return true;
+		}
+	}
+}
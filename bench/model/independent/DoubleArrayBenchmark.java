@@ -0,0 +1,208 @@
+package model.independent;
+
+import java.util.Random;
+import java.util.Vector;
+
+import model.independent.DoubleArray.Tuple;
+
+/**
+ * Compares the time to find, update and replace bindings in a {@link DoubleArray} and a {@link DoubleArrayList} with
+ * the array searched through from the start that they were before. Kept in the bench directory apart from the shipped
+ * sources, compiled against them. Run from the project directory:<br><br>
+ *
+ * <code>java -cp bin:bench/bin model.independent.DoubleArrayBenchmark [operations] [rounds] [sizes...]</code><br><br>
+ *
+ * For each size, an array of that many bindings of codepoints to key and modifier codes is filled, and each round
+ * looks up random bindings by either coordinate, updates them by the first, and replaces some as the primitives panel
+ * does when bindings are merged, removing the binding of a codepoint and adding it anew. The first rounds warm up.
+ * Reported are nanoseconds per operation.
+ */
+public class DoubleArrayBenchmark {
+
+	private static final int WARMUP = 2;
+
+	private static long sink = 0;
+
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args 	Optionally the number of operations of each kind per round, the number of timed rounds and sizes.
+	 */
+	public static void main(String[] args) {
+
+		int operations 	= args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int rounds 		= args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		int[] sizes = { 1000, 5000, 10000, 50000 };
+
+		if (args.length > 2) {
+
+			sizes = new int[args.length - 2];
+
+			for (int i = 2; i < args.length; i++) sizes[i - 2] = Integer.parseInt(args[i]);
+		}
+
+		System.out.println(operations + " operations of each kind, " + rounds + " rounds.");
+		System.out.println(String.format("%-8s %-8s %12s %12s %12s %12s", "size", "array", "first ns", "second ns", "update ns", "replace ns"));
+
+		for (int size : sizes) {
+
+			report(size, "linear", 		run(new LinearArray<Integer, Long>(), size, operations, rounds), operations * rounds);
+			report(size, "synced", 		run(new Indexed<Integer, Long>(new DoubleArray<Integer, Long>()), size, operations, rounds), operations * rounds);
+			report(size, "unsynced", 	run(new Indexed<Integer, Long>(new DoubleArrayList<Integer, Long>()), size, operations, rounds), operations * rounds);
+		}
+
+		if (sink == 42) System.out.println();							// keeps the found values alive
+	}
+
+
+	private static void report(int size, String name, long[] time, long operations) {
+		System.out.println(String.format("%-8d %-8s %12.1f %12.1f %12.1f %12.1f", size, name,
+				time[0] / (double) operations, time[1] / (double) operations, time[2] / (double) operations, time[3] / (double) operations));
+	}
+
+	/** Times the operations on an array, filled with bindings first. */
+	private static long[] run(Bijection<Integer, Long> array, int size, int operations, int rounds) {
+
+		for (int i = 0; i < size; i++) array.add(new Tuple<Integer, Long>(codepoint(i), shortcut(i)));
+
+		Random random = new Random(42);
+
+		long[] time = new long[4];
+
+		int[] keys = new int[operations];
+
+		for (int round = 0; round < WARMUP + rounds; round++) {
+
+			for (int i = 0; i < operations; i++) keys[i] = random.nextInt(size);
+
+			long t0 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) sink += array.getByFirst(codepoint(keys[i])).second();
+
+			long t1 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) sink += array.getBySecond(shortcut(keys[i])).first();
+
+			long t2 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) sink += array.updateByFirst(codepoint(keys[i]), shortcut(keys[i])).first();
+
+			long t3 = System.nanoTime();
+
+			for (int i = 0; i < operations; i++) {											// as in unionBindings
+
+				Tuple<Integer, Long> found = array.getByFirst(codepoint(keys[i]));
+
+				array.removeByFirst(found.first());
+				array.add(found);
+			}
+
+			long t4 = System.nanoTime();
+
+			if (round < WARMUP) continue;
+
+			time[0] += t1 - t0;
+			time[1] += t2 - t1;
+			time[2] += t3 - t2;
+			time[3] += t4 - t3;
+		}
+
+		return time;
+	}
+
+	private static Integer codepoint(int i) {
+		return 0x21 + i;
+	}
+
+	private static Long shortcut(int i) {
+		return ((long) (i % 8) << 32) | (0x41 + i);
+	}
+
+
+	/**
+	 * The operations compared.
+	 */
+	private interface Bijection<S, T> {
+
+		boolean add(Tuple<S,T> tuple);
+
+		Tuple<S,T> getByFirst(S s);
+
+		Tuple<S,T> getBySecond(T t);
+
+		Tuple<S,T> updateByFirst(S s, T t);
+
+		Tuple<S,T> removeByFirst(S s);
+	}
+
+	/**
+	 * The array indexed by hash.
+	 */
+	private static final class Indexed<S extends Comparable<? super S>, T extends Comparable<? super T>> implements Bijection<S,T> {
+
+		private final DoubleArrayList<S,T> array;
+
+		Indexed(DoubleArrayList<S,T> array) {
+			this.array = array;
+		}
+
+		public boolean add(Tuple<S,T> tuple) { return array.add(tuple); }
+
+		public Tuple<S,T> getByFirst(S s) { return array.getByFirst(s); }
+
+		public Tuple<S,T> getBySecond(T t) { return array.getBySecond(t); }
+
+		public Tuple<S,T> updateByFirst(S s, T t) { return array.updateByFirst(s, t); }
+
+		public Tuple<S,T> removeByFirst(S s) { return array.removeByFirst(s); }
+	}
+
+	/**
+	 * The array as it was, a vector searched through from the start.
+	 */
+	@SuppressWarnings("serial")
+	private static final class LinearArray<S extends Comparable<? super S>, T extends Comparable<? super T>> extends Vector<Tuple<S,T>> implements Bijection<S,T> {
+
+		public Tuple<S,T> getByFirst(S s) {
+
+			for (Tuple<S,T> candidate : this)
+				if (candidate.first().compareTo(s) == 0) return candidate;
+
+			return null;
+		}
+
+		public Tuple<S,T> getBySecond(T t) {
+
+			for (Tuple<S,T> candidate : this)
+				if (candidate.second().compareTo(t) == 0) return candidate;
+
+			return null;
+		}
+
+		public Tuple<S,T> updateByFirst(S s, T t) {
+
+			for (int i = 0; i < this.size(); i++)
+				if (this.get(i).first().compareTo(s) == 0) {
+
+					Tuple<S,T> candidate = new Tuple<S,T>(s, t);
+
+					this.set(i, candidate);
+
+					return candidate;
+				}
+
+			return null;
+		}
+
+		public Tuple<S,T> removeByFirst(S s) {
+
+			Tuple<S,T> found = this.getByFirst(s);
+
+			this.remove(found);
+
+			return found;
+		}
+	}
+}
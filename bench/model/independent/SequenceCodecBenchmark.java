@@ -0,0 +1,135 @@
+package model.independent;
+
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Compares the throughput of the binary form of {@link SequenceEncoder} and {@link SequenceDecoder} with the colon
+ * separated text statements were stored as before, a character per primitive and the decimal codepoint per
+ * composite. Kept in the bench directory apart from the shipped sources, compiled against them. Run from the project
+ * directory:<br><br>
+ *
+ * <code>java -cp bin:bench/bin model.independent.SequenceCodecBenchmark [statements] [length] [rounds]</code><br><br>
+ *
+ * Statements of the given length are generated, mostly primitives with about one in ten a composite. Each round
+ * encodes and decodes all of them both ways, the first rounds warming up. Reported are formals per microsecond
+ * and the total size of the encoded statements.
+ */
+public class SequenceCodecBenchmark {
+
+	/** The codepoints of composites are counted down from the top of the integer range. */
+	private static final int COMPOSITES = Integer.MAX_VALUE - 1000;
+
+	private static final int WARMUP = 5;
+
+	private static int sink = 0;
+
+
+	/**
+	 * Runs the benchmark.
+	 *
+	 * @param args 				Optionally the number of statements, their length and the number of timed rounds.
+	 * @throws IOException 		Not thrown by the byte array streams used.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		int statements 	= args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		int length 		= args.length > 1 ? Integer.parseInt(args[1]) : 40;
+		int rounds 		= args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+		Random random = new Random(42);
+
+		int[][] codepoints = new int[statements][length];
+		boolean[][] composites = new boolean[statements][length];
+
+		for (int i = 0; i < statements; i++)
+			for (int j = 0; j < length; j++) {
+
+				composites[i][j] = random.nextInt(10) == 0;
+				codepoints[i][j] = composites[i][j] ? COMPOSITES - random.nextInt(100) : 0x21 + random.nextInt(0x2200);
+
+				if (codepoints[i][j] == ':') codepoints[i][j]++;				// can't be told from a separator in text
+			}
+
+		String[] strings = new String[statements];
+		byte[][] bytes = new byte[statements][];
+
+		long[] time = new long[4];
+
+		for (int round = 0; round < WARMUP + rounds; round++) {
+
+			long t0 = System.nanoTime();
+
+			for (int i = 0; i < statements; i++) strings[i] = encodeString(codepoints[i], composites[i]);
+
+			long t1 = System.nanoTime();
+
+			for (int i = 0; i < statements; i++) decodeString(strings[i]);
+
+			long t2 = System.nanoTime();
+
+			for (int i = 0; i < statements; i++) bytes[i] = SequenceEncoder.encode(3, codepoints[i], composites[i]);
+
+			long t3 = System.nanoTime();
+
+			for (int i = 0; i < statements; i++) decodeBytes(bytes[i]);
+
+			long t4 = System.nanoTime();
+
+			if (round < WARMUP) continue;
+
+			time[0] += t1 - t0;
+			time[1] += t2 - t1;
+			time[2] += t3 - t2;
+			time[3] += t4 - t3;
+		}
+
+		long formals = (long) statements * length * rounds, stringsize = 0, bytesize = 0;
+
+		for (int i = 0; i < statements; i++) {
+			stringsize += strings[i].getBytes("UTF-8").length;
+			bytesize += bytes[i].length;
+		}
+
+		System.out.println(statements + " statements of " + length + " formals, " + rounds + " rounds.");
+		System.out.println(String.format("%-8s %14s %14s %14s", "path", "encode f/us", "decode f/us", "stored bytes"));
+		System.out.println(String.format("%-8s %14.1f %14.1f %14d", "string", formals * 1000.0 / time[0], formals * 1000.0 / time[1], stringsize));
+		System.out.println(String.format("%-8s %14.1f %14.1f %14d", "binary", formals * 1000.0 / time[2], formals * 1000.0 / time[3], bytesize));
+
+		if (sink == 42) System.out.println();							// keeps the decoded values alive
+	}
+
+
+	/** As statements were stored before, see model.logic.Statement#formalsString(). */
+	private static String encodeString(int[] codepoints, boolean[] composites) {
+
+		String output = "";
+
+		for (int i = 0; i < codepoints.length; i++)
+
+			if (composites[i])
+				output += codepoints[i] + ":";
+			else
+				output += (char) codepoints[i] + ":";
+
+		return output.substring(0, output.length() - 1);
+	}
+
+	/** As statements were read before, by control.db.DeductionBase#fetchTheorem(String). */
+	private static void decodeString(String sequence) {
+
+		for (String token : sequence.split(":"))
+
+			if (token.length() > 1)
+				sink += Integer.parseInt(token);
+			else
+				sink += token.charAt(0);
+	}
+
+	private static void decodeBytes(byte[] sequence) throws IOException {
+
+		SequenceDecoder decoder = new SequenceDecoder(sequence);
+
+		while (decoder.next()) sink += decoder.codepoint();
+	}
+}
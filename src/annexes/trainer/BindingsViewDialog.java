@@ -33,7 +33,7 @@ import view.components.DButton;
  */
 public class BindingsViewDialog extends JFrame {
 
-	private DoubleArray<Described, Shortcut>		bindings  = new DoubleArray<Described, Shortcut>();
+	private DoubleArray<Described, Shortcut>		bindings  = Toolbox.bindings();
 	private ArrayList<BindingContainer> 			containers = new ArrayList<BindingContainer>();
 	
 	private DeductionTrainer parent;
@@ -153,6 +153,8 @@ public class BindingsViewDialog extends JFrame {
 				nfe.printStackTrace();
 			}
 			
+			bindings.reindex();												// the shortcut was altered in place
+			
 			parent.actionPerformed(new ActionEvent(this, 0, "binding"));
 		}
 
@@ -178,7 +180,7 @@ public class BindingsViewDialog extends JFrame {
 	  */
 	public BindingsViewDialog(DeductionTrainer parent) {
 
-		this.bindings = new DoubleArray<Described, Shortcut>();
+		this.bindings = Toolbox.bindings();
 		this.parent = parent;
 
 		buttonslayout.setAlignment(FlowLayout.LEADING);
@@ -104,7 +104,8 @@ public class DeductionTrainer extends TimerTask implements KeyListener, ActionLi
   		
 		DoubleArray<Formal, Shortcut> bindings = Toolbox.formals(mapdialog.getBindings());
 
-  		int inserted = base.insertBindings(bindings, mainframe.currentTheorem());					
+  		base.insertBindingsLater(bindings, mainframe.currentTheorem())
+  			.whenComplete((inserted, failure) -> { if (failure != null) failure.printStackTrace(); });
 		  		
   		mainframe.getPrimitivesPanel().unionBindings(bindings);
 	}
@@ -12,6 +12,7 @@ import java.awt.image.RGBImageFilter;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Objects;
 
 import model.description.DComposite;
 import model.description.DPrimitive;
@@ -244,12 +245,10 @@ public class Toolbox {
 
 		String charsequence = "";
 		
-		Described implication = (description.isClosed()) ? description.removeLast() : null;
-		
-		for (Described described : description) 
-			charsequence += (char) described.getCodepoint();
-				
-		if (description.isClosed()) description.addLast(implication);
+		int n = description.isClosed() ? description.size() - 1 : description.size();		// the implication skipped, not taken off
+
+		for (int i = 0; i < n; i++) 
+			charsequence += (char) description.get(i).getCodepoint();
 		
 		return charsequence;
 	}
@@ -265,6 +264,17 @@ public class Toolbox {
 	}
 
 	
+	/**
+	 * An empty map of bindings of formals to keyboard short-cuts, indexed by the codepoints of the formals and by the
+	 * keys and modifiers of the short-cuts, as they are compared.
+	 *
+	 * @param <F>	The type of formals bound.
+	 * @return A new bijective sortable array of bindings.
+	 */
+	public static <F extends Formal> DoubleArray<F, Shortcut> 		bindings() {
+		return new DoubleArray<F, Shortcut>(Formal::getCodepoint, shortcut -> Objects.hash(shortcut.modifiers, shortcut.keycode));
+	}
+
 	/**
 	 * Describe individually a collection of primitives.
 	 *
@@ -273,7 +283,7 @@ public class Toolbox {
 	 */
 	public static DoubleArray<Described, Shortcut> 		describe(DoubleArray<Formal, Shortcut> formals) {
 
-		DoubleArray<Described, Shortcut> describeds = new DoubleArray<Described, Shortcut>();
+		DoubleArray<Described, Shortcut> describeds = Toolbox.bindings();
 		
 		for (Tuple<Formal, Shortcut> fpair : formals) {
 						
@@ -295,7 +305,7 @@ public class Toolbox {
 	 */
 	public static DoubleArray<Formal, Shortcut> 		formals(DoubleArray<Described, Shortcut> described) {
 
-		DoubleArray<Formal, Shortcut> formals = new DoubleArray<Formal, Shortcut>();
+		DoubleArray<Formal, Shortcut> formals = Toolbox.bindings();
 		
 		for (Tuple<Described, Shortcut> dpair : described) {
 						
@@ -317,7 +327,7 @@ public class Toolbox {
 	 */
 	public static DoubleArray<Formal, Shortcut> 		filterBindings(DoubleArray<Formal, Shortcut> bijection, Formal.FormalType type) {
 		
-		DoubleArray<Formal, Shortcut> selection = new DoubleArray<Formal, Shortcut>();
+		DoubleArray<Formal, Shortcut> selection = Toolbox.bindings();
 		
 		for (Tuple<Formal, Shortcut> pair : bijection) 
 			if (pair.first().getType() == type) selection.add(pair);
@@ -0,0 +1,737 @@
+package control.db;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.UUID;
+
+import control.Toolbox;
+
+/**
+ * Moves the content of a {@link DeductionBase} to and from an archive file, headless and row by row, so that memory
+ * use does not grow with the size of the base. Run from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:lib/* control.db.BaseArchive export|import archive [base file] [resume]</code><br><br>
+ *
+ * The archive is binary, a header followed by one record per row: primitives, composites with their components,
+ * theorems and statements, in that order, and an end record holding the number of records. Statements keep the
+ * binary sequences of the base as they are. Views made by users are not archived.<br><br>
+ *
+ * Export reads the base on one connection, held for the whole export. An export that was broken off is resumed by 
+ * keeping the complete records already written and skipping as many rows of the base, which is right as long as the 
+ * base hasn't changed since.<br><br>
+ *
+ * Import writes in batches of {@value #BATCH} records, each batch one transaction that also records how far the
+ * archive has come in the table ArchiveProgress. An import broken off is resumed from the last committed batch by
+ * importing the same archive again. Rows already in the base are replaced by those of the archive, a theorem with all
+ * its statements.
+ */
+public class BaseArchive {
+
+	/** Reports progress, by number of records done out of those expected. */
+	public interface Progress {
+
+		/**
+		 * Called every {@value BaseArchive#BATCH} records and when done.
+		 *
+		 * @param records 	The number of records done, including those done before resuming.
+		 * @param total 	The number of records expected.
+		 */
+		void report(long records, long total);
+	}
+
+	/** The number of records imported per transaction. */
+	public static final int BATCH = 2000;
+
+	private static final int MAGIC = 0x44574152;						// "DWAR"
+
+	private static final short VERSION = 1;
+
+	private static final byte END = 0, PRIMITIVE = 1, COMPOSITE = 2, THEOREM = 3, STATEMENT = 4;
+
+	private static final int NULL = Integer.MIN_VALUE;
+
+	private final DeductionBase base;
+
+
+	/**
+	 * Instantiates an archiver of a base.
+	 *
+	 * @param base The base to export from or import to.
+	 */
+	public BaseArchive(DeductionBase base) {
+		this.base = base;
+	}
+
+
+	/* * * * * * * * * * * * * * * * * export * * * * * * * * * * * * * * * * */
+
+
+	/**
+	 * Exports the base to an archive.
+	 *
+	 * @param archive 			The archive file.
+	 * @param resume 			If an archive broken off should be completed, rather than a new one written.
+	 * @param progress 			Told about the progress, may be null.
+	 * @return 					The number of records in the archive.
+	 * @throws IOException 		If the archive can't be read or written.
+	 * @throws SQLException 	If the base can't be read.
+	 */
+	public long exportTo(Path archive, boolean resume, Progress progress) throws IOException, SQLException {
+
+		base.flush();												// queued writes first, to export what was last stored
+
+		long[] done = new long[STATEMENT + 1];
+
+		boolean append = resume && Files.exists(archive) && scan(archive, done);
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(archive.toFile(), append), 1 << 16))) {
+
+			return base.read(cache -> {
+
+				long total = count(cache, "Primitives") + count(cache, "Composites") + count(cache, "Theorems") + count(cache, "Statements");
+
+				try {
+
+					if (!append) {
+
+						out.writeInt(MAGIC);
+						out.writeShort(VERSION);
+						out.writeInt(DeductionBase.SCHEMAVERSION);
+						out.writeUTF(UUID.randomUUID().toString());
+						out.writeLong(total);
+					}
+
+					Counter counter = new Counter(done[PRIMITIVE] + done[COMPOSITE] + done[THEOREM] + done[STATEMENT], total, progress);
+
+					exportPrimitives(cache, out, done[PRIMITIVE], counter);
+					exportComposites(cache, out, done[COMPOSITE], counter);
+					exportTheorems(cache, out, done[THEOREM], counter);
+					exportStatements(cache, out, done[STATEMENT], counter);
+
+					out.writeByte(END);
+					out.writeLong(counter.records);
+
+					counter.done();
+
+					return counter.records;
+
+				} catch (IOException ioe) { throw new SQLException("Archive " + archive + " can't be written.", ioe); }
+			});
+		}
+	}
+
+	private void exportPrimitives(StatementCache cache, DataOutputStream out, long skip, Counter counter) throws SQLException, IOException {
+
+		try (ResultSet r = rows(cache, "SELECT tablename, codepoint, keycode, modifiers FROM Primitives ORDER BY rowid LIMIT -1 OFFSET ?;", skip)) {
+
+			while (r.next()) {
+
+				out.writeByte(PRIMITIVE);
+
+				writeString(out, r.getString(1));
+				out.writeInt(r.getInt(2));
+				writeInt(out, r, 3);
+				writeInt(out, r, 4);
+
+				counter.record();
+			}
+		}
+	}
+
+	private void exportComposites(StatementCache cache, DataOutputStream out, long skip, Counter counter) throws SQLException, IOException {
+
+		try (ResultSet r = rows(cache, "SELECT c.tablename, c.codepoint, c.keycode, c.modifiers, k.codepoint, k.x, k.y, k.length "
+								+ "FROM (SELECT rowid AS ordering, * FROM Composites ORDER BY rowid LIMIT -1 OFFSET ?) c "
+								+ "LEFT JOIN CompositeComponents k ON k.tablename = c.tablename AND k.composite = c.codepoint "
+								+ "ORDER BY c.ordering, k.ordinal;", skip)) {
+
+			ComponentBuffer components = new ComponentBuffer();
+
+			boolean more = r.next();
+
+			while (more) {
+
+				String tablename = r.getString(1);
+
+				int codepoint = r.getInt(2);
+
+				out.writeByte(COMPOSITE);
+
+				writeString(out, tablename);
+				out.writeInt(codepoint);
+				writeInt(out, r, 3);
+				writeInt(out, r, 4);
+
+				components.clear();
+
+				do {
+					r.getInt(5);
+
+					if (!r.wasNull()) components.add(r.getInt(5), r.getInt(6), r.getInt(7), r.getInt(8));
+
+					more = r.next();
+
+				} while (more && r.getInt(2) == codepoint && r.getString(1).equals(tablename));		// rows of one composite are consecutive
+
+				components.write(out);
+
+				counter.record();
+			}
+		}
+	}
+
+	private void exportTheorems(StatementCache cache, DataOutputStream out, long skip, Counter counter) throws SQLException, IOException {
+
+		try (ResultSet r = rows(cache, "SELECT name, tablename, statements FROM Theorems ORDER BY rowid LIMIT -1 OFFSET ?;", skip)) {
+
+			while (r.next()) {
+
+				out.writeByte(THEOREM);
+
+				writeString(out, r.getString(1));
+				writeString(out, r.getString(2));
+				writeString(out, r.getString(3));
+
+				counter.record();
+			}
+		}
+	}
+
+	private void exportStatements(StatementCache cache, DataOutputStream out, long skip, Counter counter) throws SQLException, IOException {
+
+		try (ResultSet r = rows(cache, "SELECT id, theorem, sequence, implication FROM Statements ORDER BY rowid LIMIT -1 OFFSET ?;", skip)) {
+
+			while (r.next()) {
+
+				out.writeByte(STATEMENT);
+
+				writeString(out, r.getString(1));
+				writeString(out, r.getString(2));
+				writeBytes(out, r.getBytes(3));
+				writeInt(out, r, 4);
+
+				counter.record();
+			}
+		}
+	}
+
+	/**
+	 * Reads an archive broken off, counting its complete records by kind, and cuts off what follows the last of them.
+	 *
+	 * @return False if the archive has no complete header, and is to be written anew.
+	 */
+	private boolean scan(Path archive, long[] done) throws IOException {
+
+		long complete = -1;
+
+		try (PositionInputStream position = new PositionInputStream(new BufferedInputStream(new FileInputStream(archive.toFile()), 1 << 16))) {
+
+			DataInputStream in = new DataInputStream(position);
+
+			try {
+
+				readHeader(in);
+				in.readLong();
+
+				complete = position.position;
+
+				while (true) {
+
+					byte kind = in.readByte();
+
+					if (kind == END) throw new IOException("Archive " + archive + " is already complete.");
+
+					skipRecord(in, kind);
+
+					done[kind]++;
+
+					complete = position.position;
+				}
+
+			} catch (EOFException eofe) {
+
+				if (complete < 0) return false;
+			}
+		}
+
+		try (RandomAccessFile file = new RandomAccessFile(archive.toFile(), "rw")) { file.setLength(complete); }
+
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Resuming export after " + complete + " bytes.");
+
+		return true;
+	}
+
+
+	/* * * * * * * * * * * * * * * * * import * * * * * * * * * * * * * * * * */
+
+
+	/**
+	 * Imports an archive into the base, resuming where an earlier import of the same archive was broken off.
+	 *
+	 * @param archive 			The archive file.
+	 * @param progress 			Told about the progress, may be null.
+	 * @return 					The number of records in the archive.
+	 * @throws IOException 		If the archive can't be read or is malformed.
+	 * @throws SQLException 	If the base can't be written. The batch being written is rolled back.
+	 */
+	public long importFrom(Path archive, Progress progress) throws IOException, SQLException {
+
+		base.flush();
+
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(archive.toFile()), 1 << 16))) {
+
+			String id = readHeader(in);
+
+			long total = in.readLong();
+
+			long done = imported(id);
+
+			for (long i = 0; i < done; i++) {
+
+				byte kind = in.readByte();
+
+				if (kind == END) break;
+
+				skipRecord(in, kind);
+			}
+
+			Counter counter = new Counter(done, total, progress);
+
+			boolean ended = false;
+
+			while (!ended) {
+
+				synchronized (base) {
+
+					base.beginGroup();
+
+					try {
+
+						StatementCache cache = base.getStatementCache();
+
+						for (int i = 0; i < BATCH && !ended; i++) {
+
+							byte kind = in.readByte();
+
+							if (kind == END) {
+
+								long records = in.readLong();
+
+								if (records != counter.records) throw new IOException("Archive " + archive + " ends after " + counter.records + " records, " + records + " written.");
+
+								ended = true;
+
+							} else {
+
+								importRecord(cache, in, kind);
+
+								counter.record();
+							}
+						}
+
+						PreparedStatement s = cache.prepare("INSERT OR REPLACE INTO ArchiveProgress(archive, records) VALUES (?, ?);");
+
+						s.setString(1, id);
+						s.setLong(2, counter.records);
+						s.executeUpdate();
+
+						base.commitGroup();
+
+					} catch (IOException | SQLException | RuntimeException e) {
+
+						base.rollbackGroup();
+
+						throw e;
+					}
+				}
+			}
+
+			base.getDescribedCache().clear();
+
+			counter.done();
+
+			return counter.records;
+		}
+	}
+
+	private void importRecord(StatementCache cache, DataInputStream in, byte kind) throws IOException, SQLException {
+
+		PreparedStatement s;
+
+		switch (kind) {
+
+		case PRIMITIVE:
+
+			s = cache.prepare("INSERT OR REPLACE INTO Primitives(tablename, codepoint, keycode, modifiers) VALUES (?, ?, ?, ?);");
+
+			s.setString(1, readString(in));
+			s.setInt(2, in.readInt());
+			setInt(s, 3, in.readInt());
+			setInt(s, 4, in.readInt());
+
+			s.executeUpdate();
+			break;
+
+		case COMPOSITE:
+
+			String tablename = readString(in);
+
+			int codepoint = in.readInt();
+
+			s = cache.prepare("INSERT OR REPLACE INTO Composites(tablename, codepoint, keycode, modifiers) VALUES (?, ?, ?, ?);");
+
+			s.setString(1, tablename);
+			s.setInt(2, codepoint);
+			setInt(s, 3, in.readInt());
+			setInt(s, 4, in.readInt());
+
+			s.executeUpdate();
+
+			s = cache.prepare("DELETE FROM CompositeComponents WHERE tablename=? AND composite=?;");
+
+			s.setString(1, tablename);
+			s.setInt(2, codepoint);
+
+			s.executeUpdate();
+
+			s = cache.prepare("INSERT INTO CompositeComponents(tablename, composite, ordinal, codepoint, x, y, length) VALUES (?, ?, ?, ?, ?, ?, ?);");
+
+			int components = in.readInt();
+
+			for (int ordinal = 0; ordinal < components; ordinal++) {
+
+				s.setString(1, tablename);
+				s.setInt(2, codepoint);
+				s.setInt(3, ordinal);
+				s.setInt(4, in.readInt());
+				s.setInt(5, in.readInt());
+				s.setInt(6, in.readInt());
+				s.setInt(7, in.readInt());
+
+				s.addBatch();
+			}
+
+			if (components > 0) s.executeBatch();
+			break;
+
+		case THEOREM:
+
+			String name = readString(in);
+
+			s = cache.prepare("DELETE FROM StatementGrams WHERE statement IN (SELECT id FROM Statements WHERE theorem=?);");	// replaced with its statements
+
+			s.setString(1, name);
+			s.executeUpdate();
+
+			s = cache.prepare("DELETE FROM Statements WHERE theorem=?;");
+
+			s.setString(1, name);
+			s.executeUpdate();
+
+			s = cache.prepare("INSERT OR REPLACE INTO Theorems(name, tablename, statements) VALUES (?, ?, ?);");
+
+			s.setString(1, name);
+			s.setString(2, readString(in));
+			s.setString(3, readString(in));
+
+			s.executeUpdate();
+			break;
+
+		case STATEMENT:
+
+			s = cache.prepare("INSERT OR REPLACE INTO Statements(id, theorem, sequence, implication) VALUES (?, ?, ?, ?);");
+
+			String id = readString(in);
+
+			s.setString(1, id);
+			s.setString(2, readString(in));
+
+			byte[] sequence = readBytes(in);
+
+			s.setBytes(3, sequence);
+			setInt(s, 4, in.readInt());
+
+			s.executeUpdate();
+
+			SequenceIndex.index(cache, id, sequence);
+			break;
+
+		default:
+			throw new IOException("Unknown record " + kind + " in archive.");
+		}
+	}
+
+	/**
+	 * The number of records of an archive imported so far.
+	 */
+	private long imported(String id) throws SQLException {
+
+		synchronized (base) {
+
+			StatementCache cache = base.getStatementCache();
+
+			PreparedStatement s = cache.prepare("SELECT records FROM ArchiveProgress WHERE archive=?;");
+
+			s.setString(1, id);
+
+			long records;
+
+			try (ResultSet r = s.executeQuery()) { records = r.next() ? r.getLong(1) : 0; }
+
+			if (records > 0 && Toolbox.DEBUGMINIMAL) System.out.println("Resuming import of archive " + id + " after " + records + " records.");
+
+			return records;
+		}
+	}
+
+
+	/* * * * * * * * * * * * * * * * * format * * * * * * * * * * * * * * * * */
+
+
+	/**
+	 * Reads the header up to the number of records expected.
+	 *
+	 * @return The identity of the archive.
+	 */
+	private static String readHeader(DataInputStream in) throws IOException {
+
+		if (in.readInt() != MAGIC) throw new IOException("Not an archive of a deduction base.");
+
+		short version = in.readShort();
+
+		if (version != VERSION) throw new IOException("Unknown archive version " + version + ".");
+
+		int schema = in.readInt();
+
+		if (schema > DeductionBase.SCHEMAVERSION) throw new IOException("Archive of a newer schema, version " + schema + ".");
+
+		return in.readUTF();
+	}
+
+	private static void skipRecord(DataInputStream in, byte kind) throws IOException {
+
+		switch (kind) {
+
+		case PRIMITIVE: 	readString(in); in.readInt(); in.readInt(); in.readInt(); break;
+		case COMPOSITE: 	readString(in); in.readInt(); in.readInt(); in.readInt(); skip(in, 16L * in.readInt()); break;
+		case THEOREM: 		readString(in); readString(in); readString(in); break;
+		case STATEMENT: 	readString(in); readString(in); readBytes(in); in.readInt(); break;
+
+		default: throw new IOException("Unknown record " + kind + " in archive.");
+		}
+	}
+
+	private static void skip(DataInputStream in, long bytes) throws IOException {
+		in.readFully(new byte[(int) bytes]);
+	}
+
+	private static void writeString(DataOutputStream out, String string) throws IOException {
+		writeBytes(out, string != null ? string.getBytes(StandardCharsets.UTF_8) : null);
+	}
+
+	private static String readString(DataInputStream in) throws IOException {
+
+		byte[] bytes = readBytes(in);
+
+		return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+
+		if (bytes == null) { out.writeInt(-1); return; }
+
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+
+		int length = in.readInt();
+
+		if (length < 0) return null;
+
+		byte[] bytes = new byte[length];
+
+		in.readFully(bytes);
+
+		return bytes;
+	}
+
+	private static void writeInt(DataOutputStream out, ResultSet r, int column) throws IOException, SQLException {
+
+		int value = r.getInt(column);
+
+		out.writeInt(r.wasNull() ? NULL : value);
+	}
+
+	private static void setInt(PreparedStatement s, int parameter, int value) throws SQLException {
+
+		if (value == NULL) s.setNull(parameter, Types.INTEGER);
+		else s.setInt(parameter, value);
+	}
+
+	private static long count(StatementCache cache, String table) throws SQLException {
+
+		try (ResultSet r = cache.prepare("SELECT COUNT(*) FROM " + table + ";").executeQuery()) {
+
+			return r.next() ? r.getLong(1) : 0;
+		}
+	}
+
+	private static ResultSet rows(StatementCache cache, String sql, long skip) throws SQLException {
+
+		PreparedStatement s = cache.prepare(sql);
+
+		s.setLong(1, skip);
+
+		return s.executeQuery();
+	}
+
+
+	/** Counts records and reports progress every batch. */
+	private static final class Counter {
+
+		long records;
+
+		final long total;
+
+		final Progress progress;
+
+		Counter(long records, long total, Progress progress) {
+			this.records = records;
+			this.total = total;
+			this.progress = progress;
+		}
+
+		void record() {
+			if (++records % BATCH == 0 && progress != null) progress.report(records, total);
+		}
+
+		void done() {
+			if (progress != null) progress.report(records, total);
+		}
+	}
+
+	/** The components of the composite being exported, reused between composites. */
+	private static final class ComponentBuffer {
+
+		int[] rows = new int[64];
+
+		int size = 0;
+
+		void clear() {
+			size = 0;
+		}
+
+		void add(int codepoint, int x, int y, int length) {
+
+			if (size + 4 > rows.length) rows = Arrays.copyOf(rows, 2*rows.length);
+
+			rows[size++] = codepoint;
+			rows[size++] = x;
+			rows[size++] = y;
+			rows[size++] = length;
+		}
+
+		void write(DataOutputStream out) throws IOException {
+
+			out.writeInt(size / 4);
+
+			for (int i = 0; i < size; i++) out.writeInt(rows[i]);
+		}
+	}
+
+	/** Keeps track of the position read to. */
+	private static final class PositionInputStream extends FilterInputStream {
+
+		long position = 0;
+
+		PositionInputStream(InputStream in) {
+			super(in);
+		}
+
+		public int read() throws IOException {
+
+			int b = super.read();
+
+			if (b >= 0) position++;
+
+			return b;
+		}
+
+		public int read(byte[] bytes, int offset, int length) throws IOException {
+
+			int n = super.read(bytes, offset, length);
+
+			if (n > 0) position += n;
+
+			return n;
+		}
+
+		public long skip(long n) throws IOException {
+
+			long skipped = super.skip(n);
+
+			position += skipped;
+
+			return skipped;
+		}
+	}
+
+
+	/**
+	 * Exports or imports a base.
+	 *
+	 * @param args 			'export' or 'import', the archive file, optionally the base file and 'resume' to resume an export.
+	 * @throws Exception 	If the archive or the base can't be read or written.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		if (args.length < 2) {
+
+			System.err.println("Usage: BaseArchive export|import archive [base file] [resume]");
+
+			return;
+		}
+
+		Path archive = Paths.get(args[1]);
+
+		String path = args.length > 2 ? args[2] : "data/sqlite/variables.sqlite";
+
+		boolean resume = args.length > 3 && args[3].equals("resume");
+
+		DeductionBase base = new DeductionBase(path, false, ConnectionProfile.configured());
+
+		BaseArchive archiver = new BaseArchive(base);
+
+		Progress progress = (records, total) -> System.out.println(records + " of " + total + " records.");
+
+		long start = System.nanoTime();
+
+		try {
+
+			long records = args[0].equals("import") ? archiver.importFrom(archive, progress) : archiver.exportTo(archive, resume, progress);
+
+			System.out.println(args[0] + "ed " + records + " records in " + (System.nanoTime() - start) / 1_000_000 + " ms.");
+
+		} finally { base.closeDB(); }
+	}
+}
@@ -0,0 +1,287 @@
+package control.db;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+
+import control.Toolbox;
+
+/**
+ * Write-behind queue of a {@link DeductionBase}. Writes are handed to one dedicated writer thread so that the user
+ * interface does not wait for the disk.<br><br>
+ *
+ * Writes are queued under a key, the theorem or table they concern. A write queued while an earlier write with the
+ * same key is still waiting is coalesced into that earlier one, so that a theorem saved many times in a row is
+ * written once. Everything waiting when the writer thread wakes up is written as one group in one transaction,
+ * each write within its own savepoint so that one failing write does not take the others with it. A write failing
+ * unexpectedly, with a runtime exception rather than in sql, may have left its savepoint open, the whole group is
+ * then rolled back and fails.<br><br>
+ *
+ * Every write is answered with a future that completes with the number of sql instructions executed, or
+ * exceptionally if the write failed. Futures complete on the writer thread, user interface callbacks have to be
+ * passed on to the event dispatch thread.
+ *
+ * @see DeductionBase
+ */
+public class BaseWriter {
+
+	/**
+	 * A write waiting in the queue. Implementations hold a snapshot of what to write, taken when the write was
+	 * queued, as the objects written from keep changing in the user interface.
+	 */
+	interface Write {
+
+		/**
+		 * Carries out the write. Called on the writer thread, with the base locked and a group transaction open.
+		 *
+		 * @param base				The base to write into.
+		 * @return					The number of sql instructions executed.
+		 * @throws SQLException		If the write failed. It is then rolled back on its own.
+		 */
+		int write(DeductionBase base) throws SQLException;
+
+		/**
+		 * Merges a later write with the same key into this one.
+		 *
+		 * @param later		The later write.
+		 * @return			The write having the effect of this write followed by the later one.
+		 */
+		Write coalesce(Write later);
+	}
+
+	/** A queued write and everyone waiting for it. */
+	private static class Pending {
+
+		Write write;
+
+		final ArrayList<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+
+		Pending(Write write) {
+			this.write = write;
+		}
+	}
+
+
+	private final DeductionBase base;
+
+	private final Thread thread;
+
+	private LinkedHashMap<String, Pending> queue = new LinkedHashMap<String, Pending>();
+
+	/** The keys of the group being written, empty when not writing. */
+	private HashSet<String> writing = new HashSet<String>();
+
+	private boolean closed = false;
+
+	private int submitted = 0, coalesced = 0, groups = 0, failed = 0;
+
+
+	/**
+	 * Instantiates a write-behind queue and starts its writer thread.
+	 *
+	 * @param base	The base written to.
+	 */
+	public BaseWriter(DeductionBase base) {
+
+		this.base = base;
+
+		this.thread = new Thread(this::run, "DeductionBase writer");
+
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+
+	/**
+	 * Queues a write.
+	 *
+	 * @param key		What the write concerns. Waiting writes with the same key are coalesced.
+	 * @param write		The write.
+	 * @return			A future completing when the write, or the write it was coalesced into, is committed.
+	 */
+	synchronized CompletableFuture<Integer> submit(String key, Write write) {
+
+		CompletableFuture<Integer> future = new CompletableFuture<Integer>();
+
+		if (closed) {
+
+			future.completeExceptionally(new SQLException("Writer of the base is closed, " + key + " not written."));
+
+			return future;
+		}
+
+		Pending pending = queue.get(key);
+
+		if (pending == null)
+			queue.put(key, pending = new Pending(write));
+		else {
+			pending.write = pending.write.coalesce(write);
+			coalesced++;
+		}
+
+		pending.futures.add(future);
+
+		submitted++;
+
+		notifyAll();
+
+		return future;
+	}
+
+	/**
+	 * Waits until every write queued so far is committed or has failed. Must not be called while holding the lock
+	 * of the base.
+	 */
+	public synchronized void flush() {
+
+		if (Thread.currentThread() == thread) return;
+
+		try {
+
+			while (!queue.isEmpty() || !writing.isEmpty()) wait();
+
+		} catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+	}
+
+	/**
+	 * Waits until every write queued so far under a key is committed or has failed. Writes under other keys may 
+	 * still be waiting. Must not be called while holding the lock of the base.
+	 * 
+	 * @param key	What the writes waited for concern.
+	 */
+	public synchronized void flush(String key) {
+
+		if (Thread.currentThread() == thread) return;
+
+		try {
+
+			while (queue.containsKey(key) || writing.contains(key)) wait();
+
+		} catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+	}
+
+	/**
+	 * Writes everything queued and stops the writer thread. Writes queued after closing fail.
+	 */
+	public void close() {
+
+		synchronized (this) {
+			closed = true;
+			notifyAll();
+		}
+
+		flush();
+
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Base writer closed: " + this);
+	}
+
+	/**
+	 * Tells if there are writes not yet committed.
+	 *
+	 * @return Wether writes are queued or being written.
+	 */
+	public synchronized boolean isBusy() {
+		return !queue.isEmpty() || !writing.isEmpty();
+	}
+
+
+	/** {@inheritDoc} */
+	public synchronized String toString() {
+		return "BaseWriter[queued=" + queue.size() + ", submitted=" + submitted + ", coalesced=" + coalesced + ", groups=" + groups + ", failed=" + failed + "]";
+	}
+
+
+	private void run() {
+
+		while (true) {
+
+			LinkedHashMap<String, Pending> group;
+
+			synchronized (this) {
+
+				try {
+
+					while (queue.isEmpty() && !closed) wait();
+
+				} catch (InterruptedException ie) { return; }
+
+				if (queue.isEmpty()) return;
+
+				group = queue;
+				queue = new LinkedHashMap<String, Pending>();
+
+				writing.addAll(group.keySet());
+			}
+
+			try { write(group); }
+
+			catch (RuntimeException re) {													// no future is left waiting, the thread lives on
+
+				re.printStackTrace();
+
+				for (Pending pending : group.values())
+					for (CompletableFuture<Integer> future : pending.futures) future.completeExceptionally(re);
+			}
+
+			finally {
+
+				synchronized (this) {
+					writing.clear();
+					notifyAll();
+				}
+			}
+		}
+	}
+
+	private void write(LinkedHashMap<String, Pending> group) {
+
+		HashMap<Pending, Integer> 		results  = new HashMap<Pending, Integer>();
+		HashMap<Pending, Exception> 	failures = new HashMap<Pending, Exception>();
+
+		synchronized (base) {
+
+			try {
+
+				base.beginGroup();
+
+				RuntimeException broken = null;
+
+				for (Pending pending : group.values()) {
+
+					try { results.put(pending, pending.write.write(base)); }
+					catch (SQLException sqle) { failures.put(pending, sqle); }
+					catch (RuntimeException re) { failures.put(pending, broken = re); }			// not rolled back on its own
+				}
+
+				if (broken != null) throw new SQLException("A write of the group failed unexpectedly, the group is rolled back.", broken);
+
+				base.commitGroup();
+
+			} catch (SQLException | RuntimeException e) {
+
+				base.rollbackGroup();
+
+				for (Pending pending : group.values()) failures.putIfAbsent(pending, e);
+			}
+		}
+
+		for (Pending pending : group.values()) {
+
+			Exception failure = failures.get(pending);
+
+			for (CompletableFuture<Integer> future : pending.futures)
+				if (failure != null) future.completeExceptionally(failure);
+				else future.complete(results.get(pending));
+		}
+
+		synchronized (this) {
+			groups++;
+			failed += failures.size();
+		}
+
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Base writer committed " + group.size() + " writes, " + failures.size() + " failed.");
+	}
+}
@@ -0,0 +1,114 @@
+package control.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+import control.Toolbox;
+
+/**
+ * How the connections of a {@link DeductionBase} are set up. The profile is chosen when the base is opened, by default
+ * from the system property {@value #PROPERTY}, for example <code>-Ddeductionbase.profile=wal</code>.<br><br>
+ *
+ * The default profile keeps sqlite's own settings and one connection for both reading and writing. The wal profile
+ * switches the base file to write-ahead logging and opens a small pool of read-only connections beside the one
+ * writing, so that the picker, the trainer and the theorem loader read while a save is in progress.
+ *
+ * @see ReadPool
+ */
+public enum ConnectionProfile {
+
+	/** Rollback journal, one connection for everything. */
+	DEFAULT(0, new String[] { "PRAGMA journal_mode=DELETE;" },
+			   new String[] {}),
+
+	/** Write-ahead log, syncing at checkpoints only, larger page cache, memory mapped reads and three read-only connections. */
+	WAL(3, new String[] { "PRAGMA journal_mode=WAL;", "PRAGMA synchronous=NORMAL;", "PRAGMA cache_size=-8192;", "PRAGMA mmap_size=268435456;", "PRAGMA busy_timeout=2000;" },
+		   new String[] { "PRAGMA cache_size=-2048;", "PRAGMA mmap_size=268435456;", "PRAGMA busy_timeout=2000;", "PRAGMA query_only=1;" });
+
+
+	/** The system property naming the profile to use. */
+	public static final String PROPERTY = "deductionbase.profile";
+
+	/** The number of read-only connections to pool, none if reading on the writing connection. */
+	public final int readers;
+
+	private final String[] writerpragmas, readerpragmas;
+
+
+	private ConnectionProfile(int readers, String[] writerpragmas, String[] readerpragmas) {
+
+		this.readers = readers;
+		this.writerpragmas = writerpragmas;
+		this.readerpragmas = readerpragmas;
+	}
+
+
+	/**
+	 * The profile named by the system property {@value #PROPERTY}, or the default profile if there is no such property
+	 * or no such profile.
+	 *
+	 * @return The configured profile.
+	 */
+	public static ConnectionProfile configured() {
+
+		String name = System.getProperty(PROPERTY);
+
+		if (name == null) return DEFAULT;
+
+		try { return valueOf(name.trim().toUpperCase()); }
+
+		catch (IllegalArgumentException iae) { System.err.println("No connection profile " + name + ", using default."); }
+
+		return DEFAULT;
+	}
+
+	/**
+	 * Sets up the connection writing to the base. The journal mode set is stored in the base file.
+	 *
+	 * @param connection 		The writing connection, not in a transaction.
+	 * @throws SQLException 	If a pragma is refused.
+	 */
+	void configureWriter(Connection connection) throws SQLException {
+		configure(connection, writerpragmas);
+	}
+
+	/**
+	 * Sets up a read-only connection of the pool.
+	 *
+	 * @param connection 		The reading connection.
+	 * @throws SQLException 	If a pragma is refused.
+	 */
+	void configureReader(Connection connection) throws SQLException {
+		configure(connection, readerpragmas);
+	}
+
+	/**
+	 * Properties opening a connection read-only.
+	 *
+	 * @return The properties to pass to the driver.
+	 */
+	Properties readerProperties() {
+
+		Properties properties = new Properties();
+
+		properties.setProperty("open_mode", "1");						// SQLITE_OPEN_READONLY
+
+		return properties;
+	}
+
+
+	private static void configure(Connection connection, String[] pragmas) throws SQLException {
+
+		try (Statement s = connection.createStatement()) {
+
+			for (String pragma : pragmas) {
+
+				s.execute(pragma);
+
+				if (Toolbox.DEBUGMINIMAL) System.out.println("Connection set up: " + pragma);
+			}
+		}
+	}
+}
@@ -1,13 +1,22 @@
 package control.db;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Driver;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Stream;
 
 import control.Shortcut;
@@ -19,8 +28,11 @@ import model.description.DTheorem;
 import model.description.abstraction.Described;
 import model.independent.DoubleArray;
 import model.independent.DoubleArray.Tuple;
+import model.independent.SequenceEncoder;
+import model.logic.CompactTheorem;
+import model.logic.FormalSequence;
 import model.logic.Implication.ImplicationType;
-import model.logic.Theorem;
+import model.logic.Primitive;
 import model.logic.abstraction.Formal;
 
 /**
@@ -28,28 +40,70 @@ import model.logic.abstraction.Formal;
  *
  * A lot of functionality of the application has been chosen to rather reside in the base, as views, instead of
  * rebuilding them at start-up and keeping collections in runtime objects. The currently used keyboard
- * bindings are cached in that way for example.
+ * bindings are cached in that way for example.<br><br>
+ * 
+ * Theorems, composites and bindings are written through a {@link BaseWriter}, a queue emptied by a thread of its own. 
+ * The methods ending in 'Later' return at once with a future, the others wait for the write. All access to the 
+ * writing connection is synchronized on the base. With a {@link ConnectionProfile} having readers, reads go to a 
+ * {@link ReadPool} of read-only connections instead and see what is committed.
  */
 public class DeductionBase {
 
 	
-	private static final String sql_theorems_insert		= "INSERT INTO Theorems(name, tablename, statements) VALUES";
-	private static final String sql_statements_insert 	= "INSERT INTO Statements(id, theorem, sequence, implication) VALUES";
-	private static final String sql_primitives_insert	= "INSERT INTO Primitives(tablename, codepoint) VALUES";
-	private static final String sql_composites_insert	= "INSERT INTO Composites(tablename, codepoint, codepoints, baselines, keycode, modifiers) VALUES";
+	private static final String sql_theorems_insert		= "INSERT INTO Theorems(name, tablename, statements) VALUES (?, ?, ?);";
+	private static final String sql_theorems_upsert		= "INSERT OR REPLACE INTO Theorems(name, tablename, statements) VALUES (?, ?, ?);";
+	private static final String sql_statements_upsert 	= "INSERT OR REPLACE INTO Statements(id, theorem, sequence, implication) VALUES (?, ?, ?, ?);";
+	private static final String sql_primitives_insert	= "INSERT INTO Primitives(tablename, codepoint) VALUES (?, ?);";
+	private static final String sql_composites_insert	= "INSERT INTO Composites(tablename, codepoint, keycode, modifiers) VALUES (?, ?, 0, 0);";
+	private static final String sql_components_insert	= "INSERT INTO CompositeComponents(tablename, composite, ordinal, codepoint, x, y, length) VALUES (?, ?, ?, ?, ?, ?, ?);";
+
+	/** The version of the schema this base works with, kept in the base file as its user_version. */
+	public static final int 	SCHEMAVERSION = 5;
+
+	/** The most parameters a query may have, the SQLITE_MAX_VARIABLE_NUMBER of the bundled driver. */
+	private static final int 	MAXPARAMETERS = 999;
 
 	private Connection connection;
 
+	/** Prepared statements of this base's connection, keyed by query shape. */
+	private StatementCache statements;
+
+	/** Read-only connections used for reading, if the connection profile has any. */
+	private ReadPool readers;
+
+	/** Queue of writes carried out by a thread of its own. */
+	private BaseWriter writer;
+
+	/** Rendered primitives and composites, of which views are handed out by the retreivers. */
+	private final DescribedCache templates = new DescribedCache(DescribedCache.configured());
+
+	/** Set while the writer has a group transaction open, writes then use savepoints within it. */
+	private boolean grouped = false;
+
 	private boolean passivemode;
 
 	
 	/**
 	 * Instantiates a new data base front-end and back-end where the base file is located at 'data/sqlite/variables.sqlite'. 
-	 * The mini database is run by sqlite. <a href="www.sqlite.org">www.sqlite.org</a>.
+	 * The mini database is run by sqlite. <a href="www.sqlite.org">www.sqlite.org</a>. The connections are set up by 
+	 * the profile configured by system property.
 	 *
 	 * @param passivemode If this class should be run without the back-end database. For debugging purposes.
+	 * 
+	 * @see ConnectionProfile#configured()
 	 */
 	public DeductionBase(boolean passivemode) {
+		this("data/sqlite/variables.sqlite", passivemode, ConnectionProfile.configured());
+	}
+
+	/**
+	 * Instantiates a new data base front-end and back-end for a given base file.
+	 *
+	 * @param path 			The path of the sqlite base file.
+	 * @param passivemode 	If this class should be run without the back-end database. For debugging purposes.
+	 * @param profile 		How the connections to the base are set up.
+	 */
+	public DeductionBase(String path, boolean passivemode, ConnectionProfile profile) {
 
 		this.passivemode = passivemode;
 
@@ -64,15 +118,27 @@ public class DeductionBase {
 
 			try {
 
-				connection = DriverManager.getConnection("jdbc:sqlite:data/sqlite/variables.sqlite");
+				String url = "jdbc:sqlite:" + path;
+
+				connection = DriverManager.getConnection(url);
 				if (Toolbox.DEBUGMINIMAL) System.out.print("Connection open: " + (! connection.isClosed()) + System.lineSeparator());
 
+				profile.configureWriter(connection);
+
 				connection.setAutoCommit(true);
+
+				statements = new StatementCache(connection);
+
+				writer = new BaseWriter(this);
+
+				Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "DeductionBase flush"));
 																																				///(34D1)
 																																				///(2G63)
 																																				///(A189)
 
 				this.setupDB();
+
+				if (profile.readers > 0) readers = new ReadPool(url, profile);
 			} 
 			catch (Exception ioe) { ioe.printStackTrace(); }	
 		}
@@ -85,21 +151,28 @@ public class DeductionBase {
 	/**
 	 * Drops all tables in the database.
 	 */
-	public void dropDB() {
+	public synchronized void dropDB() {
 
 		try (Statement s = connection.createStatement()) {
 
 			///(5992)
+			s.addBatch("DROP TABLE IF EXISTS ArchiveProgress;");
+			s.addBatch("DROP TABLE IF EXISTS StatementGrams;");
+			s.addBatch("DROP TABLE IF EXISTS CompositeComponents;");
 			s.addBatch("DROP TABLE IF EXISTS Composites;");
 			s.addBatch("DROP TABLE IF EXISTS Statements;");
 			s.addBatch("DROP TABLE IF EXISTS Theorems;");
 
+			s.addBatch("PRAGMA user_version=0;");
+
 			endTransaction(s, "Main tables dropped! ");
 
 			s.close();
 			
 			dropViews();
 
+			templates.clear();
+
 		} catch (SQLException e) { e.printStackTrace(); }
 	}
 
@@ -155,11 +228,13 @@ public class DeductionBase {
 	}
 	
 	/**
-	 * Sets up all tables and views necessary to use the application at length.
+	 * Sets up all tables and views necessary to use the application at length. Tables are created as in the first 
+	 * version of the schema and then migrated to the current version.
 	 *
+	 * @see #SCHEMAVERSION
 	 * @throws SQLException		General SQL exception for now.
 	 */
-	public void setupDB() 			throws SQLException {
+	public synchronized void setupDB() 		throws SQLException {
 
 		try (Statement s = connection.createStatement()) {
 
@@ -210,352 +285,775 @@ public class DeductionBase {
 
 			endTransaction(s, "DB tables are set up ok! ");
 		}		
+
+		migrate();
 	}	
-	
+
 	/**
-	 * Closes down the back-end connection. Does not exit.
+	 * Migrates the schema from the version the base file is at up to {@link #SCHEMAVERSION}, one version at a time, 
+	 * each in a transaction of its own that also records the new version.
+	 *
+	 * @throws SQLException		If a migration fails. It is rolled back and the base stays at the version before.
 	 */
-	public void closeDB() {
+	private void 				migrate() 		throws SQLException {
 
-		if (!passivemode) 
-			try { connection.close(); } catch (SQLException e) { e.printStackTrace(); }		
+		int version;
 
-	}
+		try (Statement s = connection.createStatement()) {
 
-	
-	/* * * * * * * * * * * * database altering  * * * * * * * * * * * * */
-	
-	
-	/**
-	 * Delete an element from the data base.
-	 * 
-	 * @param table		The table to dele from.
-	 * @param column	The tables column name.
-	 * @param element	The column value.
-	 * @return 			True if deletion carried out.
-	 */
-	public boolean				delete(String table, String column, String element) {
+			ResultSet result = s.executeQuery("PRAGMA user_version;");
 
-		try (Statement s = connection.createStatement()) {
+			version = result.getInt(1);
+		}
 
-			s.execute("DELETE FROM " + table + " WHERE " + column + "='" + element + "';");
+		while (version < SCHEMAVERSION) {
 
-			int occurrences = s.getUpdateCount();		// delete is an update-operation in sql, no result set.
+			connection.setAutoCommit(false);
 
-			s.close();
+			try (Statement s = connection.createStatement()) {
 
-			return occurrences > 0;
+				switch (version) {
+					case 0: migrateToIndexed(s); break;
+					case 1: migrateToComponentRows(s); break;
+					case 2: migrateToBinarySequences(s); break;
+					case 3: migrateToSearchIndex(s); break;
+					case 4: migrateToArchiveProgress(s); break;
+				}
 
-		} catch (SQLException e) { e.printStackTrace(); }	
+				s.execute("PRAGMA user_version=" + (++version) + ";");
 
-		return false;
-	}
-	
-	/**
-	 * Updates the data base regarding the theorem given as parameter, and everything related to it.
-	 * This is the only method that is needed when updating a theorem. 
-	 *
-	 * @param theorem 	The theorem which shoud be updated in the base.
-	 * @return 			The number of sql instructions executed (updates).
-	 */
-	public int	 		update(DTheorem theorem) {
+				connection.commit();
 
-		String sql = "SELECT * FROM Statements WHERE name='" + theorem.getName() + "';";
+				if (Toolbox.DEBUGMINIMAL) System.out.println("Schema migrated to version " + version + ".");
 
-		try (Statement query = connection.createStatement()) {
+			} catch (SQLException sqle) {
 
-			query.executeQuery(sql);
+				connection.rollback();
 
-			//connection.commit();
+				throw sqle;
 
-			String[] sqls = new String[theorem.lengthInStatements()];
+			} finally { connection.setAutoCommit(true); }
+		}
+	}
+
+	/**
+	 * Version 1. Indexes statements by theorem, for loading and deleting theorems, and composites by codepoint, for 
+	 * finding the composites referenced by statements.
+	 */
+	private void 				migrateToIndexed(Statement s) 		throws SQLException {
 
-			sqls[0] = sql;
+		s.execute("CREATE INDEX IF NOT EXISTS Statements_theorem ON Statements(theorem);");
+		s.execute("CREATE INDEX IF NOT EXISTS Composites_codepoint ON Composites(codepoint);");
+	}
 
-			int i = 1;
+	/**
+	 * Version 2. Moves the components of composites from the codepoints and baselines text columns of Composites to 
+	 * rows of their own, one per component, so that they are read without splitting strings.
+	 */
+	private void 				migrateToComponentRows(Statement s) 	throws SQLException {
+
+		s.execute("CREATE TABLE IF NOT EXISTS "
+				+ "CompositeComponents("
+				+ "tablename VARCHAR(30) NOT NULL, "
+				+ "composite INT NOT NULL, "
+				+ "ordinal INT NOT NULL, "
+				+ "codepoint INT NOT NULL, "
+				+ "x INT NOT NULL, "
+				+ "y INT NOT NULL, "
+				+ "length INT NOT NULL, "
+				+ "PRIMARY KEY (tablename, composite, ordinal), "
+				+ "FOREIGN KEY (tablename, composite) REFERENCES Composites(tablename, codepoint));");
+
+		s.execute("CREATE INDEX IF NOT EXISTS CompositeComponents_composite ON CompositeComponents(composite);");
 
-			for (DStatement s : theorem) {
+		int counter = 0;
 
-				String sequence = Toolbox.parseToString(s);
+		try (PreparedStatement insert = connection.prepareStatement(sql_components_insert)) {
 
-				sql  = "UPDATE Statements SET sequence='" + sequence + "' ";
-				sql += "WHERE id='" + s.getID() + "'";
+			ResultSet result = s.executeQuery("SELECT tablename, codepoint, codepoints, baselines FROM Composites;");
 
-				sqls[i++] = sql;
+			while (result.next()) 
+				counter += bindComponents(insert, result.getString(1), result.getInt(2), DComposite.parseRows(result.getString(3), result.getString(4)));
 
-				int updated = query.executeUpdate(sql);
+			result.close();
 
-				try (ResultSet result = query.getResultSet()) {
-					
-					if (updated == 1)
-						if (result.rowUpdated())
-							if (Toolbox.DEBUGMINIMAL) System.out.println("One row updated.");
+			insert.executeBatch();
+		}
 
-				}
-			}
-			
-			return sqls.length;
+		s.execute("CREATE TABLE Composites_migrated("
+				+ "tablename VARCHAR(30) NOT NULL, "
+				+ "codepoint INT NOT NULL, "
+				+ "keycode INT, "
+				+ "modifiers INT, "
+				+ "PRIMARY KEY (tablename, codepoint));");
 
-		} catch (SQLException sqle) { sqle.printStackTrace(); }
+		s.execute("INSERT INTO Composites_migrated SELECT tablename, codepoint, keycode, modifiers FROM Composites ORDER BY rowid;");
+		s.execute("DROP TABLE Composites;");
+		s.execute("ALTER TABLE Composites_migrated RENAME TO Composites;");
+		s.execute("CREATE INDEX IF NOT EXISTS Composites_codepoint ON Composites(codepoint);");
 
-		return -1;
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Moved " + counter + " components of composites to rows of their own.");
 	}
-	
+
 	/**
-	 * Inserts a new theorem into the base. Also here, no other complementary method should be used. 
-	 *
-	 * @param theorem 		The theorem to insert.
-	 * @param overwrite 	Overwrite if theorem with same name exist.
-	 * @return 				The number of sql instructions executed (inserts). 
+	 * Version 3. Rewrites the sequences of statements from colon separated text, a character per primitive and the 
+	 * decimal codepoint per composite, to the binary form of {@link SequenceEncoder}, with the implication in its header.
 	 */
-	public int 			insert(DTheorem theorem, boolean overwrite) {
-
-		try {
+	private void 				migrateToBinarySequences(Statement s) 	throws SQLException {
 
-			String[] sqls;
+		int counter = 0;
 
-			if (overwrite) return update(theorem);
+		try (PreparedStatement update = connection.prepareStatement("UPDATE Statements SET sequence=? WHERE id=?;")) {
 
-			else {
+			ResultSet result = s.executeQuery("SELECT id, sequence, implication FROM Statements WHERE typeof(sequence)='text';");
 
-				sqls = TheoremToSQL(theorem);
+			while (result.next()) {
 
-				Statement s = connection.createStatement();
+				String[] tokens = result.getString(2).split(":");
 
-				for (String sql : sqls) s.addBatch(sql);
+				int[] codepoints = new int[tokens.length];
+				boolean[] composites = new boolean[tokens.length];
 
-				boolean ok = endTransaction(s, "Trying to insert " + sqls.length + " statements.");
+				int n = 0;
 
-				s.clearBatch();
+				for (String token : tokens) {
 
-				if (ok) {
+					if (token.isEmpty()) continue;
 
-					String statementids = statementIDs(theorem);
+					composites[n] = token.length() > 1;
+					codepoints[n] = composites[n] ? Integer.parseInt(token) : token.charAt(0);
 
-					s.addBatch(sql_theorems_insert + "('" + theorem.getName() + "', '" + theorem.primitivestable + "', '" + statementids +  "');");
+					n++;
+				}
 
-					ok = endTransaction(s, "Trying to insert a theorem.");
+				int implication = result.getInt(3);
 
-					if (ok) if (Toolbox.DEBUGMINIMAL) System.out.println("All ok. New theorem added to database.");
-					else if (Toolbox.DEBUGMINIMAL) System.out.println("Something wrong. No new theorem in database.");		
-				} else if (Toolbox.DEBUGMINIMAL) System.out.println("Something wrong. statements not all in database.");		
+				update.setBytes(1, SequenceEncoder.encode(implication > 0 ? implication : SequenceEncoder.NONE, 
+														  Arrays.copyOf(codepoints, n), Arrays.copyOf(composites, n)));
+				update.setString(2, result.getString(1));
+				update.addBatch();
 
-				s.closeOnCompletion();		
+				counter++;
 			}
 
-			return sqls.length;
+			result.close();
 
-		} catch (SQLException sqle) { sqle.printStackTrace(); }
+			update.executeBatch();
+		}
 
-		return -1;
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Rewrote " + counter + " sequences of statements to binary.");
 	}
 
-	private String 		statementIDs(DTheorem theorem) {
+	/**
+	 * Version 4. Adds the inverted index of statement sequences searched by {@link #search(int[], boolean[])} and 
+	 * indexes the statements stored.
+	 * 
+	 * @see SequenceIndex
+	 */
+	private void 				migrateToSearchIndex(Statement s) 	throws SQLException {
 
-		String ids = "";
-		for (model.logic.Statement s : theorem) {
-			ids += s.getID() + ":";			
-		}
+		s.execute("CREATE TABLE IF NOT EXISTS "
+				+ "StatementGrams("
+				+ "gram INTEGER NOT NULL, "
+				+ "statement VARCHAR(100) NOT NULL, "
+				+ "PRIMARY KEY (gram, statement)) WITHOUT ROWID;");
+
+		s.execute("CREATE INDEX IF NOT EXISTS StatementGrams_statement ON StatementGrams(statement);");
 
-		DStatement preliminary = theorem.getPreliminary();
+		int counter = 0;
 
-		if (preliminary.size() > 0)
-			ids += theorem.getPreliminary().getID();
+		ResultSet result = s.executeQuery("SELECT id, sequence FROM Statements;");
 
-		return ids;
+		while (result.next()) 
+			counter += SequenceIndex.index(statements, result.getString(1), result.getBytes(2));
+
+		result.close();
+
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Indexed statements by " + counter + " grams.");
 	}
-	
+
 	/**
-	 * Inserts a collection of primitives into the base's table of primitives.
-	 *
-	 * @param primitives 	The formals to insert.
-	 * @param tablename 	The name of the view to which they belong.
-	 * @return 				The number of sql commands executed (inserts). 
+	 * Version 5. Adds the table in which imports of a {@link BaseArchive} record how far they have come, by archive.
 	 */
-	public int			insertPrimitivesTable(Collection<Formal> primitives, String tablename)	{
-
-		String[] sqls = new String[primitives.size()];
-
-		try {
+	private void 				migrateToArchiveProgress(Statement s) 	throws SQLException {
 
-			Statement s = connection.createStatement();
+		s.execute("CREATE TABLE IF NOT EXISTS "
+				+ "ArchiveProgress("
+				+ "archive VARCHAR(40) NOT NULL PRIMARY KEY, "
+				+ "records INT NOT NULL);");
+	}
+	
+	/**
+	 * Closes down the back-end connection, after writing everything queued. Does not exit.
+	 */
+	public void closeDB() {
 
-			int i = 0;
+		if (!passivemode) {
 
-			String sql = sql_primitives_insert;
+			writer.close();
 
-			for (Formal primitive : primitives) {
+			if (readers != null) readers.close();
 
-				sql += valuesString(primitive, tablename);
+			synchronized (this) { statements.clear(); }
 
-				s.addBatch(sql);
+			if (Toolbox.DEBUGMINIMAL) System.out.println(templates);
 
-				sqls[i++] = sql;
+			try { connection.close(); } catch (SQLException e) { e.printStackTrace(); }		
+		}
 
-				sql = sql_primitives_insert;
-			}
+	}
 
-			boolean ok = endTransaction(s, "Trying to insert " + primitives.size() + " primitives.");	
+	
+	/**
+	 * Returns the cache of prepared statements used by this base, for inspecting its hit and miss counters.
+	 *
+	 * @return The prepared statement cache of this base's connection.
+	 */
+	public StatementCache getStatementCache() {
+		return statements;
+	}
 
-			if (ok) if (Toolbox.DEBUGMINIMAL) System.out.println("All ok. Table " + tablename + "View of primitives is in database.");
-			else if (Toolbox.DEBUGMINIMAL) System.out.println("Something wrong. Check table of primitives, if it exists.");
+	/**
+	 * Returns the pool of read-only connections of this base, for inspecting its counters.
+	 *
+	 * @return The pool of readers, null if reading on the writing connection.
+	 */
+	public ReadPool getReadPool() {
+		return readers;
+	}
 
-			s.closeOnCompletion();		
+	/**
+	 * Returns the write-behind queue of this base, for inspecting its counters.
+	 *
+	 * @return The writer of this base.
+	 */
+	public BaseWriter getWriter() {
+		return writer;
+	}
 
-			return sqls.length;
+	/**
+	 * Returns the cache of rendered primitives and composites of this base, for inspecting its counters.
+	 *
+	 * @return The described cache of this base.
+	 */
+	public DescribedCache getDescribedCache() {
+		return templates;
+	}
 
-		} catch (SQLException sqle) { sqle.printStackTrace(); }
+	/**
+	 * Waits until every write queued so far is committed or has failed. 
+	 * 
+	 * @see BaseWriter#flush()
+	 */
+	public void flush() {
 
-		return -1;
+		if (!passivemode) writer.flush();
 	}
+
+	
+	/* * * * * * * * * * * * database altering  * * * * * * * * * * * * */
+	
 	
 	/**
-	 * Insert a collection of composites into the base's table of composites.
-	 *
-	 * @param composites 	The composites to insert.
-	 * @param prefix 		The name of the view to which they belong.
-	 * @return  			The number of sql commands executed (inserts).
+	 * Delete an element from the data base.
+	 * 
+	 * @param table		The table to dele from.
+	 * @param column	The tables column name.
+	 * @param element	The column value.
+	 * @return 			True if deletion carried out.
 	 */
-	public int			insertCompositesTable(Collection<DComposite> composites, String prefix)	{
+	public boolean				delete(String table, String column, String element) {
 
-		String[] sqls = new String[composites.size()];
+		flush();										// queued writes first, they must not bring back what is deleted
 
-		try {
+		synchronized (this) {
 
-			Statement s = connection.createStatement();
+			try {
 
-			int i = 0;
+				PreparedStatement s;
 
-			String sql = sql_composites_insert;
+				if (table.equalsIgnoreCase("Statements")) {
 
-			for (DComposite composite : composites) {
-				
-				sql += valuesString(composite, prefix);
+					s = statements.prepare("DELETE FROM StatementGrams WHERE statement IN (SELECT id FROM Statements WHERE " + column + "=?);");
 
-				s.addBatch(sql);
+					s.setString(1, element);
+					s.executeUpdate();
+				}
 
-				sqls[i++] = sql;
+				s = statements.prepare("DELETE FROM " + table + " WHERE " + column + "=?;");
 
-				sql = sql_composites_insert;
-			}
+				s.setString(1, element);
 
-			boolean ok = endTransaction(s, "Trying to insert " + composites.size() + " composites.");	
+				int occurrences = s.executeUpdate();		// delete is an update-operation in sql, no result set.
 
-			if (ok) if (Toolbox.DEBUGMINIMAL) System.out.println("All ok. Table " + prefix + "View of composites is in database.");
-			else if (Toolbox.DEBUGMINIMAL) System.out.println("Something wrong. Check table of composites, if it exists.");
+				if (table.equalsIgnoreCase("Composites") || table.equalsIgnoreCase("CompositeComponents")) {
 
-			s.closeOnCompletion();		
+					if (column.equalsIgnoreCase("tablename")) 
+						templates.invalidate(element);
+					else 
+						templates.clear();
+				}
 
-			return sqls.length;
+				return occurrences > 0;
 
-		} catch (SQLException sqle) { sqle.printStackTrace(); }
+			} catch (SQLException e) { e.printStackTrace(); }	
+		}
 
-		return -1;
+		return false;
 	}
 	
 	/**
-	 * Creates a new view for managing formals.
+	 * Updates the data base regarding the theorem given as parameter, and everything related to it.
+	 * This is the only method that is needed when updating a theorem.<br><br>
+	 * 
+	 * Only statements that have been added, altered or removed since the theorem was last stored in or fetched 
+	 * from the base are written, all in one transaction. If the theorem was not last stored under its current name 
+	 * every statement is written. The write goes through the writer queue and this method waits for it.
 	 *
-	 * @param viewprefix 	The name prefixed to identify the view.
-	 * @param formalsview 	The name of the view to fetch formals data from.
-	 * @return 				The number of rows in the new view.
+	 * @param theorem 	The theorem which shoud be updated in the base.
+	 * @return 			The number of sql instructions executed (updates).
+	 * 
+	 * @see #storeLater(DTheorem, boolean)
 	 */
-	public int 			createView(String viewprefix, String formalsview) {
-
-		try {
-
-			Statement s = connection.createStatement();
-
-			String sql = "CREATE VIEW IF NOT EXISTS " + viewprefix + "View" + 
-					" AS " +
-					" SELECT tablename, codepoint, keycode, modifiers " +
-					" FROM " + formalsview + " WHERE tablename='" + viewprefix + "'";
-			
-			s.execute(sql);
-
-			connection.commit();
+	public int	 		update(DTheorem theorem) {
+		
+		return await(storeLater(theorem, true));
+	}
+	
+	/**
+	 * Inserts a new theorem into the base. Also here, no other complementary method should be used. 
+	 *
+	 * @param theorem 		The theorem to insert.
+	 * @param overwrite 	Overwrite if theorem with same name exist.
+	 * @return 				The number of sql instructions executed (inserts). 
+	 * 
+	 * @see #storeLater(DTheorem, boolean)
+	 */
+	public int 			insert(DTheorem theorem, boolean overwrite) {
 
-			int count = 0;
+		return await(storeLater(theorem, overwrite));
+	}
 
-			sql = "SELECT COUNT(codepoint) FROM " + viewprefix + "View;";
+	/**
+	 * Queues the theorem for storage in the base and returns at once. What to write is decided here, on the calling 
+	 * thread, holding only the lock of the theorem and not that of the base, so that saving does not wait for a write 
+	 * in progress. The theorem may be edited further while the write is waiting. A later save of the same theorem 
+	 * before this one is written is coalesced with it.<br><br>
+	 * 
+	 * The theorem is recorded as stored only once the write is committed, and only statements not altered since are 
+	 * then marked clean. Until then later saves write again what this one writes, so that they do not depend on it 
+	 * being committed.
+	 * 
+	 * @param theorem		The theorem to store.
+	 * @param overwrite		Overwrite if a theorem with the same name exist. If not, the write fails in that case.
+	 * @return				A future completing with the number of sql instructions executed when the write is committed.
+	 * 
+	 * @see BaseWriter
+	 */
+	public CompletableFuture<Integer> 	storeLater(DTheorem theorem, boolean overwrite) {
 
-			s.execute(sql);
+		ArrayList<DTheorem.Stored> stored = new ArrayList<DTheorem.Stored>();
 
-			ResultSet result = s.getResultSet();
+		TheoremChanges changes;
 
-			count = result.getInt(1);
+		synchronized (theorem) {
 
-			return count;
+			changes = changes(theorem, overwrite, stored);
 
-		} catch (SQLException sqle) { sqle.printStackTrace(); }
+			theorem.submitted(changes.name, changes.upserts.keySet());
+		}
 
-		return -1;
+		return writer.submit(theoremKey(changes.name), changes)
+					 .whenComplete((counter, failure) -> theorem.settle(changes.name, failure == null ? stored : null));
 	}
-	
+
 	/**
-	 * Insert bindings into the database. The bindings are used to enable direct typing of primitives into the theorem.
-	 *
-	 * @param bijection 	A bijective array of pairs of formals to keyboard key short-cuts. Used to enable typing primitives. 
-	 * @param theorem 		The name of the grouping, the view that the formals bound belong to.
-	 * @return				The	number of sql commands executed (updates).
+	 * Takes a snapshot of what has to be written for a theorem to be stored. Statements are written if added or 
+	 * altered since the theorem was last committed, whatever writes are still queued, and removed if they may be in 
+	 * the base, as written by a write still queued. Statements stored under the name by others than this theorem are 
+	 * not known here, they are looked up when written.
+	 * 
+	 * @param theorem		The theorem to store.
+	 * @param overwrite		Overwrite if a theorem with the same name exist.
+	 * @param stored		Filled with the statements as written, to record as stored once committed.
+	 * @return				The rows to write.
 	 */
-	public int 			insertBindings(DoubleArray<Formal, Shortcut> bijection, DTheorem theorem)  {
+	private TheoremChanges 				changes(DTheorem theorem, boolean overwrite, List<DTheorem.Stored> stored) {
 
-		int counter = 0;
+		String name = theorem.getName();
 
-		String primitivesview = theorem.primitivestable;
-		String compositesview = theorem.compositestable;
-		
-		DoubleArray<Formal, Shortcut> primitives = Toolbox.filterBindings(bijection, Formal.FormalType.VARIABLE);
-		DoubleArray<Formal, Shortcut> composites = Toolbox.filterBindings(bijection, Formal.FormalType.COMPOSITE);
-				
-		try {
+		boolean tracked = theorem.isPersistedAs(name), unsettled = theorem.isUnsettledAs(name);
 
-			Statement s = connection.createStatement();
+		List<DStatement> current = theorem.allStatements();
 
-			String sqlpre, sqlmid, sql;
-			
-			if (primitives != null) {
+		TheoremChanges changes = new TheoremChanges(name, theorem.primitivestable, overwrite || tracked || unsettled);
 
-				sqlpre  = "UPDATE Primitives SET ";
-				sqlmid = " WHERE tablename='" + primitivesview + "' AND codepoint=";
+		changes.removed.addAll(theorem.storedIDs(name));
 
-				for (Tuple<Formal, Shortcut> pair : primitives) {
+		changes.resolve = !tracked;											// rows of whatever was stored under the name
 
-					Formal p = pair.first();
+		boolean added = false;
 
-					sql = sqlpre + "keycode='" + pair.second().keycode + "', " + 
-							"modifiers='" + pair.second().modifiers + "'" + 
-							sqlmid + p.getCodepoint() + ";";
+		for (DStatement statement : current) {
 
-					s.addBatch(sql);
+			if (!tracked && !unsettled) statement.renewID();				// never take over rows of another theorem
 
-					counter++;
-				}
-			}
+			stored.add(new DTheorem.Stored(statement, statement.getID(), statement.revision()));
 
-			if (composites != null) {
+			if (!changes.removed.remove(statement.getID())) 
+				added = true;
+			else 
+				if (!statement.isDirty()) continue;
 
-				sqlpre  = "UPDATE Composites SET ";
-				sqlmid = " WHERE tablename='" + compositesview + "' AND codepoint=";
+			changes.upserts.put(statement.getID(), new Tuple<byte[], Integer>(statement.formalsBytes(), statement.implicationID()));
+		}
 
-				for (Tuple<Formal, Shortcut> pair : composites) {
+		if (added || !changes.removed.isEmpty() || !tracked || unsettled) 		// the list of a write queued may differ
+			changes.ids = statementIDs(current);
 
-					Formal p = pair.first();
+		return changes;
+	}
 
-					sql = sqlpre + "keycode='" + pair.second().keycode + "', " + 
-							"modifiers='" + pair.second().modifiers + "'" + 
-							sqlmid + p.getCodepoint() + ";";
+	/**
+	 * Writes a snapshot of a theorem's changes in one transaction. If the statements stored under the theorem's name 
+	 * are to be looked up, those not in its new list are removed too.
+	 * 
+	 * @param changes			The rows to write.
+	 * @return					The number of sql instructions executed.
+	 * @throws SQLException		If the write failed. It is then rolled back.
+	 */
+	synchronized int 					write(TheoremChanges changes) throws SQLException {
 
-					s.addBatch(sql);
+		if (changes.isEmpty()) return 0;
 
-					counter++;
-				}
-			}
-			
-			endTransaction(s,"Inserted shortcuts in Primitives and Composites.");
+		LinkedHashSet<String> removed = new LinkedHashSet<String>(changes.removed);
 
-		} catch (SQLException sqle) { sqle.printStackTrace(); }
+		if (changes.resolve && changes.ids != null) {
+
+			List<String> kept = Arrays.asList(changes.ids.split(":"));
+
+			for (String id : fetchStatementIDs(changes.name)) 
+				if (!kept.contains(id)) removed.add(id);
+		}
+
+		boolean savepoint = beginTransaction();
+
+		try {
+
+			PreparedStatement s;
+
+			if (!removed.isEmpty()) {
+
+				s = statements.prepare("DELETE FROM Statements WHERE id=?;");
+
+				for (String id : removed) {
+					s.setString(1, id);
+					s.addBatch();
+				}
+
+				s.executeBatch();
+
+				for (String id : removed) SequenceIndex.unindex(statements, id);
+			}
+
+			if (!changes.upserts.isEmpty()) {
+
+				s = statements.prepare(sql_statements_upsert);
+
+				for (String id : changes.upserts.keySet()) {
+
+					Tuple<byte[], Integer> row = changes.upserts.get(id);
+
+					s.setString(1, id);
+					s.setString(2, changes.name);
+					s.setBytes(3, row.first());
+					s.setInt(4, row.second());
+
+					s.addBatch();
+				}
+
+				s.executeBatch();
+
+				for (String id : changes.upserts.keySet()) SequenceIndex.index(statements, id, changes.upserts.get(id).first());
+			}
+
+			if (changes.ids != null) {
+
+				s = statements.prepare(changes.replace ? sql_theorems_upsert : sql_theorems_insert);
+
+				s.setString(1, changes.name);
+				s.setString(2, changes.tablename);
+				s.setString(3, changes.ids);
+
+				s.executeUpdate();
+			}
+
+			commitTransaction(savepoint);
+
+		} catch (SQLException sqle) { 
+
+			rollbackTransaction(savepoint); 
+
+			throw sqle; 
+		}
+
+		int counter = removed.size() + changes.upserts.size() + (changes.ids != null ? 1 : 0);
+
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Stored theorem " + changes.name + ": " + changes.upserts.size() + " statements written, " + removed.size() + " removed.");
+
+		return counter;
+	}
+
+	private static String 		theoremKey(String theoremname) {
+
+		return "theorem:" + theoremname;
+	}
+
+	private static String 		statementIDs(List<DStatement> statements) {
+
+		String ids = "";
+
+		for (DStatement s : statements) 
+			ids += s.getID() + ":";			
+
+		return ids;
+	}
+	
+	/**
+	 * Inserts a collection of primitives into the base's table of primitives.
+	 *
+	 * @param primitives 	The formals to insert.
+	 * @param tablename 	The name of the view to which they belong.
+	 * @return 				The number of sql commands executed (inserts). 
+	 */
+	public synchronized int	insertPrimitivesTable(Collection<Formal> primitives, String tablename)	{
+
+		try {
+
+			PreparedStatement s = statements.prepare(sql_primitives_insert);
+
+			for (Formal primitive : primitives) {
+
+				s.setString(1, tablename);
+				s.setInt(2, primitive.getCodepoint());
+
+				s.addBatch();
+			}
+
+			boolean ok = endTransaction(s, "Trying to insert " + primitives.size() + " primitives.");	
+
+			if (ok) if (Toolbox.DEBUGMINIMAL) System.out.println("All ok. Table " + tablename + "View of primitives is in database.");
+			else if (Toolbox.DEBUGMINIMAL) System.out.println("Something wrong. Check table of primitives, if it exists.");
+
+			return primitives.size();
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+
+		return -1;
+	}
+	
+	/**
+	 * Insert a collection of composites into the base's table of composites. The write goes through the writer queue 
+	 * and this method waits for it.
+	 *
+	 * @param composites 	The composites to insert.
+	 * @param prefix 		The name of the view to which they belong.
+	 * @return  			The number of sql commands executed (inserts).
+	 * 
+	 * @see #insertCompositesTableLater(Collection, String)
+	 */
+	public int			insertCompositesTable(Collection<DComposite> composites, String prefix)	{
+
+		return await(insertCompositesTableLater(composites, prefix));
+	}
+
+	/**
+	 * Queues a collection of composites for insertion into the base's table of composites and returns at once. 
+	 * The components of the composites are read here, on the calling thread.
+	 *
+	 * @param composites 	The composites to insert.
+	 * @param prefix 		The name of the view to which they belong.
+	 * @return  			A future completing with the number of sql commands executed (inserts) when they are committed.
+	 * 
+	 * @see BaseWriter
+	 */
+	public CompletableFuture<Integer> 	insertCompositesTableLater(Collection<DComposite> composites, String prefix)	{
+
+		CompositesChanges changes = new CompositesChanges(prefix);
+
+		if (composites != null)
+			for (DComposite composite : composites) 
+				changes.rows.put(composite.getCodepoint(), DComposite.parseRows(composite.codepointsString(), composite.baselinesString()));
+
+		return writer.submit("composites:" + prefix, changes).whenComplete((counter, failure) -> templates.invalidate(prefix));
+	}
+
+	/**
+	 * Writes a snapshot of composites in one transaction.
+	 * 
+	 * @param changes			The rows to write.
+	 * @return					The number of sql instructions executed.
+	 * @throws SQLException		If the write failed. It is then rolled back.
+	 */
+	synchronized int 					write(CompositesChanges changes) throws SQLException {
+
+		boolean savepoint = beginTransaction();
+
+		try {
+
+			PreparedStatement s = statements.prepare(sql_composites_insert);
+
+			for (Integer codepoint : changes.rows.keySet()) {
+
+				s.setString(1, changes.tablename);
+				s.setInt(2, codepoint);
+
+				s.addBatch();
+			}
+
+			boolean ok = endTransaction(s, "Trying to insert " + changes.rows.size() + " composites.");	
+
+			s = statements.prepare(sql_components_insert);
+
+			for (Integer codepoint : changes.rows.keySet()) 
+				bindComponents(s, changes.tablename, codepoint, changes.rows.get(codepoint));
+
+			ok = ok && endTransaction(s, "Trying to insert components of " + changes.rows.size() + " composites.");
+
+			if (!ok) throw new SQLException("Composites of table " + changes.tablename + " not all inserted.");
+
+			commitTransaction(savepoint);
+
+			if (Toolbox.DEBUGMINIMAL) System.out.println("All ok. Table " + changes.tablename + "View of composites is in database.");
+
+		} catch (SQLException sqle) { 
+
+			rollbackTransaction(savepoint); 
+
+			throw sqle; 
+		}
+
+		return changes.rows.size();
+	}
+	
+	/**
+	 * Creates a new view for managing formals.
+	 *
+	 * @param viewprefix 	The name prefixed to identify the view.
+	 * @param formalsview 	The name of the view to fetch formals data from.
+	 * @return 				The number of rows in the new view.
+	 */
+	public synchronized int createView(String viewprefix, String formalsview) {
+
+		try {
+
+			Statement s = connection.createStatement();
+
+			String sql = "CREATE VIEW IF NOT EXISTS " + viewprefix + "View" + 
+					" AS " +
+					" SELECT tablename, codepoint, keycode, modifiers " +
+					" FROM " + formalsview + " WHERE tablename='" + viewprefix + "'";
+			
+			s.execute(sql);
+
+			connection.commit();
+
+			int count = 0;
+
+			sql = "SELECT COUNT(codepoint) FROM " + viewprefix + "View;";
+
+			s.execute(sql);
+
+			ResultSet result = s.getResultSet();
+
+			count = result.getInt(1);
+
+			return count;
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+
+		return -1;
+	}
+	
+	/**
+	 * Insert bindings into the database. The bindings are used to enable direct typing of primitives into the theorem.
+	 * The write goes through the writer queue and this method waits for it.
+	 *
+	 * @param bijection 	A bijective array of pairs of formals to keyboard key short-cuts. Used to enable typing primitives. 
+	 * @param theorem 		The name of the grouping, the view that the formals bound belong to.
+	 * @return				The	number of sql commands executed (updates).
+	 * 
+	 * @see #insertBindingsLater(DoubleArray, DTheorem)
+	 */
+	public int 			insertBindings(DoubleArray<Formal, Shortcut> bijection, DTheorem theorem)  {
+
+		return await(insertBindingsLater(bijection, theorem));
+	}
+
+	/**
+	 * Queues bindings for insertion into the database and returns at once. The short-cuts are read here, on the calling 
+	 * thread. Bindings of the same tables queued before are coalesced with these, later bindings of a formal winning.
+	 *
+	 * @param bijection 	A bijective array of pairs of formals to keyboard key short-cuts. Used to enable typing primitives. 
+	 * @param theorem 		The name of the grouping, the view that the formals bound belong to.
+	 * @return				A future completing with the number of sql commands executed (updates) when they are committed.
+	 * 
+	 * @see BaseWriter
+	 */
+	public CompletableFuture<Integer> 	insertBindingsLater(DoubleArray<Formal, Shortcut> bijection, DTheorem theorem)  {
+
+		BindingsChanges changes = new BindingsChanges(theorem.primitivestable, theorem.compositestable);
+
+		DoubleArray<Formal, Shortcut> primitives = Toolbox.filterBindings(bijection, Formal.FormalType.VARIABLE);
+		DoubleArray<Formal, Shortcut> composites = Toolbox.filterBindings(bijection, Formal.FormalType.COMPOSITE);
+
+		if (primitives != null) snapshotBindings(primitives, changes.primitives);
+		if (composites != null) snapshotBindings(composites, changes.composites);
+
+		return writer.submit("bindings:" + changes.primitivestable + ":" + changes.compositestable, changes);
+	}
+
+	/**
+	 * Writes a snapshot of bindings in one transaction.
+	 * 
+	 * @param changes			The short-cuts to write.
+	 * @return					The number of sql instructions executed.
+	 * @throws SQLException		If the write failed. It is then rolled back.
+	 */
+	synchronized int 					write(BindingsChanges changes) throws SQLException {
+
+		int counter = 0;
+
+		boolean savepoint = beginTransaction();
+
+		try {
+
+			if (!changes.primitives.isEmpty()) {
+
+				PreparedStatement s = statements.prepare("UPDATE Primitives SET keycode=?, modifiers=? WHERE tablename=? AND codepoint=?;");
+
+				counter += bindBindings(s, changes.primitives, changes.primitivestable);
+
+				endTransaction(s, "Inserted shortcuts in Primitives.");
+			}
+
+			if (!changes.composites.isEmpty()) {
+
+				PreparedStatement s = statements.prepare("UPDATE Composites SET keycode=?, modifiers=? WHERE tablename=? AND codepoint=?;");
+
+				counter += bindBindings(s, changes.composites, changes.compositestable);
+
+				endTransaction(s, "Inserted shortcuts in Composites.");
+			}
+
+			commitTransaction(savepoint);
+
+		} catch (SQLException sqle) { 
+
+			rollbackTransaction(savepoint); 
+
+			throw sqle; 
+		}
 
 		return counter;
 	}
@@ -565,7 +1063,10 @@ public class DeductionBase {
 
 	
 	/**
-	 * Fetches a theorem from the data base.
+	 * Fetches a theorem from the data base. The theorem, its statements and all composites referenced by them are 
+	 * fetched with a constant number of queries, one joining the theorem with its statements and one gathering the 
+	 * composites, and the described theorem is then built from those results in memory. Writes of the theorem still 
+	 * queued are committed first.
 	 *
 	 * @param theoremname 	The name of the theorem.
 	 * @return 				The described theorem. Remark: the theorem is not layed out yet. It is layed out over and by a canvas.
@@ -574,99 +1075,313 @@ public class DeductionBase {
 	 */
 	public DTheorem							fetchTheorem(String theoremname) {
 
-		String sql = "SELECT statements FROM Theorems WHERE name='" + theoremname + "';";
+		if (!passivemode) writer.flush(theoremKey(theoremname));			// queued writes first, to read what was last stored
 
 		try {
 
-			Statement s = connection.createStatement();
+			return read(cache -> describe(cache, readCompactTheorem(cache, theoremname)));
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+
+		return null;
+	}
+
+	/**
+	 * Fetches a theorem from the data base as the sequences of its statements only, without describing them, for
+	 * processing stored theorems without what it takes to display them. The theorem is fetched with one query, and no
+	 * composites are fetched. Writes of the theorem still queued are committed first.
+	 *
+	 * @param theoremname 	The name of the theorem.
+	 * @return 				The compact theorem, or null if it can't be found.
+	 *
+	 * @see #describe(CompactTheorem)
+	 */
+	public CompactTheorem					fetchCompactTheorem(String theoremname) {
+
+		if (!passivemode) writer.flush(theoremKey(theoremname));
+
+		try {
+
+			return read(cache -> readCompactTheorem(cache, theoremname));
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+
+		return null;
+	}
+
+	/**
+	 * Fetches all theorems from the data base as the sequences of their statements only, with one query. Writes still
+	 * queued are committed first.
+	 *
+	 * @return 	The compact theorems, in order of name, empty if none could be fetched.
+	 *
+	 * @see #fetchCompactTheorem(String)
+	 */
+	public ArrayList<CompactTheorem>		fetchCompactTheorems() {
+
+		if (!passivemode) writer.flush();
+
+		String sql = "SELECT t.name, t.statements, s.id, s.sequence FROM Theorems t "
+				   + "LEFT JOIN Statements s ON s.theorem = t.name ORDER BY t.name;";
+
+		try {
 
-			ResultSet r = s.executeQuery(sql);
+			return read(cache -> {
 
-			String statements = r.getString(1);
+				ArrayList<CompactTheorem> theorems = new ArrayList<CompactTheorem>();
 
-			String[] ids = statements.split(":");
+				try (ResultSet r = cache.prepare(sql).executeQuery()) {
 
-			ArrayList<String> 	sequences 	 = new ArrayList<String>();
-			ArrayList<Integer> 	implications = new ArrayList<Integer>();
+					boolean more = r.next();
 
-			for (String id : ids) {
+					while (more) {
 
-				sql = "SELECT sequence, implication FROM Statements WHERE id='" + id + "';";				
+						String name = r.getString(1), statements = r.getString(2);
 
-				r = s.executeQuery(sql);
+						HashMap<String, byte[]> rows = new HashMap<String, byte[]>();
+
+						do {
+
+							if (r.getString(3) != null) rows.put(r.getString(3), r.getBytes(4));
+
+							more = r.next();
+
+						} while (more && r.getString(1).equals(name));					// rows of one theorem are consecutive
+
+						theorems.add(compact(name, statements, rows));
+					}
+				}
+
+				return theorems;
+			});
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+
+		return new ArrayList<CompactTheorem>();
+	}
+
+	/**
+	 * Describes a theorem fetched compact, to display it. All composites referenced by its statements are fetched with
+	 * one query, and the formals are taken from the templates, so that the descriptions of symbols are shared with
+	 * those of theorems described before.
+	 *
+	 * @param compact 	The compact theorem.
+	 * @return 			The described theorem, or null if it can't be described. Remark: the theorem is not layed out yet.
+	 *
+	 * @see #fetchCompactTheorem(String)
+	 */
+	public DTheorem							describe(CompactTheorem compact) {
+
+		try {
+
+			return read(cache -> describe(cache, compact));
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+
+		return null;
+	}
+
+	private static CompactTheorem			readCompactTheorem(StatementCache cache, String theoremname) throws SQLException {
+
+		String sql = "SELECT t.statements, s.id, s.sequence FROM Theorems t "
+				   + "LEFT JOIN Statements s ON s.theorem = t.name WHERE t.name=?;";
+
+		PreparedStatement query = cache.prepare(sql);
+
+		query.setString(1, theoremname);
+
+		String statements = null;
+
+		HashMap<String, byte[]> rows = new HashMap<String, byte[]>();
+
+		try (ResultSet r = query.executeQuery()) {
+
+			while (r.next()) {
+
+				statements = r.getString(1);
+
+				String id = r.getString(2);
+
+				if (id != null) 
+					rows.put(id, r.getBytes(3));
+			}
+		}
+
+		if (statements == null) 
+			throw new SQLException("Theorem " + theoremname + " can't be found in base.");
+
+		return compact(theoremname, statements, rows);
+	}
+
+	/** The compact theorem of the statements listed by a theorem, decoded from the rows of the statements by id. */
+	private static CompactTheorem			compact(String theoremname, String statements, HashMap<String, byte[]> rows) throws SQLException {
+
+		ArrayList<String> 			ids 		= new ArrayList<String>();
+		ArrayList<FormalSequence> 	sequences 	= new ArrayList<FormalSequence>();
+
+		for (String id : statements != null ? statements.split(":") : new String[0]) {
+
+			if (id.isEmpty()) continue;
+
+			byte[] row = rows.get(id);
+
+			if (row == null) {
+
+				System.err.println("Base inconsistent.");
+
+				throw new SQLException("Statement with id " + id + " from theorem " + theoremname + " cant't be found i base.");
+			}
+
+			ids.add(id);
+
+			try { sequences.add(FormalSequence.decode(row)); } 
+
+			catch (IOException ioe) { throw new SQLException("Malformed sequence in theorem " + theoremname + ".", ioe); }
+		}
+
+		return new CompactTheorem(theoremname, ids, sequences);
+	}
+
+	private DTheorem						describe(StatementCache cache, CompactTheorem compact) throws SQLException {
+
+		String theoremname = compact.name();
+
+		HashMap<Integer, String> tables = new HashMap<Integer, String>();
+
+		HashMap<Integer, ArrayList<int[]>> composites = fetchCompositeComponents(cache, compact.composites(), tables);
+
+		ArrayList<Integer> implications = new ArrayList<Integer>();
+
+		ArrayList<ArrayList<Described>> statementlists = new ArrayList<ArrayList<Described>>();
+
+		for (FormalSequence sequence : compact) {
+
+			implications.add(sequence.isClosed() ? sequence.implication() : -1);
+
+			ArrayList<Described> statementlist = new ArrayList<Described>(sequence.size());
+
+			for (int i = 0; i < sequence.size(); i++) {
+
+				int codepoint = sequence.codepoint(i);
+
+				if (sequence.isComposite(i)) {
+
+					ArrayList<int[]> components = composites.get(codepoint);
+
+					if (components == null)
+						throw new SQLException("Composite " + codepoint + " from theorem " + theoremname + " cant't be found i base.");
+
+					DComposite described = templates.composite(tables.get(codepoint), codepoint, () -> new DComposite(DComposite.makeComponents(components), codepoint));
+
+					statementlist.add(described);
+
+				} else {
+
+					Described primitive = templates.primitive(codepoint);
+
+					statementlist.add(primitive);
+				}
+			}
+
+			statementlists.add(statementlist);
+
+			if (Toolbox.DEBUGVERBOSE) System.out.print("Described " + sequence + " as " + statementlist.size() + " sized statement.\n");
+		}
 
-				if (r.next()) {
+		DTheorem theorem = new DTheorem(theoremname, statementlists, parseToImplicationType(implications));
 
-					sequences.add(r.getString(1));
-					implications.add(r.getInt(2));
+		List<DStatement> restored = theorem.allStatements();
 
-				} else {
+		List<String> ids = compact.ids();
 
-					System.err.println("Base inconsistent.");
+		if (restored.size() == ids.size()) {
 
-					throw new SQLException("Statement with id " + id + " from theorem " + theoremname + " cant't be found i base.");
-				}
-			}
+			for (int i = 0; i < ids.size(); i++) restored.get(i).restoreID(ids.get(i));
 
-			int batchsize = sequences.size();
+			theorem.markPersisted(theoremname);
+		}
+	
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Theorem from db:  #s=" + theorem.lengthInStatements() + ", #p=" + theorem.lengthInFormals());	
 
-			ArrayList<ImplicationType> types = parseToImplicationType(implications);
+		return theorem;
+	}
 
-			ArrayList<ArrayList<Described>> statementlists = new ArrayList<ArrayList<Described>>();
+	/**
+	 * Fetches the identifications of the statements stored for a theorem, in order.
+	 * 
+	 * @param theoremname	The name of the theorem.
+	 * 
+	 * @return				The statement identifications, empty if no such theorem is stored.
+	 */
+	private ArrayList<String> 	fetchStatementIDs(String theoremname) {
 
-			for (String sequence : sequences) {
+		ArrayList<String> ids = new ArrayList<String>();
 
-				if (Toolbox.DEBUGVERBOSE) System.out.print("Parsing from sequence: " + sequence);
+		try {
 
-				String[] tokens = sequence.split(":");
+			PreparedStatement query = statements.prepare("SELECT statements FROM Theorems WHERE name=?;");
 
-				ArrayList<Described> statementlist = new ArrayList<Described>();
+			query.setString(1, theoremname);
 
-				int codepoint;
+			try (ResultSet r = query.executeQuery()) {
 
-				for (String token : tokens) {
+				if (r.next() && r.getString(1) != null) 
+					for (String id : r.getString(1).split(":")) 
+						if (!id.isEmpty()) ids.add(id);
+			}
 
-					if (token.length() > 1) {
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
 
-						codepoint = Integer.parseInt(token);
+		return ids;
+	}
 
-						sql = "SELECT codepoint, codepoints, baselines FROM Composites WHERE codepoint='" + codepoint 	+ "';";
+	/**
+	 * Fetches the stored components of a set of composites in one query.
+	 * 
+	 * @param cache			The prepared statements of the connection to query.
+	 * @param codepoints	The codepoints of the composites.
+	 * @param tables		Filled with the table the components of each composite are taken from.
+	 * 
+	 * @return				A map from composite codepoint to its components, as rows of codepoint, x, y and length. If a 
+	 * 						composite is stored in several tables the components of one of them are used.
+	 * 
+	 * @throws SQLException	General SQL exception for now.
+	 */
+	private static HashMap<Integer, ArrayList<int[]>> fetchCompositeComponents(StatementCache cache, Collection<Integer> codepoints, HashMap<Integer, String> tables) throws SQLException {
 
-						r = s.executeQuery(sql);
+		HashMap<Integer, ArrayList<int[]>> components = new HashMap<Integer, ArrayList<int[]>>();
 
-						codepoint = r.getInt(1);
+		ArrayList<Integer> fetched = new ArrayList<Integer>(codepoints);
 
-						String codepointsstring = r.getString(2);
-						String baselinesstring  = r.getString(3);
+		for (int from = 0; from < fetched.size(); from += MAXPARAMETERS) {							// a query per batch of parameters
 
-						DComposite described = new DComposite(DComposite.parseComponents(codepointsstring, baselinesstring), codepoint);
+			List<Integer> batch = fetched.subList(from, Math.min(fetched.size(), from + MAXPARAMETERS));
 
-						statementlist.add(described);
+			String sql = "SELECT composite, tablename, codepoint, x, y, length FROM CompositeComponents "
+					   + "WHERE composite IN (" + parameterList(batch.size()) + ") ORDER BY composite, tablename, ordinal;";
 
-					} else {
+			PreparedStatement query = cache.prepare(sql);
 
-						codepoint = (int) token.charAt(0);
+			int i = 1;
 
-						Described primitive = new DPrimitive(codepoint);
+			for (Integer codepoint : batch) query.setInt(i++, codepoint);
 
-						statementlist.add(primitive);
-					}					
-				}
+			try (ResultSet r = query.executeQuery()) {
 
-				statementlists.add(statementlist);
+				while (r.next()) {
 
-				if (Toolbox.DEBUGVERBOSE) System.out.print(" to " + statementlist.size() + " sized statement.\n");
-			}
+					int composite = r.getInt(1);
 
-			DTheorem theorem = new DTheorem(theoremname, statementlists, types);
-			
-			if (Toolbox.DEBUGMINIMAL) System.out.println("Theorem from db:  #s=" + theorem.lengthInStatements() + ", #p=" + theorem.lengthInFormals());	
+					String table = r.getString(2);
 
-			return theorem;
+					if (!table.equals(tables.computeIfAbsent(composite, c -> table))) continue;
 
-		} catch (SQLException sqle) { sqle.printStackTrace(); }
+					components.computeIfAbsent(composite, c -> new ArrayList<int[]>()).add(new int[] { r.getInt(3), r.getInt(4), r.getInt(5), r.getInt(6) });
+				}
+			}
+		}
 
-		return null;
+		return components;
 	}
 
 	/**
@@ -678,39 +1393,44 @@ public class DeductionBase {
 	 */
 	public DoubleArray<Formal, Shortcut> 	fetchPrimitives(String viewname) {			
 
-		DoubleArray<Formal, Shortcut> bindings = new DoubleArray<Formal, Shortcut>();
-
 		try {
 
-			String sql = "SELECT * FROM Primitives WHERE tablename='" + viewname + "';";
+			return read(cache -> {
 
-			Statement query = connection.createStatement();
+				DoubleArray<Formal, Shortcut> bindings = Toolbox.bindings();
 
-			ResultSet result = query.executeQuery(sql);
+				PreparedStatement query = cache.prepare("SELECT * FROM Primitives WHERE tablename=?;");
 
-			while (result.next()) {
+				query.setString(1, viewname);
 
-				int codepoint = result.getInt(2);
-				int keycode = result.getInt(3);
-				int modifiers = result.getInt(4);
+				try (ResultSet result = query.executeQuery()) {
 
-				DPrimitive primitive = new DPrimitive(codepoint);
+					while (result.next()) {
 
-				Shortcut binding = null;
-				
-				if (keycode != -1)
-					binding = new Shortcut(keycode, modifiers);
+						int codepoint = result.getInt(2);
+						int keycode = result.getInt(3);
+						int modifiers = result.getInt(4);
 
-				bindings.add(new Tuple<Formal, Shortcut>(primitive.value(), binding));
-			}
+						Shortcut binding = null;
+					
+						if (keycode != -1)
+							binding = new Shortcut(keycode, modifiers);
+
+						bindings.add(new Tuple<Formal, Shortcut>(Primitive.makeValue(codepoint), binding));
+					}
+				}
+
+				return bindings;
+			});
 
 		} catch (SQLException e) { e.printStackTrace(); }
 
-		return bindings;
+		return Toolbox.bindings();
 	}
 
 	/**
-	 * Fetches a mapping of composites from the data base.
+	 * Fetches a mapping of composites from the data base. A composite stored without components is kept, framing the
+	 * glyph of {@link Toolbox#DUMMY} as a component whose codepoint is unknown.
 	 *
 	 * @param viewname 	The name of the collection (sql view) to fetch. 
 	 * 
@@ -718,58 +1438,90 @@ public class DeductionBase {
 	 */	
 	public DoubleArray<Described, Shortcut> fetchComposites(String viewname) {
 
-		DoubleArray<Described, Shortcut> bindings = new DoubleArray<Described, Shortcut>();
-
 		try {
 
-			String sql = "SELECT * FROM Composites where tablename='" + viewname + "';";
+			return read(cache -> {
 
-			Statement query = connection.createStatement();
+				DoubleArray<Described, Shortcut> bindings = Toolbox.bindings();
 
-			ResultSet result = query.executeQuery(sql);
+				PreparedStatement query = cache.prepare("SELECT c.codepoint, c.keycode, c.modifiers, k.codepoint, k.x, k.y, k.length "
+													  + "FROM Composites c LEFT JOIN CompositeComponents k ON k.tablename = c.tablename AND k.composite = c.codepoint "
+													  + "WHERE c.tablename=? ORDER BY c.rowid, k.ordinal;");
 
-			while (result.next()) {
+				query.setString(1, viewname);
+
+				try (ResultSet result = query.executeQuery()) {
+
+					ArrayList<int[]> components = new ArrayList<int[]>();
+
+					int codepoint = 0, keycode = 0, modifiers = 0;
+
+					boolean more = result.next();
+
+					while (more) {
+
+						codepoint 	= result.getInt(1);
+						keycode 	= result.getInt(2);
+						modifiers 	= result.getInt(3);
+
+						int component = result.getInt(4);
+
+						if (!result.wasNull())												// a composite without components has one row of nulls
+							components.add(new int[] { component, result.getInt(5), result.getInt(6), result.getInt(7) });
 
-				int codepoint 		= result.getInt(2);
-				String codepoints 	= result.getString(3);
-				String baselines 	= result.getString(4);				
-				int keycode 		= result.getInt(5);
-				int modifiers 		= result.getInt(6);
+						more = result.next();
 
-				DComposite composite = new DComposite(DComposite.parseComponents(codepoints, baselines), codepoint);			
+						if (more && result.getInt(1) == codepoint) continue;		// rows of one composite are consecutive
 
-				Shortcut binding = null; 
+						if (components.isEmpty())											// kept and bound, framing the dummy glyph
+							components.add(new int[] { -1, 0, 0, Toolbox.advance((char) Toolbox.DUMMY.getCodepoint()) });
+
+						int cp = codepoint;
+
+						DComposite composite = templates.composite(viewname, cp, () -> new DComposite(DComposite.makeComponents(components), cp));
+
+						Shortcut binding = null; 
 				
-				if (keycode != -1)
-					binding = new Shortcut(keycode, modifiers);
+						if (keycode != -1)
+							binding = new Shortcut(keycode, modifiers);
 
-				bindings.add(new Tuple<Described, Shortcut>(composite, binding));
-			}
+						bindings.add(new Tuple<Described, Shortcut>(composite, binding));
+
+						components.clear();
+					}
+				}
+
+				return bindings;
+			});
 
 		} catch (SQLException e) { e.printStackTrace(); }
 
-		return bindings;
+		return Toolbox.bindings();
 	}
 
 	
 	private ArrayList<String> 	fetchStringColumn(String column, String table) {
 
-		ArrayList<String> names = new ArrayList<String>();
+		try {
+
+			return read(cache -> {
 
-		String sql = "SELECT " + column + " FROM " + table + ";";
+				ArrayList<String> names = new ArrayList<String>();
 
-		try {
+				PreparedStatement s = cache.prepare("SELECT " + column + " FROM " + table + ";");
 
-			Statement s = connection.createStatement();
+				try (ResultSet result = s.executeQuery()) {
 
-			ResultSet result = s.executeQuery(sql);
+					while (result.next()) 			
+						names.add(result.getString(1));
+				}
 
-			while (result.next()) 			
-				names.add(result.getString(1));
+				return names;
+			});
 
 		} catch (SQLException sqle) { sqle.printStackTrace(); }
 
-		return names;
+		return new ArrayList<String>();
 	}
 
 	/**
@@ -782,6 +1534,94 @@ public class DeductionBase {
 		return fetchStringColumn("name", "Theorems");
 	}
 
+	/**
+	 * Searches the stored statements for a sequence of primitives, given as a string of their symbols. White space 
+	 * between symbols is ignored, so "a + b" and "a+b" are searched alike.
+	 *
+	 * @param symbols 	The symbols of the primitives in order.
+	 * @return 			The theorem names and statement identifications of the statements holding them in a row.
+	 * 
+	 * @see #search(int[], boolean[])
+	 */
+	public ArrayList<Tuple<String, String>> search(String symbols) {
+
+		int[] codepoints = symbols.codePoints().filter(codepoint -> !Character.isWhitespace(codepoint)).toArray();
+
+		return search(codepoints, new boolean[codepoints.length]);
+	}
+
+	/**
+	 * Searches the stored statements for a sequence of formals. The statements are found through the inverted index 
+	 * kept in StatementGrams, and then checked against the sequence unless it is a single formal. Of a sequence with more
+	 * grams than a query takes parameters, statements are found by the first of them. Writes still queued are committed 
+	 * first.
+	 *
+	 * @param codepoints 	The codepoints of the formals in order.
+	 * @param composites 	For each codepoint, if it is that of a composite.
+	 * @return 				The theorem names and statement identifications of the statements holding the formals in 
+	 * 						a row, ordered by theorem name. Empty if nothing is searched for.
+	 * 
+	 * @see SequenceIndex
+	 */
+	public ArrayList<Tuple<String, String>> search(int[] codepoints, boolean[] composites) {
+
+		ArrayList<Tuple<String, String>> found = new ArrayList<Tuple<String, String>>();
+
+		if (codepoints.length == 0) return found;
+
+		long[] searched = new long[codepoints.length];
+
+		for (int i = 0; i < codepoints.length; i++) searched[i] = SequenceIndex.tagged(codepoints[i], composites[i]);
+
+		LinkedHashSet<Long> grams = SequenceIndex.grams(searched, true);
+
+		List<Long> filtering = new ArrayList<Long>(grams).subList(0, Math.min(grams.size(), MAXPARAMETERS - 1));	// the sequence check does the rest
+
+		flush();
+
+		boolean checked = searched.length > 1;
+
+		String sql = "SELECT s.theorem, s.id" + (checked ? ", s.sequence" : "") + " FROM Statements s WHERE s.id IN "
+				   + "(SELECT statement FROM StatementGrams WHERE gram IN (" + parameterList(filtering.size()) + ") GROUP BY statement HAVING COUNT(*)=?) "
+				   + "ORDER BY s.theorem, s.rowid;";
+
+		try {
+
+			return read(cache -> {
+
+				PreparedStatement query = cache.prepare(sql);
+
+				int i = 1;
+
+				for (Long gram : filtering) query.setLong(i++, gram);
+
+				query.setInt(i, filtering.size());
+
+				try (ResultSet r = query.executeQuery()) {
+
+					while (r.next()) {
+
+						if (!checked) { found.add(new Tuple<String, String>(r.getString(1), r.getString(2))); continue; }
+
+						try {
+
+							if (SequenceIndex.contains(SequenceIndex.formals(r.getBytes(3)), searched)) 
+								found.add(new Tuple<String, String>(r.getString(1), r.getString(2)));
+
+						} catch (IOException ioe) { System.err.println("Malformed sequence of statement " + r.getString(2) + "."); }
+					}
+				}
+
+				if (Toolbox.DEBUGMINIMAL) System.out.println("Searched " + grams.size() + " grams, found " + found.size() + " statements.");
+
+				return found;
+			});
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+
+		return found;
+	}
+
 	/**
 	 * BAD IMPLEMENTATION - BE MORE SPECIFIC AND HANDLE ERRORS.
 	 * 
@@ -806,23 +1646,28 @@ public class DeductionBase {
  	 */
 	public ArrayList<Integer> 	fetchCategory(String categoryname) {
 
-		ArrayList<Integer> codepoints = new ArrayList<Integer>();
+		try {
 
-		String sql = "SELECT codepoint FROM Primitives WHERE tablename='" + categoryname + "';";
+			return read(cache -> {
 
-		try {
+				ArrayList<Integer> codepoints = new ArrayList<Integer>();
 
-			Statement s = connection.createStatement();
+				PreparedStatement s = cache.prepare("SELECT codepoint FROM Primitives WHERE tablename=?;");
+
+				s.setString(1, categoryname);
 
-			ResultSet result = s.executeQuery(sql);
-			//connection.commit();
+				try (ResultSet result = s.executeQuery()) {
+
+					while (result.next()) 			
+						codepoints.add(result.getInt(1));
+				}
 
-			while (result.next()) 			
-				codepoints.add(result.getInt(1));
+				return codepoints;
+			});
 
 		} catch (SQLException sqle) { sqle.printStackTrace(); }
 
-		return codepoints;
+		return new ArrayList<Integer>();
 	}
 
 	/**
@@ -836,17 +1681,21 @@ public class DeductionBase {
 	 */
 	public boolean 				contains(String element, String table, String column) {
 
-		try (Statement s = connection.createStatement()) {
+		try {
 
-			s.execute("SELECT COUNT(" + column + ") FROM " + table + " WHERE " + column + "='" +  element + "';");
+			return read(cache -> {
 
-			ResultSet result = s.getResultSet();
+				PreparedStatement s = cache.prepare("SELECT COUNT(" + column + ") FROM " + table + " WHERE " + column + "=?;");
 
-			int occurrences = result.getInt(1);
+				s.setString(1, element);
 
-			s.close();
+				try (ResultSet result = s.executeQuery()) {
 
-			return occurrences > 0;
+					int occurrences = result.getInt(1);
+
+					return occurrences > 0;
+				}
+			});
 
 		} catch (SQLException e) {
 
@@ -860,95 +1709,209 @@ public class DeductionBase {
 	/* * * * * * * * * * * * helpers, not alternating * * * * * * * * * * * */
 	
 	
-	private boolean 			endTransaction(Statement s, String message) 	throws SQLException  {
+	/** A query run on the prepared statements of one connection. */
+	interface Query<T> {
 
-		int[] oks = s.executeBatch();
+		T run(StatementCache cache) 	throws SQLException;
+	}
 
-		boolean allok = allok(oks);
+	/**
+	 * Runs a query on a read-only connection from the pool, or on the writing connection if there is no pool.
+	 * 
+	 * @param <T>				The type of the query's result.
+	 * @param query				The query.
+	 * @return					The query's result.
+	 * @throws SQLException		If the query failed.
+	 */
+	<T> T 						read(Query<T> query) 	throws SQLException {
 
-		int batchsize = oks.length;
+		if (readers == null) 
+			synchronized (this) { return query.run(statements); }
 
-		if (allok) {
+		StatementCache reader = readers.acquire();
 
-			if (Toolbox.DEBUGMINIMAL) System.out.println(message + "\t" + batchsize + " sql-transactions in batch." );
-			if (Toolbox.DEBUGMINIMAL) System.out.println("Autocommit");
+		try { return query.run(reader); } finally { readers.release(reader); }
+	}
+
+	/**
+	 * Opens the transaction of a group of writes, committed together by {@link #commitGroup()}. Called by the writer 
+	 * thread, and by the importer of a {@link BaseArchive}, with this base locked.
+	 * 
+	 * @throws SQLException 	If the transaction can't be opened.
+	 */
+	void 						beginGroup() 	throws SQLException {
 
-		} else connection.rollback();
+		connection.setAutoCommit(false);
 
+		grouped = true;
+	}
 
-		return allok;
+	/**
+	 * Commits the transaction of a group of writes.
+	 * 
+	 * @throws SQLException 	If the commit failed.
+	 */
+	void 						commitGroup() 	throws SQLException {
+
+		try { connection.commit(); } 
+
+		finally { 
+
+			grouped = false; 
+
+			connection.setAutoCommit(true); 
+		}
+	}
+
+	/**
+	 * Rolls back the transaction of a group of writes.
+	 */
+	void 						rollbackGroup() {
+
+		grouped = false;
+
+		try { 
+
+			connection.rollback(); 
+			connection.setAutoCommit(true); 
+
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
 	}
 
+	/**
+	 * Begins the transaction of one write. Within a group transaction the write gets a savepoint of its own instead, 
+	 * so that it can be rolled back alone. The savepoint is set in sql as the driver doesn't support jdbc savepoints.
+	 * 
+	 * @return 					Wether a savepoint was set, to be passed on when ending the transaction.
+	 * @throws SQLException 	If the transaction can't be begun.
+	 */
+	private boolean 			beginTransaction() 	throws SQLException {
+
+		if (grouped) {
+
+			statements.prepare("SAVEPOINT write;").execute();
 
-	private static String 		valuesString(Formal primitive, String viewname) {
+			return true;
+		}
 
-		String result = "(";
+		connection.setAutoCommit(false);
 
-		result += "'" + viewname + "', " ;
+		return false;
+	}
 
-		result += primitive.getCodepoint();
+	private void 				commitTransaction(boolean savepoint) 	throws SQLException {
 
-		result += ");";
+		if (savepoint) statements.prepare("RELEASE write;").execute();
 
-		return result;
+		else try { connection.commit(); } finally { connection.setAutoCommit(true); }
 	}
 
-	private static String 		valuesString(DComposite composite, String viewname) {
+	private void 				rollbackTransaction(boolean savepoint) {
+
+		try {
 
-		String result = "(";
+			if (savepoint) {
+				statements.prepare("ROLLBACK TO write;").execute();
+				statements.prepare("RELEASE write;").execute();
+			}
 
-		result += "'" + viewname + "', " ;
+			else {
+				connection.rollback();
+				connection.setAutoCommit(true);
+			}
 
-		result += "'" + composite.getCodepoint() + "', ";
+		} catch (SQLException sqle) { sqle.printStackTrace(); }
+	}
 
-		result += "'" + composite.codepointsString() + "', ";
+	private static int 			await(CompletableFuture<Integer> future) {
 
-		result += "'" + composite.baselinesString() + "', ";
+		try { return future.get(); } 
 
-		result += "0, 0);";
+		catch (ExecutionException ee) { ee.getCause().printStackTrace(); }
+		catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
 
-		return result;
+		return -1;
 	}
 
-	private static String 		valuesString(DStatement statement, Theorem parent) {
+	private boolean 			endTransaction(Statement s, String message) 	throws SQLException  {
 
-		String formals = statement.formalsString();
+		int[] oks = s.executeBatch();
 
-		String result = "(";
+		boolean allok = allok(oks);
 
-		result += "'" + statement.getID() + "', ";
+		int batchsize = oks.length;
 
-		result += "'" + parent.getName() + "', ";
+		if (allok) {
 
-		result += "'" + formals + "', ";
+			if (Toolbox.DEBUGMINIMAL) System.out.println(message + "\t" + batchsize + " sql-transactions in batch." );
+			if (Toolbox.DEBUGMINIMAL) System.out.println("Autocommit");
 
-		result += statement.implicationID() + ");";
+		} else if (connection.getAutoCommit()) connection.rollback();			// within a transaction the caller rolls back
 
-		return result;
-	}	
 
-	
-	private static String[] 	TheoremToSQL(DTheorem theorem) {
+		return allok;
+	}
+
+
+	private static String 		parameterList(int size) {
+
+		StringBuilder parameters = new StringBuilder();
+
+		for (int i = 0; i < size; i++) 
+			parameters.append(i == 0 ? "?" : ", ?");
+
+		return parameters.toString();
+	}
+
+	private static int 			bindBindings(PreparedStatement s, LinkedHashMap<Integer, Shortcut> bindings, String tablename) 	throws SQLException {
 
-		DStatement preliminary = theorem.getPreliminary();
+		int counter = 0;
+
+		for (Integer codepoint : bindings.keySet()) {
 
-		String[] sqls = new String[theorem.lengthInStatements()];
+			Shortcut shortcut = bindings.get(codepoint);
 
-		String sql = sql_statements_insert;
+			s.setInt(1, shortcut != null ? shortcut.keycode : -1);
+			s.setInt(2, shortcut != null ? shortcut.modifiers : 0);
+			s.setString(3, tablename);
+			s.setInt(4, codepoint);
 
-		int i = 0;
-		for (DStatement s : theorem) {																										///(0B1D)
-			sql += valuesString(theorem.get(i), theorem);
-			sqls[i++] = sql;
-			sql = sql_statements_insert;
+			s.addBatch();
+
+			counter++;
 		}
 
-		if (preliminary.size() > 0) {
-			sql += valuesString(preliminary, theorem);
-			sqls[i++] = sql;
+		return counter;
+	}
+
+	private static int 			bindComponents(PreparedStatement s, String tablename, int composite, List<int[]> components) 	throws SQLException {
+
+		int ordinal = 0;
+
+		for (int[] component : components) {
+
+			s.setString(1, tablename);
+			s.setInt(2, composite);
+			s.setInt(3, ordinal++);
+			s.setInt(4, component[0]);
+			s.setInt(5, component[1]);
+			s.setInt(6, component[2]);
+			s.setInt(7, component[3]);
+
+			s.addBatch();
 		}
 
-		return sqls;
+		return ordinal;
+	}
+
+	private static void 		snapshotBindings(DoubleArray<Formal, Shortcut> bindings, LinkedHashMap<Integer, Shortcut> snapshot) {
+
+		for (Tuple<Formal, Shortcut> pair : bindings) {
+
+			Shortcut shortcut = pair.second();
+
+			snapshot.put(pair.first().getCodepoint(), shortcut != null ? new Shortcut(shortcut.keycode, shortcut.modifiers) : null);
+		}
 	}
 
 	private static boolean 		allok(int[] oks) {
@@ -989,4 +1952,136 @@ public class DeductionBase {
 		return types;
 	}
 
+
+	/* * * * * * * * * * * * snapshots, written by the writer thread * * * * * * * * * * * */
+
+
+	/** The rows to write for a theorem to be stored. */
+	static final class TheoremChanges implements BaseWriter.Write {
+
+		final String name, tablename;
+
+		/** If the theorem's row may be replaced, rather than must be new. */
+		final boolean replace;
+
+		/** Statements to insert or replace, by identification, as encoded sequence and implication. */
+		final LinkedHashMap<String, Tuple<byte[], Integer>> upserts = new LinkedHashMap<String, Tuple<byte[], Integer>>();
+
+		/** Identifications of statements to delete. */
+		final LinkedHashSet<String> removed = new LinkedHashSet<String>();
+
+		/** The theorem's new list of statement identifications, null if unchanged. */
+		String ids = null;
+
+		/** If the statements stored under the name are to be looked up when written, and removed unless listed. */
+		boolean resolve = false;
+
+		TheoremChanges(String name, String tablename, boolean replace) {
+			this.name = name;
+			this.tablename = tablename;
+			this.replace = replace;
+		}
+
+		boolean isEmpty() {
+			return upserts.isEmpty() && removed.isEmpty() && ids == null;
+		}
+
+		/** {@inheritDoc} */
+		public int write(DeductionBase base) throws SQLException {
+			return base.write(this);
+		}
+
+		/** {@inheritDoc} */
+		public BaseWriter.Write coalesce(BaseWriter.Write later) {
+
+			TheoremChanges next = (TheoremChanges) later;
+
+			if (next.replace) return next;								// it writes the whole theorem as it now is, this one is superseded
+
+			TheoremChanges merged = new TheoremChanges(name, next.tablename, replace || next.replace);
+
+			merged.upserts.putAll(upserts);
+			merged.removed.addAll(removed);
+
+			for (String id : next.removed) {							// deleting a row never written does no harm
+				merged.upserts.remove(id);
+				merged.removed.add(id);
+			}
+
+			for (String id : next.upserts.keySet()) {
+				merged.removed.remove(id);
+				merged.upserts.put(id, next.upserts.get(id));
+			}
+
+			merged.ids = next.ids != null ? next.ids : ids;
+			merged.resolve = resolve || next.resolve;
+
+			return merged;
+		}
+	}
+
+	/** The rows to write for a table of composites to be inserted. */
+	static final class CompositesChanges implements BaseWriter.Write {
+
+		final String tablename;
+
+		/** Components of the composites, by codepoint, as rows of codepoint, x, y and length. */
+		final LinkedHashMap<Integer, List<int[]>> rows = new LinkedHashMap<Integer, List<int[]>>();
+
+		CompositesChanges(String tablename) {
+			this.tablename = tablename;
+		}
+
+		/** {@inheritDoc} */
+		public int write(DeductionBase base) throws SQLException {
+			return base.write(this);
+		}
+
+		/** {@inheritDoc} */
+		public BaseWriter.Write coalesce(BaseWriter.Write later) {
+
+			CompositesChanges merged = new CompositesChanges(tablename);
+
+			merged.rows.putAll(rows);
+			merged.rows.putAll(((CompositesChanges) later).rows);
+
+			return merged;
+		}
+	}
+
+	/** The short-cuts to write for bindings of a theorem's tables of primitives and composites. */
+	static final class BindingsChanges implements BaseWriter.Write {
+
+		final String primitivestable, compositestable;
+
+		/** Short-cuts of primitives and of composites, by codepoint. Null for no short-cut. */
+		final LinkedHashMap<Integer, Shortcut> primitives = new LinkedHashMap<Integer, Shortcut>(), 
+											   composites = new LinkedHashMap<Integer, Shortcut>();
+
+		BindingsChanges(String primitivestable, String compositestable) {
+			this.primitivestable = primitivestable;
+			this.compositestable = compositestable;
+		}
+
+		/** {@inheritDoc} */
+		public int write(DeductionBase base) throws SQLException {
+			return base.write(this);
+		}
+
+		/** {@inheritDoc} */
+		public BaseWriter.Write coalesce(BaseWriter.Write later) {
+
+			BindingsChanges next = (BindingsChanges) later;
+
+			BindingsChanges merged = new BindingsChanges(primitivestable, compositestable);
+
+			merged.primitives.putAll(primitives);
+			merged.primitives.putAll(next.primitives);
+			merged.composites.putAll(composites);
+			merged.composites.putAll(next.composites);
+
+			return merged;
+		}
+	}
+
 }
@@ -0,0 +1,256 @@
+package control.db;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import control.Toolbox;
+import model.description.DComposite;
+import model.description.DPrimitive;
+import model.description.abstraction.Described;
+import model.description.abstraction.Placeholder;
+
+/**
+ * Rendered primitives and composites kept in front of a {@link DeductionBase}, keyed by table name and codepoint, so
+ * that a composite loaded a moment ago is not rendered again with all its components.<br><br>
+ *
+ * What is kept are templates that are never handed out. Callers get views of them, see {@link DComposite#view()} and
+ * {@link DPrimitive#view()}, that share the rendered images but have descriptions and locations of their own.
+ * Primitives are rendered alike in every table and are kept under the table {@link #PRIMITIVES}.<br><br>
+ *
+ * The cache is bounded by the estimated size of the images it holds, least recently used templates evicted first.
+ * The bound is taken from the system property {@value #PROPERTY}, in kilobytes.
+ */
+public class DescribedCache {
+
+	/** The system property giving the bound of the cache in kilobytes. */
+	public static final String PROPERTY = "deductionbase.cachesize";
+
+	/** The table under which primitives are kept. */
+	public static final String PRIMITIVES = "";
+
+	/** The bound in kilobytes if none is configured. */
+	public static final int DEFAULTSIZE = 16384;
+
+
+	private final LinkedHashMap<Key, Described> templates = new LinkedHashMap<Key, Described>(64, 0.75f, true);
+
+	private final LinkedHashMap<Key, Long> weights = new LinkedHashMap<Key, Long>();
+
+	private final long capacity;
+
+	private long weight = 0;
+
+	private long hits = 0, misses = 0, evictions = 0, invalidations = 0;
+
+
+	/**
+	 * Instantiates an empty cache.
+	 *
+	 * @param capacity The bound of the estimated size of all images kept, in bytes.
+	 */
+	public DescribedCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * The bound configured by system property {@value #PROPERTY}, or {@value #DEFAULTSIZE} kilobytes if there is none.
+	 *
+	 * @return The bound in bytes.
+	 */
+	public static long configured() {
+
+		String size = System.getProperty(PROPERTY);
+
+		if (size != null)
+			try { return Long.parseLong(size.trim()) * 1024; }
+
+			catch (NumberFormatException nfe) { System.err.println("Cache size " + size + " is not a number, using default."); }
+
+		return DEFAULTSIZE * 1024L;
+	}
+
+
+	/**
+	 * A view of a primitive, rendering it first if not kept.
+	 *
+	 * @param codepoint 	The codepoint of the primitive.
+	 * @return 				A described primitive of its own.
+	 */
+	public DPrimitive primitive(int codepoint) {
+		return ((DPrimitive) template(PRIMITIVES, codepoint, () -> new DPrimitive(codepoint))).view();
+	}
+
+	/**
+	 * A view of a composite of a table, made and rendered first if not kept.
+	 *
+	 * @param tablename 	The table of the composite.
+	 * @param codepoint 	The codepoint of the composite.
+	 * @param make 			Makes the composite if not kept, called without holding the cache.
+	 * @return 				A described composite of its own.
+	 */
+	public DComposite composite(String tablename, int codepoint, Supplier<DComposite> make) {
+		return ((DComposite) template(tablename, codepoint, make)).view();
+	}
+
+	/**
+	 * Forgets the templates of a table. Called when composites of the table are inserted or deleted.
+	 *
+	 * @param tablename The table of the templates.
+	 */
+	public synchronized void invalidate(String tablename) {
+
+		Iterator<Map.Entry<Key, Described>> entries = templates.entrySet().iterator();
+
+		while (entries.hasNext()) {
+
+			Key key = entries.next().getKey();
+
+			if (key.tablename.equals(tablename)) {
+
+				entries.remove();
+
+				weight -= weights.remove(key);
+				invalidations++;
+			}
+		}
+	}
+
+	/**
+	 * Forgets all templates.
+	 */
+	public synchronized void clear() {
+
+		invalidations += templates.size();
+
+		templates.clear();
+		weights.clear();
+
+		weight = 0;
+	}
+
+
+	/** @return The number of views made from kept templates. */
+	public synchronized long hits() { return hits; }
+
+	/** @return The number of templates made since none was kept. */
+	public synchronized long misses() { return misses; }
+
+	/** @return The number of templates evicted to keep within the bound. */
+	public synchronized long evictions() { return evictions; }
+
+	/** @return The number of templates forgotten by invalidation. */
+	public synchronized long invalidations() { return invalidations; }
+
+	/** @return The number of templates kept. */
+	public synchronized int size() { return templates.size(); }
+
+	/** @return The estimated size in bytes of the images kept. */
+	public synchronized long weight() { return weight; }
+
+	/** {@inheritDoc} */
+	public synchronized String toString() {
+		return "DescribedCache[size=" + templates.size() + ", weight=" + weight / 1024 + "/" + capacity / 1024 + "kB, hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + ", invalidations=" + invalidations + "]";
+	}
+
+
+	private Described template(String tablename, int codepoint, Supplier<? extends Described> make) {
+
+		Key key = new Key(tablename, codepoint);
+
+		synchronized (this) {
+
+			Described template = templates.get(key);
+
+			if (template != null) {
+
+				hits++;
+
+				return template;
+			}
+
+			misses++;
+		}
+
+		Described made = make.get();											// rendered without holding the cache
+
+		synchronized (this) {
+
+			Described template = templates.get(key);
+
+			if (template != null) return template;								// made meanwhile by another thread
+
+			long size = weigh(made);
+
+			templates.put(key, made);
+			weights.put(key, size);
+
+			weight += size;
+
+			evict();
+		}
+
+		return made;
+	}
+
+	private void evict() {
+
+		Iterator<Map.Entry<Key, Described>> eldest = templates.entrySet().iterator();
+
+		while (weight > capacity && templates.size() > 1) {
+
+			Key key = eldest.next().getKey();
+
+			eldest.remove();
+
+			weight -= weights.remove(key);
+			evictions++;
+
+			if (Toolbox.DEBUGVERBOSE) System.out.println("Evicted " + key + " from described cache.");
+		}
+	}
+
+	private static long weigh(Described described) {
+
+		long size = 4L * described.description().width * described.description().height;
+
+		if (described instanceof DComposite)
+			for (Placeholder component : ((DComposite) described).getConstituents())
+				size += 4L * component.described().description().width * component.described().description().height;
+
+		return size;
+	}
+
+
+	private static final class Key {
+
+		final String tablename;
+
+		final int codepoint;
+
+		Key(String tablename, int codepoint) {
+			this.tablename = tablename;
+			this.codepoint = codepoint;
+		}
+
+		public boolean equals(Object other) {
+
+			if (!(other instanceof Key)) return false;
+
+			Key key = (Key) other;
+
+			return key.codepoint == codepoint && key.tablename.equals(tablename);
+		}
+
+		public int hashCode() {
+			return Objects.hash(tablename, codepoint);
+		}
+
+		public String toString() {
+			return tablename + ":" + codepoint;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package control.db;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A fixed pool of read-only connections to the base, each with its own cache of prepared statements. Used by
+ * {@link DeductionBase} when its {@link ConnectionProfile} asks for readers, so that reads do not wait for the
+ * connection writing.<br><br>
+ *
+ * A connection is taken with {@link #acquire()} and must be given back with {@link #release(StatementCache)}.
+ * If all are taken the caller waits for one to be given back.
+ */
+public class ReadPool {
+
+	private final ArrayList<Connection> connections = new ArrayList<Connection>();
+
+	private final ArrayList<StatementCache> caches = new ArrayList<StatementCache>();
+
+	private final ArrayBlockingQueue<StatementCache> idle;
+
+	private int acquired = 0, waited = 0;
+
+
+	/**
+	 * Opens a pool of read-only connections.
+	 *
+	 * @param url 				The jdbc url of the base.
+	 * @param profile 			The profile to set the connections up by. Its number of readers is the size of the pool.
+	 * @throws SQLException 	If a connection can't be opened.
+	 */
+	public ReadPool(String url, ConnectionProfile profile) throws SQLException {
+
+		this.idle = new ArrayBlockingQueue<StatementCache>(profile.readers);
+
+		for (int i = 0; i < profile.readers; i++) {
+
+			Connection connection = DriverManager.getConnection(url, profile.readerProperties());
+
+			profile.configureReader(connection);
+
+			StatementCache cache = new StatementCache(connection);
+
+			connections.add(connection);
+			caches.add(cache);
+
+			idle.add(cache);
+		}
+	}
+
+
+	/**
+	 * Takes a connection from the pool, waiting for one if all are taken.
+	 *
+	 * @return 					The prepared statements of the connection taken.
+	 * @throws SQLException 	If interrupted while waiting.
+	 */
+	StatementCache acquire() throws SQLException {
+
+		StatementCache cache = idle.poll();
+
+		if (cache == null) {
+
+			synchronized (this) { waited++; }
+
+			try { cache = idle.take(); }
+
+			catch (InterruptedException ie) {
+
+				Thread.currentThread().interrupt();
+
+				throw new SQLException("Interrupted while waiting for a read connection.", ie);
+			}
+		}
+
+		synchronized (this) { acquired++; }
+
+		return cache;
+	}
+
+	/**
+	 * Gives a connection back to the pool.
+	 *
+	 * @param cache The prepared statements of the connection, as returned by {@link #acquire()}.
+	 */
+	void release(StatementCache cache) {
+		idle.offer(cache);
+	}
+
+	/**
+	 * Closes all connections of the pool.
+	 */
+	public void close() {
+
+		for (StatementCache cache : caches) cache.clear();
+
+		for (Connection connection : connections)
+			try { connection.close(); } catch (SQLException sqle) { sqle.printStackTrace(); }
+	}
+
+
+	/**
+	 * The number of connections in the pool.
+	 *
+	 * @return The size of the pool.
+	 */
+	public int size() {
+		return connections.size();
+	}
+
+	/** {@inheritDoc} */
+	public synchronized String toString() {
+		return "ReadPool[size=" + size() + ", idle=" + idle.size() + ", acquired=" + acquired + ", waited=" + waited + "]";
+	}
+}
@@ -0,0 +1,172 @@
+package control.db;
+
+import java.io.IOException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+
+import model.independent.SequenceDecoder;
+
+/**
+ * The inverted index of statement sequences kept in the table StatementGrams, one row per distinct gram of a
+ * statement. Used by {@link DeductionBase#search(int[], boolean[])} to find the statements holding a sequence of
+ * symbols without reading every statement.<br><br>
+ *
+ * A formal is taken as its codepoint shifted one step left, tagged in the lowest bit if a composite, as in the
+ * stored sequences. Each distinct formal of a statement is a gram, a unigram, with that value. Each two and three 
+ * formals in a row make a bigram and a trigram, hashes with the sign bit set so that they never equal unigrams, and 
+ * the next bit telling them apart. Hashes may collide, so statements found by bigrams or trigrams are checked against 
+ * the sequence searched for.
+ */
+public class SequenceIndex {
+
+	/** The bit telling trigrams from bigrams. */
+	private static final long TRIGRAM = 1L << 62;
+
+	private static final String sql_grams_insert = "INSERT OR IGNORE INTO StatementGrams(gram, statement) VALUES (?, ?);";
+	private static final String sql_grams_delete = "DELETE FROM StatementGrams WHERE statement=?;";
+
+
+	private SequenceIndex() {}
+
+
+	/**
+	 * The formals of a stored sequence, as tagged codepoints.
+	 *
+	 * @param sequence 			A sequence as written by {@link model.independent.SequenceEncoder}.
+	 * @return 					The formals in order.
+	 * @throws IOException 		If the sequence is malformed.
+	 */
+	public static long[] formals(byte[] sequence) throws IOException {
+
+		SequenceDecoder decoder = new SequenceDecoder(sequence);
+
+		long[] formals = new long[sequence.length];
+
+		int n = 0;
+
+		while (decoder.next()) formals[n++] = tagged(decoder.codepoint(), decoder.isComposite());
+
+		return Arrays.copyOf(formals, n);
+	}
+
+	/**
+	 * A formal as a tagged codepoint.
+	 *
+	 * @param codepoint 	The codepoint.
+	 * @param composite 	If it is the codepoint of a composite.
+	 * @return 				The codepoint shifted left and tagged.
+	 */
+	public static long tagged(int codepoint, boolean composite) {
+		return (Integer.toUnsignedLong(codepoint) << 1) | (composite ? 1 : 0);
+	}
+
+	/**
+	 * The distinct grams of a sequence of formals. When indexed a sequence has all its unigrams, bigrams and trigrams. 
+	 * When searched for only the longest grams it has are needed.
+	 *
+	 * @param formals 		The formals as tagged codepoints.
+	 * @param searched 		If the grams are to search for rather than to index.
+	 * @return 				The distinct grams.
+	 */
+	public static LinkedHashSet<Long> grams(long[] formals, boolean searched) {
+
+		LinkedHashSet<Long> grams = new LinkedHashSet<Long>();
+
+		if (!searched || formals.length == 1)
+			for (long formal : formals) grams.add(formal);
+
+		if (!searched || formals.length == 2)
+			for (int i = 0; i + 1 < formals.length; i++)
+				grams.add(hash(formals[i], formals[i + 1], 0) & ~TRIGRAM);
+
+		for (int i = 0; i + 2 < formals.length; i++)
+			grams.add(hash(formals[i], formals[i + 1], formals[i + 2]) | TRIGRAM);
+
+		return grams;
+	}
+
+	/**
+	 * Tells if a sequence of formals holds another in a row.
+	 *
+	 * @param formals 		The sequence searched.
+	 * @param searched 		The sequence searched for.
+	 * @return 				Wether found.
+	 */
+	public static boolean contains(long[] formals, long[] searched) {
+
+		outer:
+		for (int i = 0; i + searched.length <= formals.length; i++) {
+
+			for (int j = 0; j < searched.length; j++)
+				if (formals[i + j] != searched[j]) continue outer;
+
+			return true;
+		}
+
+		return false;
+	}
+
+
+	/**
+	 * Replaces the grams of a statement.
+	 *
+	 * @param cache 			The prepared statements of the writing connection, within a transaction.
+	 * @param id 				The statement's identification.
+	 * @param sequence 			The statement's stored sequence.
+	 * @return 					The number of grams inserted.
+	 * @throws SQLException 	If the grams can't be written or the sequence is malformed.
+	 */
+	static int index(StatementCache cache, String id, byte[] sequence) throws SQLException {
+
+		unindex(cache, id);
+
+		LinkedHashSet<Long> grams;
+
+		try { grams = grams(formals(sequence), false); }
+
+		catch (IOException ioe) { throw new SQLException("Malformed sequence of statement " + id + ".", ioe); }
+
+		PreparedStatement s = cache.prepare(sql_grams_insert);
+
+		for (Long gram : grams) {
+
+			s.setLong(1, gram);
+			s.setString(2, id);
+
+			s.addBatch();
+		}
+
+		if (!grams.isEmpty()) s.executeBatch();
+
+		return grams.size();
+	}
+
+	/**
+	 * Removes the grams of a statement.
+	 *
+	 * @param cache 			The prepared statements of the writing connection.
+	 * @param id 				The statement's identification.
+	 * @throws SQLException 	If the grams can't be deleted.
+	 */
+	static void unindex(StatementCache cache, String id) throws SQLException {
+
+		PreparedStatement s = cache.prepare(sql_grams_delete);
+
+		s.setString(1, id);
+
+		s.executeUpdate();
+	}
+
+
+	private static long hash(long first, long second, long third) {
+
+		long hash = first * 0x9E3779B97F4A7C15L;
+
+		hash = (hash ^ (hash >>> 29) ^ second) * 0xBF58476D1CE4E5B9L;
+		hash = (hash ^ (hash >>> 32) ^ third)  * 0x94D049BB133111EBL;
+
+		return (hash ^ (hash >>> 31)) | Long.MIN_VALUE;
+	}
+}
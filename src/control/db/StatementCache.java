@@ -0,0 +1,156 @@
+package control.db;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import control.Toolbox;
+
+/**
+ * A cache of prepared statements belonging to one connection. Statements are keyed by the shape of their query, that
+ * is the sql text with question marks where values are bound, so that sqlite parses and plans each shape only once.<br><br>
+ *
+ * Statements handed out are owned by the cache and should not be closed by the caller. The least recently used statement
+ * is closed and dropped when the cache is full.
+ *
+ * @see DeductionBase
+ */
+public class StatementCache {
+
+	/** Default number of statements kept prepared. */
+	public static final int CAPACITY = 64;
+
+	private final Connection connection;
+
+	private final LinkedHashMap<String, PreparedStatement> statements;
+
+	private int hits = 0, misses = 0;
+
+
+	/**
+	 * Instantiates a new cache of prepared statements for a connection.
+	 *
+	 * @param connection	The connection the statements are prepared on.
+	 * @param capacity		The maximum number of statements kept prepared.
+	 */
+	public StatementCache(Connection connection, int capacity) {
+
+		this.connection = connection;
+
+		this.statements = new LinkedHashMap<String, PreparedStatement>(2*capacity, 0.75f, true) {
+
+			protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+
+				boolean full = size() > capacity;
+
+				if (full) close(eldest.getValue());
+
+				return full;
+			}
+		};
+	}
+
+	/**
+	 * Instantiates a new cache of prepared statements for a connection, with default capacity.
+	 *
+	 * @param connection	The connection the statements are prepared on.
+	 */
+	public StatementCache(Connection connection) {
+		this(connection, CAPACITY);
+	}
+
+
+	/**
+	 * Returns a prepared statement for the query, preparing it only if the same query shape is not cached already.
+	 * Parameters and batch of a cached statement are cleared before it is returned. A cached statement that can't 
+	 * be reused, as after failing, is prepared anew.
+	 *
+	 * @param sql 				The query with question marks as placeholders for bound values.
+	 * @return 					The prepared statement. Not to be closed by the caller.
+	 * @throws SQLException 	If the statement can't be prepared.
+	 */
+	public synchronized PreparedStatement prepare(String sql) throws SQLException {
+
+		PreparedStatement statement = statements.get(sql);
+
+		if (statement != null && !statement.isClosed()) {
+
+			try {
+
+				statement.clearParameters();
+				statement.clearBatch();
+
+				hits++;
+
+				return statement;
+
+			} catch (SQLException sqle) { 										// the driver finalises a statement that failed
+
+				statements.remove(sql);
+
+				close(statement);
+			}
+		}
+
+		misses++;
+
+		statement = connection.prepareStatement(sql);
+
+		statements.put(sql, statement);
+
+		if (Toolbox.DEBUGVERBOSE) System.out.println("Prepared statement cached: " + sql);
+
+		return statement;
+	}
+
+	/**
+	 * Closes and forgets all cached statements. Counters are kept.
+	 */
+	public synchronized void clear() {
+
+		for (PreparedStatement statement : statements.values()) close(statement);
+
+		statements.clear();
+	}
+
+
+	/**
+	 * The number of requests served by an already prepared statement.
+	 *
+	 * @return The number of hits.
+	 */
+	public synchronized int hits() {
+		return hits;
+	}
+
+	/**
+	 * The number of requests that had to prepare a new statement.
+	 *
+	 * @return The number of misses.
+	 */
+	public synchronized int misses() {
+		return misses;
+	}
+
+	/**
+	 * The number of statements currently prepared.
+	 *
+	 * @return The size of the cache.
+	 */
+	public synchronized int size() {
+		return statements.size();
+	}
+
+	/** {@inheritDoc} */
+	public String toString() {
+		return "StatementCache[size=" + size() + ", hits=" + hits() + ", misses=" + misses() + "]";
+	}
+
+
+	private static void close(PreparedStatement statement) {
+
+		try { statement.close(); } catch (SQLException sqle) { sqle.printStackTrace(); }
+	}
+}
@@ -4,7 +4,12 @@
  * The three latter makes a lot of references to the first one by utf codepoint integers and those are well standardised. 
  * Theorems also reference statements with generated integer identification numbers. Composites are constructed by the user
  * and is therefore bound to have their own representation form. They are stored as codepoints together with their baselines 
- * consisting of coordinates to the beginning of it, the referencepoint, together with it's length.
+ * consisting of coordinates to the beginning of it, the referencepoint, together with it's length. Each component is a row of 
+ * its own in the table of composite components, in order. Statements store their sequence of codepoints, tagged when of 
+ * composites, in the binary form of {@link model.independent.SequenceEncoder}, and are indexed by their grams for searching, 
+ * see {@link control.db.SequenceIndex}.<br><br>
+ * 
+ * The schema is versioned by sqlite's user_version and migrated forward when the base is opened.
  *  
  * The database also maintains views for easier access. for example to all theorem names.<br><br>
  * 
@@ -0,0 +1,252 @@
+package model.description;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import control.Toolbox;
+import model.description.abstraction.Described;
+import model.description.abstraction.Placeholder;
+
+/**
+ * Rendered images of composites shared by all composites of the same structure, so that cloning a composite, as a
+ * button press does, and loading composites don't compose the same image again.<br><br>
+ *
+ * The structure of a composite is the size of its description and, per component in order, its codepoint, the size
+ * and reference point of its description and its baseline, the components of composite components included. Moving
+ * a component in the composite maker changes the structure and so the image is composed anew. The codepoint of the
+ * composite itself is left out, since clones of it have codepoints of their own.<br><br>
+ *
+ * The images handed out are shared and must be treated as immutable, see {@link GlyphCache}. The cache is bounded by
+ * the size of the images it holds, least recently used first evicted. The bound is taken from the system property
+ * {@value #PROPERTY}, in kilobytes.
+ */
+public class CompositeCache {
+
+	/** The system property giving the bound of the cache in kilobytes. */
+	public static final String PROPERTY = "deductionwriter.compositecache";
+
+	/** The bound in kilobytes if none is configured. */
+	public static final int DEFAULTSIZE = 8192;
+
+	private static final CompositeCache SHARED = new CompositeCache(configured());
+
+
+	private final LinkedHashMap<Key, BufferedImage> images = new LinkedHashMap<Key, BufferedImage>(64, 0.75f, true);
+
+	private final long capacity;
+
+	private long weight = 0;
+
+	private long hits = 0, misses = 0, evictions = 0;
+
+
+	/**
+	 * Instantiates an empty cache.
+	 *
+	 * @param capacity The bound of the size of all images kept, in bytes.
+	 */
+	public CompositeCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * The cache used by all described composites.
+	 *
+	 * @return The shared composite cache.
+	 */
+	public static CompositeCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The bound configured by system property {@value #PROPERTY}, or {@value #DEFAULTSIZE} kilobytes if there is none.
+	 *
+	 * @return The bound in bytes.
+	 */
+	public static long configured() {
+
+		String size = System.getProperty(PROPERTY);
+
+		if (size != null)
+			try { return Long.parseLong(size.trim()) * 1024; }
+
+			catch (NumberFormatException nfe) { System.err.println("Composite cache size " + size + " is not a number, using default."); }
+
+		return DEFAULTSIZE * 1024L;
+	}
+
+
+	/**
+	 * The image of a composite, composed first if none of the same structure is kept.
+	 *
+	 * @param composite 	The composite, its components filled and its description sized.
+	 * @param compose 		Composes the image if not kept, called without holding the cache.
+	 * @return 				The shared image, not to be drawn on.
+	 */
+	public BufferedImage image(DComposite composite, Supplier<BufferedImage> compose) {
+
+		Key key = new Key(Toolbox.FONTMETRICS.getFont(), structure(composite));
+
+		synchronized (this) {
+
+			BufferedImage image = images.get(key);
+
+			if (image != null) {
+
+				hits++;
+
+				return image;
+			}
+
+			misses++;
+		}
+
+		BufferedImage composed = compose.get();
+
+		synchronized (this) {
+
+			BufferedImage image = images.get(key);
+
+			if (image != null) return image;										// composed meanwhile by another thread
+
+			images.put(key, composed);
+
+			weight += weigh(composed);
+
+			evict();
+		}
+
+		return composed;
+	}
+
+	/**
+	 * Forgets all images, for example when the font changes.
+	 */
+	public synchronized void clear() {
+
+		images.clear();
+
+		weight = 0;
+	}
+
+
+	/** @return The number of images handed out without composing. */
+	public synchronized long hits() { return hits; }
+
+	/** @return The number of images composed. */
+	public synchronized long misses() { return misses; }
+
+	/** @return The number of images evicted to keep within the bound. */
+	public synchronized long evictions() { return evictions; }
+
+	/** @return The number of images kept. */
+	public synchronized int size() { return images.size(); }
+
+	/** {@inheritDoc} */
+	public synchronized String toString() {
+		return "CompositeCache[size=" + images.size() + ", weight=" + weight / 1024 + "/" + capacity / 1024 + "kB, hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+
+	private void evict() {
+
+		Iterator<Map.Entry<Key, BufferedImage>> eldest = images.entrySet().iterator();
+
+		while (weight > capacity && images.size() > 1) {
+
+			weight -= weigh(eldest.next().getValue());
+
+			eldest.remove();
+
+			evictions++;
+		}
+	}
+
+	private static long weigh(BufferedImage image) {
+		return 4L * image.getWidth() * image.getHeight();
+	}
+
+	/** The structure of a composite as a row of integers, see the class comment. */
+	private static int[] structure(DComposite composite) {
+
+		Row row = new Row();
+
+		append(row, composite);
+
+		return Arrays.copyOf(row.values, row.n);
+	}
+
+	private static void append(Row row, DComposite composite) {
+
+		DRectangle description = composite.description();
+
+		row.put(description.width, description.height, composite.getConstituents().size());
+
+		for (Placeholder component : composite.getConstituents()) {
+
+			Described described = component.described();
+
+			DRectangle sub = described.description();
+
+			row.put(described.getCodepoint(), sub.width, sub.height, sub.getAdvance(), sub.getReference().x, sub.getReference().y,
+					component.baseline().x, component.baseline().y, component.baseline().length);
+
+			if (described instanceof DComposite) append(row, (DComposite) described);
+		}
+	}
+
+
+	/**
+	 * A growing row of integers.
+	 */
+	private static final class Row {
+
+		int[] values = new int[32];
+
+		int n = 0;
+
+		void put(int... more) {
+
+			if (n + more.length > values.length) values = Arrays.copyOf(values, 2 * (n + more.length));
+
+			System.arraycopy(more, 0, values, n, more.length);
+
+			n += more.length;
+		}
+	}
+
+
+	private static final class Key {
+
+		final Font font;
+
+		final int[] structure;
+
+		final int hash;
+
+		Key(Font font, int[] structure) {
+			this.font = font;
+			this.structure = structure;
+			this.hash = 31 * font.hashCode() + Arrays.hashCode(structure);
+		}
+
+		public boolean equals(Object other) {
+
+			if (!(other instanceof Key)) return false;
+
+			Key key = (Key) other;
+
+			return key.hash == hash && Arrays.equals(key.structure, structure) && key.font.equals(font);
+		}
+
+		public int hashCode() {
+			return hash;
+		}
+	}
+}
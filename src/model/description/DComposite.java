@@ -4,6 +4,7 @@ import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
@@ -82,9 +83,40 @@ public class DComposite extends AbstractDComposite {
 	}
 	
 
-	/** {@inheritDoc} **/
+	private DComposite(DComposite template) {
+
+		super.type 			= template.type;
+
+		super.codepoint		= template.codepoint;
+
+		super.constituents 	= new CyclicList<Placeholder>(template.constituents);
+
+		super.name 			= template.name;
+
+		super.frame 		= super.constituents.get(0);
+
+		super.description 	= new DRectangle(template.description);
+	}
+	
+
+	/** 
+	 * {@inheritDoc} The image is shared with all composites of the same structure through the {@link CompositeCache}
+	 * and is only composed if none is kept.
+	 */
 	public DRectangle renderAndMount() {
 
+		this.description.setImage(CompositeCache.shared().image(this, this::compose)); 
+			
+		return this.description();
+	}
+
+	/** 
+	 * Composes the image of this composite from the images of its components.
+	 * 
+	 * @return A new image of the size of the description.
+	 */
+	private BufferedImage compose() {
+
 		BufferedImage whole = new BufferedImage(this.description.width, this.description.height, BufferedImage.TYPE_INT_ARGB);
 
 		Graphics2D gcopy = whole.createGraphics();
@@ -132,9 +164,10 @@ public class DComposite extends AbstractDComposite {
 		}	
 
 		this.constituents.addFirst(first);		
-		this.description.setImage(whole); 
+
+		gcopy.dispose();
 			
-		return this.description();
+		return whole;
 	}
 
 	/** {@inheritDoc} **/
@@ -144,6 +177,16 @@ public class DComposite extends AbstractDComposite {
 		
 		return clone;
 	}
+
+	/**
+	 * A cheap copy of this described composite under the same codepoint, sharing its components and rendered 
+	 * image instead of rendering them anew as {@link #clone()} does.
+	 * 
+	 * @return A described composite with a cursor over the components and a description of its own.
+	 */
+	public DComposite view() {
+		return new DComposite(this);
+	}
 	
 		
 	/**
@@ -155,36 +198,69 @@ public class DComposite extends AbstractDComposite {
 	 * @return A list of plasceholders for the components.
 	 * 
 	 * @see Placeholder
+	 * @see #parseRows(String, String)
 	 */
 	public static LinkedList<Placeholder> 	parseComponents(String codepoints, String baselines) {
 
-		LinkedList<Placeholder> components = new LinkedList<Placeholder>();
+		return makeComponents(parseRows(codepoints, baselines));
+	}
+
+	/**
+	 * Splits the two text strings describing the components of a composite into one row of integers per component, 
+	 * the row being the component's codepoint followed by its baseline's x, y and length.
+	 * 
+	 * @param codepoints 	A string of all components (utf) codepoints, integers interspaced with blanks.
+	 * @param baselines 	The string of all the component's coordinates given in tripples (x,y,baseline), all integers interspaced with blanks.
+	 * 
+	 * @return The rows of the components, in order.
+	 */
+	public static ArrayList<int[]> 			parseRows(String codepoints, String baselines) {
+
+		ArrayList<int[]> rows = new ArrayList<int[]>();
 
 		String[] cps = codepoints.split(" ");
 		String[] bls = baselines.split(" ");
 
-		String[] bl = new String[3];
+		String[] bl;
+
+		for (int i = 0; i < cps.length; i++) {
+
+			bl = bls[i].split(":");
+
+			rows.add(new int[] { Integer.parseInt(cps[i]), Integer.parseInt(bl[0]), Integer.parseInt(bl[1]), Integer.parseInt(bl[2]) });
+		}
+
+		return rows;
+	}
+
+	/**
+	 * Constructs a list of placeholders from rows of integers, one row per component being its codepoint followed by 
+	 * its baseline's x, y and length. The placeholders should be used for constructing a composite.
+	 * 
+	 * @param rows	The rows of the components, in order.
+	 * 
+	 * @return A list of plasceholders for the components.
+	 * 
+	 * @see Placeholder
+	 */
+	public static LinkedList<Placeholder> 	makeComponents(List<int[]> rows) {
+
+		LinkedList<Placeholder> components = new LinkedList<Placeholder>();
 
 		DPrimitive primitive;
 		Rectangle frame;
 		Placeholder holder;
 		
-		int x, y, baseline, codepoint;
-
-		for (int i = 0; i < cps.length; i++) {
+		int codepoint;
 
-			bl = bls[i].split(":");
-
-			x = Integer.parseInt(bl[0]); y = Integer.parseInt(bl[1]); baseline = Integer.parseInt(bl[2]);
-			
-			codepoint = Integer.parseInt(cps[i]);
+		for (int[] row : rows) {
 
-			codepoint = codepoint != -1 ? codepoint : Toolbox.DUMMY.getCodepoint(); 
+			codepoint = row[0] != -1 ? row[0] : Toolbox.DUMMY.getCodepoint(); 
 
-			primitive   = new DPrimitive(codepoint, baseline);
+			primitive   = new DPrimitive(codepoint, row[3]);
 			
 			frame 		= primitive.description().getBounds();
-			frame.translate(x, y);
+			frame.translate(row[1], row[2]);
 			
 			holder 		= new Placeholder(frame);
 			
@@ -145,6 +145,8 @@ public class DEditableStatement {
 		
 		if (statement.size() == 0) System.err.println("replace on empty");
 
+		statement.markDirty();
+
 		return statement.set(index, replacing);
 	}
 
@@ -159,6 +161,8 @@ public class DEditableStatement {
 		
 		Described removed = statement.remove(index);
 		
+		statement.markDirty();
+
 		size--;
 		
 		index = (size > 0) ? (size + index) % size : 0;
@@ -180,6 +184,8 @@ public class DEditableStatement {
 		else
 			statement.insertElement(index, inserted);
 		
+		statement.markDirty();
+
 		size++;
 		
 		return statement.size();
@@ -79,6 +79,15 @@ public class DPrimitive extends AbstractDescribed {
 	} 	
 
 	
+	private DPrimitive(DPrimitive template) {
+
+		commonConstructor(template.getCodepoint());
+
+		super.description 	= new DRectangle(template.description);
+		super.scale 		= template.scale;
+	}
+
+	
 	private void commonConstructor(int codepoint) {
 
 		super.codepoint 	= codepoint;
@@ -93,5 +102,14 @@ public class DPrimitive extends AbstractDescribed {
 		DPrimitive clone = new DPrimitive(this.getCodepoint(), this.description.getAdvance());
 
 		return clone;
-	}																																		
+	}
+
+	/**
+	 * A cheap copy of this described primitive, sharing its rendered glyph instead of rendering a new one. 
+	 * 
+	 * @return A described primitive of the same codepoint and size, with a description of its own.
+	 */
+	public DPrimitive view() {
+		return new DPrimitive(this);
+	}
 }
@@ -1,8 +1,6 @@
 package model.description;
 
 import java.awt.Dimension;
-import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
@@ -10,6 +8,7 @@ import java.awt.image.BufferedImage;
 
 import control.Toolbox;
 import model.logic.abstraction.Formal;
+import model.logic.abstraction.Formal.FormalType;
 
 /**
  * A rectangle containg the graphical part (image) of the description of a formal expression. It also
@@ -40,7 +39,10 @@ public class DRectangle extends Rectangle {
 
 
     /**
-     * As previous constructor but scales rendering so as to fit onto a baseline.
+     * As previous constructor but scales rendering so as to fit onto a baseline. The glyph is shared with all other
+     * descriptions of the same symbol and size through the {@link GlyphCache}. A composite is framed by the glyph of
+     * {@link Toolbox#DUMMY} since its image is composed of its components, see {@link DComposite#renderAndMount()}, and
+     * its codepoint, unique per composite, has no glyph.
      * 
      * @param primitive	The formal primitive to render an image for.
      * @param baseline	The length of the rendered glyph's baseline.
@@ -50,7 +52,9 @@ public class DRectangle extends Rectangle {
  		this.value 		= primitive;
  		this.advance 	= baseline;
 
- 		this.image 		= render(baseline, primitive.getCodepoint());
+ 		int glyph 		= primitive.getType() == FormalType.COMPOSITE ? Toolbox.DUMMY.getCodepoint() : primitive.getCodepoint();
+
+ 		this.image 		= GlyphCache.shared().glyph(glyph, baseline);
  		this.reference 	= referencePoint(primitive.getCodepoint(), this.image);
 
  		int height 		= image.getHeight(null);
@@ -77,6 +81,22 @@ public class DRectangle extends Rectangle {
     	this(Toolbox.DUMMY);
     }
 
+	/**
+	 * A copy of another description sharing its value and image, without rendering anything. The image must 
+	 * therefore not be drawn on or replaced through the template afterwards.
+	 * 
+	 * @param template	The description to copy bounds, advance and reference point from.
+	 */
+    public DRectangle(DRectangle template) {
+
+    	super(template);
+
+    	this.value 		= template.value;
+    	this.image 		= template.image;
+    	this.advance 	= template.advance;
+    	this.reference 	= new Point(template.reference);
+    }
+
     
 	/**
 	 * The value that this object describes graphically.
@@ -194,28 +214,20 @@ public class DRectangle extends Rectangle {
     	return new Point(0,y);
 	}
 
-	private static BufferedImage render(int baseline, int codepoint) {
-		
-		BufferedImage image = Toolbox.makeGlyph(codepoint, Toolbox.advance((char) codepoint));
-		
-		int renderedheight = image.getHeight();
-		
-		int unitwidth  = image.getWidth(null);
-		int unitheight = image.getHeight(null);
-		
-		float xscale = ((float) baseline) / unitwidth; 
-		float yscale = ((float) renderedheight) / unitheight; 
-
-		int width  = (xscale <= yscale) ? baseline : -1;
-		int height = (width == -1) ? renderedheight : -1;
+	/**
+	 * Rasterizes a glyph scaled to fit a baseline, straight from its outline at that size. A glyph is scaled down to
+	 * a shorter baseline than its natural advance but not up to a longer one. Called by the {@link GlyphCache} only, 
+	 * use it instead.
+	 * 
+	 * @param baseline	The length of the glyph's baseline.
+	 * @param codepoint	The codepoint of the symbol.
+	 * @return			A newly rendered glyph.
+	 * 
+	 * @see GlyphOutlines
+	 */
+	static BufferedImage render(int baseline, int codepoint) {
 		
-   		Image scaled = image.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-
-   		Graphics2D g = (Graphics2D) image.getGraphics();
-   		
-   		g.drawImage(scaled, transform, null);
-   		
-   		return image.getSubimage(0, 0, scaled.getWidth(null), scaled.getHeight(null));
+		return GlyphOutlines.shared().rasterize(codepoint, Math.min(baseline, Toolbox.advance((char) codepoint)));
 	}
 
 }
@@ -2,14 +2,23 @@ package model.description;
 
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import model.description.abstraction.Described;
 import model.logic.Implication.ImplicationType;
 import model.logic.Statement;
 
 /**
- * The description of a mathematical statement. Description in a broad sense, not only renderable graphics. 
+ * The description of a mathematical statement. Description in a broad sense, not only renderable graphics.<br><br>
+ * 
+ * The changes of its formals are kept as deltas, each the formals removed at a position and those inserted in their
+ * place, so that whoever keeps something made from the statement, such as its layout, can catch up on only what has
+ * changed since. A mark tells how far one has caught up, and the deltas since a mark are given as long as they are
+ * kept, which is for the latest {@value #DELTAS}. Formals typed or deleted one after another at the same place are
+ * kept as one delta, unless a mark has been taken in between.
  * 
  * @see model.logic.Statement
  * @see model.logic.abstraction.Formal
@@ -17,6 +26,18 @@ import model.logic.Statement;
  */
 public class DStatement extends Statement {
 
+	/** The number of deltas kept. */
+	public static final int DELTAS = 64;
+
+	/**
+	 * A change of the formals of a statement.
+	 * 
+	 * @param position 	Where the formals were removed and others inserted.
+	 * @param removed 	The formals removed, in order.
+	 * @param inserted 	The formals inserted, in order.
+	 */
+	public record Delta(int position, List<Described> removed, List<Described> inserted) {}
+
 	/** The start of the baseline this description follows. */
 	private Point location;
 
@@ -25,6 +46,18 @@ public class DStatement extends Statement {
 	 */
 	public boolean boxed;			
 
+	/** Indicates that this statement has been altered since it was last stored in or fetched from the base. */
+	private boolean dirty = true;
+
+	/** Counts the alterations of this statement, unlike dirty never reset. */
+	private int revision = 0;
+
+	/** The latest deltas, the last possibly still growing. Null until constructed, as formals are added before. */
+	private ArrayList<Delta> deltas;
+
+	/** The number of deltas ever made, and the number when a mark was last taken, after which the last may grow. */
+	private int made, marked;
+
 	
 	/**
 	 * An empty described statement.
@@ -49,6 +82,203 @@ public class DStatement extends Statement {
 	private void commonConstructor() {
 		this.location = new Point(0,0);
 		this.id = super.id + "D";		
+		this.deltas = new ArrayList<Delta>();
+	}
+
+	
+	/**
+	 * Marks this statement as altered since it was last stored, so that it is written on next save.
+	 */
+	public synchronized void markDirty() {
+		dirty = true;
+		revision++;
+	}
+
+	/**
+	 * Marks this statement as being in the same state as in the base.
+	 */
+	public synchronized void markClean() {
+		dirty = false;
+	}
+
+	/**
+	 * Marks this statement as being in the same state as in the base, if it has not been altered since a revision.
+	 * Used when a write of the statement is committed, the statement possibly altered meanwhile.
+	 * 
+	 * @param revision	The revision the statement was written at.
+	 * @return			Wether the statement was marked clean.
+	 */
+	public synchronized boolean markClean(int revision) {
+
+		if (revision != this.revision) return false;
+
+		dirty = false;
+
+		return true;
+	}
+
+	/**
+	 * Tells wether this statement has been altered since it was last stored in or fetched from the base.
+	 * 
+	 * @return	Wether this statement needs to be written on next save.
+	 */
+	public synchronized boolean isDirty() {
+		return dirty;
+	}
+
+	/**
+	 * The number of times this statement has been marked altered, for caches of its description to tell if they
+	 * are out of date.
+	 * 
+	 * @return	The revision of this statement.
+	 */
+	public synchronized int revision() {
+		return revision;
+	}
+
+	/**
+	 * Marks how far the changes of this statement have been caught up on.
+	 * 
+	 * @return	The mark, to be given to {@link #deltasSince(int)}.
+	 */
+	public int mark() {
+
+		marked = made;
+
+		return made;
+	}
+
+	/**
+	 * The changes of this statement since a mark, which is also taken anew.
+	 * 
+	 * @param mark	A mark taken before.
+	 * @return		The deltas in the order they were made, or null if some of them are no longer kept.
+	 */
+	public List<Delta> deltasSince(int mark) {
+
+		int first = made - deltas.size();
+
+		if (mark < first || mark > made) return null;
+
+		ArrayList<Delta> since = new ArrayList<Delta>();
+
+		for (Delta delta : deltas.subList(mark - first, deltas.size()))
+			since.add(new Delta(delta.position(), Collections.unmodifiableList(new ArrayList<Described>(delta.removed())), 
+								Collections.unmodifiableList(new ArrayList<Described>(delta.inserted()))));
+
+		marked = made;
+
+		return since;
+	}
+
+	/** {@inheritDoc} */
+	public void add(int index, Described element) {
+
+		super.add(index, element);
+
+		this.record(index, null, element);
+	}
+
+	/** {@inheritDoc} */
+	public Described remove(int index) {
+
+		Described removed = super.remove(index);
+
+		this.record(index, removed, null);
+
+		return removed;
+	}
+
+	/** {@inheritDoc} */
+	public Described set(int index, Described element) {
+
+		Described replaced = super.set(index, element);
+
+		this.record(index, replaced, element);
+
+		return replaced;
+	}
+
+	/** {@inheritDoc} */
+	public void clear() {
+
+		if (deltas == null || this.isEmpty()) {
+			super.clear();
+			return;
+		}
+
+		ArrayList<Described> removed = new ArrayList<Described>(this);
+
+		super.clear();
+
+		this.record(new Delta(0, removed, new ArrayList<Described>()));
+	}
+
+	/** Records the removal or insertion of a formal, or both, growing the last delta if it was made at the same place. */
+	private void record(int position, Described removed, Described inserted) {
+
+		if (deltas == null) return;													// still being constructed
+
+		Delta last = made > marked && !deltas.isEmpty() ? deltas.get(deltas.size() - 1) : null;
+
+		if (last != null && removed == null && last.removed().isEmpty() && position == last.position() + last.inserted().size()) {
+
+			last.inserted().add(inserted);											// typed on
+			return;
+		}
+
+		if (last != null && inserted == null && last.inserted().isEmpty()) {
+
+			if (position == last.position()) {										// deleted forwards
+
+				last.removed().add(removed);
+				return;
+			}
+
+			if (position == last.position() - 1) {									// deleted backwards
+
+				last.removed().add(0, removed);
+
+				deltas.set(deltas.size() - 1, new Delta(position, last.removed(), last.inserted()));
+				return;
+			}
+		}
+
+		ArrayList<Described> removing = new ArrayList<Described>(), inserting = new ArrayList<Described>();
+
+		if (removed != null) removing.add(removed);
+		if (inserted != null) inserting.add(inserted);
+
+		this.record(new Delta(position, removing, inserting));
+	}
+
+	private void record(Delta delta) {
+
+		deltas.add(delta);
+
+		if (deltas.size() > DELTAS) deltas.remove(0);
+
+		made++;
+	}
+
+
+	/**
+	 * Restores the identification this statement was stored with in the base. Only for use when fetching 
+	 * statements from the base.
+	 * 
+	 * @param id	The identification of the statement's row in the base.
+	 */
+	public void restoreID(String id) {
+		this.id = id;
+	}
+
+	/**
+	 * Gives this statement a new identification and marks it altered. Used when the statement is to be stored as 
+	 * new rows, so that it does not take over the rows of the theorem it was fetched from.
+	 */
+	public void renewID() {
+		this.id = newID() + "D";
+		this.markDirty();
 	}
 
 	
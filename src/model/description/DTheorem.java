@@ -1,6 +1,12 @@
 package model.description;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import control.Toolbox;
 import control.db.DeductionBase;
@@ -49,6 +55,25 @@ public class DTheorem extends Theorem {
 	/** Not used yet */
 	public String compositestable = "default";
 
+	/** The name this theorem was last stored in or fetched from the base under. Null if never. */
+	private String 					persistedname = null;
+	/** Identifications of the statements as they were when last stored in or fetched from the base. */
+	private HashSet<String> 		persisted = new HashSet<String>();
+	/** Identifications of the statements written by writes queued and not yet committed or failed, by theorem name. */
+	private HashMap<String, HashSet<String>> unsettled = new HashMap<String, HashSet<String>>();
+	/** The number of writes queued and not yet committed or failed. */
+	private int 					unsettledwrites = 0;
+
+	
+	/**
+	 * A statement as it was written, its identification and revision then.
+	 * 
+	 * @param statement		The statement written.
+	 * @param id			Its identification when written.
+	 * @param revision		Its revision when written.
+	 */
+	public record Stored(DStatement statement, String id, int revision) { }
+
 	
 	/**
 	 * Instantiates a new empty described theorem.
@@ -94,7 +119,8 @@ public class DTheorem extends Theorem {
 
 		assert(preliminarydescribed.size() > 0);
 
-		this.preliminarydescribed.addLast(implication);																		
+		this.preliminarydescribed.addLast(implication);
+		this.preliminarydescribed.markDirty();																		
 		this.addLast(preliminarydescribed);
 
 		DStatement newpreliminary = new DStatement();
@@ -174,6 +200,7 @@ public class DTheorem extends Theorem {
 	 */
 	public void appendPrimitive(Described added) {
 		preliminarydescribed.addLast(added);
+		preliminarydescribed.markDirty();
 	}
 	
 	/**
@@ -189,9 +216,10 @@ public class DTheorem extends Theorem {
 
 		DStatement grown = Toolbox.findStatement(after, this);
 
-		if (grown != null) 
+		if (grown != null) {
 			grown.add(grown.indexOf(after), insert);
-		else
+			grown.markDirty();
+		} else
 			System.out.println("no such described primitive to insert before");
 
 	}
@@ -216,6 +244,8 @@ public class DTheorem extends Theorem {
 
 		Described remove = preliminarydescribed.removeLast();
 
+		preliminarydescribed.markDirty();
+
 		return remove;
 	}
 
@@ -402,25 +432,155 @@ public class DTheorem extends Theorem {
 		editing = null;		
 	}
 
+	
+	/**
+	 * All statements of this theorem in order, followed by the preliminary statement if it is not empty. These
+	 * are the statements that are stored in the base.
+	 * 
+	 * @return	A new list of the theorem's statements including a non-empty preliminary.
+	 */
+	public List<DStatement> allStatements() {
+
+		ArrayList<DStatement> all = new ArrayList<DStatement>(this);
+
+		if (preliminarydescribed.size() > 0) all.add(preliminarydescribed);
+
+		return all;
+	}
+
+	/**
+	 * Records that this theorem's current statements are in the base under the given name, and marks them all clean.
+	 * 
+	 * @param name	The name of the theorem in the base.
+	 */
+	public synchronized void markPersisted(String name) {
+
+		persistedname = name;
+		persisted.clear();
+
+		for (DStatement statement : allStatements()) {
+			persisted.add(statement.getID());
+			statement.markClean();
+		}
+	}
+
+	/**
+	 * Records that statements, as they were when a write of them was queued, are in the base under the given name,
+	 * and marks clean those not altered since. Called when the write is committed, possibly on another thread.
+	 * 
+	 * @param name		The name of the theorem in the base.
+	 * @param stored	The statements of the theorem as written, in order.
+	 */
+	public synchronized void markPersisted(String name, List<Stored> stored) {
+
+		persistedname = name;
+		persisted.clear();
+
+		for (Stored written : stored) {
+			persisted.add(written.id());
+			written.statement().markClean(written.revision());
+		}
+	}
+
+	/**
+	 * Records that a write of statements is queued under the given name. It must be settled by 
+	 * {@link #settle(String, List)} once committed or failed.
+	 * 
+	 * @param name		The name of the theorem in the base.
+	 * @param ids		The identifications of the statements written.
+	 */
+	public synchronized void submitted(String name, Collection<String> ids) {
+
+		unsettled.computeIfAbsent(name, n -> new HashSet<String>()).addAll(ids);
+
+		unsettledwrites++;
+	}
+
+	/**
+	 * Settles a write queued, recording its statements as stored if it was committed.
+	 * 
+	 * @param name		The name of the theorem in the base.
+	 * @param stored	The statements of the theorem as written if committed, null if the write failed.
+	 */
+	public synchronized void settle(String name, List<Stored> stored) {
+
+		if (stored != null) markPersisted(name, stored);
+
+		if (--unsettledwrites == 0) unsettled.clear();
+	}
+
+	/**
+	 * Checks if writes of this theorem under the given name are queued and not yet committed or failed.
+	 * 
+	 * @param name	The name of the theorem in the base.
+	 * @return		Wether a write under that name is unsettled.
+	 */
+	public synchronized boolean isUnsettledAs(String name) {
+		return unsettled.containsKey(name);
+	}
+
+	/**
+	 * Identifications of the statements that may be in the base under the given name: those stored when last 
+	 * stored in or fetched from the base under the name, and those of writes under the name not yet settled.
+	 * 
+	 * @param name	The name of the theorem in the base.
+	 * @return		The identifications, a new set.
+	 */
+	public synchronized Set<String> storedIDs(String name) {
+
+		HashSet<String> ids = new HashSet<String>();
+
+		if (this.isPersistedAs(name)) ids.addAll(persisted);
+
+		ids.addAll(unsettled.getOrDefault(name, new HashSet<String>()));
+
+		return ids;
+	}
+
+	/**
+	 * Checks if this theorem's record of stored statements is valid for the given name in the base.
+	 * 
+	 * @param name	The name of the theorem in the base.
+	 * @return		Wether this theorem was last stored in or fetched from the base under that name.
+	 */
+	public synchronized boolean isPersistedAs(String name) {
+		return persistedname != null && persistedname.equals(name);
+	}
+
+	/**
+	 * Identifications of the statements as they were when last stored in or fetched from the base.
+	 * 
+	 * @return	The identifications stored, unmodifiable.
+	 */
+	public synchronized Set<String> persistedIDs() {
+		return Collections.unmodifiableSet(new HashSet<String>(persisted));
+	}
+
+	/**
+	 * Forgets the record of stored statements, for instance after a failed write, so that the next save writes 
+	 * every statement again.
+	 */
+	public synchronized void forgetPersisted() {
+
+		persistedname = null;
+		persisted.clear();
+	}
+
 		
 	/** {@inheritDoc} */
 	public String toString() {
 
 		String output = "{" + super.getName() + ": ";
 
-		this.addLast(preliminarydescribed);
-
 		for (DStatement ds : this) {
 
 			output += ds.toString() + " :: ";
 		}
 
-		output = output.substring(0, output.length() - 4);
+		output += preliminarydescribed.toString();
 
 		output += "}";
 
-		this.removeLast();
-
 		return output;
 	}
 	
@@ -0,0 +1,213 @@
+package model.description;
+
+import java.awt.Font;
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import control.Toolbox;
+
+/**
+ * Rendered glyphs shared by all descriptions of primitives, keyed by codepoint, baseline length and font. A glyph is
+ * rasterized the first time it is asked for and then handed out to every {@link DRectangle} of the same symbol and
+ * size, so that cloning primitives and loading theorems don't render the same symbol again. Each baseline length is
+ * a size bucket of its own, rasterized straight from the outline of the glyph, see {@link GlyphOutlines}.<br><br>
+ *
+ * The images handed out are shared and must be treated as immutable: drawn from, never drawn on. A description that
+ * needs another image, as a composite does, replaces its image rather than drawing on it.<br><br>
+ *
+ * The cache is bounded by the size of the rasters it holds, least recently used glyphs evicted first. The bound is
+ * taken from the system property {@value #PROPERTY}, in kilobytes.
+ */
+public class GlyphCache {
+
+	/** The system property giving the bound of the cache in kilobytes. */
+	public static final String PROPERTY = "deductionwriter.glyphcache";
+
+	/** The bound in kilobytes if none is configured. */
+	public static final int DEFAULTSIZE = 8192;
+
+	private static final GlyphCache SHARED = new GlyphCache(configured());
+
+
+	private final LinkedHashMap<Key, BufferedImage> glyphs = new LinkedHashMap<Key, BufferedImage>(256, 0.75f, true);
+
+	private final long capacity;
+
+	private long weight = 0;
+
+	private long hits = 0, misses = 0, evictions = 0;
+
+
+	/**
+	 * Instantiates an empty cache.
+	 *
+	 * @param capacity The bound of the size of all rasters kept, in bytes.
+	 */
+	public GlyphCache(long capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * The cache used by all descriptions.
+	 *
+	 * @return The shared glyph cache.
+	 */
+	public static GlyphCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The bound configured by system property {@value #PROPERTY}, or {@value #DEFAULTSIZE} kilobytes if there is none.
+	 *
+	 * @return The bound in bytes.
+	 */
+	public static long configured() {
+
+		String size = System.getProperty(PROPERTY);
+
+		if (size != null)
+			try { return Long.parseLong(size.trim()) * 1024; }
+
+			catch (NumberFormatException nfe) { System.err.println("Glyph cache size " + size + " is not a number, using default."); }
+
+		return DEFAULTSIZE * 1024L;
+	}
+
+
+	/**
+	 * The glyph of a codepoint in the current font scaled to fit a baseline, rendered first if not kept.
+	 *
+	 * @param codepoint 	The codepoint of the symbol.
+	 * @param baseline 		The length of the baseline the glyph is to fit onto.
+	 * @return 				The shared glyph, not to be drawn on.
+	 */
+	public BufferedImage glyph(int codepoint, int baseline) {
+
+		Key key = new Key(Toolbox.FONTMETRICS.getFont(), codepoint, baseline);
+
+		synchronized (this) {
+
+			BufferedImage glyph = glyphs.get(key);
+
+			if (glyph != null) {
+
+				hits++;
+
+				return glyph;
+			}
+
+			misses++;
+		}
+
+		BufferedImage rendered = DRectangle.render(baseline, codepoint);			// rendered without holding the cache
+
+		synchronized (this) {
+
+			BufferedImage glyph = glyphs.get(key);
+
+			if (glyph != null) return glyph;										// rendered meanwhile by another thread
+
+			glyphs.put(key, rendered);
+
+			weight += weigh(rendered);
+
+			evict();
+		}
+
+		return rendered;
+	}
+
+	/**
+	 * Renders the glyphs of a table of primitives ahead of use, at their natural advance.
+	 *
+	 * @param codepoints 	The codepoints of the primitives.
+	 * @return 				The number of glyphs that weren't kept already.
+	 */
+	public int prewarm(Iterable<Integer> codepoints) {
+
+		long before = misses();
+
+		for (int codepoint : codepoints) glyph(codepoint, Toolbox.advance((char) codepoint));
+
+		return (int) (misses() - before);
+	}
+
+	/**
+	 * Forgets all glyphs, for example when the font changes.
+	 */
+	public synchronized void clear() {
+
+		glyphs.clear();
+
+		weight = 0;
+	}
+
+
+	/** @return The number of glyphs handed out without rendering. */
+	public synchronized long hits() { return hits; }
+
+	/** @return The number of glyphs rendered. */
+	public synchronized long misses() { return misses; }
+
+	/** @return The number of glyphs evicted to keep within the bound. */
+	public synchronized long evictions() { return evictions; }
+
+	/** @return The number of glyphs kept. */
+	public synchronized int size() { return glyphs.size(); }
+
+	/** {@inheritDoc} */
+	public synchronized String toString() {
+		return "GlyphCache[size=" + glyphs.size() + ", weight=" + weight / 1024 + "/" + capacity / 1024 + "kB, hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + "]";
+	}
+
+
+	private void evict() {
+
+		Iterator<Map.Entry<Key, BufferedImage>> eldest = glyphs.entrySet().iterator();
+
+		while (weight > capacity && glyphs.size() > 1) {
+
+			weight -= weigh(eldest.next().getValue());
+
+			eldest.remove();
+
+			evictions++;
+		}
+	}
+
+	/** The size of the whole raster, which a glyph cut out of a larger image shares. */
+	private static long weigh(BufferedImage glyph) {
+		return 4L * glyph.getRaster().getDataBuffer().getSize();
+	}
+
+
+	private static final class Key {
+
+		final Font font;
+
+		final int codepoint, baseline;
+
+		Key(Font font, int codepoint, int baseline) {
+			this.font = font;
+			this.codepoint = codepoint;
+			this.baseline = baseline;
+		}
+
+		public boolean equals(Object other) {
+
+			if (!(other instanceof Key)) return false;
+
+			Key key = (Key) other;
+
+			return key.codepoint == codepoint && key.baseline == baseline && key.font.equals(font);
+		}
+
+		public int hashCode() {
+			return Objects.hash(font, codepoint, baseline);
+		}
+	}
+}
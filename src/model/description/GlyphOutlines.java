@@ -0,0 +1,182 @@
+package model.description;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.font.GlyphVector;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Objects;
+
+import control.Toolbox;
+
+/**
+ * The outlines of glyphs in the current font, kept per codepoint, from which glyphs are rasterized straight at the
+ * size asked for rather than rasterized at the size of the font and scaled down.<br><br>
+ *
+ * A glyph at its natural size, its advance in the font, is drawn from its glyph vector, which gives the same pixels
+ * as drawing the character as a string. At other sizes the outline is scaled and filled, antialiased, onto a raster of
+ * the size asked for only. The rasters are kept by the {@link GlyphCache}, a raster per codepoint and baseline length,
+ * so each size is a bucket of its own and a raster is only made once per size.<br><br>
+ *
+ * Outlines are few, a glyph vector per symbol of a primitives table, and are kept until the cache is cleared.
+ */
+public class GlyphOutlines {
+
+	private static final GlyphOutlines SHARED = new GlyphOutlines();
+
+
+	private final HashMap<Key, GlyphVector> vectors = new HashMap<Key, GlyphVector>();
+
+	private long hits = 0, misses = 0, rasterized = 0;
+
+
+	/**
+	 * The outlines rasterized from by {@link DRectangle}.
+	 *
+	 * @return The shared outlines.
+	 */
+	public static GlyphOutlines shared() {
+		return SHARED;
+	}
+
+
+	/**
+	 * The outline of a glyph at its natural size, placed as on a raster of that size.
+	 *
+	 * @param codepoint 	The codepoint of the symbol.
+	 * @return 				The outline, the origin at the upper left corner of the raster.
+	 */
+	public Shape outline(int codepoint) {
+
+		FontMetrics metrics = Toolbox.FONTMETRICS;
+
+		return vector(codepoint).getOutline(metrics.getLeading(), naturalHeight() - metrics.getDescent());
+	}
+
+	/**
+	 * Rasterizes a glyph scaled from its natural size, black onto white.
+	 *
+	 * @param codepoint 	The codepoint of the symbol.
+	 * @param width 		The width of the raster, the natural advance of the glyph for its natural size.
+	 * @return 				A new raster of the width and the natural height scaled alike.
+	 */
+	public BufferedImage rasterize(int codepoint, int width) {
+
+		FontMetrics metrics = Toolbox.FONTMETRICS;
+
+		int naturalwidth = Math.max(1, Toolbox.advance((char) codepoint)), naturalheight = naturalHeight();
+
+		int height = Math.max(1, naturalheight * width / naturalwidth);
+
+		BufferedImage image = new BufferedImage(Math.max(1, width), height, BufferedImage.TYPE_INT_ARGB);
+
+		Graphics2D g = image.createGraphics();
+
+		g.setColor(Color.white);
+		g.fillRect(0, 0, image.getWidth(), height);
+
+		g.setColor(Color.black);
+
+		if (width == naturalwidth)
+			g.drawGlyphVector(vector(codepoint), metrics.getLeading(), naturalheight - metrics.getDescent());
+		else {
+
+			double scale = width / (double) naturalwidth;
+
+			g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+			g.fill(AffineTransform.getScaleInstance(scale, scale).createTransformedShape(outline(codepoint)));
+		}
+
+		g.dispose();
+
+		synchronized (this) { rasterized++; }
+
+		return image;
+	}
+
+	/**
+	 * Forgets all outlines, for example when the font changes.
+	 */
+	public synchronized void clear() {
+		vectors.clear();
+	}
+
+
+	/** @return The number of outlines found kept. */
+	public synchronized long hits() { return hits; }
+
+	/** @return The number of outlines made. */
+	public synchronized long misses() { return misses; }
+
+	/** @return The number of rasters made. */
+	public synchronized long rasterized() { return rasterized; }
+
+	/** @return The number of outlines kept. */
+	public synchronized int size() { return vectors.size(); }
+
+	/** {@inheritDoc} */
+	public synchronized String toString() {
+		return "GlyphOutlines[size=" + vectors.size() + ", hits=" + hits + ", misses=" + misses + ", rasterized=" + rasterized + "]";
+	}
+
+
+	private synchronized GlyphVector vector(int codepoint) {
+
+		Font font = Toolbox.FONTMETRICS.getFont();
+
+		Key key = new Key(font, codepoint);
+
+		GlyphVector vector = vectors.get(key);
+
+		if (vector != null) {
+
+			hits++;
+
+			return vector;
+		}
+
+		misses++;
+
+		vector = font.createGlyphVector(Toolbox.FONTMETRICS.getFontRenderContext(), new String(Character.toChars(codepoint)));
+
+		vectors.put(key, vector);
+
+		return vector;
+	}
+
+	/** The height of a glyph raster at the natural size, from the top of the font down to the baseline. */
+	private static int naturalHeight() {
+		return Toolbox.FONTMETRICS.getHeight() - Toolbox.FONTMETRICS.getDescent();
+	}
+
+
+	private static final class Key {
+
+		final Font font;
+
+		final int codepoint;
+
+		Key(Font font, int codepoint) {
+			this.font = font;
+			this.codepoint = codepoint;
+		}
+
+		public boolean equals(Object other) {
+
+			if (!(other instanceof Key)) return false;
+
+			Key key = (Key) other;
+
+			return key.codepoint == codepoint && key.font.equals(font);
+		}
+
+		public int hashCode() {
+			return Objects.hash(font, codepoint);
+		}
+	}
+}
@@ -11,6 +11,9 @@
  * and {@link AbstractDComposite} in the {@link model.description.abstraction} package.
  * So the {@link Described} interface is redundantly implemented twice.<br><br>
  * 
+ * Rendering is shared: glyphs of primitives through the {@link GlyphCache} and images of composites through the 
+ * {@link CompositeCache}, so that clones and loaded descriptions reuse what is already rendered.<br><br>
+ * 
  * @see DPrimitive
  * @see DComposite
  * @see DStatement
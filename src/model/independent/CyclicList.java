@@ -1,19 +1,53 @@
 package model.independent;
 
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.LinkedList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.RandomAccess;
 
 import control.Toolbox;
 
 /**
- * A cyclic list with convenient access to iteration.
+ * A cyclic list with convenient access to iteration.<br><br>
+ * 
+ * The elements are kept in a ring buffer, an array whose first element may be anywhere in it, so that an element
+ * is reached by its position in constant time and stepping the iteration position is constant time too. As the list
+ * is cyclic, the ring need not start with the first element: it starts at a gap, the position last edited at, and
+ * runs round through the last element to the first and on up to the gap. Elements are added and removed at the gap
+ * in constant time, so that editing where one just edited is always cheap, and elsewhere by first turning the ring
+ * so that the gap is there, which moves as many elements as there are between the two positions, the shorter way
+ * round. The ends of the list are where the gap is until the list is edited elsewhere.<br><br>
+ *
+ * The list is also a {@link Deque}, cloneable and serializable, as a linked list is, with which it was implemented
+ * before. All changes of its elements go through {@link #add(int, Object)}, {@link #remove(int)}, {@link #set(int, Object)} and
+ * {@link #clear()}, which extending classes can override to follow them.
  * 
  * @param <T> Class of objects contained.
  */
-public class CyclicList<T> extends LinkedList<T> {
+public class CyclicList<T> extends AbstractList<T> implements Deque<T>, RandomAccess, Cloneable, Serializable {
+
+	private static final long serialVersionUID = 1L;
 
 	/** The position currently at. */
 	protected int index = 0;
+
+	/** The elements, from head on and around, the length always a power of two. */
+	private Object[] elements = new Object[16];
+
+	/** Where in the array the first element is. */
+	private int head = 0;
+
+	/** The number of elements. */
+	private int count = 0;
+
+	/** The position of the element the ring starts with, the position of the gap. */
+	private int gap = 0;
 	
 	/**
 	 * Constructs a new cyclic list from the collection given, maintaining it's ordering.
@@ -21,7 +55,9 @@ public class CyclicList<T> extends LinkedList<T> {
 	 * @param collection	A collection objects of class T.
 	 */
 	public CyclicList(Collection<T> collection) {
-		super(collection);
+		super();
+		
+		this.addAll(collection);
 	}
 	
 	/**
@@ -47,9 +83,9 @@ public class CyclicList<T> extends LinkedList<T> {
 	 */
 	public T next() {
 
-		index = (index + 1) % this.size();
+		index = (index + 1) % count;
 		
-		return this.get(index);
+		return this.element(index);
 
 	}
 
@@ -60,9 +96,9 @@ public class CyclicList<T> extends LinkedList<T> {
 	 */
 	public T previous() {
 
-		index = (index - 1 + this.size()) % this.size();
+		index = (index - 1 + count) % count;
 		
-		return this.get(index);
+		return this.element(index);
 	}
 
 	/**
@@ -78,7 +114,7 @@ public class CyclicList<T> extends LinkedList<T> {
 		
 		if (index != -1) {
 
-			T removed = (T) super.remove(index);
+			T removed = this.remove(index);
 
 			this.index = Toolbox.decreasePGE(this.index, index);
 			
@@ -102,7 +138,7 @@ public class CyclicList<T> extends LinkedList<T> {
 			return false;
 		}
 		
-		super.add(index, element);
+		this.add(index, element);
 		
 		if (this.index >= index) this.index++;
 		
@@ -138,8 +174,394 @@ public class CyclicList<T> extends LinkedList<T> {
 	 * Clears this list of all of it's elements.
 	 */
 	public void clear() {
-		super.clear();
+
+		Arrays.fill(elements, null);
+
+		head = 0;
+		count = 0;
+		gap = 0;
 		index = 0;
+
+		modCount++;
+	}
+
+
+	/** {@inheritDoc} */
+	public T get(int index) {
+
+		Objects.checkIndex(index, count);
+
+		return this.element(index);
+	}
+
+	/** {@inheritDoc} */
+	public T set(int index, T element) {
+
+		Objects.checkIndex(index, count);
+
+		int slot = this.slot(index);
+
+		T replaced = this.at(slot);
+
+		elements[slot] = element;
+
+		return replaced;
+	}
+
+	/** {@inheritDoc} */
+	public int size() {
+		return count;
+	}
+
+	/** {@inheritDoc} */
+	public void add(int index, T element) {
+
+		Objects.checkIndex(index, count + 1);
+
+		if (count == elements.length) this.grow();
+
+		this.turn(index);
+
+		elements[(head + count) & (elements.length - 1)] = element;					// last in the ring
+
+		count++;
+		gap = (index + 1) % count;
+		modCount++;
+	}
+
+	/** {@inheritDoc} */
+	public T remove(int index) {
+
+		Objects.checkIndex(index, count);
+
+		T removed = this.element(index);
+
+		if (this.distance(index) <= this.distance(index + 1)) {						// first in the ring
+
+			this.turn(index);
+
+			elements[head] = null;
+
+			head = (head + 1) & (elements.length - 1);
+
+		} else {																	// last in the ring
+
+			this.turn(index + 1);
+
+			elements[(head + count - 1) & (elements.length - 1)] = null;
+		}
+
+		count--;
+		gap = count > 0 ? index % count : 0;
+		modCount++;
+
+		return removed;
+	}
+
+	/** {@inheritDoc} */
+	public boolean addAll(Collection<? extends T> collection) {
+
+		for (T element : collection) this.addLast(element);
+
+		return !collection.isEmpty();
+	}
+
+
+	/** {@inheritDoc} */
+	public void addFirst(T element) {
+		this.add(0, element);
+	}
+
+	/** {@inheritDoc} */
+	public void addLast(T element) {
+		this.add(count, element);
+	}
+
+	/** {@inheritDoc} */
+	public boolean offerFirst(T element) {
+
+		this.addFirst(element);
+
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	public boolean offerLast(T element) {
+
+		this.addLast(element);
+
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	public T removeFirst() {
+
+		if (count == 0) throw new NoSuchElementException();
+
+		return this.remove(0);
+	}
+
+	/** {@inheritDoc} */
+	public T removeLast() {
+
+		if (count == 0) throw new NoSuchElementException();
+
+		return this.remove(count - 1);
+	}
+
+	/** {@inheritDoc} */
+	public T pollFirst() {
+		return count == 0 ? null : this.remove(0);
+	}
+
+	/** {@inheritDoc} */
+	public T pollLast() {
+		return count == 0 ? null : this.remove(count - 1);
+	}
+
+	/** {@inheritDoc} */
+	public T getFirst() {
+
+		if (count == 0) throw new NoSuchElementException();
+
+		return this.element(0);
+	}
+
+	/** {@inheritDoc} */
+	public T getLast() {
+
+		if (count == 0) throw new NoSuchElementException();
+
+		return this.element(count - 1);
+	}
+
+	/** {@inheritDoc} */
+	public T peekFirst() {
+		return count == 0 ? null : this.element(0);
+	}
+
+	/** {@inheritDoc} */
+	public T peekLast() {
+		return count == 0 ? null : this.element(count - 1);
+	}
+
+	/** {@inheritDoc} */
+	public boolean removeFirstOccurrence(Object o) {
+
+		int index = this.indexOf(o);
+
+		if (index < 0) return false;
+
+		this.remove(index);
+
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	public boolean removeLastOccurrence(Object o) {
+
+		int index = this.lastIndexOf(o);
+
+		if (index < 0) return false;
+
+		this.remove(index);
+
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	public boolean offer(T element) {
+		return this.offerLast(element);
+	}
+
+	/** {@inheritDoc} */
+	public T remove() {
+		return this.removeFirst();
+	}
+
+	/** {@inheritDoc} */
+	public T poll() {
+		return this.pollFirst();
+	}
+
+	/** {@inheritDoc} */
+	public T element() {
+		return this.getFirst();
+	}
+
+	/** {@inheritDoc} */
+	public T peek() {
+		return this.peekFirst();
+	}
+
+	/** {@inheritDoc} */
+	public void push(T element) {
+		this.addFirst(element);
+	}
+
+	/** {@inheritDoc} */
+	public T pop() {
+		return this.removeFirst();
+	}
+
+	/** {@inheritDoc} */
+	public boolean remove(Object o) {
+		return this.removeFirstOccurrence(o);
+	}
+
+	/**
+	 * A list of the elements in reverse order, both a list and a deque, as both reverse to their own kind. Unlike 
+	 * theirs, it is a copy and not a view, changes of either list are not seen in the other.
+	 * 
+	 * @return The elements, last first.
+	 */
+	public CyclicList<T> reversed() {
+
+		CyclicList<T> reversed = new CyclicList<T>();
+
+		for (Iterator<T> it = this.descendingIterator(); it.hasNext(); ) reversed.addLast(it.next());
+
+		return reversed;
+	}
+
+	/**
+	 * A shallow copy, the elements themselves are not cloned. The copy is at the same iteration position.
+	 * 
+	 * @return A copy of this list.
+	 */
+	public Object clone() {
+
+		try {
+
+			@SuppressWarnings("unchecked")
+			CyclicList<T> clone = (CyclicList<T>) super.clone();
+
+			clone.elements = elements.clone();
+			clone.modCount = 0;
+
+			return clone;
+
+		} catch (CloneNotSupportedException cnse) { throw new InternalError(cnse); }
+	}
+
+	/** {@inheritDoc} */
+	public Iterator<T> descendingIterator() {
+
+		ListIterator<T> it = this.listIterator(count);
+
+		return new Iterator<T>() {
+			public boolean hasNext() { return it.hasPrevious(); }
+			public T next() { return it.previous(); }
+			public void remove() { it.remove(); }
+		};
+	}
+
+
+	/** The array slot of a position. */
+	private int slot(int index) {
+
+		int k = index - gap;
+
+		return (head + (k < 0 ? k + count : k)) & (elements.length - 1);
+	}
+
+	/** How many elements the ring is to be turned to have the gap at a position, the shorter way round. */
+	private int distance(int index) {
+
+		if (count == 0) return 0;
+
+		int forward = Math.floorMod(index - gap, count);
+
+		return Math.min(forward, count - forward);
+	}
+
+	@SuppressWarnings("unchecked")
+	private T at(int slot) {
+		return (T) elements[slot];
+	}
+
+	/** The element at a position known to be within the list. */
+	private T element(int index) {
+		return this.at(this.slot(index));
+	}
+
+	/**
+	 * Turns the ring to have the gap at a position, moving elements from its start to its end or the other way round,
+	 * whichever is shorter, a block at a time as far as the free part of the array allows.
+	 */
+	private void turn(int index) {
+
+		if (count == 0) { gap = 0; return; }
+
+		int mask = elements.length - 1, free = elements.length - count;
+
+		int forward = Math.floorMod(index - gap, count), backward = count - forward;
+
+		if (forward == 0 || backward == 0) return;
+
+		if (free == 0) 																// the ring fills the array, so only its start moves
+			head = (head + (forward <= backward ? forward : -backward)) & mask;
+
+		else if (forward <= backward)
+			for (int left = forward; left > 0; ) {
+
+				int n = Math.min(left, free);
+
+				this.copy(head, head + count, n);
+				this.wipe(head, n);
+
+				head = (head + n) & mask;
+				left -= n;
+			}
+		else
+			for (int left = backward; left > 0; ) {
+
+				int n = Math.min(left, free);
+
+				this.copy(head + count - n, head - n, n);
+				this.wipe(head + count - n, n);
+
+				head = (head - n) & mask;
+				left -= n;
+			}
+
+		gap = Math.floorMod(index, count);
+	}
+
+	/** Copies slots that do not overlap, as a block unless either run wraps around the end of the array. */
+	private void copy(int from, int to, int n) {
+
+		int mask = elements.length - 1;
+
+		from &= mask;
+		to &= mask;
+
+		if (from + n <= elements.length && to + n <= elements.length)
+			System.arraycopy(elements, from, elements, to, n);
+		else
+			for (int i = 0; i < n; i++) elements[(to + i) & mask] = elements[(from + i) & mask];
+	}
+
+	/** Empties slots, so that what they held can be collected. */
+	private void wipe(int from, int n) {
+
+		int mask = elements.length - 1;
+
+		for (int i = 0; i < n; i++) elements[(from + i) & mask] = null;
+	}
+
+	/** Doubles the array, the elements moved to its start. */
+	private void grow() {
+
+		Object[] grown = new Object[2 * elements.length];
+
+		int front = Math.min(count, elements.length - head);
+
+		System.arraycopy(elements, head, grown, 0, front);
+		System.arraycopy(elements, 0, grown, front, count - front);
+
+		elements = grown;
+		head = 0;
 	}
 
 }
@@ -2,35 +2,20 @@ package model.independent;
 
 import java.util.Collection;
 import java.util.Comparator;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.Vector;
-
-import model.independent.DoubleArray.Tuple;
+import java.util.function.ToIntFunction;
 
 /**
  * Array of tuples to be used as a sortable bijection, that is a mapping that maintains the correspondance between 
- * the tuples's first and second coordinate. 
+ * the tuples's first and second coordinate.<br><br>
+ * 
+ * Tuples are found by either coordinate through hash indexes kept by {@link DoubleArrayList}, of which this is the
+ * synchronized variant, every method holding the lock of the array as the methods of a vector do.
  * 
  * @param <S>	The domain value.
  * @param <T>	The range value.
  */
-public class DoubleArray<S extends Comparable<? super S>, T extends Comparable<? super T>> extends Vector<Tuple<S,T>> {
+public class DoubleArray<S extends Comparable<? super S>, T extends Comparable<? super T>> extends DoubleArrayList<S,T> {
 
-	private class FirstComparator implements Comparator<Tuple<S,T>> { 
-		public int compare(Tuple<S,T> o1, Tuple<S,T> o2) { return o1.first().compareTo(o2.first()); }
-	}
-
-	private class SecondComparator implements Comparator<Tuple<S,T>> { 
-		public int compare(Tuple<S,T> o1, Tuple<S,T> o2) { return o1.second().compareTo(o2.second()); }
-	}
-	
-	/** Compares first coordinate of tuple. */
-	private final FirstComparator firstComparator = new FirstComparator();
-	/** Compares second coordinate of tuple. */
-	private final SecondComparator secondComparator = new SecondComparator();
-	
-	
 	/**
 	 * A pair of values.
 	 * 
@@ -52,179 +37,93 @@ public class DoubleArray<S extends Comparable<? super S>, T extends Comparable<?
 
 	
 	/**
-	 * Find and return the tuple having a specific first coordinate.
-	 * 
-	 * @param s	The value of the first coordinate of the tuple to search for.
-	 * 
-	 * @return	The tuple with first coordinate s.
+	 * Instantiates an empty bijection, hashing coordinates by their hash codes.
 	 */
-	public Tuple<S,T> getByFirst(S s) {
-		
-		Iterator<Tuple<S,T>> it = this.iterator();
-		Tuple<S,T> candidate;
-		
-		while (it.hasNext()) {
-
-			candidate = it.next();
-
-			if (candidate.first().compareTo(s) == 0)
-				return candidate;
-		}
-
-		return null;
+	public DoubleArray() {
+		super();
 	}
 
 	/**
-	 * Find and return tuple having a specific second coordinate.
+	 * Instantiates an empty bijection.
 	 * 
-	 * @param t	The value of the second coordinate to find.
-	 * 
-	 * @return The tuple with first coordinate t.
+	 * @param firsthash 	Hashes first coordinates, equally for coordinates comparing equal.
+	 * @param secondhash 	Hashes second coordinates, equally for coordinates comparing equal.
 	 */
-	public Tuple<S,T> getBySecond(T t) {
-		
-		Iterator<Tuple<S,T>> it = this.iterator();
-		Tuple<S,T> candidate;
-		
-		while (it.hasNext()) {
-			
-			candidate = it.next();
+	public DoubleArray(ToIntFunction<? super S> firsthash, ToIntFunction<? super T> secondhash) {
+		super(firsthash, secondhash);
+	}
 
-			if (candidate.second().compareTo(t) == 0)
-				return candidate;
-		}
+	
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> getByFirst(S s) { return super.getByFirst(s); }
 
-		return null;
-	}
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> getBySecond(T t) { return super.getBySecond(t); }
 
-	/**
-	 * Sort the list's pairs with respect to their first element.
-	 */
-	public void sortByFirst() {
-		this.sort(firstComparator);
-	}
+	/** {@inheritDoc} */
+	public synchronized void sortByFirst() { super.sortByFirst(); }
 
-	/**
-	 * Sort the list's pairs with respect to their second element.
-	 */
-	public void sortBySecond() {
-		this.sort(secondComparator);
-	}
+	/** {@inheritDoc} */
+	public synchronized void sortBySecond() { super.sortBySecond(); }
 
-	/**
-	 * Find and update tuple having a specific first coordinate.
-	 * 
-	 * @param s Domain value used for finding.
-	 * @param t Range value to update.
-	 * 
-	 * @return The inserted new tuple consisting of the found together with the updated value. 
-	 */
-	public Tuple<S, T> updateByFirst(S s, T t) {
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> updateByFirst(S s, T t) { return super.updateByFirst(s, t); }
 
-		Iterator<Tuple<S,T>> it = this.iterator();
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> updateBySecond(S s, T t) { return super.updateBySecond(s, t); }
 
-		Tuple<S,T> candidate;
-		
-		int index = 0;
-		
-		while (it.hasNext()) {
-			
-			candidate = it.next();
-			
-			if (candidate.first().compareTo(s) == 0) {
-				
-				candidate = new Tuple<S, T>(s,t);
-				
-				this.set(index, candidate);
-				
-				return candidate;
-			}	
-			
-			index++;
-		}
-		
-		return null;
-	}
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> removeByFirst(S s) { return super.removeByFirst(s); }
 
-	/**
-	 * Find and update tuple having a specific second coordinate.
-	 * 
-	 * @param s Domain value to update.
-	 * @param t Range value used for finding.
-	 * 
-	 * @return The inserted new tuple consisting of the updated together with the found value. 
-	 */
-	public Tuple<S, T> updateBySecond(S s, T t) {
+	/** {@inheritDoc} */
+	public synchronized void reindex() { super.reindex(); }
 
-		Iterator<Tuple<S,T>> it = this.iterator();
+	/** {@inheritDoc} */
+	public synchronized Collection<S> domain() { return super.domain(); }
 
-		Tuple<S,T> candidate;
-		
-		int index = 0;
-		
-		while (it.hasNext()) {
-			
-			candidate = it.next();
-
-			if (candidate.second().compareTo(t) == 0) {
-				
-				candidate = new Tuple<S, T>(s,t);
-				
-				this.set(index, candidate);
-
-				return candidate;
-			}
-			
-			index++;
-		}
-
-		return null;
-	}
+	/** {@inheritDoc} */
+	public synchronized Collection<T> range() { return super.range(); }
 
-	/**
-	 * Remove the correspondance with a specific first coordinate.
-	 * 
-	 * @param s 	The element to indicate which pair to remove.
-	 * 
-	 * @return		The pair removed.
-	 */
-	public Tuple<S, T> removeByFirst(S s) {
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> firstElement() { return super.firstElement(); }
 
-		Tuple<S,T> found = this.getByFirst(s);
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> get(int index) { return super.get(index); }
 
-		this.remove(found);
-		
-		return found;
-	}
+	/** {@inheritDoc} */
+	public synchronized int size() { return super.size(); }
 
-	
-	/**
-	 * The domain of this bijection.
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> set(int index, Tuple<S,T> tuple) { return super.set(index, tuple); }
 
-	 * @return A collection of all elements in the domain.
-	 */
-	public Collection<S> domain() {
-		
-		LinkedList<S> domain = new LinkedList<S>();
-		
-		for (Tuple<S,T> pair : this) 			
-			domain.add(pair.first());
+	/** {@inheritDoc} */
+	public synchronized boolean add(Tuple<S,T> tuple) { return super.add(tuple); }
 
-		return domain;
-	}
+	/** {@inheritDoc} */
+	public synchronized void add(int index, Tuple<S,T> tuple) { super.add(index, tuple); }
 
-	/**
-	 * The range of this bijection.
-	 * @return	A collection of all the elements in the range.
-	 */
-	public Collection<T> range() {
-		
-		LinkedList<T> range = new LinkedList<T>();
-		
-		for (Tuple<S,T> pair : this) 			
-			range.add(pair.second());
+	/** {@inheritDoc} */
+	public synchronized Tuple<S,T> remove(int index) { return super.remove(index); }
 
-		return range;
-	}
+	/** {@inheritDoc} */
+	public synchronized boolean remove(Object tuple) { return super.remove(tuple); }
+
+	/** {@inheritDoc} */
+	public synchronized boolean addAll(Collection<? extends Tuple<S,T>> added) { return super.addAll(added); }
+
+	/** {@inheritDoc} */
+	public synchronized void clear() { super.clear(); }
+
+	/** {@inheritDoc} */
+	public synchronized void sort(Comparator<? super Tuple<S,T>> comparator) { super.sort(comparator); }
+
+	/** {@inheritDoc} */
+	public synchronized boolean contains(Object tuple) { return super.contains(tuple); }
+
+	/** {@inheritDoc} */
+	public synchronized int indexOf(Object tuple) { return super.indexOf(tuple); }
+
+	/** {@inheritDoc} */
+	public synchronized boolean isEmpty() { return super.isEmpty(); }
 
 }
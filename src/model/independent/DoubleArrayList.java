@@ -0,0 +1,469 @@
+package model.independent;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+import model.independent.DoubleArray.Tuple;
+
+/**
+ * List of tuples to be used as a sortable bijection, as {@link DoubleArray} but not synchronized, for use by one
+ * thread at a time.<br><br>
+ *
+ * Both coordinates are indexed by hash, so that finding a tuple by either coordinate takes constant time rather than
+ * going through the list. Coordinates are still told equal by <code>compareTo</code>, the hash only narrows down the
+ * tuples compared, and so the hash of a coordinate must be equal for coordinates comparing equal, as hash codes are for
+ * objects that are equal. If several tuples have the coordinate searched for, the first in order is found, as when
+ * searching from the start of the list.<br><br>
+ *
+ * Coordinates are hashed when a tuple is added. A coordinate altered in place, rather than replaced by a new tuple, is
+ * indexed anew by {@link #reindex()}, which sorting also does. Null coordinates are not indexed and are never found.
+ *
+ * @param <S>	The domain value.
+ * @param <T>	The range value.
+ */
+public class DoubleArrayList<S extends Comparable<? super S>, T extends Comparable<? super T>> extends AbstractList<Tuple<S,T>> implements RandomAccess {
+
+	/** How far, at least, from where it was last found a tuple may be found before all are indexed anew. */
+	private static final int DRIFT = 64;
+
+	private final ArrayList<Tuple<S,T>> tuples = new ArrayList<Tuple<S,T>>();
+
+	private final Index<S> firsts;
+
+	private final Index<T> seconds;
+
+
+	/**
+	 * Instantiates an empty bijection, hashing coordinates by their hash codes.
+	 */
+	public DoubleArrayList() {
+		this(Object::hashCode, Object::hashCode);
+	}
+
+	/**
+	 * Instantiates an empty bijection.
+	 *
+	 * @param firsthash 	Hashes first coordinates, equally for coordinates comparing equal.
+	 * @param secondhash 	Hashes second coordinates, equally for coordinates comparing equal.
+	 */
+	public DoubleArrayList(ToIntFunction<? super S> firsthash, ToIntFunction<? super T> secondhash) {
+
+		this.firsts = new Index<S>(firsthash, Tuple::first);
+		this.seconds = new Index<T>(secondhash, Tuple::second);
+	}
+
+
+	/**
+	 * Find and return the tuple having a specific first coordinate.
+	 *
+	 * @param s	The value of the first coordinate of the tuple to search for.
+	 *
+	 * @return	The tuple with first coordinate s.
+	 */
+	public Tuple<S,T> getByFirst(S s) {
+
+		Entry found = firsts.find(s);
+
+		return found != null ? found.tuple : null;
+	}
+
+	/**
+	 * Find and return tuple having a specific second coordinate.
+	 *
+	 * @param t	The value of the second coordinate to find.
+	 *
+	 * @return The tuple with second coordinate t.
+	 */
+	public Tuple<S,T> getBySecond(T t) {
+
+		Entry found = seconds.find(t);
+
+		return found != null ? found.tuple : null;
+	}
+
+	/**
+	 * Sort the list's pairs with respect to their first element.
+	 */
+	public void sortByFirst() {
+		this.sort((o1, o2) -> o1.first().compareTo(o2.first()));
+	}
+
+	/**
+	 * Sort the list's pairs with respect to their second element.
+	 */
+	public void sortBySecond() {
+		this.sort((o1, o2) -> o1.second().compareTo(o2.second()));
+	}
+
+	/**
+	 * Find and update tuple having a specific first coordinate.
+	 *
+	 * @param s Domain value used for finding.
+	 * @param t Range value to update.
+	 *
+	 * @return The inserted new tuple consisting of the found together with the updated value.
+	 */
+	public Tuple<S,T> updateByFirst(S s, T t) {
+
+		Entry found = firsts.find(s);
+
+		if (found == null) return null;
+
+		Tuple<S,T> candidate = new Tuple<S,T>(s, t);
+
+		this.set(this.locate(found), candidate);
+
+		return candidate;
+	}
+
+	/**
+	 * Find and update tuple having a specific second coordinate.
+	 *
+	 * @param s Domain value to update.
+	 * @param t Range value used for finding.
+	 *
+	 * @return The inserted new tuple consisting of the updated together with the found value.
+	 */
+	public Tuple<S,T> updateBySecond(S s, T t) {
+
+		Entry found = seconds.find(t);
+
+		if (found == null) return null;
+
+		Tuple<S,T> candidate = new Tuple<S,T>(s, t);
+
+		this.set(this.locate(found), candidate);
+
+		return candidate;
+	}
+
+	/**
+	 * Remove the correspondance with a specific first coordinate.
+	 *
+	 * @param s 	The element to indicate which pair to remove.
+	 *
+	 * @return		The pair removed.
+	 */
+	public Tuple<S,T> removeByFirst(S s) {
+
+		Entry found = firsts.find(s);
+
+		if (found == null) return null;
+
+		return this.remove(this.locate(found));
+	}
+
+	/**
+	 * Indexes all tuples anew, for example after coordinates have been altered in place.
+	 */
+	public void reindex() {
+
+		firsts.clear();
+		seconds.clear();
+
+		for (int i = 0; i < tuples.size(); i++) this.index(tuples.get(i), i);
+	}
+
+	/**
+	 * The domain of this bijection.
+	 *
+	 * @return A collection of all elements in the domain.
+	 */
+	public Collection<S> domain() {
+
+		LinkedList<S> domain = new LinkedList<S>();
+
+		for (Tuple<S,T> pair : tuples)
+			domain.add(pair.first());
+
+		return domain;
+	}
+
+	/**
+	 * The range of this bijection.
+	 *
+	 * @return	A collection of all the elements in the range.
+	 */
+	public Collection<T> range() {
+
+		LinkedList<T> range = new LinkedList<T>();
+
+		for (Tuple<S,T> pair : tuples)
+			range.add(pair.second());
+
+		return range;
+	}
+
+	/**
+	 * The first tuple, as of {@link java.util.Vector#firstElement()}.
+	 *
+	 * @return The first tuple.
+	 * @throws NoSuchElementException If there are no tuples.
+	 */
+	public Tuple<S,T> firstElement() {
+
+		if (tuples.isEmpty()) throw new NoSuchElementException();
+
+		return tuples.get(0);
+	}
+
+
+	/** {@inheritDoc} */
+	public Tuple<S,T> get(int index) {
+		return tuples.get(index);
+	}
+
+	/** {@inheritDoc} */
+	public int size() {
+		return tuples.size();
+	}
+
+	/** {@inheritDoc} */
+	public Tuple<S,T> set(int index, Tuple<S,T> tuple) {
+
+		Tuple<S,T> replaced = tuples.set(index, tuple);
+
+		this.unindex(replaced);
+		this.index(tuple, index);
+
+		return replaced;
+	}
+
+	/** {@inheritDoc} */
+	public void add(int index, Tuple<S,T> tuple) {
+
+		tuples.add(index, tuple);
+
+		this.index(tuple, index);
+
+		modCount++;
+	}
+
+	/** {@inheritDoc} */
+	public Tuple<S,T> remove(int index) {
+
+		Tuple<S,T> removed = tuples.remove(index);
+
+		this.unindex(removed);
+
+		modCount++;
+
+		return removed;
+	}
+
+	/** {@inheritDoc} */
+	public boolean remove(Object tuple) {
+
+		int index = tuples.indexOf(tuple);
+
+		if (index < 0) return false;
+
+		this.remove(index);
+
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	public boolean addAll(Collection<? extends Tuple<S,T>> added) {
+
+		for (Tuple<S,T> tuple : added) {
+
+			tuples.add(tuple);
+
+			this.index(tuple, tuples.size() - 1);
+		}
+
+		modCount++;
+
+		return !added.isEmpty();
+	}
+
+	/** {@inheritDoc} */
+	public void clear() {
+
+		tuples.clear();
+
+		firsts.clear();
+		seconds.clear();
+
+		modCount++;
+	}
+
+	/** {@inheritDoc} */
+	public void sort(Comparator<? super Tuple<S,T>> comparator) {
+
+		tuples.sort(comparator);
+
+		this.reindex();
+
+		modCount++;
+	}
+
+	/** {@inheritDoc} */
+	protected void removeRange(int from, int to) {
+
+		tuples.subList(from, to).clear();
+
+		this.reindex();
+
+		modCount++;
+	}
+
+
+	private void index(Tuple<S,T> tuple, int position) {
+
+		firsts.put(tuple, position);
+		seconds.put(tuple, position);
+	}
+
+	private void unindex(Tuple<S,T> tuple) {
+
+		firsts.remove(tuple);
+		seconds.remove(tuple);
+	}
+
+	/**
+	 * The position of an indexed tuple, about to be replaced or removed. Found far from where it was last found, all
+	 * positions are likely as far off, and all tuples are indexed anew with where they are. Far is in proportion to the
+	 * size, so that the cost of indexing anew is shared by as many shifts of the list as looking outwards costs per
+	 * tuple.
+	 */
+	private int locate(Entry entry) {
+
+		int hint = Math.min(entry.position, tuples.size() - 1), position = this.position(entry);
+
+		if (Math.abs(position - hint) > Math.max(DRIFT, tuples.size() / 8)) this.reindex();
+
+		return position;
+	}
+
+	/**
+	 * The position of an indexed tuple, looked for outwards from where it was last found, since insertions and
+	 * removals before it move it only as far as the number of them. Nothing is indexed anew, so that the chains of the
+	 * indexes may be walked meanwhile.
+	 */
+	private int position(Entry entry) {
+
+		int size = tuples.size(), hint = Math.min(entry.position, size - 1);
+
+		for (int distance = 0; distance <= size; distance++) {
+
+			int position = -1;
+
+			if (hint - distance >= 0 && tuples.get(hint - distance) == entry.tuple)
+				position = hint - distance;
+			else if (hint + distance < size && tuples.get(hint + distance) == entry.tuple)
+				position = hint + distance;
+
+			if (position < 0) continue;
+
+			return entry.position = position;
+		}
+
+		throw new IllegalStateException("Tuple indexed but not in list.");
+	}
+
+
+	/**
+	 * A tuple indexed, with where in the list it was last known to be, chained with those of the same hash.
+	 */
+	private final class Entry {
+
+		final Tuple<S,T> tuple;
+
+		int position;
+
+		Entry next;
+
+		Entry(Tuple<S,T> tuple, int position, Entry next) {
+			this.tuple = tuple;
+			this.position = position;
+			this.next = next;
+		}
+	}
+
+	/**
+	 * The tuples by the hash of one coordinate.
+	 */
+	private final class Index<K extends Comparable<? super K>> {
+
+		private final HashMap<Integer, Entry> chains = new HashMap<Integer, Entry>();
+
+		private final ToIntFunction<? super K> hash;
+
+		private final Function<Tuple<S,T>, K> coordinate;
+
+		Index(ToIntFunction<? super K> hash, Function<Tuple<S,T>, K> coordinate) {
+			this.hash = hash;
+			this.coordinate = coordinate;
+		}
+
+		/** The entry of the first tuple in order with a coordinate, null if none. */
+		Entry find(K key) {
+
+			if (key == null) return null;
+
+			Entry found = null;
+
+			for (Entry entry = chains.get(hash.applyAsInt(key)); entry != null; entry = entry.next) {
+
+				K candidate = coordinate.apply(entry.tuple);
+
+				if (candidate == null || candidate.compareTo(key) != 0) continue;
+
+				if (found == null)
+					found = entry;
+				else if (position(entry) < position(found)) 					// several, so the first in order
+					found = entry;
+			}
+
+			return found;
+		}
+
+		void put(Tuple<S,T> tuple, int position) {
+
+			K key = tuple != null ? coordinate.apply(tuple) : null;
+
+			if (key == null) return;
+
+			chains.merge(hash.applyAsInt(key), new Entry(tuple, position, null), (chain, entry) -> { entry.next = chain; return entry; });
+		}
+
+		void remove(Tuple<S,T> tuple) {
+
+			K key = tuple != null ? coordinate.apply(tuple) : null;
+
+			if (key == null) return;
+
+			int h = hash.applyAsInt(key);
+
+			Entry previous = null;
+
+			for (Entry entry = chains.get(h); entry != null; previous = entry, entry = entry.next) {
+
+				if (entry.tuple != tuple) continue;
+
+				if (previous != null)
+					previous.next = entry.next;
+				else if (entry.next != null)
+					chains.put(h, entry.next);
+				else
+					chains.remove(h);
+
+				return;
+			}
+		}
+
+		void clear() {
+			chains.clear();
+		}
+	}
+}
@@ -0,0 +1,152 @@
+package model.independent;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a sequence of codepoints written by a {@link SequenceEncoder}. The header is read on construction, the formals
+ * one at a time:<br><br>
+ *
+ * <code>while (decoder.next()) if (decoder.isComposite()) ... decoder.codepoint() ...</code>
+ *
+ * @see SequenceEncoder
+ */
+public class SequenceDecoder {
+
+	private final InputStream in;
+
+	private final byte[] bytes;
+
+	private int position = 0;
+
+	private final int version, implication;
+
+	private int codepoint;
+
+	private boolean composite;
+
+
+	/**
+	 * Instantiates a decoder reading from a stream and reads the header.
+	 *
+	 * @param in 				The stream read from.
+	 * @throws IOException 		If the stream is empty, can't be read or is of an unknown version.
+	 */
+	public SequenceDecoder(InputStream in) throws IOException {
+
+		this.in = in;
+		this.bytes = null;
+
+		int header = in.read();
+
+		if (header < 0) throw new EOFException("No header in sequence.");
+
+		this.version = header >>> 4;
+		this.implication = header & 0x0F;
+
+		if (version != SequenceEncoder.VERSION) throw new IOException("Unknown version of sequence: " + version);
+	}
+
+	/**
+	 * Instantiates a decoder reading straight from an encoded sequence, rather than through a stream, and reads the header.
+	 *
+	 * @param bytes 			The encoded sequence.
+	 * @throws IOException 		If the sequence is empty or of an unknown version.
+	 */
+	public SequenceDecoder(byte[] bytes) throws IOException {
+
+		this.in = null;
+		this.bytes = bytes;
+
+		if (bytes.length == 0) throw new EOFException("No header in sequence.");
+
+		int header = bytes[position++] & 0xFF;
+
+		this.version = header >>> 4;
+		this.implication = header & 0x0F;
+
+		if (version != SequenceEncoder.VERSION) throw new IOException("Unknown version of sequence: " + version);
+	}
+
+
+	/**
+	 * The version of the format read.
+	 *
+	 * @return The version from the header.
+	 */
+	public int version() {
+		return version;
+	}
+
+	/**
+	 * The implication code of the sequence.
+	 *
+	 * @return The implication code from the header, {@link SequenceEncoder#NONE} for no implication.
+	 */
+	public int implication() {
+		return implication;
+	}
+
+	/**
+	 * Reads the next formal.
+	 *
+	 * @return 					False if the sequence has ended.
+	 * @throws IOException 		If the stream can't be read or ends within a formal.
+	 */
+	public boolean next() throws IOException {
+
+		int b = read();
+
+		if (b < 0) return false;
+
+		long value = 0;
+
+		int shift = 0;
+
+		while (true) {
+
+			value |= (long) (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) break;
+
+			shift += 7;
+
+			if (shift > 35) throw new IOException("Malformed sequence, formal too long.");
+
+			b = read();
+
+			if (b < 0) throw new EOFException("Sequence ended within a formal.");
+		}
+
+		composite = (value & 1) == 1;
+		codepoint = (int) (value >>> 1);
+
+		return true;
+	}
+
+	private int read() throws IOException {
+
+		if (bytes == null) return in.read();
+
+		return position < bytes.length ? bytes[position++] & 0xFF : -1;
+	}
+
+	/**
+	 * The codepoint of the formal last read.
+	 *
+	 * @return The codepoint.
+	 */
+	public int codepoint() {
+		return codepoint;
+	}
+
+	/**
+	 * Tells if the formal last read is a reference to a composite.
+	 *
+	 * @return Wether the codepoint is that of a composite, else a primitive.
+	 */
+	public boolean isComposite() {
+		return composite;
+	}
+}
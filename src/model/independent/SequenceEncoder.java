@@ -0,0 +1,143 @@
+package model.independent;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes a sequence of codepoints in a compact binary form, for storing the formals of a statement.<br><br>
+ *
+ * The sequence starts with one header byte, the format {@link #VERSION} in its high four bits and an implication code
+ * in its low four bits. Then follows one variable length integer per formal, seven bits per byte with the high bit
+ * telling that more bytes follow, least significant group first. The integer is the codepoint, taken as unsigned 32 bits,
+ * shifted one step left with the lowest bit set for a reference to a composite and cleared for a primitive.<br><br>
+ *
+ * Primitives of the basic plane take one to three bytes and composites, having codepoints near the top of the
+ * integer range, five bytes.
+ *
+ * @see SequenceDecoder
+ */
+public class SequenceEncoder {
+
+	/** The version of the format written. */
+	public static final int VERSION = 1;
+
+	/** Implication code for no implication. */
+	public static final int NONE = 0;
+
+
+	private final OutputStream out;
+
+	private boolean started = false;
+
+
+	/**
+	 * Instantiates an encoder writing to a stream.
+	 *
+	 * @param out The stream written to.
+	 */
+	public SequenceEncoder(OutputStream out) {
+		this.out = out;
+	}
+
+
+	/**
+	 * Writes the header, must come first.
+	 *
+	 * @param implication 		The implication code, 0 to 15, {@link #NONE} for no implication.
+	 * @throws IOException 		If the stream can't be written.
+	 */
+	public void writeHeader(int implication) throws IOException {
+
+		if (started) throw new IllegalStateException("Header already written.");
+
+		if (implication < 0 || implication > 15) throw new IllegalArgumentException("Implication code out of range: " + implication);
+
+		out.write(VERSION << 4 | implication);
+
+		started = true;
+	}
+
+	/**
+	 * Writes a primitive.
+	 *
+	 * @param codepoint 		The codepoint of the primitive.
+	 * @throws IOException 		If the stream can't be written.
+	 */
+	public void writePrimitive(int codepoint) throws IOException {
+		write(codepoint, false);
+	}
+
+	/**
+	 * Writes a reference to a composite.
+	 *
+	 * @param codepoint 		The codepoint of the composite.
+	 * @throws IOException 		If the stream can't be written.
+	 */
+	public void writeComposite(int codepoint) throws IOException {
+		write(codepoint, true);
+	}
+
+	/**
+	 * Writes a primitive or a reference to a composite.
+	 *
+	 * @param codepoint 		The codepoint.
+	 * @param composite 		If the codepoint is that of a composite.
+	 * @throws IOException 		If the stream can't be written.
+	 */
+	public void write(int codepoint, boolean composite) throws IOException {
+
+		if (!started) throw new IllegalStateException("Header not written.");
+
+		long value = tagged(codepoint, composite);
+
+		while (value >= 0x80) {
+
+			out.write((int) (value & 0x7F) | 0x80);
+
+			value >>>= 7;
+		}
+
+		out.write((int) value);
+	}
+
+	private static long tagged(int codepoint, boolean composite) {
+		return (Integer.toUnsignedLong(codepoint) << 1) | (composite ? 1 : 0);
+	}
+
+
+	/**
+	 * Encodes a whole sequence at once, straight into an array rather than through a stream.
+	 *
+	 * @param implication 	The implication code, {@link #NONE} for no implication.
+	 * @param codepoints 	The codepoints.
+	 * @param composites 	For each codepoint, if it is that of a composite.
+	 * @return 				The encoded sequence.
+	 */
+	public static byte[] encode(int implication, int[] codepoints, boolean[] composites) {
+
+		if (implication < 0 || implication > 15) throw new IllegalArgumentException("Implication code out of range: " + implication);
+
+		byte[] bytes = new byte[1 + 5*codepoints.length];
+
+		bytes[0] = (byte) (VERSION << 4 | implication);
+
+		int n = 1;
+
+		for (int i = 0; i < codepoints.length; i++) {
+
+			long value = tagged(codepoints[i], composites[i]);
+
+			while (value >= 0x80) {
+
+				bytes[n++] = (byte) ((value & 0x7F) | 0x80);
+
+				value >>>= 7;
+			}
+
+			bytes[n++] = (byte) value;
+		}
+
+		return Arrays.copyOf(bytes, n);
+	}
+}
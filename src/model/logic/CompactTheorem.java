@@ -0,0 +1,119 @@
+package model.logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A stored theorem as the sequences of its statements only, without descriptions, for processing many theorems
+ * with little memory. The description of a theorem, that is what it takes to display it, is made from this when it
+ * is displayed, see {@link control.db.DeductionBase#describe(CompactTheorem)}.<br><br>
+ *
+ * The statements are in order, the last not closed by an implication if it was being written when stored. Compact
+ * theorems are values, never altered once made.
+ *
+ * @see FormalSequence
+ */
+public final class CompactTheorem implements Iterable<FormalSequence> {
+
+	private final String name;
+
+	private final List<String> ids;
+
+	private final List<FormalSequence> statements;
+
+
+	/**
+	 * A theorem of statements.
+	 *
+	 * @param name 			The name of the theorem.
+	 * @param ids 			The identifications of the statements in the base, in order.
+	 * @param statements 	The sequences of the statements, in order.
+	 */
+	public CompactTheorem(String name, List<String> ids, List<FormalSequence> statements) {
+
+		if (ids.size() != statements.size()) throw new IllegalArgumentException("As many identifications as statements needed.");
+
+		this.name = name;
+		this.ids = Collections.unmodifiableList(new ArrayList<String>(ids));
+		this.statements = Collections.unmodifiableList(new ArrayList<FormalSequence>(statements));
+	}
+
+
+	/** @return The name of the theorem. */
+	public String name() { return name; }
+
+	/** @return The identifications of the statements, in order. */
+	public List<String> ids() { return ids; }
+
+	/** @return The sequences of the statements, in order. */
+	public List<FormalSequence> statements() { return statements; }
+
+	/** {@inheritDoc} */
+	public Iterator<FormalSequence> iterator() { return statements.iterator(); }
+
+	/** @return The number of statements stored. */
+	public int lengthInStatements() { return statements.size(); }
+
+	/** @return The number of formals of all statements, closing implications counted. */
+	public int lengthInFormals() {
+
+		int length = 0;
+
+		for (FormalSequence statement : statements) length += statement.size() + (statement.isClosed() ? 1 : 0);
+
+		return length;
+	}
+
+	/** @return The codepoints of the composites referenced by the statements, in order. */
+	public TreeSet<Integer> composites() {
+
+		TreeSet<Integer> composites = new TreeSet<Integer>();
+
+		for (FormalSequence statement : statements)
+			if (statement.hasComposites())
+				for (int i = 0; i < statement.size(); i++)
+					if (statement.isComposite(i)) composites.add(statement.codepoint(i));
+
+		return composites;
+	}
+
+	/**
+	 * Finds the statements holding a sequence of formals in a row.
+	 *
+	 * @param searched 	The sequence searched for.
+	 * @return 			The identifications of the statements holding it, in order.
+	 */
+	public ArrayList<String> find(FormalSequence searched) {
+
+		ArrayList<String> found = new ArrayList<String>();
+
+		for (int i = 0; i < statements.size(); i++)
+			if (statements.get(i).indexOf(searched) >= 0) found.add(ids.get(i));
+
+		return found;
+	}
+
+
+	/** {@inheritDoc} */
+	public boolean equals(Object other) {
+
+		if (!(other instanceof CompactTheorem)) return false;
+
+		CompactTheorem theorem = (CompactTheorem) other;
+
+		return theorem.name.equals(name) && theorem.statements.equals(statements);
+	}
+
+	/** {@inheritDoc} */
+	public int hashCode() {
+		return 31 * name.hashCode() + statements.hashCode();
+	}
+
+	/** {@inheritDoc} */
+	public String toString() {
+		return "T[" + name + ", #s=" + statements.size() + ", #p=" + this.lengthInFormals() + "]";
+	}
+}
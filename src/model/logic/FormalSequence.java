@@ -0,0 +1,257 @@
+package model.logic;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import model.description.DComposite;
+import model.description.abstraction.Described;
+import model.independent.SequenceDecoder;
+import model.independent.SequenceEncoder;
+import model.logic.Implication.ImplicationType;
+
+/**
+ * The formals of a statement as plain codepoints, without descriptions, for processing stored statements, such as
+ * searching, comparing or exporting them, without making what it takes to render them.<br><br>
+ *
+ * The codepoints are packed in an array, one per formal, those of composites told apart by a bit each in another.
+ * The implication closing the statement, if any, is kept as its code in the stored sequences, see
+ * {@link SequenceEncoder}, rather than as a formal. Sequences are values, never altered once made.
+ *
+ * @see CompactTheorem
+ */
+public final class FormalSequence {
+
+	private static final int[] NOCODEPOINTS = new int[0];
+
+	private static final long[] NOCOMPOSITES = new long[0];
+
+
+	private final int[] codepoints;
+
+	private final long[] composites;
+
+	private final int implication;
+
+
+	private FormalSequence(int[] codepoints, long[] composites, int implication) {
+		this.codepoints = codepoints;
+		this.composites = composites;
+		this.implication = implication;
+	}
+
+	/**
+	 * A sequence of formals.
+	 *
+	 * @param implication 	The implication code, {@link SequenceEncoder#NONE} if not closed.
+	 * @param codepoints 	The codepoints of the formals, copied.
+	 * @param composites 	For each codepoint, if it is that of a composite.
+	 * @return 				The sequence.
+	 */
+	public static FormalSequence of(int implication, int[] codepoints, boolean[] composites) {
+
+		if (implication < 0 || implication > 3) throw new IllegalArgumentException("Implication code out of range: " + implication);
+
+		long[] bits = NOCOMPOSITES;
+
+		for (int i = 0; i < codepoints.length; i++)
+			if (composites[i]) {
+
+				if (bits.length == 0) bits = new long[(codepoints.length + 63) >>> 6];
+
+				bits[i >>> 6] |= 1L << i;
+			}
+
+		return new FormalSequence(codepoints.length == 0 ? NOCODEPOINTS : codepoints.clone(), bits, implication);
+	}
+
+	/**
+	 * The sequence of a statement, its closing implication taken as the code.
+	 *
+	 * @param statement 	The statement.
+	 * @return 				The sequence of its formals.
+	 */
+	public static FormalSequence of(Statement statement) {
+
+		int implication = statement.implicationID();
+
+		boolean closed = implication > 0;
+
+		int n = closed ? statement.size() - 1 : statement.size(), i = 0;
+
+		int[] codepoints = new int[n];
+		boolean[] composites = new boolean[n];
+
+		for (Described described : statement) {
+
+			if (i == n) break;
+
+			codepoints[i] = described.getCodepoint();
+			composites[i++] = described instanceof DComposite;
+		}
+
+		return of(closed ? implication : SequenceEncoder.NONE, codepoints, composites);
+	}
+
+	/**
+	 * The sequence of a stored statement.
+	 *
+	 * @param sequence 			The sequence as written by {@link SequenceEncoder}.
+	 * @return 					The sequence of its formals.
+	 * @throws IOException 		If the sequence is malformed.
+	 */
+	public static FormalSequence decode(byte[] sequence) throws IOException {
+
+		SequenceDecoder decoder = new SequenceDecoder(sequence);
+
+		int[] codepoints = new int[sequence.length];
+		long[] bits = NOCOMPOSITES;
+
+		int n = 0;
+
+		while (decoder.next()) {
+
+			if (decoder.isComposite()) {
+
+				if (bits.length == 0) bits = new long[(sequence.length + 63) >>> 6];
+
+				bits[n >>> 6] |= 1L << n;
+			}
+
+			codepoints[n++] = decoder.codepoint();
+		}
+
+		if (bits.length > (n + 63) >>> 6) bits = Arrays.copyOf(bits, (n + 63) >>> 6);
+
+		return new FormalSequence(n == 0 ? NOCODEPOINTS : Arrays.copyOf(codepoints, n), bits, decoder.implication());
+	}
+
+	/**
+	 * The sequence as stored.
+	 *
+	 * @return The sequence as written by {@link SequenceEncoder}.
+	 */
+	public byte[] encode() {
+
+		boolean[] composites = new boolean[codepoints.length];
+
+		for (int i = 0; i < codepoints.length; i++) composites[i] = this.isComposite(i);
+
+		return SequenceEncoder.encode(implication, codepoints, composites);
+	}
+
+
+	/** @return The number of formals, not counting the closing implication. */
+	public int size() { return codepoints.length; }
+
+	/**
+	 * The codepoint of a formal.
+	 *
+	 * @param i 	The position of the formal.
+	 * @return 		The codepoint.
+	 */
+	public int codepoint(int i) {
+		return codepoints[i];
+	}
+
+	/**
+	 * Tells if a formal is a composite.
+	 *
+	 * @param i 	The position of the formal.
+	 * @return 		If its codepoint is that of a composite.
+	 */
+	public boolean isComposite(int i) {
+
+		if (i < 0 || i >= codepoints.length) throw new IndexOutOfBoundsException(i);
+
+		return (i >>> 6) < composites.length && (composites[i >>> 6] & 1L << i) != 0;
+	}
+
+	/** @return If any formal is a composite. */
+	public boolean hasComposites() {
+
+		for (long bits : composites) if (bits != 0) return true;
+
+		return false;
+	}
+
+	/** @return A copy of the codepoints of the formals in order. */
+	public int[] codepoints() { return codepoints.clone(); }
+
+	/** @return The implication code, {@link SequenceEncoder#NONE} if not closed. */
+	public int implication() { return implication; }
+
+	/** @return If closed by an implication. */
+	public boolean isClosed() { return implication != SequenceEncoder.NONE; }
+
+	/** @return The type of the closing implication, null if not closed. */
+	public ImplicationType implicationType() {
+
+		switch (implication) {
+			case 1: 	return ImplicationType.LEFT;
+			case 2: 	return ImplicationType.RIGHT;
+			case 3: 	return ImplicationType.EQUIV;
+			default: 	return null;
+		}
+	}
+
+	/**
+	 * Finds another sequence of formals in a row in this, its implication not taken into account.
+	 *
+	 * @param searched 	The sequence searched for.
+	 * @return 			The position of the first formal of the first found, or -1 if not found.
+	 */
+	public int indexOf(FormalSequence searched) {
+
+		int n = searched.codepoints.length;
+
+		outer:
+		for (int i = 0; i + n <= codepoints.length; i++) {
+
+			for (int j = 0; j < n; j++)
+				if (codepoints[i + j] != searched.codepoints[j] || this.isComposite(i + j) != searched.isComposite(j)) continue outer;
+
+			return i;
+		}
+
+		return -1;
+	}
+
+
+	/** {@inheritDoc} */
+	public boolean equals(Object other) {
+
+		if (!(other instanceof FormalSequence)) return false;
+
+		FormalSequence sequence = (FormalSequence) other;
+
+		if (sequence.implication != implication || !Arrays.equals(sequence.codepoints, codepoints)) return false;
+
+		for (int i = 0; i < codepoints.length; i++)
+			if (sequence.isComposite(i) != this.isComposite(i)) return false;
+
+		return true;
+	}
+
+	/** {@inheritDoc} */
+	public int hashCode() {
+		return 31 * Arrays.hashCode(codepoints) + implication;
+	}
+
+	/** {@inheritDoc} */
+	public String toString() {
+
+		StringBuilder output = new StringBuilder("S[");
+
+		for (int i = 0; i < codepoints.length; i++) {
+
+			if (i > 0) output.append(':');
+
+			if (this.isComposite(i))
+				output.append(codepoints[i]);
+			else
+				output.appendCodePoint(codepoints[i]);
+		}
+
+		return output.append(", implication=").append(implication).append(']').toString();
+	}
+}
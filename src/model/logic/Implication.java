@@ -1,15 +1,15 @@
 package model.logic;
 
 import model.logic.abstraction.AbstractFormal;
-import model.logic.abstraction.Formal;
 
 /**
- * Special class for the three elementary deductions.
+ * Special class for the three elementary deductions. There are only the three values {@link #EQUIV}, {@link #RIGHT} 
+ * and {@link #LEFT}, so implications are equal exactly if they are the same object.
  * @see ImplicationType
  */
-public class Implication extends AbstractFormal {
+public final class Implication extends AbstractFormal {
 	
-	private ImplicationType implicationtype;   
+	private final ImplicationType implicationtype;   
 	
 	
 	/**
@@ -41,13 +41,21 @@ public class Implication extends AbstractFormal {
 	}
 
     /**
-     * Produces static values of Implications.
-	 * @param type 	The implication type of three possible.
+     * Produces static values of Implications, one of the three static instances.
+	 * @param type 	The implication type of three possible, not null.
      * 
      * @return 		An implication value.
+     * @throws IllegalArgumentException If the type is null.
      */
 	public static Implication makeValue(ImplicationType type) {
-		return new Implication(type);
+
+		if (type == null) throw new IllegalArgumentException("Unknown implication type!");
+
+		switch (type) {
+			case LEFT: 	return LEFT;
+			case RIGHT: return RIGHT;
+			default: 	return EQUIV;
+		}
 	}
 
 	
@@ -71,7 +79,7 @@ public class Implication extends AbstractFormal {
 	 * {@inheritDoc}
 	 */
 	public boolean equals(Object other) {
-		return (other instanceof Implication) ? this.getCodepoint() == ((Formal) other).getCodepoint() : false;
+		return other == this;
 	}
 
 	
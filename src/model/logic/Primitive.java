@@ -1,15 +1,32 @@
 package model.logic;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 import model.logic.abstraction.AbstractFormal;
 
 /**
  * The most simple objects fullfilling the Formal interface. 
  * Primitive objects should be used as evanescent <b>values</b> and not as 
- * <b>objects with references</b>.
+ * <b>objects with references</b>.<br><br>
+ * 
+ * Values are interned: there is one primitive per codepoint, made the first time it is asked for and shared by all 
+ * after, so that two primitives are equal exactly if they are the same object. Those of the basic multilingual plane 
+ * are kept in an array indexed by codepoint, any others in a map.
  * @see model.logic.abstraction.Formal
  */
 public final class Primitive extends AbstractFormal {	
 		
+	private static final int PLANE = 0x10000;
+
+	private static final AtomicReferenceArray<Primitive> BASIC = new AtomicReferenceArray<Primitive>(PLANE);
+
+	private static final ConcurrentHashMap<Integer, Primitive> OTHERS = new ConcurrentHashMap<Integer, Primitive>();
+
+	/** Counted as values are made, so as not to count them over the whole plane. */
+	private static final AtomicInteger INTERNED = new AtomicInteger();
+	
 	
     private Primitive(int codepoint) {	
  
@@ -22,12 +39,38 @@ public final class Primitive extends AbstractFormal {
     }
     
     /**
-     * Produces static values of Primitives.
+     * Produces static values of Primitives, the same object for the same codepoint.
      * @param codepoint	The UTF codpoint that corresponds to this mathematics primitive.
      * @return The mathematics primitive as a value that is not referenceable.
      */
     public final static Primitive makeValue(int codepoint) {		
-    	return new Primitive(codepoint);
+
+    	if (codepoint < 0 || codepoint >= PLANE)
+    		return OTHERS.computeIfAbsent(codepoint, other -> { INTERNED.incrementAndGet(); return new Primitive(other); });
+
+    	Primitive value = BASIC.get(codepoint);
+
+    	if (value != null) return value;
+
+    	if (BASIC.compareAndSet(codepoint, null, new Primitive(codepoint)))	// another thread may have made it meanwhile
+    		INTERNED.incrementAndGet();
+
+    	return BASIC.get(codepoint);
+    }
+
+    /**
+     * The number of values made so far.
+     * @return The number of primitives interned.
+     */
+    public static int interned() {
+    	return INTERNED.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    public boolean equals(Object other) {
+    	return other == this || (!(other instanceof Primitive) && super.equals(other));		// interned, so identity among primitives
     }
    
     /**
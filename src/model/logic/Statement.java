@@ -6,6 +6,7 @@ import model.description.DComposite;
 import model.description.DPrimitive;
 import model.description.abstraction.Described;
 import model.independent.CyclicList;
+import model.independent.SequenceEncoder;
 import model.logic.Implication.ImplicationType;
 import model.logic.abstraction.Formal;
 
@@ -41,9 +42,18 @@ public class Statement extends CyclicList<Described> {
 	protected Statement() {
  		super();
  		
-		id = Double.toString(Math.random()).substring(2);
+		id = newID();
     }
 	
+	/**
+	 * Draws a new random identification for a statement.
+	 * 
+	 * @return	The new identification.
+	 */
+	protected static String newID() {
+		return Double.toString(Math.random()).substring(2);
+	}
+	
 	/** 
 	 * Constructors is meant to be called by the {@see #makeValue()} and {@see #makeValue(Collection<Described>, ImplicationType)} 
 	 * but are exported to extending classes as well. Se these methods for description.
@@ -68,7 +78,7 @@ public class Statement extends CyclicList<Described> {
  	 * @return	Wether this statement is closed or not.
 	 */
 	public final boolean isClosed() {
-		return this.getLast() instanceof Implication;
+		return !this.isEmpty() && this.getLast().value() instanceof Implication;
 	}
 
 	/**
@@ -102,30 +112,37 @@ public class Statement extends CyclicList<Described> {
 	}
 
 	/**
-	 * Another string representation used for storing its primitives in a database.
+	 * Another string representation used for storing its primitives in a database. The statement is only read, the 
+	 * closing implication is skipped rather than taken off.
 	 * @return String of its primitive's UTF codepoints as characters.
 	 */
 	public String formalsString() {
 		
 		String output = "";
 
-		Described implication = null; 
-		
-		if (this.isClosed())
-			implication = this.removeLast();
-		
-		for (Described described : this) 			
+		int n = this.isClosed() ? this.size() - 1 : this.size();
+
+		for (int i = 0; i < n; i++) {
+
+			Described described = this.get(i);
 
 			if (described instanceof DComposite)
 				output += described.getCodepoint() + ":";	
 			else
 				output += (char) described.getCodepoint() + ":";
-
-		if (this.isClosed())
-			this.addLast(implication);
+		}
 		
 		return output.substring(0, output.length() - 1);
 	}
+
+	/**
+	 * A binary representation used for storing its primitives in a database, as written by a {@link SequenceEncoder}. 
+	 * Unlike {@link #formalsString()} the closing implication is kept, in the header.
+	 * @return Bytes of its implication followed by its primitive's UTF codepoints, tagged if of composites.
+	 */
+	public byte[] formalsBytes() {
+		return FormalSequence.of(this).encode();
+	}
 	
 }
  
@@ -183,7 +183,8 @@ public abstract class AbstractComposite extends AbstractFormal {
 	}
 
 	/**
-	 * Returns an array of clones of this composite's components. 
+	 * Returns an array of clones of this composite's components. Primitives are values, so their clones are the 
+	 * interned primitives themselves.
 	 *
 	 * @return the formal[]
 	 */
@@ -194,7 +195,7 @@ public abstract class AbstractComposite extends AbstractFormal {
 		for (Formal primitive : toFormals(constituents))
 			clones.add(Primitive.makeValue(primitive.getCodepoint()));
 
-		return (Formal[]) clones.toArray();
+		return clones.toArray(new Formal[clones.size()]);
 	}
 	
  	
@@ -50,6 +50,8 @@ public abstract class AbstractFormal implements Formal  {
 	/** {@inheritDoc} */	
 	public boolean 	  equals(Object other) {
 
+		if (other == this) return true;
+
 		if (other instanceof Primitive || other instanceof DPrimitive)
 			return (((AbstractFormal) other).getCodepoint() == this.codepoint);
 
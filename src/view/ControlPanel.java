@@ -106,7 +106,6 @@ public class ControlPanel extends TraversablePanel implements ActionListener {
 				
 			case "quit":
 				
-				base.closeDB();
 				trainer.cancel();
 				parent.cleanAndExit();
 				
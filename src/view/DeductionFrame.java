@@ -10,11 +10,13 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Vector;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.ActionMap;
 import javax.swing.InputMap;
 import javax.swing.JComponent;
 import javax.swing.JPanel;
+import javax.swing.JScrollBar;
 import javax.swing.SpringLayout;
 import javax.swing.border.TitledBorder;
 
@@ -26,11 +28,13 @@ import control.Toolbox;
 import control.db.DeductionBase;
 import model.description.DComposite;
 import model.description.DTheorem;
+import model.description.GlyphCache;
 import model.description.abstraction.Described;
 import model.independent.DoubleArray;
 import model.logic.abstraction.Formal;
 import view.abstraction.AbstractFrame;
 import view.abstraction.CustomTraversalPolicy;
+import view.abstraction.GlyphAtlas;
 import view.abstraction.TraversablePanel;
 
 /**
@@ -74,15 +78,24 @@ public class DeductionFrame extends AbstractFrame {
 			this.canvas = new DisplayCanvas();
 			canvas.setBackground(new Color(255, 255, 255));
 
+			JScrollBar scrollbar = new JScrollBar(JScrollBar.VERTICAL);
+			scrollbar.setFocusable(false);
+			canvas.setScrollbar(scrollbar);
+
 			SpringLayout springLayout = new SpringLayout();
 			this.setLayout(springLayout);
 					
 			springLayout.putConstraint(SpringLayout.NORTH, canvas, 1,  SpringLayout.NORTH, this);
 			springLayout.putConstraint(SpringLayout.WEST,  canvas, 1,  SpringLayout.WEST,  this);
 			springLayout.putConstraint(SpringLayout.SOUTH, canvas, -1, SpringLayout.SOUTH, this);
-			springLayout.putConstraint(SpringLayout.EAST,  canvas, -1, SpringLayout.EAST,  this);
+			springLayout.putConstraint(SpringLayout.EAST,  canvas, 0,  SpringLayout.WEST,  scrollbar);
+			
+			springLayout.putConstraint(SpringLayout.NORTH, scrollbar, 1,  SpringLayout.NORTH, this);
+			springLayout.putConstraint(SpringLayout.SOUTH, scrollbar, -1, SpringLayout.SOUTH, this);
+			springLayout.putConstraint(SpringLayout.EAST,  scrollbar, -1, SpringLayout.EAST,  this);
 
 			this.add(canvas);			
+			this.add(scrollbar);
 		}
 	}
 	 
@@ -217,6 +230,17 @@ public class DeductionFrame extends AbstractFrame {
 		
 		DoubleArray<Formal, Shortcut> bindings = pnlControl.getDeductionBase().fetchPrimitives(theorem.primitivestable);
 
+		ArrayList<Integer> codepoints = new ArrayList<Integer>();
+
+		for (Formal formal : bindings.domain()) codepoints.add(formal.getCodepoint());
+
+		int rendered = GlyphCache.shared().prewarm(codepoints);					// buttons and theorems then share the glyphs
+
+		int packed = GlyphAtlas.shared().prewarm(codepoints);
+
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Prewarmed " + rendered + " glyphs of " + primitivestable + ", " + GlyphCache.shared());
+		if (Toolbox.DEBUGMINIMAL) System.out.println("Packed " + packed + " glyphs of " + primitivestable + ", " + GlyphAtlas.shared());
+
 		this.unionPrimitiveBindings(bindings, primitivestable);
 	}
 
@@ -236,16 +260,19 @@ public class DeductionFrame extends AbstractFrame {
 	 * Stores the composites currently in use in DeductionBase. 
 	 * 
 	 * @param tablename	The name to store them under.
+	 * @return 				A future completing when the composites are written to the base.
 	 */
-	public void storeComposites(String tablename) {
+	public CompletableFuture<Integer> storeComposites(String tablename) {
 
 		DeductionBase base = pnlControl.getDeductionBase();
 		
 		Collection<DComposite> composites = pnlPrimitives.getComposites();
 		
-		base.insertCompositesTable(composites, tablename);
+		CompletableFuture<Integer> future = base.insertCompositesTableLater(composites, tablename);
 		
-		int x = 0;
+		future.whenComplete((inserted, failure) -> { if (failure != null) failure.printStackTrace(); });
+
+		return future;
 	}
 	
 		
@@ -269,9 +296,12 @@ public class DeductionFrame extends AbstractFrame {
 	}
 	
 	/**
-	 * For now, just exits and leaves everything to vm.
+	 * Writes everything still queued for the base, closes the base and exits.
 	 */
-	public static void cleanAndExit() {
+	public void cleanAndExit() {
+
+		pnlControl.getDeductionBase().closeDB();
+
 		System.exit(0);
 	}
 
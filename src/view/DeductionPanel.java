@@ -142,7 +142,7 @@ public class DeductionPanel extends TraversablePanel implements ActionListener {
 				break;
 		}
 
-		canvas.paint(canvas.getGraphics());
+		canvas.render();
 
 		theorem.printout();
 		
@@ -214,7 +214,7 @@ public class DeductionPanel extends TraversablePanel implements ActionListener {
 		Described last = dropped.isEmpty() ? theorem.removeLastPrimitive() : dropped.getFirst();
 
 		canvas.setClearArea(bounds);
-		canvas.paint(canvas.getGraphics());
+		canvas.render();
 
 		Described reset = last != null ? last : DisplayCanvas.startCursor();
 		
@@ -258,7 +258,7 @@ public class DeductionPanel extends TraversablePanel implements ActionListener {
 				edit.togglePrompting();	
 				canvas.redescribeTail(edit.whole());
 				canvas.setPaintMode(false, false, false);
-				canvas.paint(canvas.getGraphics());
+				canvas.render();
 				
 			}
 
@@ -286,9 +286,9 @@ public class DeductionPanel extends TraversablePanel implements ActionListener {
 			canvas.setWritepoint(movedto, localorigo, offset);																									///(81A1)
 			canvas.fillCursor(movedto, false, movedto);
 			canvas.setPaintMode(true, false, false);
-			canvas.paint(canvas.getGraphics());
+			canvas.render();
 			canvas.setPaintMode(false, false, false);
-			canvas.paint(canvas.getGraphics());
+			canvas.render();
 		}
 	}
 
@@ -319,7 +319,7 @@ public class DeductionPanel extends TraversablePanel implements ActionListener {
 		canvas.redescribeTail(previous);																										///(F209)
 		canvas.setWritepoint(edit.current());																							///(5B71)
 		canvas.setPaintMode(false, false, false);																							///(G0A3)
-		canvas.paint(canvas.getGraphics());
+		canvas.render();
 
 	}
 
@@ -2,25 +2,41 @@
 
 import java.awt.Canvas;
 import java.awt.Color;
+import java.awt.EventQueue;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.Set;
 
+import javax.swing.JScrollBar;
+
 import control.Toolbox;
 import model.description.DEditableStatement;
 import model.description.DPrimitive;
+import model.description.DRectangle;
 import model.description.DStatement;
 import model.description.DTheorem;
 import model.description.abstraction.Described;
+import view.abstraction.Animations;
 import view.abstraction.CursoredCanvas;
 import view.abstraction.DisplayTools;
+import view.abstraction.LineLayout;
+import view.abstraction.RowIndex;
+import view.abstraction.StatementTiles;
 
 /**
- * The canvas upon which to draw theorems.
+ * The canvas upon which to draw theorems. Drawn into a back buffer, from which only what has been drawn anew is 
+ * copied onto the screen, once per turn of the event queue.<br><br>
+ * 
+ * The canvas is a viewport onto a page as long as the theorem, scrolled by a scrollbar and the mouse wheel and 
+ * following the cursor. Only the statements in view are painted, found through a {@link RowIndex}.
  */
 public class DisplayCanvas extends Canvas implements CursoredCanvas {
 
@@ -42,12 +58,37 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 	private boolean confirm 				= false;
 	private boolean clearpreliminary		= false;
 
+	private BufferedImage			buffer;
+	private Rectangle				dirty;
+	private DRectangle				blink;
+	private boolean					scheduled 	= false;
+	private Animations				animations 	= new Animations(this::screen, this::restore);
+
+	private StatementTiles			tiles 		= new StatementTiles();
+	private RowIndex				rows 		= new RowIndex();
+
+	/** The y coordinate of the page shown at the top of the canvas. */
+	private int						top 		= 0;
+	private JScrollBar				scrollbar;
+
+	/** The first statement not laid out since layout stops below the canvas while a statement is edited, or null. */
+	private DStatement				pending 	= null;
+	/** Where the pending statement is to be laid out from. */
+	private Point					pendingpoint;
+	/** Where the cursor was when last followed. */
+	private Rectangle				followed;
+
+	/** How statements were last laid out, so that only what has moved is laid out anew. */
+	private LineLayout				lines 		= new LineLayout(0, 0);
+
 	
 	/**
 	 * Instantiates a new empty canvas for drawing fantastic math theorems upon.
 	 */
  	public DisplayCanvas() {		
  		this.reset();	
+ 		
+ 		this.addMouseWheelListener(e -> this.scrollTo(top + 3 * lead * e.getWheelRotation()));
  	}
 
 
@@ -64,7 +105,7 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 		
 		if (paint) {			
 			this.setPaintMode(true, false, false);
-			this.paint(this.getGraphics());
+			this.render();
 		}
 	}
 	
@@ -78,6 +119,8 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 
 		this.theorem = theorem;
 
+		lines.clear();
+		
 		this.setWritepoint(startCursor());
 
 		this.theorem.firstStatement().setLocation(writepoint.getLocation());
@@ -110,6 +153,8 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 	 */
  	public void newCursor() {
 		
+ 		this.ensureLaidOut();
+ 		
  		Described last = !theorem.isEmptyTheorem() ? theorem.lastFormal() : startCursor();
  		
  		this.setWritepoint(last);
@@ -193,13 +238,15 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 	 */
 	public void newPrimitive() {	
 		
+		if (!this.isPrompting()) this.ensureLaidOut();
+		
 		if (this.isPrompting()) 
 			theorem.insertPrimitive(drawn, theorem.getEditing().current());
 		else 		
 			theorem.appendPrimitive(drawn);
 				
 		this.setPaintMode(false, false, true);
- 		this.paint(this.getGraphics());			// force is necessary - repaint paints 'as soon as possible'
+ 		this.render();							// force is necessary - repaint paints 'as soon as possible'
 
 		this.incrementCursor();
 	}
@@ -212,16 +259,18 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 	 */
 	public void newStatement(Described implication) {						
 		
+		this.ensureLaidOut();
+		
 		theorem.finalisePreliminary(implication);
 				
 		erase = implication;
 		
 		this.setPaintMode(false, false, true);
-		this.paint(this.getGraphics());																											///(1960)
+		this.render();																															///(1960)
 
 		this.incrementCursor();
 		this.setPaintMode(true, false, false);
-		this.paint(this.getGraphics());
+		this.render();
 						
 		theorem.getPreliminary().setLocation(writepoint);
 	}
@@ -244,6 +293,9 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 		}
 		
 		statement.setLocation(statement.getFirst().getLocation());			
+
+		lines.forget(statement);
+		rows.invalidate();
 	}
 
  	/**
@@ -257,7 +309,9 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
  	}
  	
  	/**
- 	 * Do a new layout of the ending part of the theorem, starting att statement given as argument. 
+ 	 * Do a new layout of the ending part of the theorem, starting att statement given as argument. While a statement is
+ 	 * edited the layout stops at the first statement below the canvas, the rest being laid out when scrolled to or 
+ 	 * when editing is left, see {@link #ensureLaidOut()}.
  	 * 
  	 * @param included	The statement that begins the tail to be re-layouted.
  	 */
@@ -265,6 +319,9 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 		
  		if (theorem.isEmptyTheorem()) return;
  		
+ 		if (pending != null && !(included != null && order(included) >= 0 && order(included) < order(pending)))
+ 			this.ensureLaidOut();																// the tail starts after what is laid out
+ 		
  		if (included == null || included == theorem.getPreliminary() || theorem.size() == 0 ) {		// last, last, first
  			this.redescribePreliminary();
  			return;
@@ -272,32 +329,127 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 
  	 		if (Toolbox.DEBUGMINIMAL) System.err.println("Redescribing, starting at " + included.formalsString());
 
- 			Point restore = writepoint.getLocation();
+ 	 		this.layOut(included, included.getFirst().getGlobalReference(), theorem.isEdited());
 
- 			painting = false;
- 			this.setWritepoint(included.getFirst()); 			
- 			theorem.addLast(theorem.getPreliminary());
+ 			return;
+ 		} 		
+ 	}
+ 	
+ 	/**
+ 	 * Lays out the statements not laid out yet, if any.
+ 	 */
+ 	public void ensureLaidOut() {
+ 		
+ 		if (pending == null) return;
+ 		
+ 		if (order(pending) < 0) {													// gone, so start over
+ 			pending = null;
+ 			lines.clear();
+ 			this.layOut(theorem.firstStatement(), startCursor().getGlobalReference(), false);
+ 		} else
+ 			this.layOut(pending, pendingpoint, false);
+ 	}
+ 	
+ 	/**
+ 	 * Lays out statements in order, the preliminary statement last. Stops at the first statement that is left as it
+ 	 * was, once one has moved, since all statements after it are laid out as before too. Neither the write point nor 
+ 	 * the cursor are used, the cursor is left after the last formal as if each formal had been written anew.
+ 	 * 
+ 	 * @param from		The first statement to lay out.
+ 	 * @param start		Where to start laying out, the reference point of the first formal.
+ 	 * @param lazy		Whether to stop at the first statement below the canvas.
+ 	 */
+ 	private void layOut(DStatement from, Point start, boolean lazy) {
+ 		
+ 		int horizon = top + this.getHeight();
+
+ 		DStatement stale = pending;													// neither it nor those after laid out yet
+ 		Point stalepoint = pendingpoint;
+ 		boolean known = true, moved = false;
+
+ 		pending = null;
+ 		lines.setMeasure(this.getWidth() - rightmargin, lead);
+
+ 		Point at = start.getLocation();
+ 		Described last = null;
+ 		int first = order(from);
+
+ 		Iterator<DStatement> it = statements(theorem, Math.max(0, first));
+
+ 		while (it.hasNext()) {
+ 			
+ 			DStatement next = it.next();
+ 			
+ 			if (next == stale) known = false;
+ 			
+ 			if (lazy && at.y > horizon + lead && !next.isEmpty()) {
+ 				pending = next;
+ 				pendingpoint = at;
+ 				break;
+ 			}
+ 			
+ 			if (lines.layOut(next, at)) 
+ 				moved = true;
+ 			else if (moved && known) {												// the rest is as it was
+ 				pending = stale;
+ 				pendingpoint = stalepoint;
+ 				break;
+ 			}
+ 			
+ 			if (!next.isEmpty()) last = next.getLast();
+ 		}
+
+ 		rows.invalidate();
+ 		
+ 		if (pending == null) last = theorem.lastFormal();								// all laid out to the end
+ 		
+ 		if (last != null) {
+ 			erase = last;
+ 			drawn = null;
+ 			advance = defaultadvance;
+ 			cursor.setLocation(pending == null ? lines.after(last) : pendingpoint);
+ 			cursor.description().width = advance;
+ 		}
+ 	}
+ 	
+ 	/** The index of a statement in the theorem, the preliminary statement counted last, or -1 if not there. */
+ 	private int order(DStatement statement) {
+ 		return statement == theorem.getPreliminary() ? theorem.size() : theorem.indexOf(statement);
+ 	}
 
- 			int start = theorem.indexOf(included);
+	/** The statements of a theorem from an index on, followed by the preliminary statement, without altering the theorem. */
+	private static Iterator<DStatement> statements(DTheorem theorem, int first) {
 
- 			Iterator<DStatement> it = theorem.listIterator(start);
+		Iterator<DStatement> closed = theorem.listIterator(Math.min(first, theorem.size()));
 
- 			while (it.hasNext()) 
- 				this.redescribeStatement(it.next());
+		return new Iterator<DStatement>() {
 
- 			theorem.removeLast();
- 			writepoint.setLocation(restore.getLocation());
- 			painting = true;
+			private boolean preliminary = true;
 
- 			return;
- 		} 		
- 	}
+			public boolean hasNext() {
+				return closed.hasNext() || preliminary;
+			}
+
+			public DStatement next() {
+
+				if (closed.hasNext()) return closed.next();
+
+				if (!preliminary) throw new NoSuchElementException();
+
+				preliminary = false;
+
+				return theorem.getPreliminary();
+			}
+		};
+	}
  	 	
  	/**
  	 * Do a new layout of the preliminary statement.
  	 */
   	public void redescribePreliminary() {
 
+  		this.ensureLaidOut();
+  		
   		DStatement redescribe = theorem.getPreliminary();
   		
   		if (redescribe.isEmpty()) return;
@@ -328,6 +480,12 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 		defaultadvance	= startcursor.description().width;
 		lead			= startcursor.description().height;
 		advance 		= defaultadvance;
+		
+		top 			= 0;
+		pending 		= null;
+		followed 		= null;
+		rows.invalidate();
+		animations.clear();
 			
 		this.repaint();
 	}
@@ -377,6 +535,8 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 			this.redescribeTail(previous);												// handles all cases
 
 			theorem.leaveEditing();
+			
+			this.ensureLaidOut();
 		
 			this.setWritepoint(theorem.lastFormal());							// reset cursor
 			this.fillCursor(theorem.lastFormal(), false, editing.current());			
@@ -412,7 +572,7 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 				
 			erase = theorem.lastFormal();
 			
-			super.update(g);																													///(266G)
+			this.paint(g);								// no clearing of the background, the buffer is cleared instead						///(266G)
 		} 		
 	}
 
@@ -441,111 +601,145 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 						bounds = cursor.description();  																					///(7AG9)
 			}
 	
-			super.repaint(bounds.x, bounds.y, bounds.width, bounds.height);
+			super.repaint(bounds.x, bounds.y - top, bounds.width, bounds.height);
 		}
 	}
 
-	/** {@inheritDoc} */
+	/** 
+	 * {@inheritDoc} Renders what is out of date into the back buffer and copies the buffer onto the graphics given, 
+	 * which also restores parts of the canvas that were hidden.
+	 */
 	public void paint(Graphics g) {
+
+		this.render();
+
+		if (buffer == null) return;
+
+		Rectangle exposed = g.getClipBounds();
+
+		g.drawImage(buffer, 0, 0, null);
+
+		if (dirty != null && (exposed == null || exposed.contains(dirty))) dirty = null;		// already on screen
+	}
+
+	/**
+	 * Renders the parts of the theorem that are out of date, as told by {@link #setPaintMode(boolean, boolean, boolean)},
+	 * into the back buffer. The rendered area is added to the dirty region, which is copied onto the screen once, 
+	 * later in the same turn of the event queue, however many times the canvas is rendered before that.
+	 */
+	public void render() {
     	
      	if (painting) {
 
-     	  	Graphics2D gcopy = (Graphics2D) g.create();
+    		if (theorem == null) return;
+
+    		this.follow();
+
+     	  	Graphics2D gcopy = backbuffer().createGraphics();
+     	  	
+     	  	gcopy.translate(0, -top);													// page coordinates from here on
      	   
-    		if (theorem == null) {
-    			
-    			return;
+    		if (!theorem.isEdited()) {															///(3G90)
 
-    		} else {											///(3G90)
-        			
-    			if (!theorem.isEdited()) DisplayTools.clearEndOfLine(gcopy, cursor);
+    			DisplayTools.clearEndOfLine(gcopy, cursor);
 
-    			if (clear != null) {
-    				gcopy.clip(clear);
-    				DisplayTools.clearRect(gcopy, clear);
-    				clear = null;
-    				return;
-    			}
+    			dirty(new Rectangle(cursor.getLocation().x + cursor.description().width, cursor.getLocation().y, 1000, lead));
+    		}
+
+    		if (clear != null) {
+    			gcopy.clip(clear);
+    			DisplayTools.clearRect(gcopy, clear);
+    			dirty(clear);
+    			clear = null;
+    			gcopy.dispose();
+    			schedule();
+    			return;
+    		}
     			
-    			if (!outofcursorchange) {						// only in cursor																					///(683F)
+    		if (!outofcursorchange) {						// only in cursor																					///(683F)
     				    				
-    	    		if (drawn != null) {
+    	    	if (drawn != null) {
 
-    	    			if (erase != null) {
+    	    		if (erase != null) {
     	    				
-    	    				gcopy.setClip(drawn.description().union(erase.description()));		// backwards
+    	    			gcopy.setClip(dirty(drawn.description().union(erase.description())));		// backwards
 
-        					DisplayTools.paintCursor(gcopy, erase, true);									
-    	    				DisplayTools.paintDescribed(gcopy, drawn, Color.orange);												
-    	    				DisplayTools.paintCursor(gcopy, drawn, false);									
+        				DisplayTools.paintCursor(gcopy, erase, true);									
+    	    			DisplayTools.paintDescribed(gcopy, drawn, Color.orange);												
+    	    			DisplayTools.paintCursor(gcopy, drawn, false);									
     	    			
-    	    			} else {
+    	    		} else {
 
-    	    				gcopy.setClip(drawn.description());
+    	    			gcopy.setClip(dirty(drawn.description()));
 
-        					DisplayTools.paintDescribed(gcopy, drawn, Color.orange);												
-        					DisplayTools.paintCursor(gcopy, drawn, false);									
-    	    			}
+        				DisplayTools.paintDescribed(gcopy, drawn, Color.orange);												
+        				DisplayTools.paintCursor(gcopy, drawn, false);									
+    	    		}
 
-    					if (confirm) {	  										///(E83F)
+    				if (confirm) {	  										///(E83F)
 
-    						DisplayTools.blinkCursor(gcopy, drawn.description());
-    						erase = drawn;
-    						confirm = false;
-    					}  
+    					blink = drawn.description();
+    					erase = drawn;
+    					confirm = false;
+    				}  
         				    
-    				} else {					 								// proceeded so erase previous cursor																							///(05B8)
+    			} else {					 								// proceeded so erase previous cursor																							///(05B8)
 
-    					gcopy.setClip(erase.description().union(cursor.description()));
+    				gcopy.setClip(dirty(erase.description().union(cursor.description())));
 
-    					DisplayTools.paintCursor(gcopy, erase, true);									
-    					DisplayTools.paintDescribed(gcopy, erase, Color.green);												
+    				DisplayTools.paintCursor(gcopy, erase, true);									
+    				DisplayTools.paintDescribed(gcopy, erase, Color.green);												
     
-    					DisplayTools.clearCursor(gcopy, cursor);
-    				}    				
+    				DisplayTools.clearCursor(gcopy, cursor);
+    			}    				
   	    		
-    			} else {														///(AA7D)
+    		} else {														///(AA7D)
     				
-    				if (!outofpreliminarychange) {								// only in preliminary 																								///(5403)    			
+    			if (!outofpreliminarychange) {								// only in preliminary 																								///(5403)    			
 
-    					DStatement preliminary = theorem.getPreliminary();
-    					Rectangle bounds = preliminary.getBounds().union(cursor.description());
+    				DStatement preliminary = theorem.getPreliminary();
+    				Rectangle bounds = preliminary.getBounds().union(cursor.description());
     					
-    					gcopy.setClip(bounds);
+    				gcopy.setClip(dirty(bounds));
     					
-    					DisplayTools.paintStatement(gcopy, preliminary);
+    				DisplayTools.paintStatement(gcopy, preliminary);
     					
-    				} else {													// whole canvas	///(27GB)
+    			} else {													// whole canvas, cleared in the buffer so no flicker	///(27GB)
 
-    					gcopy.setClip(null);
+    				gcopy.setClip(null);
     					
-    					DisplayTools.clearRect(gcopy, this.getBounds());
-    	    			DisplayTools.paintTheorem(gcopy, theorem);
+    				DisplayTools.clearRect(gcopy, dirty(new Rectangle(0, top, buffer.getWidth(), buffer.getHeight())));
+    				
+    				if (pending != null) this.layOut(pending, pendingpoint, true);			// scrolled further down
+    				
+    				int[] shown = rows.range(theorem, top - lead, top + buffer.getHeight() + lead);
+    				
+    	    		tiles.paintTheorem(gcopy, theorem, shown[0], shown[1]);					// closed statements in view from tiles
+    	    		
+    	    		this.updateScrollbar();
     					
-    		    		if (theorem.isEdited()) {								///(7DB0)
+    		    	if (theorem.isEdited()) {								///(7DB0)
 
-    		    			DEditableStatement edited = theorem.getEditing();
+    		    		DEditableStatement edited = theorem.getEditing();
     		    			
-    		    			gcopy.setClip(edited.getBounds());
+    		    		gcopy.setClip(edited.getBounds());
 
-    		    			DisplayTools.paintEditing(gcopy, edited, null);
-    		    			DisplayTools.paintCursor(gcopy, edited.current(), false);
+    		    		DisplayTools.paintEditing(gcopy, edited, null);
+    		    		DisplayTools.paintCursor(gcopy, edited.current(), false);
 
-    		    		}
+    		    	}
     		    		
-    					outofpreliminarychange = false;							// done
-    				}
+    				outofpreliminarychange = false;							// done
+    			}
     				
-    				outofcursorchange = false;									// done
-    			}   			    			    			
-
-    		}  		
+    			outofcursorchange = false;									// done
+    		}   			    			    			
 
     		DisplayTools.paintCursor(gcopy, cursor, false);									
 
 			if (!altered.isEmpty()) {
 				
-				gcopy.setClip(DisplayTools.area(altered));
+				gcopy.setClip(dirty(DisplayTools.area(altered).getBounds()));
 				
 				for (DStatement s : altered) DisplayTools.paintStatement(gcopy, s);
 
@@ -553,9 +747,214 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 			}																		///(34CD)	
 
 			gcopy.dispose();
+
+			if (blink != null) {											// blinked on screen, over what is there, not waited for
+				
+				DisplayTools.blinkCursor(animations, cursor, blink);
+				
+				blink = null;
+			}
+
+			schedule();
     	}
   	}
 
+	/**
+	 * The back buffer, made anew with the old content if the canvas has changed size.
+	 * 
+	 * @return The back buffer of the size of the canvas.
+	 */
+	private BufferedImage backbuffer() {
+
+		int width = Math.max(1, this.getWidth()), height = Math.max(1, this.getHeight());
+
+		if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+
+			GraphicsConfiguration configuration = this.getGraphicsConfiguration();
+
+			BufferedImage resized = configuration != null ? configuration.createCompatibleImage(width, height, Transparency.OPAQUE) 
+														  : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+			Graphics2D g = resized.createGraphics();
+
+			g.setColor(Color.white);
+			g.fillRect(0, 0, width, height);
+
+			if (buffer != null) g.drawImage(buffer, 0, 0, null);
+
+			g.dispose();
+
+			buffer = resized;
+
+			dirty(new Rectangle(0, top, width, height));
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * Adds an area to the region that is to be copied onto the screen.
+	 * 
+	 * @param area	The area rendered, in page coordinates.
+	 * @return		The same area.
+	 */
+	private Rectangle dirty(Rectangle area) {
+
+		Rectangle shown = new Rectangle(area.x, area.y - top, area.width, area.height);
+		
+		if (dirty == null) 
+			dirty = shown;
+		else 
+			dirty.add(shown);
+
+		return area;
+	}
+
+	
+	/**
+	 * Sets the scrollbar that scrolls this canvas. It is kept up to date with the height of the theorem.
+	 * 
+	 * @param scrollbar	A vertical scrollbar.
+	 */
+	public void setScrollbar(JScrollBar scrollbar) {
+
+		this.scrollbar = scrollbar;
+
+		scrollbar.addAdjustmentListener(e -> { if (e.getValue() != top) this.scrollTo(e.getValue()); });
+	}
+
+	/**
+	 * Scrolls the page so that a y coordinate is at the top of the canvas, and repaints the whole canvas.
+	 * 
+	 * @param y	The y coordinate of the page.
+	 */
+	public void scrollTo(int y) {
+
+		if (theorem == null) return;
+
+		int scrolled = Math.max(0, Math.min(y, this.pageHeight() - this.getHeight() / 2));
+
+		if (scrolled == top) return;
+
+		top = scrolled;
+
+		this.setPaintMode(false, false, false);
+		this.render();
+	}
+
+	/**
+	 * Scrolls, without painting, so that the cursor is on the canvas, if it has moved off it. 
+	 */
+	private void follow() {
+
+		int height = this.getHeight();
+
+		Rectangle at = new Rectangle(cursor.description());
+
+		if (at.equals(followed)) return;												// scrolled away on purpose
+
+		followed = at;
+
+		if (height <= lead || (at.y >= top && at.y + at.height <= top + height)) return;
+
+		top = Math.max(0, at.y + at.height - height / 2);
+
+		outofcursorchange = outofpreliminarychange = true;						// all of the canvas anew
+		confirm = false;
+	}
+
+	/**
+	 * The height of the page, estimated for the statements not laid out yet.
+	 * 
+	 * @return The y coordinate of the bottom of the theorem.
+	 */
+	private int pageHeight() {
+
+		int bottom = Math.max(rows.bottom(theorem), theorem.getPreliminary().getBounds().y + lead);
+
+		if (pending != null) bottom += lead * Math.max(1, theorem.size() - Math.max(0, order(pending)));
+
+		return Math.max(bottom, cursor.description().y + cursor.description().height);
+	}
+
+	private void updateScrollbar() {
+
+		if (scrollbar == null) return;
+
+		int height = Math.max(1, this.getHeight());
+
+		scrollbar.setValues(top, height, 0, Math.max(top + height, this.pageHeight() + height / 2));
+		scrollbar.setBlockIncrement(Math.max(1, height - lead));
+		scrollbar.setUnitIncrement(lead);
+	}
+
+	/**
+	 * Copies the dirty region onto the screen later on the event dispatch thread, unless already about to.
+	 */
+	private void schedule() {
+
+		if (dirty == null || scheduled) return;
+
+		scheduled = true;
+
+		EventQueue.invokeLater(this::flush);
+	}
+
+	/**
+	 * Copies the dirty region of the back buffer onto the screen.
+	 */
+	private void flush() {
+
+		scheduled = false;
+
+		Rectangle region = dirty;
+
+		dirty = null;
+
+		if (region == null || buffer == null) return;
+
+		Graphics screen = this.getGraphics();
+
+		if (screen == null) return;
+
+		screen.clipRect(region.x, region.y, region.width, region.height);
+		screen.drawImage(buffer, 0, 0, null);
+
+		screen.translate(0, -top);
+		animations.paint(screen);													// blinks not over yet stay on top
+		screen.dispose();
+	}
+
+	/**
+	 * The graphics of the screen in page coordinates.
+	 * 
+	 * @return The graphics, null if the canvas is not displayable.
+	 */
+	private Graphics screen() {
+
+		Graphics screen = this.getGraphics();
+
+		if (screen != null) screen.translate(0, -top);
+
+		return screen;
+	}
+
+	/**
+	 * Copies an area of the back buffer onto the screen, where an animation is over.
+	 * 
+	 * @param area	The area, in page coordinates.
+	 */
+	private void restore(Rectangle area) {
+
+		Graphics screen = this.screen();
+
+		if (screen == null || buffer == null) return;
+
+		screen.clipRect(area.x, area.y, area.width, area.height);
+		screen.drawImage(buffer, 0, top, null);
+		screen.dispose();
+	}
+
 	// the remedy
 	
 	/**
@@ -597,4 +996,34 @@ public class DisplayCanvas extends Canvas implements CursoredCanvas {
 		
 		return start;
 	}
+
+	/**
+	 * Lays out a whole theorem as a canvas of a width lays it out, without a canvas, for example to render it where
+	 * there is no display. The preliminary statement is laid out last.
+	 * 
+	 * @param theorem	The theorem to lay out.
+	 * @param width		The width of the page.
+	 * @return			The bounds of the statements laid out, empty at the start of the page if there are none.
+	 */
+	public static Rectangle layOut(DTheorem theorem, int width) {
+
+		Described start = startCursor();
+
+		LineLayout lines = new LineLayout(width - rightmargin, start.description().height);
+
+		Point at = start.getGlobalReference();
+
+		Rectangle bounds = new Rectangle(start.getLocation());
+
+		for (Iterator<DStatement> it = statements(theorem, 0); it.hasNext(); ) {
+
+			DStatement ds = it.next();
+
+			lines.layOut(ds, at);
+
+			if (!ds.isEmpty()) bounds.add(ds.getBounds());
+		}
+
+		return bounds;
+	}
 }
@@ -33,7 +33,6 @@ import model.description.abstraction.Described;
 import model.independent.DoubleArray;
 import model.independent.DoubleArray.Tuple;
 import model.logic.Implication;
-import model.logic.Implication.ImplicationType;
 import model.logic.abstraction.Formal;
 import view.abstraction.TraversablePanel;
 import view.components.DButton;
@@ -211,7 +210,7 @@ public class PrimitivesPanel extends TraversablePanel implements KeyListener {
 	 */
 	public DoubleArray<Described, Shortcut> getDescribed() {
 		
-		DoubleArray<Described, Shortcut> describeds = new DoubleArray<Described, Shortcut>();
+		DoubleArray<Described, Shortcut> describeds = Toolbox.bindings();
 		
 		for (Formal formal : buttons.keySet()) {
 			
@@ -298,14 +297,14 @@ public class PrimitivesPanel extends TraversablePanel implements KeyListener {
 						canvas.redescribeTail(edit.whole());
 						canvas.setWritepoint(edit.next());	// update display
 						canvas.setPaintMode(false,false,false);
-						canvas.paint(canvas.getGraphics());
+						canvas.render();
 	
 					} else {
 	
 						if (drawn != null)	canvas.newPrimitive();						
 																	// do nothing if editing or nothing to draw to insert
 						canvas.setPaintMode(true,false,false);
-						canvas.paint(canvas.getGraphics());
+						canvas.render();
 					}
 	
 					e.consume();									// new primitive highest priority, could not be something else, so end chain
@@ -324,21 +323,21 @@ public class PrimitivesPanel extends TraversablePanel implements KeyListener {
 																	// they are also reconstructed in theorem and statement constructors
 						case (KeyEvent.VK_LEFT):	
 		
-							last = new DPrimitive(Implication.makeValue(ImplicationType.LEFT));	
+							last = new DPrimitive(Implication.LEFT);	
 							canvas.fillCursor(last, true, null);
 							canvas.newStatement(last);						
 							break;
 		
 						case (KeyEvent.VK_UP):				
 		
-							last = new DPrimitive(Implication.makeValue(ImplicationType.EQUIV));	
+							last = new DPrimitive(Implication.EQUIV);	
 							canvas.fillCursor(last, true, null);
 							canvas.newStatement(last);						
 							break;
 		
 						case (KeyEvent.VK_RIGHT):			
 		
-							last = new DPrimitive(Implication.makeValue(ImplicationType.RIGHT));	
+							last = new DPrimitive(Implication.RIGHT);	
 							canvas.fillCursor(last, true, null);
 							canvas.newStatement(last);						
 							break;
@@ -0,0 +1,545 @@
+package view;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+import javax.imageio.ImageIO;
+
+import control.Toolbox;
+import control.db.ConnectionProfile;
+import control.db.DeductionBase;
+import model.description.DRectangle;
+import model.description.DStatement;
+import model.description.DTheorem;
+import model.description.abstraction.Described;
+import view.abstraction.DisplayTools;
+import view.abstraction.GlyphAtlas;
+
+/**
+ * Renders theorems of a {@link DeductionBase} to files without a display, laid out as a {@link DisplayCanvas} of the
+ * same width lays them out. Run headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:lib/* view.TheoremRenderer png|svg|pdf directory [width] [theorem ...]</code><br><br>
+ *
+ * Without names of theorems all theorems of the base are rendered, a file per theorem named after it. Theorems are
+ * rendered in parallel, a theorem per task, on as many threads as there are processors or as given by the system
+ * property {@value #PROPERTY}. With the wal {@link ConnectionProfile} the theorems are also read in parallel.<br><br>
+ *
+ * Images are painted by {@link DisplayTools}, as on the canvas, but each rendering thread from a {@link GlyphAtlas} of
+ * its own, so that threads don't wait on one another to paint. Vector output places the rendered glyphs as images,
+ * each glyph embedded once however many times it is used, and the baselines, underlines and boxes as filled
+ * rectangles, the same marks as {@link DisplayTools} paints.
+ */
+public class TheoremRenderer {
+
+	/** The formats rendered to. */
+	public enum Format {
+
+		/** Portable network graphics, painted as on the canvas. */
+		PNG,
+		/** Scalable vector graphics. */
+		SVG,
+		/** Portable document format, a page per theorem. */
+		PDF;
+
+		/** @return The extension of files of the format. */
+		public String extension() { return this.name().toLowerCase(); }
+	}
+
+	/** The system property giving the number of threads rendering. */
+	public static final String PROPERTY = "deductionwriter.renderthreads";
+
+	/** The width of a page if none is given. */
+	public static final int DEFAULTWIDTH = 900;
+
+	private final DeductionBase base;
+
+	private final int width;
+
+	/** The atlas of each thread rendering, packed apart from the shared one. */
+	private final ThreadLocal<GlyphAtlas> atlases = ThreadLocal.withInitial(() -> new GlyphAtlas(GlyphAtlas.configured()));
+
+
+	/**
+	 * Instantiates a renderer of the theorems of a base.
+	 *
+	 * @param base 		The base to fetch theorems from.
+	 * @param width 	The width of the page that the theorems are laid out on.
+	 */
+	public TheoremRenderer(DeductionBase base, int width) {
+		this.base = base;
+		this.width = width;
+	}
+
+	/**
+	 * The number of threads configured by system property {@value #PROPERTY}, or the number of processors if there is none.
+	 *
+	 * @return The number of threads rendering.
+	 */
+	public static int configured() {
+
+		String threads = System.getProperty(PROPERTY);
+
+		if (threads != null)
+			try { return Math.max(1, Integer.parseInt(threads.trim())); }
+
+			catch (NumberFormatException nfe) { System.err.println("Render threads " + threads + " is not a number, using default."); }
+
+		return Runtime.getRuntime().availableProcessors();
+	}
+
+
+	/**
+	 * Fetches a theorem from the base and renders it to a file named after it.
+	 *
+	 * @param name 			The name of the theorem.
+	 * @param format 		The format to render to.
+	 * @param directory 	The directory of the file.
+	 * @return 				The file written.
+	 * @throws IOException 	If the file can't be written.
+	 */
+	public Path render(String name, Format format, Path directory) throws IOException {
+
+		DTheorem theorem = base.fetchTheorem(name);
+
+		if (theorem == null) throw new IOException("Theorem " + name + " can't be fetched.");
+
+		Path file = directory.resolve(fileName(name) + "." + format.extension());
+
+		try (OutputStream out = Files.newOutputStream(file)) { this.render(theorem, format, out); }
+
+		return file;
+	}
+
+	/**
+	 * Renders theorems of the base, in parallel, to files named after them.
+	 *
+	 * @param names 		The names of the theorems.
+	 * @param format 		The format to render to.
+	 * @param directory 	The directory of the files.
+	 * @param threads 		The number of threads rendering.
+	 * @return 				The files written, in the order of the names, null for those that failed.
+	 * @throws InterruptedException If interrupted while waiting for the renderings.
+	 */
+	public List<Path> renderAll(List<String> names, Format format, Path directory, int threads) throws InterruptedException {
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+
+		try {
+
+			ArrayList<Future<Path>> renderings = new ArrayList<Future<Path>>();
+
+			for (String name : names) renderings.add(pool.submit(() -> this.render(name, format, directory)));
+
+			ArrayList<Path> files = new ArrayList<Path>();
+
+			for (int i = 0; i < renderings.size(); i++) {
+
+				try { files.add(renderings.get(i).get()); }
+
+				catch (ExecutionException ee) {
+
+					System.err.println("Theorem " + names.get(i) + " can't be rendered.");
+
+					ee.getCause().printStackTrace();
+
+					files.add(null);
+				}
+			}
+
+			return files;
+
+		} finally { pool.shutdownNow(); }
+	}
+
+	/**
+	 * Renders a theorem. The theorem is laid out anew for the width of the renderer.
+	 *
+	 * @param theorem 		The theorem.
+	 * @param format 		The format to render to.
+	 * @param out 			The stream to write to, left open.
+	 * @throws IOException 	If the stream can't be written.
+	 */
+	public void render(DTheorem theorem, Format format, OutputStream out) throws IOException {
+
+		Rectangle bounds = DisplayCanvas.layOut(theorem, width);
+
+		int height = Math.max(bounds.y + bounds.height, 0) + Toolbox.PAGESTART.x;
+
+		switch (format) {
+
+			case PNG: ImageIO.write(image(theorem, height), "png", out); break;
+
+			case SVG: out.write(svg(new Sheet(theorem, width, height)).getBytes(StandardCharsets.US_ASCII)); break;
+
+			case PDF: out.write(pdf(new Sheet(theorem, width, height))); break;
+		}
+	}
+
+
+	/** Paints a laid out theorem as the canvas does. */
+	private BufferedImage image(DTheorem theorem, int height) {
+
+		BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+		Graphics2D g = image.createGraphics();
+
+		g.setColor(Color.white);
+		g.fillRect(0, 0, width, height);
+
+		DisplayTools.paintTheorem(g, theorem, atlases.get());
+
+		g.dispose();
+
+		return image;
+	}
+
+	private static String svg(Sheet sheet) throws IOException {
+
+		StringBuilder svg = new StringBuilder();
+
+		svg.append("<?xml version=\"1.0\" encoding=\"US-ASCII\"?>\n");
+		svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\" width=\"" + sheet.width
+				 + "\" height=\"" + sheet.height + "\" viewBox=\"0 0 " + sheet.width + " " + sheet.height + "\">\n");
+		svg.append("<rect width=\"" + sheet.width + "\" height=\"" + sheet.height + "\" fill=\"#ffffff\"/>\n<defs>\n");
+
+		for (Glyph glyph : sheet.glyphs.keySet()) {
+
+			ByteArrayOutputStream png = new ByteArrayOutputStream();
+
+			ImageIO.write(glyph.flattened(), "png", png);
+
+			svg.append("<image id=\"g" + sheet.glyphs.get(glyph) + "\" width=\"" + glyph.width + "\" height=\"" + glyph.height
+					 + "\" xlink:href=\"data:image/png;base64," + Base64.getEncoder().encodeToString(png.toByteArray()) + "\"/>\n");
+		}
+
+		svg.append("</defs>\n");
+
+		for (Mark mark : sheet.marks) {
+
+			if (mark.glyph != null)
+				svg.append("<use xlink:href=\"#g" + sheet.glyphs.get(mark.glyph) + "\" x=\"" + mark.x + "\" y=\"" + mark.y + "\"/>\n");
+			else
+				svg.append(String.format("<rect x=\"%d\" y=\"%d\" width=\"%d\" height=\"%d\" fill=\"#%06x\"/>\n",
+										 mark.x, mark.y, mark.width, mark.height, mark.color.getRGB() & 0xffffff));
+		}
+
+		return svg.append("</svg>\n").toString();
+	}
+
+	/** A single page document, a point per pixel, each glyph an image object of its own. */
+	private static byte[] pdf(Sheet sheet) {
+
+		StringBuilder content = new StringBuilder();
+
+		for (Mark mark : sheet.marks) {
+
+			int y = sheet.height - mark.y - mark.height;									// the origin is at the bottom
+
+			if (mark.glyph != null)
+				content.append("q " + mark.width + " 0 0 " + mark.height + " " + mark.x + " " + y + " cm /G" + sheet.glyphs.get(mark.glyph) + " Do Q\n");
+			else
+				content.append(String.format(Locale.ROOT, "%.3f %.3f %.3f rg %d %d %d %d re f\n", mark.color.getRed() / 255f, mark.color.getGreen() / 255f,
+											 mark.color.getBlue() / 255f, mark.x, y, mark.width, mark.height));
+		}
+
+		Pdf pdf = new Pdf();
+
+		StringBuilder xobjects = new StringBuilder();
+
+		for (int id : sheet.glyphs.values()) xobjects.append("/G" + id + " " + (5 + id) + " 0 R ");
+
+		pdf.object("<< /Type /Catalog /Pages 2 0 R >>", null);
+		pdf.object("<< /Type /Pages /Kids [3 0 R] /Count 1 >>", null);
+		pdf.object("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + sheet.width + " " + sheet.height + "] /Contents 4 0 R /Resources << /XObject << "
+				   + xobjects + ">> >> >>", null);
+		pdf.object("", deflate(content.toString().getBytes(StandardCharsets.US_ASCII)));
+
+		for (Glyph glyph : sheet.glyphs.keySet())
+			pdf.object("/Type /XObject /Subtype /Image /Width " + glyph.width + " /Height " + glyph.height + " /ColorSpace /DeviceRGB /BitsPerComponent 8 ",
+					   deflate(glyph.rgb()));
+
+		return pdf.close();
+	}
+
+	private static byte[] deflate(byte[] bytes) {
+
+		Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+
+		deflater.setInput(bytes);
+		deflater.finish();
+
+		ByteArrayOutputStream deflated = new ByteArrayOutputStream(bytes.length / 4 + 64);
+
+		byte[] chunk = new byte[8192];
+
+		while (!deflater.finished()) deflated.write(chunk, 0, deflater.deflate(chunk));
+
+		deflater.end();
+
+		return deflated.toByteArray();
+	}
+
+	/** The name of a theorem made fit for a file name. */
+	private static String fileName(String name) {
+		return name.replaceAll("[^A-Za-z0-9._-]", "_");
+	}
+
+
+	/**
+	 * Renders theorems of the base file 'data/sqlite/variables.sqlite'.
+	 *
+	 * @param args 				The format, the directory to write to, optionally the width of the page and the names of the theorems.
+	 * @throws Exception 		If the directory can't be made.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		if (args.length < 2) {
+
+			System.err.println("Usage: TheoremRenderer png|svg|pdf directory [width] [theorem ...]");
+
+			return;
+		}
+
+		Format format = Format.valueOf(args[0].toUpperCase());
+
+		Path directory = Files.createDirectories(Paths.get(args[1]));
+
+		int width = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULTWIDTH;
+
+		DeductionBase base = new DeductionBase("data/sqlite/variables.sqlite", false, ConnectionProfile.configured());
+
+		try {
+
+			List<String> names = args.length > 3 ? Arrays.asList(args).subList(3, args.length) : base.fetchTheoremNames();
+
+			int threads = configured();
+
+			long start = System.nanoTime();
+
+			List<Path> files = new TheoremRenderer(base, width).renderAll(names, format, directory, threads);
+
+			long failed = files.stream().filter(file -> file == null).count();
+
+			System.out.println("Rendered " + (files.size() - failed) + " of " + names.size() + " theorems on " + threads + " threads in "
+							   + (System.nanoTime() - start) / 1_000_000 + " ms.");
+
+		} finally { base.closeDB(); }
+	}
+
+
+	/**
+	 * What is painted of a laid out theorem, in order: glyphs placed and rectangles filled. Glyphs painted alike are
+	 * numbered once, in the order first painted.
+	 */
+	private static final class Sheet {
+
+		final int width, height;
+
+		final ArrayList<Mark> marks = new ArrayList<Mark>();
+
+		final LinkedHashMap<Glyph, Integer> glyphs = new LinkedHashMap<Glyph, Integer>();
+
+		Sheet(DTheorem theorem, int width, int height) {
+
+			this.width = width;
+			this.height = height;
+
+			for (DStatement ds : theorem) this.statement(ds);
+
+			this.statement(theorem.getPreliminary());
+		}
+
+		/** The marks of {@link DisplayTools#paintStatement(java.awt.Graphics, DStatement)}. */
+		private void statement(DStatement ds) {
+
+			for (Described d : ds) {
+
+				if (d.isDummy()) continue;
+
+				DRectangle r = d.description();
+
+				Point reference = r.getReference();
+
+				BufferedImage image = r.getImage();
+
+				int w = Math.min(r.width, image.getWidth()), h = Math.min(r.height, image.getHeight());
+
+				if (w > 0 && h > 0) {
+
+					Glyph glyph = new Glyph(image, w, h);
+
+					glyphs.putIfAbsent(glyph, glyphs.size());
+
+					marks.add(new Mark(glyph, null, r.x, r.y, w, h));
+				}
+
+				int from = r.x + reference.x, to = r.x + Math.min(reference.x + r.getAdvance(), r.width - 1);
+
+				this.fill(Color.black, Math.min(from, to), r.y + reference.y, Math.abs(to - from) + 1, 1);
+
+				if (d.isUnderlined()) this.fill(Color.orange, r.x, r.y + r.height - 3, r.width, 1);
+			}
+
+			if (ds.boxed && ds.size() > 0) {
+
+				Rectangle b = ds.getBounds();
+
+				this.fill(Color.blue, b.x, b.y, b.width, 1);
+				this.fill(Color.blue, b.x, b.y + b.height - 1, b.width, 1);
+				this.fill(Color.blue, b.x, b.y + 1, 1, b.height - 2);
+				this.fill(Color.blue, b.x + b.width - 1, b.y + 1, 1, b.height - 2);
+			}
+		}
+
+		private void fill(Color color, int x, int y, int width, int height) {
+			if (width > 0 && height > 0) marks.add(new Mark(null, color, x, y, width, height));
+		}
+	}
+
+	/** A glyph placed or a rectangle filled. */
+	private static final class Mark {
+
+		final Glyph glyph;
+
+		final Color color;
+
+		final int x, y, width, height;
+
+		Mark(Glyph glyph, Color color, int x, int y, int width, int height) {
+			this.glyph = glyph;
+			this.color = color;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+	}
+
+	/** A rendered image, compared by identity, cut to the part painted. */
+	private static final class Glyph {
+
+		final BufferedImage image;
+
+		final int width, height;
+
+		Glyph(BufferedImage image, int width, int height) {
+			this.image = image;
+			this.width = width;
+			this.height = height;
+		}
+
+		/** The part painted, flattened onto white as the canvas paints it. */
+		BufferedImage flattened() {
+
+			BufferedImage flat = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+			Graphics2D g = flat.createGraphics();
+
+			g.drawImage(image, 0, 0, width, height, 0, 0, width, height, Color.white, null);
+			g.dispose();
+
+			return flat;
+		}
+
+		/** The samples of the flattened part, row by row from the top. */
+		byte[] rgb() {
+
+			int[] pixels = this.flattened().getRGB(0, 0, width, height, null, 0, width);
+
+			byte[] rgb = new byte[3 * pixels.length];
+
+			for (int i = 0; i < pixels.length; i++) {
+				rgb[3 * i] 		= (byte) (pixels[i] >> 16);
+				rgb[3 * i + 1] 	= (byte) (pixels[i] >> 8);
+				rgb[3 * i + 2] 	= (byte) pixels[i];
+			}
+
+			return rgb;
+		}
+
+		public boolean equals(Object other) {
+
+			if (!(other instanceof Glyph)) return false;
+
+			Glyph glyph = (Glyph) other;
+
+			return glyph.image == image && glyph.width == width && glyph.height == height;
+		}
+
+		public int hashCode() {
+			return 31 * (31 * System.identityHashCode(image) + width) + height;
+		}
+	}
+
+	/** A document of numbered objects, written in order with a cross reference table at the end. */
+	private static final class Pdf {
+
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		final ArrayList<Integer> offsets = new ArrayList<Integer>();
+
+		Pdf() {
+			this.write("%PDF-1.4\n");
+		}
+
+		/** Writes the next object, a dictionary, or a stream if given bytes, the dictionary then holding entries of it. */
+		void object(String dictionary, byte[] stream) {
+
+			offsets.add(out.size());
+
+			this.write(offsets.size() + " 0 obj\n");
+
+			if (stream == null)
+				this.write(dictionary);
+			else {
+				this.write("<< " + dictionary + "/Filter /FlateDecode /Length " + stream.length + " >>\nstream\n");
+				out.write(stream, 0, stream.length);
+				this.write("\nendstream");
+			}
+
+			this.write("\nendobj\n");
+		}
+
+		byte[] close() {
+
+			int xref = out.size();
+
+			this.write("xref\n0 " + (offsets.size() + 1) + "\n0000000000 65535 f \n");
+
+			for (int offset : offsets) this.write(String.format("%010d 00000 n \n", offset));
+
+			this.write("trailer\n<< /Size " + (offsets.size() + 1) + " /Root 1 0 R >>\nstartxref\n" + xref + "\n%%EOF\n");
+
+			return out.toByteArray();
+		}
+
+		private void write(String text) {
+
+			byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+
+			out.write(bytes, 0, bytes.length);
+		}
+	}
+}
@@ -0,0 +1,268 @@
+package view.abstraction;
+
+import java.awt.Graphics;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import javax.swing.Timer;
+
+/**
+ * Short animations painted on the screen over a canvas, such as the blink confirming the content of a cursor, driven
+ * by a timer on the event dispatch thread rather than by sleeping in paint, so that input is processed meanwhile.<br><br>
+ *
+ * An animation is a number of frames, each shown for a time, painted within an area of the canvas. Only that area is
+ * painted, and once the animation is over, or cancelled, the area is restored from what the canvas holds beneath.
+ * Animations are kept by key, and an animation started under a key already animated replaces the one before, which
+ * is how animations started faster than they run are coalesced into the last. All animations share one timer, set
+ * for the next frame due.<br><br>
+ *
+ * Frames are painted in the coordinates of the areas, on graphics given by the canvas, which is also told when an
+ * area is to be restored. Whatever the canvas copies onto the screen meanwhile, it paints the frames shown over it
+ * by {@link #paint(Graphics)}.
+ */
+public class Animations {
+
+	/**
+	 * Paints a frame of an animation.
+	 */
+	public interface Frame {
+
+		/**
+		 * Paints a frame within the area of the animation.
+		 *
+		 * @param g 		The graphics on which to draw, translated to and clipped by the area.
+		 * @param width 	The width of the area.
+		 * @param height 	The height of the area.
+		 * @param frame 	The index of the frame.
+		 */
+		void paint(Graphics g, int width, int height, int frame);
+	}
+
+
+	private final LinkedHashMap<Object, Animation> running = new LinkedHashMap<Object, Animation>();
+
+	private final Supplier<Graphics> screen;
+
+	private final Consumer<Rectangle> restore;
+
+	private final Timer timer;
+
+	private long started = 0, coalesced = 0, frames = 0;
+
+
+	/**
+	 * Instantiates a scheduler without animations.
+	 *
+	 * @param screen 	Gives the graphics on which to paint frames, in the coordinates of the areas, or null if none.
+	 * @param restore 	Restores an area of the screen that animations are done with.
+	 */
+	public Animations(Supplier<Graphics> screen, Consumer<Rectangle> restore) {
+
+		this.screen = screen;
+		this.restore = restore;
+
+		this.timer = new Timer(0, e -> this.tick());
+
+		timer.setRepeats(false);
+	}
+
+	/**
+	 * Starts an animation, painting its first frame at once. An animation running under the same key is cancelled.
+	 *
+	 * @param key 		The key of the animation.
+	 * @param area 		The area within which the frames are painted.
+	 * @param times 	The time in milliseconds each frame is shown.
+	 * @param frame 	Paints the frames.
+	 */
+	public void start(Object key, Rectangle area, int[] times, Frame frame) {
+
+		Animation previous = running.remove(key);
+
+		if (previous != null) {
+
+			coalesced++;
+
+			if (!previous.area.equals(area)) restore.accept(previous.area);
+		}
+
+		if (times.length == 0) return;
+
+		Animation animation = new Animation(new Rectangle(area), times, frame);
+
+		animation.due = System.currentTimeMillis() + times[0];
+
+		running.put(key, animation);
+
+		started++;
+
+		Graphics g = screen.get();
+
+		if (g != null) {
+			animation.paint(g);
+			g.dispose();
+		}
+
+		this.reschedule();
+	}
+
+	/**
+	 * Cancels an animation, restoring its area.
+	 *
+	 * @param key 	The key of the animation.
+	 * @return 		If an animation was running under the key.
+	 */
+	public boolean cancel(Object key) {
+
+		Animation cancelled = running.remove(key);
+
+		if (cancelled == null) return false;
+
+		restore.accept(cancelled.area);
+
+		this.reschedule();
+
+		return true;
+	}
+
+	/**
+	 * Cancels all animations without restoring their areas, for example when the whole canvas is painted anew.
+	 */
+	public void clear() {
+
+		running.clear();
+
+		timer.stop();
+	}
+
+	/**
+	 * Paints the frames shown over what has been copied onto the screen.
+	 *
+	 * @param g 	The graphics of the screen, in the coordinates of the areas.
+	 */
+	public void paint(Graphics g) {
+		for (Animation animation : running.values()) animation.paint(g);
+	}
+
+	/**
+	 * Whether an animation is running.
+	 *
+	 * @param key 	The key of the animation.
+	 * @return 		If an animation is running under the key.
+	 */
+	public boolean isRunning(Object key) {
+		return running.containsKey(key);
+	}
+
+
+	/** @return The number of animations started. */
+	public long started() { return started; }
+
+	/** @return The number of animations replaced by another under the same key before they were over. */
+	public long coalesced() { return coalesced; }
+
+	/** @return The number of frames painted after the first, on the timer. */
+	public long frames() { return frames; }
+
+	/** {@inheritDoc} */
+	public String toString() {
+		return "Animations[size=" + running.size() + ", started=" + started + ", coalesced=" + coalesced + ", frames=" + frames + "]";
+	}
+
+
+	/** Shows the next frame of the animations due and restores the areas of those over. */
+	private void tick() {
+
+		long now = System.currentTimeMillis();
+
+		ArrayList<Animation> shown = new ArrayList<Animation>();
+
+		Iterator<Animation> it = running.values().iterator();
+
+		while (it.hasNext()) {
+
+			Animation animation = it.next();
+
+			if (animation.due > now) continue;
+
+			if (++animation.index < animation.times.length) {
+
+				animation.due = now + animation.times[animation.index];
+
+				shown.add(animation);
+
+			} else {
+
+				it.remove();
+
+				restore.accept(animation.area);
+			}
+		}
+
+		if (!shown.isEmpty()) {
+
+			Graphics g = screen.get();
+
+			if (g != null) {
+
+				for (Animation animation : shown) animation.paint(g);
+
+				g.dispose();
+			}
+
+			frames += shown.size();
+		}
+
+		this.reschedule();
+	}
+
+	/** Sets the timer for the next frame due, or stops it if nothing is running. */
+	private void reschedule() {
+
+		timer.stop();
+
+		if (running.isEmpty()) return;
+
+		long due = Long.MAX_VALUE;
+
+		for (Animation animation : running.values()) due = Math.min(due, animation.due);
+
+		timer.setInitialDelay((int) Math.max(0, due - System.currentTimeMillis()));
+		timer.start();
+	}
+
+
+	/**
+	 * An animation running, with the frame shown and when the next is due.
+	 */
+	private static final class Animation {
+
+		final Rectangle area;
+
+		final int[] times;
+
+		final Frame frame;
+
+		int index = 0;
+
+		long due;
+
+		Animation(Rectangle area, int[] times, Frame frame) {
+			this.area = area;
+			this.times = times;
+			this.frame = frame;
+		}
+
+		void paint(Graphics g) {
+
+			Graphics gc = g.create(area.x, area.y, area.width, area.height);
+
+			frame.paint(gc, area.width, area.height, index);
+
+			gc.dispose();
+		}
+	}
+}
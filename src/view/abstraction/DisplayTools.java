@@ -5,6 +5,7 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.Shape;
 import java.awt.geom.Area;
 import java.util.Set;
 
@@ -19,34 +20,61 @@ import model.description.abstraction.Described;
  * Class of static helper methods for drawing.
  */
 public final class DisplayTools {
+
+	/** The time in milliseconds that the red and then the white frame of the blink of a cursor are shown. */
+	private static final int[] BLINKTIMES = { 100, 50 };
 								
 	/**
-	 * Paint a described primitive.
+	 * Paint a described primitive. The image is blitted from the {@link GlyphAtlas} straight onto the graphics given, 
+	 * without a graphics context of its own. The marker dot is drawn at the location of the description within its 
+	 * own frame, as it always was, and so is seen only on descriptions near the origin.
 	 *
 	 * @param g 	The graphics on which to draw.
 	 * @param dp 	The primitive who's description should be drawn.
 	 * @param color	The color to underline with.
 	 */
 	public static void paintDescribed(Graphics g, Described dp, Color color) {
+		paintDescribed(g, dp, color, GlyphAtlas.shared());
+	}
+
+	/**
+	 * Paint a described primitive from an atlas of its own.
+	 *
+	 * @param g 	The graphics on which to draw.
+	 * @param dp 	The primitive who's description should be drawn.
+	 * @param color	The color to underline with.
+	 * @param atlas	The atlas to blit the image from.
+	 */
+	public static void paintDescribed(Graphics g, Described dp, Color color, GlyphAtlas atlas) {
 		
 		if (dp.isDummy()) return;
 		
 		DRectangle r = dp.description();
 		
-		Graphics gc = g.create(r.x, r.y, r.width , r.height);				///(BA0D)
+		Point reference = r.getReference();
+		
+		Color previous = g.getColor();
+		
+		atlas.paint(g, r.getImage(), r.x, r.y, r.width, r.height);
+			
+		g.setColor(color);
+		g.drawLine(r.x + reference.x, r.y + reference.y, r.x + Math.min(reference.x + r.getAdvance(), r.width - 1), r.y + reference.y);
 		
-		gc.drawImage(r.getImage(), 0, 0, Color.white, null);		
+		if (r.x < r.width && r.y < r.height && r.x > -3 && r.y > -3) {		// the marker, at its location within the frame
 			
-		gc.setColor(color);
-		gc.drawLine(r.getReference().x, r.getReference().y, r.getReference().x + r.getAdvance(), r.getReference().y);
-		gc.fillOval(r.x, r.y, 3, 3);
+			Shape clip = g.getClip();
+			
+			g.clipRect(r.x, r.y, r.width, r.height);
+			g.fillOval(2 * r.x, 2 * r.y, 3, 3);
+			g.setClip(clip);
+		}
 		
 		if (dp.isUnderlined()) {
-			gc.setColor(Color.orange);
-			gc.fillRect(0, r.height - 3, r.width, 1);
+			g.setColor(Color.orange);
+			g.fillRect(r.x, r.y + r.height - 3, r.width, 1);
 		}
 		
-		gc.dispose();		
+		g.setColor(previous);
 	}
 
 	/**
@@ -56,9 +84,20 @@ public final class DisplayTools {
 	 * @param ds 	The statement who's description should be drawn.
 	 */
 	public static void paintStatement(Graphics g, DStatement ds) {
+		paintStatement(g, ds, GlyphAtlas.shared());
+	}
+
+	/**
+	 * Paint a described statement from an atlas of its own.
+	 *
+	 * @param g 	The graphics on which to draw.
+	 * @param ds 	The statement who's description should be drawn.
+	 * @param atlas	The atlas to blit the images from.
+	 */
+	public static void paintStatement(Graphics g, DStatement ds, GlyphAtlas atlas) {
 				
 		for (Described d : ds) 
-			paintDescribed(g, d, Color.black);
+			paintDescribed(g, d, Color.black, atlas);
 	
 		if (ds.boxed) 
 			paintBox(ds, g, Color.blue);	
@@ -71,11 +110,23 @@ public final class DisplayTools {
 	 * @param dt 	The theorem who's description should be drawn.
 	 */
 	public static void paintTheorem(Graphics g, DTheorem dt) {
+		paintTheorem(g, dt, GlyphAtlas.shared());
+	}
+
+	/**
+	 * Paint a described theorem from an atlas of its own, as a thread painting apart from the canvas does so as not to
+	 * wait on the shared atlas.
+	 *
+	 * @param g 	The graphics on which to draw.
+	 * @param dt 	The theorem who's description should be drawn.
+	 * @param atlas	The atlas to blit the images from.
+	 */
+	public static void paintTheorem(Graphics g, DTheorem dt, GlyphAtlas atlas) {
 
 		for (DStatement ds : dt) 
-			paintStatement(g, ds);
+			paintStatement(g, ds, atlas);
 
-		paintStatement(g, dt.getPreliminary());
+		paintStatement(g, dt.getPreliminary(), atlas);
 	}
 	
 	/**
@@ -125,23 +176,17 @@ public final class DisplayTools {
 	}
 
 	/**
-	 * Draw the blink of a cursor.
+	 * Start the blink of a cursor, red and then white, after which the cursor is shown as it was. The blink is run by 
+	 * the animations given, without waiting for it, and replaces a blink of the same key not yet over.
 	 *
-	 * @param g 		The graphics object with which to draw.
-	 * @param cursor 	The cursor to blink. 
+	 * @param animations 	The animations of the canvas on which to blink.
+	 * @param key 			The key of the blink, the cursor blinked.
+	 * @param cursor 		The area of the cursor to blink. 
 	 */
-	public static void blinkCursor(Graphics g, DRectangle cursor) {
+	public static void blinkCursor(Animations animations, Object key, DRectangle cursor) {
 
-		int x = cursor.x, 		y = cursor.y;
-		int w = cursor.width, 	h = cursor.height;
-
-		Graphics gc = g.create(x, y, w , h);
-
-		paintThickRectangle(gc, 0, 0, w, h, 2, Color.red);			try { Thread.sleep(100); } catch (InterruptedException ie) { }
-		///(DA53)
-		paintThickRectangle(gc, 0, 0, w, h, 2, Color.white);		try { Thread.sleep(50); } catch (InterruptedException ie) { }
-
-		gc.dispose();
+		animations.start(key, cursor, BLINKTIMES, (gc, w, h, frame) -> 
+			paintThickRectangle(gc, 0, 0, w, h, 2, frame == 0 ? Color.red : Color.white));						///(DA53)
 	}
 
 	/**
@@ -0,0 +1,318 @@
+package view.abstraction;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import control.Toolbox;
+import model.description.GlyphCache;
+
+/**
+ * Rendered glyphs and composites packed into a few large pages, so that painting a symbol is one blit of a part of
+ * a page onto the canvas rather than a graphics context and an image of its own per symbol.<br><br>
+ *
+ * Images are packed the first time they are painted, or ahead when a primitives table is loaded, in rows, shelves,
+ * from the top of a page down. They are packed flattened onto white, as {@link DisplayTools} always painted them, so
+ * the pages are opaque and made compatible with the screen for Java2D to keep them accelerated. Images are looked up
+ * by identity and are never to be drawn on after being painted, see {@link GlyphCache}.<br><br>
+ *
+ * When all pages are full, the least recently painted page is emptied and packed anew. The number of pages is taken
+ * from the system property {@value #PROPERTY}. Images larger than a quarter of a page are painted as they are.
+ */
+public final class GlyphAtlas {
+
+	/** The system property giving the most pages kept. */
+	public static final String PROPERTY = "deductionwriter.atlaspages";
+
+	/** The number of pages if none is configured. */
+	public static final int DEFAULTPAGES = 4;
+
+	/** The width and height of a page in pixels. */
+	public static final int PAGESIZE = 1024;
+
+	private static final GlyphAtlas SHARED = new GlyphAtlas(configured());
+
+
+	private final ArrayList<Page> pages = new ArrayList<Page>();
+
+	/** Weakly keyed by image, which is compared by identity, so that slots of images no longer used are let go. */
+	private final WeakHashMap<BufferedImage, Slot> slots = new WeakHashMap<BufferedImage, Slot>();
+
+	private final int capacity;
+
+	private long clock = 0;
+
+	private long hits = 0, misses = 0, evictions = 0, oversized = 0;
+
+
+	/**
+	 * Instantiates an empty atlas.
+	 *
+	 * @param capacity The most pages to keep.
+	 */
+	public GlyphAtlas(int capacity) {
+		this.capacity = Math.max(1, capacity);
+	}
+
+	/**
+	 * The atlas painted from by {@link DisplayTools}.
+	 *
+	 * @return The shared atlas.
+	 */
+	public static GlyphAtlas shared() {
+		return SHARED;
+	}
+
+	/**
+	 * The number of pages configured by system property {@value #PROPERTY}, or {@value #DEFAULTPAGES} if there is none.
+	 *
+	 * @return The most pages to keep.
+	 */
+	public static int configured() {
+
+		String pages = System.getProperty(PROPERTY);
+
+		if (pages != null)
+			try { return Integer.parseInt(pages.trim()); }
+
+			catch (NumberFormatException nfe) { nfe.printStackTrace(); }
+
+		return DEFAULTPAGES;
+	}
+
+
+	/**
+	 * Paints an image onto white, from its slot of a page, packing it first if not packed.
+	 *
+	 * @param g 		The graphics on which to draw.
+	 * @param image 	The image to paint.
+	 * @param x 		The x coordinate of the upper left corner.
+	 * @param y 		The y coordinate of the upper left corner.
+	 * @param width 	The most width of the image to paint.
+	 * @param height 	The most height of the image to paint.
+	 */
+	public synchronized void paint(Graphics g, BufferedImage image, int x, int y, int width, int height) {
+
+		int w = Math.min(width, image.getWidth());
+		int h = Math.min(height, image.getHeight());
+
+		if (w <= 0 || h <= 0) return;
+
+		Slot slot = slot(image);
+
+		if (slot == null) {
+
+			g.drawImage(image, x, y, x + w, y + h, 0, 0, w, h, Color.white, null);
+
+			return;
+		}
+
+		slot.page.used = ++clock;
+
+		g.drawImage(slot.page.image, x, y, x + w, y + h, slot.x, slot.y, slot.x + w, slot.y + h, null);
+	}
+
+	/**
+	 * Packs an image ahead of painting it.
+	 *
+	 * @param image 	The image to pack.
+	 * @return 			If packed now, rather than packed already or too large.
+	 */
+	public synchronized boolean pack(BufferedImage image) {
+
+		if (slots.containsKey(image)) return false;
+
+		return slot(image) != null;
+	}
+
+	/**
+	 * Packs the glyphs of a table of primitives at their natural advance, as kept by the {@link GlyphCache}.
+	 *
+	 * @param codepoints 	The codepoints of the primitives.
+	 * @return 				The number of glyphs packed now.
+	 */
+	public int prewarm(Iterable<Integer> codepoints) {
+
+		int packed = 0;
+
+		for (int codepoint : codepoints)
+			if (pack(GlyphCache.shared().glyph(codepoint, Toolbox.advance((char) codepoint)))) packed++;
+
+		return packed;
+	}
+
+	/**
+	 * Empties all pages, for example when the font changes.
+	 */
+	public synchronized void clear() {
+
+		slots.clear();
+		pages.clear();
+	}
+
+
+	/** @return The number of images painted from a page. */
+	public synchronized long hits() { return hits; }
+
+	/** @return The number of images packed. */
+	public synchronized long misses() { return misses; }
+
+	/** @return The number of pages emptied to make room. */
+	public synchronized long evictions() { return evictions; }
+
+	/** @return The number of images painted as they are since too large to pack. */
+	public synchronized long oversized() { return oversized; }
+
+	/** @return The number of pages. */
+	public synchronized int pages() { return pages.size(); }
+
+	/** {@inheritDoc} */
+	public synchronized String toString() {
+		return "GlyphAtlas[pages=" + pages.size() + "/" + capacity + ", slots=" + slots.size() + ", hits=" + hits
+				+ ", misses=" + misses + ", evictions=" + evictions + ", oversized=" + oversized + "]";
+	}
+
+
+	/** The slot of an image, packed first if not packed, or null if too large to pack. */
+	private Slot slot(BufferedImage image) {
+
+		Slot slot = slots.get(image);
+
+		if (slot != null) {
+
+			hits++;
+
+			return slot;
+		}
+
+		int w = image.getWidth(), h = image.getHeight();
+
+		if (w > PAGESIZE / 4 || h > PAGESIZE / 4) {
+
+			oversized++;
+
+			return null;
+		}
+
+		misses++;
+
+		for (Page page : pages)
+			if ((slot = page.place(w, h)) != null) break;
+
+		if (slot == null && pages.size() < capacity) {
+
+			pages.add(new Page());
+
+			slot = pages.get(pages.size() - 1).place(w, h);
+		}
+
+		if (slot == null) slot = evict().place(w, h);
+
+		Graphics2D g = slot.page.image.createGraphics();
+
+		g.drawImage(image, slot.x, slot.y, Color.white, null);
+		g.dispose();
+
+		slots.put(image, slot);
+
+		return slot;
+	}
+
+	/** Empties the least recently painted page. */
+	private Page evict() {
+
+		Page eldest = pages.get(0);
+
+		for (Page page : pages)
+			if (page.used < eldest.used) eldest = page;
+
+		Iterator<Map.Entry<BufferedImage, Slot>> entries = slots.entrySet().iterator();
+
+		while (entries.hasNext())
+			if (entries.next().getValue().page == eldest) entries.remove();
+
+		eldest.empty();
+
+		evictions++;
+
+		return eldest;
+	}
+
+
+	/**
+	 * A page of packed images, filled shelf by shelf.
+	 */
+	private static final class Page {
+
+		final BufferedImage image;
+
+		int shelf = 0, shelfheight = 0, x = 0;
+
+		long used = 0;
+
+		Page() {
+
+			if (GraphicsEnvironment.isHeadless())
+				image = new BufferedImage(PAGESIZE, PAGESIZE, BufferedImage.TYPE_INT_RGB);
+			else
+				image = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration()
+								.createCompatibleImage(PAGESIZE, PAGESIZE, Transparency.OPAQUE);
+
+			empty();
+		}
+
+		/** A slot of a size on the current shelf or on a new one below it, or null if the page is full. */
+		Slot place(int w, int h) {
+
+			if (x + w > PAGESIZE) {
+
+				shelf += shelfheight;
+				shelfheight = 0;
+				x = 0;
+			}
+
+			if (shelf + h > PAGESIZE) return null;
+
+			Slot slot = new Slot(this, x, shelf);
+
+			x += w;
+			shelfheight = Math.max(shelfheight, h);
+
+			return slot;
+		}
+
+		void empty() {
+
+			Graphics2D g = image.createGraphics();
+
+			g.setColor(Color.white);
+			g.fillRect(0, 0, PAGESIZE, PAGESIZE);
+			g.dispose();
+
+			shelf = shelfheight = x = 0;
+		}
+	}
+
+	/**
+	 * Where on a page an image is packed.
+	 */
+	private static final class Slot {
+
+		final Page page;
+
+		final int x, y;
+
+		Slot(Page page, int x, int y) {
+			this.page = page;
+			this.x = x;
+			this.y = y;
+		}
+	}
+}
@@ -0,0 +1,335 @@
+package view.abstraction;
+
+import java.awt.Point;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+
+import model.description.DRectangle;
+import model.description.DStatement;
+import model.description.DStatement.Delta;
+import model.description.abstraction.Described;
+
+/**
+ * The layout of statements in rows, kept per statement so that after an edit only what has moved is laid out
+ * anew.<br><br>
+ *
+ * Formals are laid out in order, each with its reference point at the write point, which then advances by the width
+ * of the formal, or goes to the start of the next row if the formal reaches past the end of the row. Per statement
+ * is kept where it starts, after which of its formals its rows break and where the next statement starts.<br><br>
+ *
+ * A statement not altered since it was laid out, as told by {@link DStatement#revision()}, and starting at the same
+ * x as then, is moved by whole rows rather than laid out, or left as it is if it starts at the same place. Otherwise
+ * it is laid out formal by formal, but only until a row breaks after the same formal as last time, from where the
+ * rest of the statement is moved by whole rows. A statement left as it is tells the caller that the statements after
+ * it need not be laid out either.<br><br>
+ *
+ * A statement altered since, but starting at the same place, is caught up with by its deltas, which tell between
+ * which formals it was altered. The rows before the first formal altered are left as they are, and the statement is
+ * laid out from the start of the row of that formal, until a row breaks after the same formal as last time beyond
+ * the last formal altered.<br><br>
+ *
+ * The layout knows nothing of the canvas but the width of a row and the height of one, and can be used without one.
+ */
+public class LineLayout {
+
+	private static final int[] NOBREAKS = new int[0];
+
+	private IdentityHashMap<DStatement, Line> lines = new IdentityHashMap<DStatement, Line>();
+
+	private int right, lead;
+
+	private int[] breaks = new int[16];
+
+	private long laid = 0, moved = 0, kept = 0, resumed = 0;
+
+
+	/**
+	 * Instantiates an empty layout.
+	 *
+	 * @param right 	The x coordinate that a formal is not to reach past for the next to follow it on the same row.
+	 * @param lead 		The height of a row.
+	 */
+	public LineLayout(int right, int lead) {
+		this.right = right;
+		this.lead = lead;
+	}
+
+	/**
+	 * Sets the measure of the rows, forgetting all statements if it has changed.
+	 *
+	 * @param right 	The x coordinate that a formal is not to reach past for the next to follow it on the same row.
+	 * @param lead 		The height of a row.
+	 */
+	public void setMeasure(int right, int lead) {
+
+		if (right == this.right && lead == this.lead) return;
+
+		this.right = right;
+		this.lead = lead;
+
+		lines.clear();
+	}
+
+	/**
+	 * Lays out a statement from a write point.
+	 *
+	 * @param ds 	The statement to lay out.
+	 * @param at 	The reference point of the first formal, moved on to where the next statement starts.
+	 * @return 		If any formal of the statement was moved, false if it was laid out as it already was.
+	 */
+	public boolean layOut(DStatement ds, Point at) {
+
+		if (ds.isEmpty()) return false;
+
+		Line line = lines.get(ds);
+
+		boolean known = line != null && line.revision == ds.revision() && line.size == ds.size();
+
+		if (known && at.x == line.x) {												// broken into rows as before
+
+			int dy = at.y - line.y;
+
+			if (dy == 0) {
+
+				kept++;
+
+				at.setLocation(line.endx, line.endy);
+
+				return false;
+			}
+
+			shift(ds.iterator(), dy);
+
+			line.y += dy;
+			line.endy += dy;
+
+			moved++;
+
+			ds.setLocation(ds.getFirst().getLocation());
+			at.setLocation(line.endx, line.endy);
+
+			return true;
+		}
+
+		int x = at.x, y = at.y, i = 0, n = 0;
+
+		Line before = null;															// the layout to fall back into
+
+		int[] altered = { 0, 0, 0 };
+
+		if (known)
+			before = line;
+		else {
+
+			int[] since = line != null && at.x == line.x && at.y == line.y ? altered(ds, line) : null;
+
+			if (since != null) {													// from the row first altered on
+
+				before = line;
+				altered = since;
+
+				while (n < before.breaks.length && before.breaks[n] < altered[0]) n = append(n, before.breaks[n]);
+
+				i = n > 0 ? before.breaks[n - 1] + 1 : 0;
+				x = n > 0 ? 0 : at.x;
+				y = at.y + n * lead;
+			}
+
+			lines.put(ds, line = new Line(ds));
+		}
+
+		Iterator<Described> it = ds.listIterator(i);
+
+		while (it.hasNext()) {
+
+			Described d = it.next();
+
+			d.setLocation(new Point(x, y));
+
+			int advance = d.description().width;
+
+			if (x + advance > right) {
+
+				int row = before != null && i >= altered[1] ? before.row(i - altered[2]) : -1;
+
+				if (row >= 0) {														// breaks as before from here
+
+					int dy = y - (before.y + row * lead);
+
+					shift(it, dy);
+
+					n = append(n, i);
+					for (int j = row + 1; j < before.breaks.length; j++) n = append(n, before.breaks[j] + altered[2]);
+
+					line.place(at, breaks, n, before.endx, before.endy + dy);
+
+					if (known) moved++; else resumed++;
+
+					ds.setLocation(ds.getFirst().getLocation());
+					at.setLocation(line.endx, line.endy);
+
+					return true;
+				}
+
+				n = append(n, i);
+
+				y += lead;
+				x = 0;
+			} else
+				x += advance;
+
+			i++;
+		}
+
+		line.place(at, breaks, n, x, y);
+
+		if (known || before == null) laid++; else resumed++;
+
+		ds.setLocation(ds.getFirst().getLocation());
+		at.setLocation(x, y);
+
+		return true;
+	}
+
+	/**
+	 * Where the formal after a formal laid out is to have its reference point.
+	 *
+	 * @param formal 	The formal.
+	 * @return 			The write point after it.
+	 */
+	public Point after(Described formal) {
+
+		DRectangle r = formal.description();
+
+		Point at = formal.getGlobalReference();
+
+		if (at.x + r.width > right)
+			return new Point(0, at.y + lead);
+		else
+			return new Point(at.x + r.width, at.y);
+	}
+
+	/**
+	 * Forgets a statement, for example when it has been laid out otherwise.
+	 *
+	 * @param ds 	The statement.
+	 */
+	public void forget(DStatement ds) {
+		lines.remove(ds);
+	}
+
+	/**
+	 * Forgets all statements.
+	 */
+	public void clear() {
+		lines.clear();
+	}
+
+
+	/** @return The number of statements laid out formal by formal to the end. */
+	public long laid() { return laid; }
+
+	/** @return The number of statements moved by whole rows, from the start or from a row break on. */
+	public long moved() { return moved; }
+
+	/** @return The number of statements left as they were. */
+	public long kept() { return kept; }
+
+	/** @return The number of statements laid out from where they were altered. */
+	public long resumed() { return resumed; }
+
+	/** {@inheritDoc} */
+	public String toString() {
+		return "LineLayout[size=" + lines.size() + ", laid=" + laid + ", moved=" + moved + ", kept=" + kept + ", resumed=" + resumed + "]";
+	}
+
+
+	private int append(int n, int formal) {
+
+		if (n == breaks.length) breaks = Arrays.copyOf(breaks, 2 * n);
+
+		breaks[n] = formal;
+
+		return n + 1;
+	}
+
+	/**
+	 * Where a statement has been altered since it was laid out, told by its deltas: the first formal altered, the
+	 * formal from which on all are those that followed the last altered, and how many more formals there are now.
+	 * Null if the deltas are no longer kept, or if there are none, for then something else has altered it.
+	 */
+	private static int[] altered(DStatement ds, Line line) {
+
+		List<Delta> deltas = ds.deltasSince(line.mark);
+
+		if (deltas == null || deltas.isEmpty()) return null;
+
+		int from = Integer.MAX_VALUE, to = -1, grown = 0;
+
+		for (Delta delta : deltas) {
+
+			int at = delta.position(), removed = delta.removed().size(), inserted = delta.inserted().size();
+
+			from = Math.min(from, at);
+			to = to >= at + removed ? to + inserted - removed : at + inserted;
+
+			grown += inserted - removed;
+		}
+
+		return grown == ds.size() - line.size ? new int[] { from, to, grown } : null;
+	}
+
+	private static void shift(Iterator<Described> formals, int dy) {
+
+		if (dy == 0) return;
+
+		while (formals.hasNext()) {
+
+			DRectangle r = formals.next().description();
+
+			r.setLocation(r.x, r.y + dy);
+		}
+	}
+
+
+	/**
+	 * Where a statement started and ended when last laid out, and after which of its formals its rows broke.
+	 */
+	private static final class Line {
+
+		final int revision, size, mark;
+
+		int x, y, endx, endy;
+
+		int[] breaks = NOBREAKS;
+
+		Line(DStatement ds) {
+			this.revision = ds.revision();
+			this.size = ds.size();
+			this.mark = ds.mark();
+		}
+
+		/** The row that the break after a formal ended, or -1 if the row did not break there. */
+		int row(int formal) {
+
+			int row = Arrays.binarySearch(breaks, formal);
+
+			return row >= 0 ? row : -1;
+		}
+
+		/** Keeps where the statement starts and ends and the first of some breaks, the array of breaks reused if as long. */
+		void place(Point start, int[] breaks, int n, int endx, int endy) {
+
+			if (this.breaks.length != n) this.breaks = n == 0 ? NOBREAKS : new int[n];
+
+			System.arraycopy(breaks, 0, this.breaks, 0, n);
+
+			this.x = start.x;
+			this.y = start.y;
+			this.endx = endx;
+			this.endy = endy;
+		}
+	}
+}
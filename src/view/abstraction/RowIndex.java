@@ -0,0 +1,101 @@
+package view.abstraction;
+
+import java.awt.Rectangle;
+import java.util.Arrays;
+
+import model.description.DStatement;
+import model.description.DTheorem;
+
+/**
+ * The vertical extent of the closed statements of a laid out theorem, so that the statements shown in a viewport are
+ * found by binary search rather than by going through the whole theorem.<br><br>
+ *
+ * A statement reaches from the top of its first formal to the bottom of its last. Both are kept as running maxima,
+ * which are ascending since statements are laid out in order down the page. The index is rebuilt when invalidated,
+ * which the canvas does whenever it lays statements out, or when the theorem has changed in size.
+ */
+public class RowIndex {
+
+	private DTheorem indexed = null;
+
+	private int[] tops = new int[0], bottoms = new int[0];
+
+	private boolean valid = false;
+
+
+	/**
+	 * Marks the index out of date, to be rebuilt on next use.
+	 */
+	public void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * The closed statements of a theorem reaching into a band of the page.
+	 *
+	 * @param dt 		The theorem.
+	 * @param top 		The top of the band.
+	 * @param bottom 	The bottom of the band.
+	 * @return 			The index of the first statement in the band and the index after the last.
+	 */
+	public int[] range(DTheorem dt, int top, int bottom) {
+
+		if (!valid || dt != indexed || dt.size() != tops.length) build(dt);
+
+		int from = search(bottoms, top);
+		int to = search(tops, bottom + 1);
+
+		return new int[] { from, Math.max(from, to) };
+	}
+
+	/**
+	 * The bottom of the last closed statement.
+	 *
+	 * @param dt 	The theorem.
+	 * @return 		The lowest y coordinate reached, zero if there are no closed statements.
+	 */
+	public int bottom(DTheorem dt) {
+
+		if (!valid || dt != indexed || dt.size() != tops.length) build(dt);
+
+		return bottoms.length > 0 ? bottoms[bottoms.length - 1] : 0;
+	}
+
+
+	private void build(DTheorem dt) {
+
+		tops = new int[dt.size()];
+		bottoms = new int[dt.size()];
+
+		int top = Integer.MIN_VALUE, bottom = Integer.MIN_VALUE, i = 0;
+
+		for (DStatement ds : dt) {
+
+			if (!ds.isEmpty()) {
+
+				Rectangle first = ds.getFirst().description(), last = ds.getLast().description();
+
+				top = Math.max(top, first.y);
+				bottom = Math.max(bottom, Math.max(first.y + first.height, last.y + last.height));
+			}
+
+			tops[i] = top;
+			bottoms[i++] = bottom;
+		}
+
+		indexed = dt;
+		valid = true;
+	}
+
+	/** The first index holding a value at least the key, in an ascending array. */
+	private static int search(int[] ascending, int key) {
+
+		int found = Arrays.binarySearch(ascending, key);
+
+		if (found < 0) return -found - 1;
+
+		while (found > 0 && ascending[found - 1] == key) found--;
+
+		return found;
+	}
+}
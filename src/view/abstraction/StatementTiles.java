@@ -0,0 +1,219 @@
+package view.abstraction;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+import model.description.DRectangle;
+import model.description.DStatement;
+import model.description.DTheorem;
+import model.description.abstraction.Described;
+
+/**
+ * Closed statements of a theorem rendered once into tiles of their own, so that painting the whole theorem is a blit
+ * per statement rather than painting every formal anew. Only the preliminary statement is painted live.<br><br>
+ *
+ * A tile is rendered anew when its statement has been altered, which is told by {@link DStatement#revision()}, or
+ * laid out differently or underlined. The layout is compared by the locations of the formals relative to the
+ * first, so a statement that is only moved, as when one before it grows, is blitted from its tile at the new
+ * place. A tile is opaque and made of one strip per row the statement spans, since the bounds of a statement that
+ * wraps overlap the statements sharing its rows. The box of a boxed statement is painted live.<br><br>
+ *
+ * Statements are kept by identity. When the tiles kept outnumber those painted by the last paint of the theorem 
+ * twice over, the rest are forgotten.
+ */
+public class StatementTiles {
+
+	/** The number of tiles kept beyond twice those painted. */
+	private static final int SPARE = 64;
+
+	private IdentityHashMap<DStatement, Tile> tiles = new IdentityHashMap<DStatement, Tile>();
+
+	private long hits = 0, misses = 0;
+
+
+	/**
+	 * Paints a theorem, the closed statements from their tiles and the preliminary statement live.
+	 *
+	 * @param g 	The graphics on which to draw.
+	 * @param dt 	The theorem to paint.
+	 */
+	public void paintTheorem(Graphics g, DTheorem dt) {
+		this.paintTheorem(g, dt, 0, dt.size());
+	}
+
+	/**
+	 * Paints a range of the closed statements of a theorem from their tiles and the preliminary statement live. Tiles 
+	 * of statements outside the range are kept for scrolling back, until they outnumber the painted twice over.
+	 *
+	 * @param g 	The graphics on which to draw.
+	 * @param dt 	The theorem to paint.
+	 * @param from 	The index of the first statement to paint.
+	 * @param to 	The index after the last statement to paint.
+	 */
+	public void paintTheorem(Graphics g, DTheorem dt, int from, int to) {
+
+		IdentityHashMap<DStatement, Tile> painted = new IdentityHashMap<DStatement, Tile>();
+
+		Iterator<DStatement> it = dt.listIterator(from);
+
+		for (int i = from; i < to && it.hasNext(); i++) {
+
+			DStatement ds = it.next();
+
+			Tile tile = this.paint(g, ds);
+
+			if (tile != null) painted.put(ds, tile);
+		}
+
+		if (tiles.size() > 2 * painted.size() + SPARE) tiles = painted;				// forgets the statements gone
+
+		DisplayTools.paintStatement(g, dt.getPreliminary());
+	}
+
+	/**
+	 * Paints a statement from its tile, rendering the tile first if out of date.
+	 *
+	 * @param g 	The graphics on which to draw.
+	 * @param ds 	The statement to paint.
+	 * @return 		The tile painted from, null if the statement is empty.
+	 */
+	public Tile paint(Graphics g, DStatement ds) {
+
+		if (ds.isEmpty()) return null;
+
+		Point anchor = ds.getFirst().description().getLocation();
+
+		long layout = layout(ds, anchor);
+
+		Tile tile = tiles.get(ds);
+
+		if (tile != null && tile.revision == ds.revision() && tile.layout == layout)
+			hits++;
+		else {
+			tile = render(ds, anchor, layout);
+			misses++;
+		}
+
+		for (int i = 0; i < tile.strips.length; i++)
+			g.drawImage(tile.strips[i], anchor.x + tile.offsets[i].x, anchor.y + tile.offsets[i].y, null);
+
+		if (ds.boxed) DisplayTools.paintBox(ds, g, Color.blue);
+
+		tiles.put(ds, tile);
+
+		return tile;
+	}
+
+	/**
+	 * Forgets all tiles.
+	 */
+	public void clear() {
+		tiles.clear();
+	}
+
+
+	/** @return The number of statements painted from tiles rendered before. */
+	public long hits() { return hits; }
+
+	/** @return The number of tiles rendered. */
+	public long misses() { return misses; }
+
+	/** @return The number of tiles kept. */
+	public int size() { return tiles.size(); }
+
+	/** {@inheritDoc} */
+	public String toString() {
+		return "StatementTiles[size=" + tiles.size() + ", hits=" + hits + ", misses=" + misses + "]";
+	}
+
+
+	private static Tile render(DStatement ds, Point anchor, long layout) {
+
+		ArrayList<Rectangle> rows = new ArrayList<Rectangle>();
+
+		Rectangle row = null;
+
+		for (Described d : ds) {													// a row ends where the next formal is not to the right
+
+			Rectangle r = d.description();
+
+			if (row != null && r.x >= row.x + row.width) 
+				row.add(r);
+			else 
+				rows.add(row = new Rectangle(r));
+		}
+
+		BufferedImage[] strips = new BufferedImage[rows.size()];
+		Point[] offsets = new Point[rows.size()];
+
+		for (int i = 0; i < strips.length; i++) {
+
+			Rectangle r = rows.get(i);
+
+			strips[i] = new BufferedImage(Math.max(1, r.width), Math.max(1, r.height), BufferedImage.TYPE_INT_RGB);
+			offsets[i] = new Point(r.x - anchor.x, r.y - anchor.y);
+
+			Graphics2D g = strips[i].createGraphics();
+
+			g.setColor(Color.white);
+			g.fillRect(0, 0, r.width, r.height);
+
+			g.translate(-r.x, -r.y);
+
+			for (Described d : ds) 
+				if (r.contains(d.description())) DisplayTools.paintDescribed(g, d, Color.black);
+
+			g.dispose();
+		}
+
+		return new Tile(strips, offsets, ds.revision(), layout);
+	}
+
+	/** A hash of how the statement is laid out and decorated relative to its first formal. */
+	private static long layout(DStatement ds, Point anchor) {
+
+		long hash = 0;
+
+		for (Described d : ds) {
+
+			DRectangle r = d.description();
+
+			hash = 31 * hash + (r.x - anchor.x);
+			hash = 31 * hash + (r.y - anchor.y);
+			hash = 31 * hash + (r.width << 16 | r.height);
+			hash = 31 * hash + (d.isUnderlined() ? 1 : 0);
+			hash = 31 * hash + System.identityHashCode(r.getImage());
+		}
+
+		return hash;
+	}
+
+
+	/**
+	 * A rendered statement, a strip per row, with the revision and layout it was rendered at.
+	 */
+	public static final class Tile {
+
+		final BufferedImage[] strips;
+
+		final Point[] offsets;
+
+		final int revision;
+
+		final long layout;
+
+		Tile(BufferedImage[] strips, Point[] offsets, int revision, long layout) {
+			this.strips = strips;
+			this.offsets = offsets;
+			this.revision = revision;
+			this.layout = layout;
+		}
+	}
+}
@@ -1,6 +1,7 @@
 /**
  * Constains off-loading abstract classes for the panels and frames in the view package. 
- * Also {@link DisplayTools} contains almost all static painting methods.<br><br>
+ * Also {@link DisplayTools} contains almost all static painting methods, which paint the glyphs from the pages of
+ * the {@link GlyphAtlas}.<br><br>
  * 
  * Keep apart from the {@link Toolbox} class in the control package. 
  * 
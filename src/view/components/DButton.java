@@ -14,6 +14,7 @@ import javax.swing.KeyStroke;
 import control.Shortcut;
 import control.Toolbox;
 import model.description.DComposite;
+import model.description.DPrimitive;
 import model.description.abstraction.Described;
 import view.PrimitivesPanel;
 import view.abstraction.CursoredCanvas;
@@ -69,16 +70,23 @@ public class DButton extends JButton {
 				PrimitivesPanel focus  = (PrimitivesPanel) this.getValue("focusrestore");
 				Described 		formal = (Described) this.getValue("formal");
 
-				Described newformal = formal.clone();
+				Described newformal = view(formal);
 				
 				canvas.fillCursor(newformal, true, null);
 				
-				if (newformal instanceof DComposite) 
-					((DComposite) newformal).setCodepoint(formal.getCodepoint());
-				
  				focus.restoreFocus();
 			}
 		}
+
+		/** A cheap copy sharing the rendered image of the button's formal, the formal itself being kept as template. */
+		private Described view(Described formal) {
+
+			if (formal instanceof DComposite) return ((DComposite) formal).view();
+
+			if (formal instanceof DPrimitive) return ((DPrimitive) formal).view();
+
+			return formal.clone();
+		}
 	}
 
 	/**
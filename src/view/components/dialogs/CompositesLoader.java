@@ -3,6 +3,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import control.Toolbox;
 import control.db.DeductionBase;
@@ -70,8 +71,9 @@ public class CompositesLoader extends DefaultDialog {
 
 					base.delete("Compositestables", "tablename", name);
 					base.delete("Composites", "tablename", name);			
+					base.delete("CompositeComponents", "tablename", name);
 
-					((DeductionFrame) parent).storeComposites(name);
+					((DeductionFrame) parent).storeComposites(name).thenRun(() -> SwingUtilities.invokeLater(this::updateMenu));
 
 					done = true;															System.out.println("Composite table " + name + " is overwritten.");
 
@@ -79,7 +81,7 @@ public class CompositesLoader extends DefaultDialog {
 
 			} else {
 
-				((DeductionFrame) parent).storeComposites(name);
+				((DeductionFrame) parent).storeComposites(name).thenRun(() -> SwingUtilities.invokeLater(this::updateMenu));
 
 				done = true;																System.out.println("Composite table " + name + " is inserted.");					
 			}
@@ -100,6 +102,7 @@ public class CompositesLoader extends DefaultDialog {
 
 			if (base.contains(columnvalue, "Composites", "tablename")) {						
 				base.delete("Composites", "tablename", columnvalue);
+				base.delete("CompositeComponents", "tablename", columnvalue);
 				System.out.println("Deleted table of composites: " + columnvalue + ".");
 			}
 			
@@ -198,6 +198,32 @@ public abstract class DefaultDialog extends JDialog implements ActionListener {
 		buttonspanel.repaint();		
 	}
 	
+	/** 
+	 * Adds a button beside the others, for customisation of the default dialog extension. The button's action command
+	 * is passed on to the dialog's {@link #actionPerformed(ActionEvent)}.
+	 *
+	 * @param text 		The text of the button.
+	 * @param command 	The action command, also the name of the button.
+	 * @param gridx 	The column of the button among the others.
+	 * @param gridy 	The row of the button among the others.
+	 */
+	protected void addButton(String text, String command, int gridx, int gridy) {
+
+		JButton button = new JButton(text);
+
+		button.setActionCommand(command);
+		button.setName(command);
+		button.addActionListener(this);
+
+		GridBagConstraints gbc_button = new GridBagConstraints();
+		gbc_button.insets 		= new Insets(0, 0, 10, 5);
+		gbc_button.weightx 		= 1.0;
+		gbc_button.anchor 		= GridBagConstraints.SOUTHWEST;
+		gbc_button.gridx 		= gridx;						gbc_button.gridy 		= gridy;
+
+		buttonspanel.add(button, gbc_button);
+	}
+
 	/** 
 	 * Updates the list in the menu by looking up what tables there are in the base. 
 	 * Primitive tables by default, override to change.
@@ -4,12 +4,16 @@ package view.components.dialogs;
 import java.awt.event.ActionEvent;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.concurrent.CompletableFuture;
 
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 
 import control.Toolbox;
 import control.db.DeductionBase;
 import model.description.DTheorem;
+import model.independent.DoubleArray.Tuple;
 import view.DeductionFrame;
 
 /**
@@ -27,7 +31,10 @@ public class TheoremStore extends DefaultDialog {
 	 * @param base		The base from wich to fetch theorems.
 	 */
 	public TheoremStore(DeductionFrame parent, DeductionBase base) {
-		super(parent, base);		
+
+		super(parent, base);
+
+		addButton("Search", "search", 2, 2);
 	}
 
 	
@@ -79,6 +86,8 @@ public class TheoremStore extends DefaultDialog {
 				
 			case "delete": delete(columnvalue); break;
 
+			case "search": search(columnvalue); break;
+
 			default: break;
 		}
 	}
@@ -123,19 +132,66 @@ public class TheoremStore extends DefaultDialog {
 				boolean overwrite = JOptionPane.showConfirmDialog(parent , "Theorem exists, overwrite?") == JOptionPane.OK_OPTION;
 
 				if (overwrite) 					
-					done = base.insert(theorem, overwrite) != -1;
+					done = stored(base.storeLater(theorem, overwrite), theorem.getName());
 				else System.out.println("Skipping.");
 			
 			} else 				
-				done = base.insert(theorem, false) != -1;
+				done = stored(base.storeLater(theorem, false), theorem.getName());
 	
 		} else JOptionPane.showMessageDialog(parent, "Bad naming, try again.");
 		
-		updateMenu();
-		
 		if (done) Toolbox.switchContainer(parent, this);
 	}
 
+	/**
+	 * Waits, without blocking, for a queued store of a theorem and reports the outcome on the event dispatch thread. 
+	 * The menu is refilled once the theorem is written.
+	 * 
+	 * @param future		The future of the queued store.
+	 * @param theoremname	The name the theorem is stored under.
+	 * @return				True, the store is queued.
+	 */
+	private boolean stored(CompletableFuture<Integer> future, String theoremname) {
+
+		future.whenComplete((counter, failure) -> SwingUtilities.invokeLater(() -> {
+
+			if (failure != null) 
+				JOptionPane.showMessageDialog(parent, "Theorem " + theoremname + " could not be stored: " + failure.getMessage());
+			else 
+				if (Toolbox.DEBUGMINIMAL) System.out.println("Theorem " + theoremname + " stored, " + counter + " rows written.");
+
+			updateMenu();
+		}));
+
+		return true;
+	}
+
+	/**
+	 * Narrows the menu to the theorems having a statement that holds a sequence of symbols. An empty sequence brings 
+	 * back all theorems.
+	 * 
+	 * @param symbols	The symbols of the primitives searched for, in order.
+	 * 
+	 * @see DeductionBase#search(String)
+	 */
+	public void search(String symbols) {
+
+		if (symbols.isBlank()) { updateMenu(); return; }
+
+		LinkedHashSet<String> names = new LinkedHashSet<String>();
+
+		for (Tuple<String, String> found : base.search(symbols)) 
+			names.add(found.first());
+
+		menu.clear();
+		menu.addAll(names);
+
+		if (names.isEmpty()) 
+			JOptionPane.showMessageDialog(parent, "No theorem holds " + symbols + ".");
+		else 
+			list.setSelectedIndex(0);
+	}
+
 	/** {@inheritDoc} */
 	public void delete(String deleted) {
 		
@@ -0,0 +1,132 @@
+package control.db;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import model.description.DPrimitive;
+import model.description.DStatement;
+import model.description.DTheorem;
+import model.logic.Implication;
+
+/**
+ * Checks that importing a {@link BaseArchive} replaces a theorem of the base with all its statements: statements the
+ * theorem gained after the archive was exported are removed, and so are their grams of the search index. Also that
+ * the table imports record their progress in is part of the schema, there before anything is imported. Run headless
+ * from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin:lib/* control.db.BaseArchiveTest [base file]</code><br><br>
+ *
+ * The test runs on a fresh copy of the base file, by default 'data/sqlite/variables.sqlite', which is left untouched.
+ * It exits with status 1 if a check fails.
+ */
+public class BaseArchiveTest {
+
+	private static final String THEOREM = "basearchivetest-replaced";
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the base file to copy.
+	 * @throws Exception 		If the base file can't be copied or the archive written.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		Path original = Paths.get(args.length > 0 ? args[0] : "data/sqlite/variables.sqlite");
+
+		Path copy = Files.createTempFile("deductionbase", ".sqlite"), archive = Files.createTempFile("deductionbase", ".archive");
+
+		Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+
+		DeductionBase base = new DeductionBase(copy.toString(), false, ConnectionProfile.WAL);
+
+		try {
+
+			check("progress table in the schema", count(base, "SELECT count(*) FROM ArchiveProgress;", null) == 0);
+
+			DTheorem theorem = new DTheorem(THEOREM);
+
+			theorem.setName(THEOREM);
+
+			statement(theorem, "x+y=z");
+
+			check("written", base.insert(theorem, true) > 0);
+
+			new BaseArchive(base).exportTo(archive, false, null);
+
+			DStatement gained = statement(theorem, "a=b");
+
+			check("gained statement written", base.update(theorem) > 0);
+			check("gained statement in the base", base.contains(gained.getID(), "Statements", "id"));
+			check("gained statement indexed", grams(base, gained.getID()) > 0);
+
+			new BaseArchive(base).importFrom(archive, null);
+
+			check("gained statement removed", !base.contains(gained.getID(), "Statements", "id"));
+			check("gained statement unindexed", grams(base, gained.getID()) == 0);
+			check("statements of the theorem as exported", count(base, "SELECT count(*) FROM Statements WHERE theorem=?;", THEOREM) == 1);
+			check("progress recorded", count(base, "SELECT count(*) FROM ArchiveProgress;", null) == 1);
+
+		} finally {
+
+			base.closeDB();
+
+			archive.toFile().delete();
+
+			for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) new File(copy.toString() + suffix).delete();
+		}
+
+		System.out.println(failures == 0 ? "BaseArchiveTest passed." : "BaseArchiveTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** Closes a statement of the formals of a text at the end of a theorem. */
+	private static DStatement statement(DTheorem theorem, String text) {
+
+		for (char c : text.toCharArray()) theorem.appendPrimitive(new DPrimitive(c));
+
+		theorem.finalisePreliminary(new DPrimitive(Implication.EQUIV));
+
+		return theorem.getLast();
+	}
+
+	private static long grams(DeductionBase base, String id) {
+		return count(base, "SELECT count(*) FROM StatementGrams WHERE statement=?;", id);
+	}
+
+	/** A count queried on the writing connection, given one text parameter or none, or -1 if the query fails. */
+	private static long count(DeductionBase base, String query, String parameter) {
+
+		synchronized (base) {
+
+			try {
+
+				PreparedStatement s = base.getStatementCache().prepare(query);
+
+				if (parameter != null) s.setString(1, parameter);
+
+				try (ResultSet r = s.executeQuery()) { return r.next() ? r.getLong(1) : -1; }
+
+			} catch (SQLException sqle) { return -1; }
+		}
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
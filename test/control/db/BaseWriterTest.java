@@ -0,0 +1,199 @@
+package control.db;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import model.description.DPrimitive;
+import model.description.DStatement;
+import model.independent.DoubleArray.Tuple;
+
+/**
+ * Checks the write-behind queue of a {@link DeductionBase}: that a write failing unexpectedly fails its group without
+ * stopping the writer thread or leaving anyone waiting, and that a theorem saved in part and then saved anew under the
+ * same name before either is written leaves no rows of the first save behind. Run headless from the project
+ * directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:lib/* control.db.BaseWriterTest [base file]</code><br><br>
+ *
+ * The test runs on a fresh copy of the base file, by default 'data/sqlite/variables.sqlite', which is left untouched.
+ * It exits with status 1 if a check fails.
+ */
+public class BaseWriterTest {
+
+	private static final String THEOREM = "basewritertest-coalesced";
+
+	private static final long TIMEOUT = 10;
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the base file to copy.
+	 * @throws Exception 		If the base file can't be copied.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		Path original = Paths.get(args.length > 0 ? args[0] : "data/sqlite/variables.sqlite");
+
+		Path copy = Files.createTempFile("deductionbase", ".sqlite");
+
+		Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+
+		DeductionBase base = new DeductionBase(copy.toString(), false, ConnectionProfile.WAL);
+
+		try {
+
+			unexpected(base);
+
+			coalesced(base);
+
+		} finally {
+
+			base.closeDB();
+
+			for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) new File(copy.toString() + suffix).delete();
+		}
+
+		System.out.println(failures == 0 ? "BaseWriterTest passed." : "BaseWriterTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** A write throwing a runtime exception, grouped with one that succeeds, then a write after. */
+	private static void unexpected(DeductionBase base) throws Exception {
+
+		BaseWriter writer = base.getWriter();
+
+		CountDownLatch held = hold(writer);
+
+		CompletableFuture<Integer> throwing = writer.submit("throwing", write(() -> { throw new IllegalStateException("thrown by the test"); }));
+
+		CompletableFuture<Integer> grouped = writer.submit("grouped", write(() -> 1));
+
+		held.countDown();
+
+		check("throwing write fails", failed(throwing));
+		check("write grouped with it is rolled back", failed(grouped));
+
+		Thread flushing = new Thread(writer::flush);
+
+		flushing.start();
+		flushing.join(TimeUnit.SECONDS.toMillis(TIMEOUT));
+
+		check("flush returns", !flushing.isAlive());
+		check("writer is idle", !writer.isBusy());
+
+		check("later write is written", value(writer.submit("later", write(() -> 2))) == 2);
+	}
+
+	/** A write of some statements followed by a write replacing the theorem, coalesced while the writer is busy. */
+	private static void coalesced(DeductionBase base) throws Exception {
+
+		BaseWriter writer = base.getWriter();
+
+		CountDownLatch held = hold(writer);
+
+		DeductionBase.TheoremChanges first = changes(false, "basewritertest-first");
+		DeductionBase.TheoremChanges second = changes(true, "basewritertest-second");
+
+		second.resolve = true;
+
+		CompletableFuture<Integer> a = writer.submit("theorem:" + THEOREM, first);
+		CompletableFuture<Integer> b = writer.submit("theorem:" + THEOREM, second);
+
+		held.countDown();
+
+		check("coalesced first write", value(a) >= 0);
+		check("coalesced second write", value(b) >= 0);
+
+		check("theorem written", base.contains(THEOREM, "Theorems", "name"));
+		check("statement of the replacing write kept", base.contains("basewritertest-second", "Statements", "id"));
+		check("statement of the replaced write not left behind", !base.contains("basewritertest-first", "Statements", "id"));
+	}
+
+
+	/** Keeps the writer thread busy until the latch returned is counted down, so that writes queued meanwhile are grouped. */
+	private static CountDownLatch hold(BaseWriter writer) throws InterruptedException {
+
+		CountDownLatch started = new CountDownLatch(1), held = new CountDownLatch(1);
+
+		writer.submit("hold", write(() -> {
+
+			started.countDown();
+
+			try { held.await(); } catch (InterruptedException ie) { Thread.currentThread().interrupt(); }
+
+			return 0;
+		}));
+
+		started.await();
+
+		return held;
+	}
+
+	/** Changes of the test theorem writing one statement with the given identification. */
+	private static DeductionBase.TheoremChanges changes(boolean replace, String id) {
+
+		DeductionBase.TheoremChanges changes = new DeductionBase.TheoremChanges(THEOREM, "primitives", replace);
+
+		DStatement statement = new DStatement();
+
+		for (char c : "x=y".toCharArray()) statement.add(new DPrimitive(c));
+
+		changes.upserts.put(id, new Tuple<byte[], Integer>(statement.formalsBytes(), statement.implicationID()));
+
+		changes.ids = id;
+
+		return changes;
+	}
+
+	private static BaseWriter.Write write(Action action) {
+
+		return new BaseWriter.Write() {
+
+			public int write(DeductionBase base) { return action.run(); }
+
+			public BaseWriter.Write coalesce(BaseWriter.Write later) { return later; }
+		};
+	}
+
+	private static boolean failed(CompletableFuture<Integer> future) throws InterruptedException {
+
+		try { future.get(TIMEOUT, TimeUnit.SECONDS); return false; }
+
+		catch (ExecutionException ee) { return true; }
+		catch (TimeoutException te) { return false; }
+	}
+
+	private static int value(CompletableFuture<Integer> future) throws InterruptedException {
+
+		try { return future.get(TIMEOUT, TimeUnit.SECONDS); }
+
+		catch (ExecutionException | TimeoutException e) { return -1; }
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+
+	/** A write of the test, returning its count. */
+	private interface Action {
+		int run();
+	}
+}
@@ -0,0 +1,100 @@
+package control.db;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.description.DComposite;
+import model.description.abstraction.Described;
+import model.independent.DoubleArray;
+import control.Shortcut;
+
+/**
+ * Checks that a view of composites is fetched whole, composites stored without components included, each with the
+ * components it was stored with. Run headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin:lib/* control.db.CompositesTest [base file]</code><br><br>
+ *
+ * The test runs on a fresh copy of the base file, by default 'data/sqlite/variables.sqlite', which is left untouched.
+ * It exits with status 1 if a check fails.
+ */
+public class CompositesTest {
+
+	private static final String VIEW = "compositestest";
+
+	/** The codepoints of the test's composites, one with components and one without. */
+	private static final int WITH = Integer.MAX_VALUE - 200000, WITHOUT = WITH - 1;
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the base file to copy.
+	 * @throws Exception 		If the base file can't be copied.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		Path original = Paths.get(args.length > 0 ? args[0] : "data/sqlite/variables.sqlite");
+
+		Path copy = Files.createTempFile("deductionbase", ".sqlite");
+
+		Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+
+		DeductionBase base = new DeductionBase(copy.toString(), false, ConnectionProfile.WAL);
+
+		try {
+
+			DeductionBase.CompositesChanges table = new DeductionBase.CompositesChanges(VIEW);
+
+			List<int[]> components = new ArrayList<int[]>();
+
+			components.add(new int[] { 'a', 0, 0, 10 });
+			components.add(new int[] { 'b', 10, 0, 10 });
+
+			table.rows.put(WITH, components);
+			table.rows.put(WITHOUT, new ArrayList<int[]>());
+
+			check("composites written", base.getWriter().submit("composites:" + VIEW, table).get() == 2);
+
+			DoubleArray<Described, Shortcut> fetched = base.fetchComposites(VIEW);
+
+			check("both composites fetched", fetched.size() == 2);
+
+			for (Described composite : fetched.domain()) {
+
+				String codepoints = ((DComposite) composite).codepointsString().trim();
+
+				if (composite.getCodepoint() == WITH)
+					check("components kept, " + codepoints, codepoints.equals("97 98"));
+				else
+					check("composite without components kept, " + codepoints, composite.getCodepoint() == WITHOUT && codepoints.split(" ").length == 1);
+			}
+
+		} finally {
+
+			base.closeDB();
+
+			for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) new File(copy.toString() + suffix).delete();
+		}
+
+		System.out.println(failures == 0 ? "CompositesTest passed." : "CompositesTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
@@ -0,0 +1,144 @@
+package control.db;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.description.DTheorem;
+import model.independent.DoubleArray.Tuple;
+import model.independent.SequenceEncoder;
+
+/**
+ * Checks that queries binding a parameter per item read what they should past the number of parameters sqlite takes
+ * in one query: a theorem holding more composites than that is fetched with all of them, and a statement longer than
+ * that in grams is found by searching for it. Run headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin:lib/* control.db.ParameterLimitTest [base file]</code><br><br>
+ *
+ * The test runs on a fresh copy of the base file, by default 'data/sqlite/variables.sqlite', which is left untouched.
+ * It exits with status 1 if a check fails.
+ */
+public class ParameterLimitTest {
+
+	/** More than the 999 parameters of a query. */
+	private static final int MANY = 1500;
+
+	/** The codepoints of the test's composites are counted down from here. */
+	private static final int COMPOSITES = Integer.MAX_VALUE - 100000;
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the base file to copy.
+	 * @throws Exception 		If the base file can't be copied.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		Path original = Paths.get(args.length > 0 ? args[0] : "data/sqlite/variables.sqlite");
+
+		Path copy = Files.createTempFile("deductionbase", ".sqlite");
+
+		Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+
+		DeductionBase base = new DeductionBase(copy.toString(), false, ConnectionProfile.WAL);
+
+		try {
+
+			composites(base);
+
+			search(base);
+
+		} finally {
+
+			base.closeDB();
+
+			for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) new File(copy.toString() + suffix).delete();
+		}
+
+		System.out.println(failures == 0 ? "ParameterLimitTest passed." : "ParameterLimitTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** A theorem of one statement of as many different composites, each of two components. */
+	private static void composites(DeductionBase base) throws Exception {
+
+		DeductionBase.CompositesChanges table = new DeductionBase.CompositesChanges("parameterlimittest");
+
+		int[] codepoints = new int[MANY];
+
+		for (int i = 0; i < MANY; i++) {
+
+			codepoints[i] = COMPOSITES - i;
+
+			ArrayList<int[]> components = new ArrayList<int[]>();
+
+			components.add(new int[] { 'a' + i % 26, 0, 0, 10 });
+			components.add(new int[] { 'a' + i / 26 % 26, 10, 0, 10 });
+
+			table.rows.put(codepoints[i], components);
+		}
+
+		check("composites written", base.getWriter().submit("composites:parameterlimittest", table).get() == MANY);
+
+		boolean[] composite = new boolean[MANY];
+
+		java.util.Arrays.fill(composite, true);
+
+		write(base, "parameterlimittest-composites", SequenceEncoder.encode(SequenceEncoder.NONE, codepoints, composite));
+
+		DTheorem theorem = base.fetchTheorem("parameterlimittest-composites");
+
+		check("theorem of many composites fetched", theorem != null && theorem.lengthInFormals() == MANY);
+	}
+
+	/** A statement of as many random primitives, searched for whole. */
+	private static void search(DeductionBase base) throws Exception {
+
+		Random random = new Random(1);
+
+		int[] codepoints = new int[MANY];
+
+		for (int i = 0; i < MANY; i++) codepoints[i] = 'a' + random.nextInt(26);
+
+		write(base, "parameterlimittest-search", SequenceEncoder.encode(SequenceEncoder.NONE, codepoints, new boolean[MANY]));
+
+		List<Tuple<String, String>> found = base.search(codepoints, new boolean[MANY]);
+
+		check("long statement found", found.size() == 1 && found.get(0).first().equals("parameterlimittest-search"));
+
+		codepoints[MANY - 1] = 'A';
+
+		check("statement differing past the first grams not found", base.search(codepoints, new boolean[MANY]).isEmpty());
+	}
+
+	/** Writes a theorem of one statement, the statement's identification the theorem's name. */
+	private static void write(DeductionBase base, String name, byte[] sequence) throws Exception {
+
+		DeductionBase.TheoremChanges changes = new DeductionBase.TheoremChanges(name, "parameterlimittest", true);
+
+		changes.upserts.put(name, new Tuple<byte[], Integer>(sequence, -1));
+
+		changes.ids = name;
+
+		check(name + " written", base.getWriter().submit("theorem:" + name, changes).get() > 0);
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
@@ -0,0 +1,94 @@
+package control.db;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import model.description.DPrimitive;
+import model.description.DTheorem;
+import model.logic.Implication;
+
+/**
+ * Checks that what is written to a {@link DeductionBase} with a pool of readers is read back through every reader of
+ * the pool, also by a reader that has run queries before the write. A query leaving its result open would keep the
+ * reader in its read transaction, reading the base as it was before. Run headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:lib/* control.db.ReadPoolTest [base file]</code><br><br>
+ *
+ * The test runs on a fresh copy of the base file, by default 'data/sqlite/variables.sqlite', which is left untouched.
+ * It exits with status 1 if a reader does not read what was written.
+ */
+public class ReadPoolTest {
+
+	private static final String WRITTEN = "readpooltest-written";
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the base file to copy.
+	 * @throws Exception 		If the base file can't be copied.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		Path original = Paths.get(args.length > 0 ? args[0] : "data/sqlite/variables.sqlite");
+
+		Path copy = Files.createTempFile("deductionbase", ".sqlite");
+
+		Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+
+		DeductionBase base = new DeductionBase(copy.toString(), false, ConnectionProfile.WAL);
+
+		try {
+
+			int readers = base.getReadPool().size();
+
+			for (int i = 0; i < readers; i++) 												// every reader queried before the write
+				check("before the write, reader " + i, !base.contains(WRITTEN, "Theorems", "name"));
+
+			DTheorem theorem = new DTheorem(WRITTEN);
+
+			theorem.setName(WRITTEN);
+
+			for (char c : "x+y=z".toCharArray()) theorem.appendPrimitive(new DPrimitive(c));
+
+			theorem.finalisePreliminary(new DPrimitive(Implication.EQUIV));
+
+			check("written", base.insert(theorem, true) > 0);
+
+			for (int i = 0; i < 2 * readers; i++) {
+
+				check("after the write, contains, reader " + i % readers, base.contains(WRITTEN, "Theorems", "name"));
+				check("after the write, names, reader " + i % readers, base.fetchTheoremNames().contains(WRITTEN));
+			}
+
+			DTheorem back = base.fetchTheorem(WRITTEN);
+
+			check("read back", back != null && back.lengthInFormals() == theorem.lengthInFormals());
+
+		} finally {
+
+			base.closeDB();
+
+			for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) new File(copy.toString() + suffix).delete();
+		}
+
+		System.out.println(failures == 0 ? "ReadPoolTest passed." : "ReadPoolTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
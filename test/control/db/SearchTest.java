@@ -0,0 +1,183 @@
+package control.db;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import model.independent.DoubleArray.Tuple;
+import model.independent.SequenceEncoder;
+
+/**
+ * Checks the search of stored statements through their grams: a single formal, two and three formals in a row and
+ * longer sequences are found where they are held and nowhere else, composites apart from primitives of the same
+ * codepoint, and statements holding the grams of a sequence but not the sequence itself are not found. Also that
+ * statements deleted or rewritten are no longer found, nor their grams left behind. Run headless from the project
+ * directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin:lib/* control.db.SearchTest [base file]</code><br><br>
+ *
+ * The test runs on a fresh copy of the base file, by default 'data/sqlite/variables.sqlite', which is left untouched.
+ * It exits with status 1 if a check fails.
+ */
+public class SearchTest {
+
+	/** Formals of the private use area, held by no statement but the test's. */
+	private static final int A = 0xE001, B = 0xE002, C = 0xE003, D = 0xE004, X = 0xE005;
+
+	private static final String ONE = "searchtest-one", TWO = "searchtest-two";
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the base file to copy.
+	 * @throws Exception 		If the base file can't be copied.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		Path original = Paths.get(args.length > 0 ? args[0] : "data/sqlite/variables.sqlite");
+
+		Path copy = Files.createTempFile("deductionbase", ".sqlite");
+
+		Files.copy(original, copy, StandardCopyOption.REPLACE_EXISTING);
+
+		DeductionBase base = new DeductionBase(copy.toString(), false, ConnectionProfile.WAL);
+
+		try {
+
+			DeductionBase.TheoremChanges one = new DeductionBase.TheoremChanges(ONE, "searchtest", true);
+
+			statement(one, "one-abcd", false, A, B, C, D);
+			statement(one, "one-bca", false, B, C, A);
+			statement(one, "one-bcdxcda", false, B, C, D, X, C, D, A);
+
+			write(base, one);
+
+			DeductionBase.TheoremChanges two = new DeductionBase.TheoremChanges(TWO, "searchtest", true);
+
+			statement(two, "two-cdab", false, C, D, A, B);
+			statement(two, "two-xa", true, X, A);
+
+			write(base, two);
+
+			found(base, "single formal", new int[] { A }, "one-abcd", "one-bca", "one-bcdxcda", "two-cdab", "two-xa");
+			found(base, "two in a row", new int[] { B, C }, "one-abcd", "one-bca", "one-bcdxcda");
+			found(base, "three in a row", new int[] { A, B, C }, "one-abcd");
+			found(base, "four in a row", new int[] { C, D, A, B }, "two-cdab");
+			found(base, "not in a row", new int[] { A, C });
+			found(base, "grams held apart", new int[] { B, C, D, A });
+			found(base, "primitive of a composite's codepoint", new int[] { X, C }, "one-bcdxcda");
+			found(base, "composite not found as a primitive", new int[] { X, A });
+
+			check("composite apart", ids(base.search(new int[] { X, A }, new boolean[] { true, false })).equals(List.of("two-xa")));
+
+			check("symbols with white space", ids(base.search(new String(new int[] { C, ' ', D, '\t', A }, 0, 5))).equals(List.of("one-bcdxcda", "two-cdab")));
+			check("nothing searched", base.search(new int[0], new boolean[0]).isEmpty());
+
+			check("statement deleted", base.delete("Statements", "id", "one-abcd"));
+
+			found(base, "deleted statement not found", new int[] { A, B, C });
+			found(base, "others still found", new int[] { B, C }, "one-bca", "one-bcdxcda");
+
+			check("grams of the deleted statement removed", grams(base, "one-abcd") == 0);
+
+			DeductionBase.TheoremChanges rewritten = new DeductionBase.TheoremChanges(ONE, "searchtest", true);
+
+			statement(rewritten, "one-bca", false, D, D, D);
+
+			rewritten.ids = "one-bca:one-bcdxcda";
+
+			write(base, rewritten);
+
+			found(base, "rewritten statement found as it now is", new int[] { D, D, D }, "one-bca");
+			found(base, "rewritten statement not found as it was", new int[] { B, C, A });
+
+			check("theorem's statements deleted", base.delete("Statements", "theorem", TWO));
+
+			found(base, "deleted theorem not found", new int[] { C, D, A, B });
+			found(base, "single formal after deletes", new int[] { A }, "one-bcdxcda");
+
+			check("grams of the deleted theorem removed", grams(base, "two-cdab") == 0 && grams(base, "two-xa") == 0);
+
+		} finally {
+
+			base.closeDB();
+
+			for (String suffix : new String[] { "", "-wal", "-shm", "-journal" }) new File(copy.toString() + suffix).delete();
+		}
+
+		System.out.println(failures == 0 ? "SearchTest passed." : "SearchTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** Adds a statement of primitives, or of a composite followed by primitives, to the changes of a theorem. */
+	private static void statement(DeductionBase.TheoremChanges changes, String id, boolean composite, int... codepoints) {
+
+		boolean[] composites = new boolean[codepoints.length];
+
+		composites[0] = composite;
+
+		changes.upserts.put(id, new Tuple<byte[], Integer>(SequenceEncoder.encode(SequenceEncoder.NONE, codepoints, composites), -1));
+	}
+
+	private static void write(DeductionBase base, DeductionBase.TheoremChanges changes) throws Exception {
+
+		if (changes.ids == null) changes.ids = String.join(":", changes.upserts.keySet());
+
+		check(changes.name + " written", base.getWriter().submit("theorem:" + changes.name, changes).get() > 0);
+	}
+
+	/** Searches for primitives and compares the statements found, in order, with those expected. */
+	private static void found(DeductionBase base, String what, int[] codepoints, String... expected) {
+
+		List<String> found = ids(base.search(codepoints, new boolean[codepoints.length]));
+
+		check(what + ", found " + found, found.equals(List.of(expected)));
+	}
+
+	private static List<String> ids(List<Tuple<String, String>> found) {
+
+		ArrayList<String> ids = new ArrayList<String>();
+
+		for (Tuple<String, String> statement : found) ids.add(statement.second());
+
+		return ids;
+	}
+
+	/** The number of grams indexed of a statement, queried on the writing connection, or -1 if the query fails. */
+	private static long grams(DeductionBase base, String id) {
+
+		synchronized (base) {
+
+			try {
+
+				PreparedStatement s = base.getStatementCache().prepare("SELECT count(*) FROM StatementGrams WHERE statement=?;");
+
+				s.setString(1, id);
+
+				try (ResultSet r = s.executeQuery()) { return r.next() ? r.getLong(1) : -1; }
+
+			} catch (SQLException sqle) { return -1; }
+		}
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
@@ -0,0 +1,233 @@
+package model.description;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
+
+import control.Toolbox;
+import model.description.DStatement.Delta;
+import model.description.abstraction.Described;
+import model.logic.Implication.ImplicationType;
+
+/**
+ * Checks the deltas a {@link DStatement} records of its edits: that replaying them, in order, on the formals as they
+ * were when a mark was taken gives the formals as they are, for random edits by position, through iterators, typed
+ * on and deleted either way, and that they are given up once more were made than are kept. Also that reading a
+ * statement as text records nothing. Run headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin:lib/* model.description.DStatementTest [seed] [rounds]</code><br><br>
+ *
+ * It exits with status 1 if a replay differs.
+ */
+public class DStatementTest {
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 	Optionally the seed of the random edits and the number of rounds of edits.
+	 */
+	public static void main(String[] args) {
+
+		long seed 	= args.length > 0 ? Long.parseLong(args[0]) : 1;
+		int rounds 	= args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+
+		Random random = new Random(seed);
+
+		ArrayList<Described> pool = new ArrayList<Described>();
+
+		for (char c : "abcxyz+-=()".toCharArray()) pool.add(new DPrimitive(c));
+
+		replay(random, pool, rounds);
+
+		typing(pool);
+
+		overflow(pool);
+
+		reading(pool);
+
+		System.out.println(failures == 0 ? "DStatementTest passed." : "DStatementTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** Rounds of random edits, each replayed from the mark taken before it. */
+	private static void replay(Random random, List<Described> pool, int rounds) {
+
+		DStatement statement = new DStatement();
+
+		for (int round = 0; round < rounds && failures == 0; round++) {
+
+			ArrayList<Described> before = new ArrayList<Described>(statement);
+
+			int mark = statement.mark();
+
+			int edits = 1 + random.nextInt(8);
+
+			for (int e = 0; e < edits; e++) edit(random, pool, statement);
+
+			List<Delta> deltas = statement.deltasSince(mark);
+
+			check("deltas kept in round " + round, deltas != null);
+
+			if (deltas == null) continue;
+
+			same("replayed in round " + round, replayed(before, deltas), statement);
+
+			check("caught up in round " + round, statement.deltasSince(statement.mark()).isEmpty());
+		}
+	}
+
+	/** One random edit, growing the statement while short and shrinking it while long. */
+	private static void edit(Random random, List<Described> pool, DStatement statement) {
+
+		int size = statement.size(), at = random.nextInt(size + 1);
+
+		boolean shrink = size > 40 || (size > 0 && random.nextInt(3) == 0);
+
+		Described formal = pool.get(random.nextInt(pool.size()));
+
+		switch (random.nextInt(6)) {
+
+			case 0:
+				if (shrink) statement.remove(at % size); else statement.add(at, formal);
+				break;
+
+			case 1:
+				if (size > 0) statement.set(at % size, formal);
+				break;
+
+			case 2: 																		// typed on, a few formals in a row
+				for (int i = 0; i < 3; i++) statement.add(at + i, pool.get(random.nextInt(pool.size())));
+				break;
+
+			case 3: 																		// deleted backwards or forwards
+				for (int i = 0; i < 3 && statement.size() > 0; i++)
+					statement.remove(random.nextBoolean() ? Math.min(at, statement.size() - 1) : Math.max(0, Math.min(at - i, statement.size() - 1)));
+				break;
+
+			case 4:
+				if (size > 0) {
+
+					Iterator<Described> it = statement.iterator();
+
+					for (int i = 0; i <= at % size; i++) it.next();
+
+					it.remove();
+				}
+				break;
+
+			case 5:
+				ListIterator<Described> it = statement.listIterator(at);
+
+				if (shrink && it.hasPrevious()) { it.previous(); it.set(formal); }
+				else it.add(formal);
+
+				if (random.nextInt(20) == 0) statement.clear();
+				break;
+		}
+	}
+
+	/** Typing on and deleting backwards make one delta each, as an editor would show them. */
+	private static void typing(List<Described> pool) {
+
+		DStatement statement = new DStatement();
+
+		int mark = statement.mark();
+
+		for (int i = 0; i < 5; i++) statement.add(i, pool.get(i));
+
+		List<Delta> deltas = statement.deltasSince(mark);
+
+		check("typing makes one delta", deltas.size() == 1 && deltas.get(0).position() == 0 && deltas.get(0).inserted().size() == 5);
+
+		mark = statement.mark();
+
+		for (int i = 4; i > 1; i--) statement.remove(i);
+
+		deltas = statement.deltasSince(mark);
+
+		check("deleting backwards makes one delta", deltas.size() == 1 && deltas.get(0).position() == 2 && deltas.get(0).removed().size() == 3);
+
+		same("deleting backwards replayed", replayed(new ArrayList<Described>(pool.subList(0, 5)), deltas), statement);
+	}
+
+	/** Deltas given up once more are made since a mark than are kept. */
+	private static void overflow(List<Described> pool) {
+
+		DStatement statement = new DStatement();
+
+		for (int i = 0; i < 10; i++) statement.add(i, pool.get(i));
+
+		int mark = statement.mark();
+
+		for (int i = 0; i < DStatement.DELTAS; i++) statement.set(i % 10, pool.get(i % pool.size()));
+
+		check("as many deltas as kept are given", statement.deltasSince(mark) != null);
+
+		mark = statement.mark();
+
+		for (int i = 0; i <= DStatement.DELTAS; i++) statement.set(i % 10, pool.get(i % pool.size()));
+
+		check("more deltas than kept are given up", statement.deltasSince(mark) == null);
+	}
+
+	/** Reading a closed statement as text leaves it as it was. */
+	private static void reading(List<Described> pool) {
+
+		DStatement statement = new DStatement(new ArrayList<Described>(pool.subList(0, 5)), ImplicationType.RIGHT);
+
+		statement.markClean();
+
+		int mark = statement.mark(), revision = statement.revision();
+
+		statement.formalsString();
+
+		Toolbox.parseToString(statement);
+
+		check("read without deltas", statement.deltasSince(mark).isEmpty());
+		check("read without a revision", statement.revision() == revision);
+		check("read and still clean", !statement.isDirty());
+	}
+
+
+	/** The formals as they were, the deltas replayed on them in order. */
+	private static List<Described> replayed(List<Described> before, List<Delta> deltas) {
+
+		ArrayList<Described> formals = new ArrayList<Described>(before);
+
+		for (Delta delta : deltas) {
+
+			for (Described removed : delta.removed())
+				check("removed " + removed + " at " + delta.position(), formals.remove(delta.position()) == removed);
+
+			formals.addAll(delta.position(), delta.inserted());
+		}
+
+		return formals;
+	}
+
+	/** Compares formals by identity, as deltas hold the formals themselves. */
+	private static void same(String what, List<Described> formals, List<Described> expected) {
+
+		boolean same = formals.size() == expected.size();
+
+		for (int i = 0; same && i < formals.size(); i++) same = formals.get(i) == expected.get(i);
+
+		check(what, same);
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
@@ -0,0 +1,288 @@
+package model.independent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Checks the ring buffer of a {@link CyclicList} against an {@link ArrayList} and an {@link ArrayDeque} edited alike.
+ * Edits are random, by position, at the ends, at a cursor that moves on slowly and through iterators, so that the
+ * gap is turned both ways round, the ring wraps around the end of its array and the array grows. Run from the project
+ * directory:<br><br>
+ *
+ * <code>java -cp bin:test/bin model.independent.CyclicListTest [seed] [operations]</code><br><br>
+ *
+ * It exits with status 1 if the lists differ.
+ */
+public class CyclicListTest {
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the seed of the random edits and their number.
+	 * @throws Exception 		If the list can't be serialized.
+	 */
+	public static void main(String[] args) throws Exception {
+
+		long seed 		= args.length > 0 ? Long.parseLong(args[0]) : 1;
+		int operations 	= args.length > 1 ? Integer.parseInt(args[1]) : 200000;
+
+		asList(new Random(seed), operations);
+
+		asDeque(new Random(seed + 1), operations);
+
+		cyclic(new Random(seed + 2));
+
+		copies();
+
+		System.out.println(failures == 0 ? "CyclicListTest passed." : "CyclicListTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** Random edits of a list, compared after each with an array list edited alike. */
+	private static void asList(Random random, int operations) {
+
+		CyclicList<Integer> list = new CyclicList<Integer>();
+		ArrayList<Integer> expected = new ArrayList<Integer>();
+
+		int cursor = 0, value = 0;
+
+		for (int op = 0; op < operations && failures == 0; op++) {
+
+			int size = expected.size();
+
+			int at = random.nextInt(size + 1);
+
+			boolean shrink = size > 600 || (size > 0 && random.nextInt(5) == 0);
+
+			cursor = Math.max(0, Math.min(size, cursor + random.nextInt(3) - 1));
+
+			switch (random.nextInt(10)) {
+
+				case 0: 																	// anywhere
+					if (shrink) expect("remove " + at, list.remove(at % size), expected.remove(at % size));
+					else { list.add(at, value); expected.add(at, value++); }
+					break;
+
+				case 1: 																	// typing at a cursor
+				case 2:
+					if (shrink && cursor > 0) expect("remove at cursor", list.remove(cursor - 1), expected.remove(--cursor));
+					else { list.add(cursor, value); expected.add(cursor++, value++); }
+					break;
+
+				case 3: 																	// at the ends
+					if (shrink) expect("remove last", list.removeLast(), expected.remove(size - 1));
+					else { list.addFirst(value); expected.add(0, value++); }
+					break;
+
+				case 4:
+					if (shrink) expect("remove first", list.removeFirst(), expected.remove(0));
+					else { list.addLast(value); expected.add(value++); }
+					break;
+
+				case 5:
+					if (size > 0) expect("set " + at, list.set(at % size, value), expected.set(at % size, value++));
+					break;
+
+				case 6: 																	// through an iterator
+					if (size > 0) {
+
+						Iterator<Integer> it = list.iterator(), ex = expected.iterator();
+
+						for (int i = 0; i <= at % size; i++) expect("iterated", it.next(), ex.next());
+
+						it.remove();
+						ex.remove();
+					}
+					break;
+
+				case 7:
+					ListIterator<Integer> it = list.listIterator(at), ex = expected.listIterator(at);
+
+					if (shrink && it.hasPrevious()) {
+
+						expect("iterated back", it.previous(), ex.previous());
+
+						if (random.nextBoolean()) { it.remove(); ex.remove(); }
+						else { it.set(value); ex.set(value++); }
+					}
+					else { it.add(value); ex.add(value++); }
+					break;
+
+				case 8:
+					if (size > 0) {
+
+						Integer element = expected.get(at % size);
+
+						check("remove first occurrence", list.removeFirstOccurrence(element) == expected.remove(element));
+					}
+					break;
+
+				case 9:
+					if (random.nextInt(2000) == 0) { list.clear(); expected.clear(); cursor = 0; }
+					break;
+			}
+
+			same("after operation " + op, list, expected);
+		}
+	}
+
+	/** Random edits of the list as a deque, compared with an array deque edited alike. */
+	private static void asDeque(Random random, int operations) {
+
+		CyclicList<Integer> list = new CyclicList<Integer>();
+		ArrayDeque<Integer> expected = new ArrayDeque<Integer>();
+
+		for (int op = 0; op < operations && failures == 0; op++) {
+
+			boolean shrink = expected.size() > 300 || (!expected.isEmpty() && random.nextInt(3) == 0);
+
+			switch (random.nextInt(4)) {
+
+				case 0:
+					if (shrink) expect("pop", list.pop(), expected.pop());
+					else { list.push(op); expected.push(op); }
+					break;
+
+				case 1:
+					if (shrink) expect("poll last", list.pollLast(), expected.pollLast());
+					else { list.offerLast(op); expected.offerLast(op); }
+					break;
+
+				case 2:
+					if (shrink) expect("poll", list.poll(), expected.poll());
+					else { list.offer(op); expected.offer(op); }
+					break;
+
+				case 3:
+					expect("peek first", list.peekFirst(), expected.peekFirst());
+					expect("peek last", list.peekLast(), expected.peekLast());
+					break;
+			}
+
+			check("same size after operation " + op, list.size() == expected.size());
+
+			if (op % 97 == 0) {
+
+				same("in order after operation " + op, list, new ArrayList<Integer>(expected));
+
+				ArrayList<Integer> descending = new ArrayList<Integer>();
+
+				for (Iterator<Integer> it = list.descendingIterator(); it.hasNext(); ) descending.add(it.next());
+
+				same("descending after operation " + op, descending, list.reversed());
+			}
+		}
+	}
+
+	/** The iteration position kept as the list is stepped through both ways, elements inserted anywhere and removed after it. */
+	private static void cyclic(Random random) {
+
+		CyclicList<Integer> list = new CyclicList<Integer>();
+
+		for (int i = 0; i < 50; i++) list.addLast(i);
+
+		int position = 0;
+
+		for (int op = 0; op < 10000 && failures == 0; op++) {
+
+			if (random.nextBoolean()) {
+				expect("next", list.next(), list.get(position = (position + 1) % list.size()));
+			} else {
+				expect("previous", list.previous(), list.get(position = (position - 1 + list.size()) % list.size()));
+			}
+
+			check("current at " + position, list.current() == list.get(position));
+
+			if (random.nextInt(10) == 0 && list.size() > 2) {
+
+				int at = random.nextInt(list.size() - 1);
+
+				Integer current = list.current();
+
+				if (random.nextBoolean()) list.insertElement(at, -op - 1);
+				else if (at > position) list.removeElement(list.get(at));
+
+				position = list.indexOf(current);
+
+				check("current kept past an edit", list.current() == current);
+			}
+		}
+	}
+
+	/** Clones, reversed copies and serialized copies, independent of the list. */
+	@SuppressWarnings("unchecked")
+	private static void copies() throws Exception {
+
+		CyclicList<Integer> list = new CyclicList<Integer>();
+
+		for (int i = 0; i < 100; i++) list.add(i % 7 * list.size() / 7, i);							// the ring turned about
+
+		ArrayList<Integer> expected = new ArrayList<Integer>(list);
+
+		CyclicList<Integer> clone = (CyclicList<Integer>) list.clone();
+
+		clone.remove(50);
+		clone.addFirst(-1);
+
+		same("clone left apart", list, expected);
+
+		List<Integer> reversed = new ArrayList<Integer>(expected);
+
+		Collections.reverse(reversed);
+
+		same("reversed", list.reversed(), reversed);
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) { out.writeObject(list); }
+
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			same("serialized", (CyclicList<Integer>) in.readObject(), expected);
+		}
+	}
+
+
+	/** Compares lists by position and by iteration. */
+	private static void same(String what, List<Integer> list, List<Integer> expected) {
+
+		if (list.size() != expected.size()) { check(what + ", size " + list.size() + " for " + expected.size(), false); return; }
+
+		for (int i = 0; i < list.size(); i++)
+			if (!list.get(i).equals(expected.get(i))) { check(what + ", at " + i, false); return; }
+
+		Iterator<Integer> it = list.iterator();
+
+		for (Integer element : expected)
+			if (!it.next().equals(element)) { check(what + ", iterated", false); return; }
+
+		check(what + ", equal", list.equals(expected) && list.hashCode() == expected.hashCode());
+	}
+
+	private static void expect(String what, Integer got, Integer expected) {
+		check(what + ", got " + got + " for " + expected, Objects.equals(got, expected));
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
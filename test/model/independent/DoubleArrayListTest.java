@@ -0,0 +1,202 @@
+package model.independent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import control.Shortcut;
+import control.Toolbox;
+import model.independent.DoubleArray.Tuple;
+import model.logic.Primitive;
+import model.logic.abstraction.Formal;
+
+/**
+ * Checks the hash indexes of a {@link DoubleArrayList} against searching an {@link ArrayList} edited alike from its
+ * start. Coordinates are few and hashed to fewer values, so that tuples share coordinates and hashes, and edits at the
+ * front move tuples far from where they were indexed. Also that the bindings of shortcuts hash shortcuts lacking a
+ * part. Run headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin model.independent.DoubleArrayListTest [seed] [operations]</code><br><br>
+ *
+ * It exits with status 1 if a lookup differs.
+ */
+public class DoubleArrayListTest {
+
+	/** The coordinates used, from zero up. */
+	private static final int KEYS = 60;
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 	Optionally the seed of the random edits and their number.
+	 */
+	public static void main(String[] args) {
+
+		long seed 		= args.length > 0 ? Long.parseLong(args[0]) : 1;
+		int operations 	= args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+
+		lookups(new Random(seed), operations);
+
+		shortcuts();
+
+		System.out.println(failures == 0 ? "DoubleArrayListTest passed." : "DoubleArrayListTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** Random edits, each followed by lookups of random coordinates. */
+	private static void lookups(Random random, int operations) {
+
+		DoubleArrayList<Integer, Integer> list = new DoubleArrayList<Integer, Integer>(k -> k % 7, k -> k % 5);
+		ArrayList<Tuple<Integer, Integer>> expected = new ArrayList<Tuple<Integer, Integer>>();
+
+		for (int op = 0; op < operations && failures == 0; op++) {
+
+			int size = expected.size(), at = random.nextInt(size + 1);
+
+			boolean shrink = size > 500 || (size > 0 && random.nextInt(4) == 0);
+
+			Integer s = random.nextInt(KEYS), t = random.nextInt(KEYS);
+
+			Tuple<Integer, Integer> tuple = new Tuple<Integer, Integer>(s, t);
+
+			switch (random.nextInt(10)) {
+
+				case 0: 																	// mostly at the front, shifting the rest
+				case 1:
+					if (shrink) check("removed " + at, list.remove(random.nextInt(Math.min(size, 4))) != null);
+					else list.add(random.nextInt(Math.min(size, 4) + 1), tuple);
+					break;
+
+				case 2:
+					if (shrink) list.remove(at % size); else list.add(at, tuple);
+					break;
+
+				case 3:
+					if (size > 0) list.set(at % size, tuple); else list.add(tuple);
+					break;
+
+				case 4:
+					expect("update by first " + s, list.updateByFirst(s, t), update(expected, first(expected, s), s, t));
+					break;
+
+				case 5:
+					expect("update by second " + t, list.updateBySecond(s, t), update(expected, second(expected, t), s, t));
+					break;
+
+				case 6:
+					int found = first(expected, s);
+
+					expect("remove by first " + s, list.removeByFirst(s), found >= 0 ? expected.remove(found) : null);
+					break;
+
+				case 7:
+					if (size > 0) list.remove(expected.get(at % size));
+					else list.addAll(List.of(tuple, new Tuple<Integer, Integer>(t, s)));
+					break;
+
+				case 8:
+					if (random.nextInt(50) == 0) list.sortByFirst();
+					else if (random.nextInt(50) == 0) list.sortBySecond();
+					else if (size > 10 && random.nextInt(20) == 0) list.subList(at / 2, at / 2 + 5).clear();
+					break;
+
+				case 9:
+					if (random.nextInt(5000) == 0) list.clear();
+					break;
+			}
+
+			expected.clear();
+			expected.addAll(list);
+
+			check("size after operation " + op, list.size() == expected.size());
+
+			for (int i = 0; i < 3; i++) {
+
+				Integer key = random.nextInt(KEYS);
+
+				int first = first(expected, key), second = second(expected, key);
+
+				expect("by first " + key + " after operation " + op, list.getByFirst(key), first >= 0 ? expected.get(first) : null);
+				expect("by second " + key + " after operation " + op, list.getBySecond(key), second >= 0 ? expected.get(second) : null);
+			}
+		}
+
+		ArrayList<Tuple<Integer, Integer>> sorted = new ArrayList<Tuple<Integer, Integer>>(expected);
+
+		sorted.sort(Comparator.comparing(Tuple::first));
+
+		list.sortByFirst();
+
+		check("sorted by first", list.equals(sorted));
+	}
+
+	/** Bindings of shortcuts, one of which lacks its modifiers. */
+	private static void shortcuts() {
+
+		DoubleArray<Formal, Shortcut> bindings = Toolbox.bindings();
+
+		Formal a = Primitive.makeValue('a'), b = Primitive.makeValue('b');
+
+		Shortcut partial = new Shortcut('A', 0);
+
+		partial.modifiers = null;
+
+		try {
+
+			bindings.add(new Tuple<Formal, Shortcut>(a, partial));
+			bindings.add(new Tuple<Formal, Shortcut>(b, new Shortcut('B', 0)));
+
+			check("bound without modifiers", bindings.getByFirst(a) != null && bindings.getByFirst(a).second() == partial);
+
+			check("bound by shortcut", bindings.getBySecond(new Shortcut('B', 0)).first() == b);
+
+		} catch (NullPointerException npe) { check("shortcut without modifiers hashed", false); }
+	}
+
+
+	/** Sets a tuple where one was found, as the list updates. */
+	private static Tuple<Integer, Integer> update(List<Tuple<Integer, Integer>> expected, int found, Integer s, Integer t) {
+
+		if (found < 0) return null;
+
+		Tuple<Integer, Integer> tuple = new Tuple<Integer, Integer>(s, t);
+
+		expected.set(found, tuple);
+
+		return tuple;
+	}
+
+	private static int first(List<Tuple<Integer, Integer>> tuples, Integer key) {
+
+		for (int i = 0; i < tuples.size(); i++) if (tuples.get(i).first().equals(key)) return i;
+
+		return -1;
+	}
+
+	private static int second(List<Tuple<Integer, Integer>> tuples, Integer key) {
+
+		for (int i = 0; i < tuples.size(); i++) if (tuples.get(i).second().equals(key)) return i;
+
+		return -1;
+	}
+
+	private static void expect(String what, Tuple<Integer, Integer> got, Tuple<Integer, Integer> expected) {
+		check(what + ", got " + got + " for " + expected, Objects.equals(got, expected));
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}
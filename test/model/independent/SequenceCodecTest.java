@@ -0,0 +1,195 @@
+package model.independent;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+import model.description.DPrimitive;
+import model.description.DStatement;
+import model.description.abstraction.Described;
+import model.logic.FormalSequence;
+import model.logic.Implication.ImplicationType;
+
+/**
+ * Checks that sequences written by a {@link SequenceEncoder} are read back as written by a {@link SequenceDecoder},
+ * through streams and straight from arrays alike, for random codepoints of every length the format takes, and that
+ * malformed sequences are refused. Also that the sequence of a statement is the one it stores. Run headless from the
+ * project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin model.independent.SequenceCodecTest [seed] [sequences]</code><br><br>
+ *
+ * It exits with status 1 if a sequence reads back otherwise.
+ */
+public class SequenceCodecTest {
+
+	/** Codepoints at the edges of the lengths of their encoding, and those of composites. */
+	private static final int[] EDGES = { 0, 0x3F, 0x40, 0x1FFF, 0x2000, 0xFFFF, 0x10FFFF, Integer.MAX_VALUE - 10000, Integer.MAX_VALUE, -1, Integer.MIN_VALUE };
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 				Optionally the seed of the random sequences and their number.
+	 * @throws IOException 		Never, the streams are arrays.
+	 */
+	public static void main(String[] args) throws IOException {
+
+		long seed 		= args.length > 0 ? Long.parseLong(args[0]) : 1;
+		int sequences 	= args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+		Random random = new Random(seed);
+
+		for (int i = 0; i < sequences && failures == 0; i++) roundTrip(random, i);
+
+		lengths();
+
+		malformed();
+
+		statement();
+
+		System.out.println(failures == 0 ? "SequenceCodecTest passed." : "SequenceCodecTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** A random sequence written and read both ways. */
+	private static void roundTrip(Random random, int round) throws IOException {
+
+		int n = random.nextInt(round % 100 == 0 ? 2000 : 40), implication = random.nextInt(16);
+
+		int[] codepoints = new int[n];
+		boolean[] composites = new boolean[n];
+
+		for (int i = 0; i < n; i++) {
+
+			switch (random.nextInt(4)) {
+				case 0: 	codepoints[i] = EDGES[random.nextInt(EDGES.length)]; break;
+				case 1: 	codepoints[i] = random.nextInt(); break;
+				default: 	codepoints[i] = random.nextInt(0x10000); break;
+			}
+
+			composites[i] = random.nextInt(5) == 0;
+		}
+
+		byte[] encoded = SequenceEncoder.encode(implication, codepoints, composites);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		SequenceEncoder encoder = new SequenceEncoder(out);
+
+		encoder.writeHeader(implication);
+
+		for (int i = 0; i < n; i++)
+			if (composites[i]) encoder.writeComposite(codepoints[i]); else encoder.writePrimitive(codepoints[i]);
+
+		check("streamed as encoded in round " + round, Arrays.equals(out.toByteArray(), encoded));
+
+		read("read from array in round " + round, new SequenceDecoder(encoded), implication, codepoints, composites);
+		read("read from stream in round " + round, new SequenceDecoder(new ByteArrayInputStream(encoded)), implication, codepoints, composites);
+
+		if (implication <= 3) {
+
+			FormalSequence sequence = FormalSequence.decode(encoded);
+
+			check("formal sequence in round " + round, sequence.equals(FormalSequence.of(implication, codepoints, composites)));
+			check("formal sequence encoded in round " + round, Arrays.equals(sequence.encode(), encoded));
+		}
+	}
+
+	private static void read(String what, SequenceDecoder decoder, int implication, int[] codepoints, boolean[] composites) throws IOException {
+
+		check(what + ", version", decoder.version() == SequenceEncoder.VERSION);
+		check(what + ", implication", decoder.implication() == implication);
+
+		int n = 0;
+
+		while (decoder.next()) {
+
+			if (n == codepoints.length || decoder.codepoint() != codepoints[n] || decoder.isComposite() != composites[n]) {
+				check(what + ", formal " + n, false);
+				return;
+			}
+
+			n++;
+		}
+
+		check(what + ", " + n + " formals of " + codepoints.length, n == codepoints.length);
+	}
+
+	/** The bytes taken per formal, as documented. */
+	private static void lengths() {
+
+		check("header alone", SequenceEncoder.encode(SequenceEncoder.NONE, new int[0], new boolean[0]).length == 1);
+
+		check("digits in a byte", length('7', false) == 1);
+		check("letters in two bytes", length('a', false) == 2);
+		check("greek in two bytes", length(0x03A3, false) == 2);
+		check("basic plane in at most three bytes", length(0xFFFF, false) == 3);
+		check("composite in five bytes", length(Integer.MAX_VALUE - 10000, true) == 5);
+	}
+
+	private static int length(int codepoint, boolean composite) {
+		return SequenceEncoder.encode(SequenceEncoder.NONE, new int[] { codepoint }, new boolean[] { composite }).length - 1;
+	}
+
+	/** Sequences that can't be read, and writes that can't be made. */
+	private static void malformed() {
+
+		check("empty refused", throwsOn(() -> new SequenceDecoder(new byte[0]), EOFException.class));
+		check("empty stream refused", throwsOn(() -> new SequenceDecoder(new ByteArrayInputStream(new byte[0])), EOFException.class));
+		check("unknown version refused", throwsOn(() -> new SequenceDecoder(new byte[] { (byte) 0xF0 }), IOException.class));
+
+		byte[] truncated = SequenceEncoder.encode(SequenceEncoder.NONE, new int[] { Integer.MAX_VALUE }, new boolean[] { true });
+
+		check("truncated refused", throwsOn(() -> { SequenceDecoder d = new SequenceDecoder(Arrays.copyOf(truncated, truncated.length - 1)); d.next(); }, EOFException.class));
+		check("overlong refused", throwsOn(() -> { SequenceDecoder d = new SequenceDecoder(new byte[] { 0x10, -1, -1, -1, -1, -1, -1, 1 }); d.next(); }, IOException.class));
+
+		check("implication out of range refused", throwsOn(() -> SequenceEncoder.encode(16, new int[0], new boolean[0]), IllegalArgumentException.class));
+		check("formal before header refused", throwsOn(() -> new SequenceEncoder(new ByteArrayOutputStream()).writePrimitive('a'), IllegalStateException.class));
+	}
+
+	/** A closed statement's stored sequence, its implication in the header rather than a formal. */
+	private static void statement() throws IOException {
+
+		ArrayList<Described> formals = new ArrayList<Described>();
+
+		for (char c : "x+y=z".toCharArray()) formals.add(new DPrimitive(c));
+
+		DStatement statement = new DStatement(formals, ImplicationType.RIGHT);
+
+		FormalSequence sequence = FormalSequence.decode(statement.formalsBytes());
+
+		check("statement's implication in the header", sequence.isClosed() && sequence.implication() == statement.implicationID());
+		check("statement's formals stored", Arrays.equals(sequence.codepoints(), "x+y=z".codePoints().toArray()));
+		check("statement's sequence", sequence.equals(FormalSequence.of(statement)));
+	}
+
+
+	private static boolean throwsOn(Action action, Class<? extends Exception> expected) {
+
+		try { action.run(); return false; }
+
+		catch (Exception e) { return expected.isInstance(e); }
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+
+	/** Something expected to throw. */
+	private interface Action {
+		void run() throws Exception;
+	}
+}
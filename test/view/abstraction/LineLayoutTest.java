@@ -0,0 +1,183 @@
+package view.abstraction;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.description.DPrimitive;
+import model.description.DStatement;
+import model.description.abstraction.Described;
+
+/**
+ * Checks a {@link LineLayout} used without a canvas: statements edited at random and laid out anew, by whole rows, from
+ * where they were altered or not at all, are placed where laying out every formal from the start places them. Also
+ * that statements not altered, nor moved, are told to be as they were. Run headless from the project directory:<br><br>
+ *
+ * <code>java -Djava.awt.headless=true -cp bin:test/bin view.abstraction.LineLayoutTest [seed] [rounds]</code><br><br>
+ *
+ * It exits with status 1 if a formal is placed otherwise.
+ */
+public class LineLayoutTest {
+
+	/** Symbols of different widths. */
+	private static final String SYMBOLS = "iIlmWM=+()xyz";
+
+	/** Where the first statement starts unless rows are added above, and the height of a row. */
+	private static final int X = 20, Y = 80, LEAD = 90;
+
+	private static int failures = 0;
+
+
+	/**
+	 * Runs the test.
+	 *
+	 * @param args 	Optionally the seed of the random edits and the number of rounds of edits.
+	 */
+	public static void main(String[] args) {
+
+		long seed 	= args.length > 0 ? Long.parseLong(args[0]) : 1;
+		int rounds 	= args.length > 1 ? Integer.parseInt(args[1]) : 3000;
+
+		Random random = new Random(seed);
+
+		ArrayList<DStatement> statements = new ArrayList<DStatement>();
+
+		for (int i = 0; i < 30; i++) {
+
+			DStatement statement = new DStatement();
+
+			for (int n = 1 + random.nextInt(25); n > 0; n--) statement.add(formal(random));
+
+			statements.add(statement);
+		}
+
+		int right = 1200, top = Y;
+
+		LineLayout layout = new LineLayout(right, LEAD);
+
+		layOut(layout, right, top, statements, -1, "first layout");
+
+		check("laid out at first", layout.laid() == statements.size());
+
+		for (int round = 0; round < rounds && failures == 0; round++) {
+
+			int edited = random.nextInt(statements.size());
+
+			switch (random.nextInt(10)) {
+
+				case 0: 																	// a narrower or wider page
+					layout.setMeasure(right = 600 + random.nextInt(1200), LEAD);
+					edited = -1;
+					break;
+
+				case 1:
+					layout.forget(statements.get(edited));
+					break;
+
+				case 2:
+					edited = -1;															// nothing altered
+					break;
+
+				case 3: 																	// rows added or taken above
+					top = Y + LEAD * random.nextInt(3);
+					edited = -1;
+					break;
+
+				default:
+					edit(random, statements.get(edited));
+			}
+
+			layOut(layout, right, top, statements, edited, "round " + round);
+		}
+
+		check("moved by whole rows", layout.moved() > 0);
+		check("resumed from alterations", layout.resumed() > 0);
+		check("kept as they were", layout.kept() > 0);
+
+		System.out.println(failures == 0 ? "LineLayoutTest passed." : "LineLayoutTest failed " + failures + " checks.");
+
+		System.exit(failures == 0 ? 0 : 1);
+	}
+
+
+	/** Some edits of a statement, as an editor makes them, marking it altered. */
+	private static void edit(Random random, DStatement statement) {
+
+		for (int edits = 1 + random.nextInt(3); edits > 0; edits--) {
+
+			int size = statement.size(), at = random.nextInt(size + 1);
+
+			switch (random.nextInt(4)) {
+
+				case 0:
+					if (size > 1) statement.remove(at % size); else statement.add(at, formal(random));
+					break;
+
+				case 1: 																	// typed on
+					for (int i = random.nextInt(4); i >= 0; i--) statement.add(at, formal(random));
+					break;
+
+				case 2:
+					statement.set(at % size, formal(random));
+					break;
+
+				case 3: 																	// deleted backwards
+					for (int i = Math.min(at, size - 1); i > 0 && i > at - 3; i--) statement.remove(i);
+					break;
+			}
+		}
+
+		statement.markDirty();
+	}
+
+	/**
+	 * Lays out all statements in order from a top row, checking that the statements before the one edited are as they
+	 * were, and then that every formal is where laying out from the start, on rows ending at the right given, places it.
+	 */
+	private static void layOut(LineLayout layout, int right, int top, List<DStatement> statements, int edited, String what) {
+
+		Point at = new Point(X, top);
+
+		for (int i = 0; i < statements.size(); i++) {
+
+			boolean moved = layout.layOut(statements.get(i), at);
+
+			if (edited >= 0 && i < edited) check(what + ", statement " + i + " before the edit kept", !moved);
+		}
+
+		int x = X, y = top, n = 0;
+
+		for (DStatement statement : statements)
+			for (Described formal : statement) {
+
+				Point placed = formal.getGlobalReference();
+
+				if (placed.x != x || placed.y != y) {
+					check(what + ", formal " + n + " at " + placed.x + "," + placed.y + " for " + x + "," + y, false);
+					return;
+				}
+
+				int advance = formal.description().width;
+
+				if (x + advance > right) { x = 0; y += LEAD; } else x += advance;
+
+				n++;
+			}
+
+		check(what + ", next statement's start", at.x == x && at.y == y);
+	}
+
+	private static Described formal(Random random) {
+		return new DPrimitive(SYMBOLS.charAt(random.nextInt(SYMBOLS.length())));
+	}
+
+	private static void check(String what, boolean ok) {
+
+		if (ok) return;
+
+		failures++;
+
+		System.out.println("Failed: " + what);
+	}
+}